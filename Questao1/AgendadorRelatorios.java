@@ -0,0 +1,264 @@
+package Questao1;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Executa vários relatórios ao mesmo tempo num pool de tamanho fixo. Cada tarefa pode depender de
+// outras (o semanal de uma unidade só começa quando os diários dela terminaram) e de uma fonte de
+// dados com limite de acessos simultâneos no preparar(). A coleta repetida entre relatórios é
+// evitada pelo cache do ContextoRelatorios; aqui ficam a ordem, a concorrência e os tempos.
+class AgendadorRelatorios implements AutoCloseable {
+
+    enum Estado { OK, FALHOU, CANCELADO }
+
+    // Resultado e tempos de uma tarefa: espera (na fila e pelo limite da fonte), preparar() e gerar().
+    // Imutável: é o retrato tirado pelo executar() quando a tarefa terminou ou quando o prazo estourou
+    static final class Execucao {
+        final String id;
+        final Estado estado;
+        final long esperaNanos, prepararNanos, gerarNanos;
+        final Throwable erro;
+
+        Execucao(String id, Estado estado, long esperaNanos, long prepararNanos, long gerarNanos, Throwable erro) {
+            this.id = id;
+            this.estado = estado;
+            this.esperaNanos = esperaNanos;
+            this.prepararNanos = prepararNanos;
+            this.gerarNanos = gerarNanos;
+            this.erro = erro;
+        }
+
+        long execucaoNanos() { return prepararNanos + gerarNanos; }
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %-9s espera %7.1f ms | preparar %7.1f ms | gerar %7.1f ms%s", id, estado,
+                    esperaNanos / 1e6, prepararNanos / 1e6, gerarNanos / 1e6, erro != null ? " | " + erro : "");
+        }
+    }
+
+    // Estado de uma tarefa durante o executar(), escrito pela thread do pool e lido pelo coordenador
+    private static final class Andamento {
+        volatile Estado estado;
+        volatile long esperaNanos, prepararNanos, gerarNanos;
+        volatile Throwable erro;
+
+        Execucao retrato(String id, Estado estado, Throwable erro) {
+            return new Execucao(id, estado, esperaNanos, prepararNanos, gerarNanos, erro);
+        }
+    }
+
+    private static final class Tarefa {
+        final String id, fonte;
+        final Supplier<Relatorio> criador;
+        final String[] dependencias;
+        final List<Tarefa> dependentes = new ArrayList<>();
+        int pendentes; // dependências ainda não concluídas
+        long prontaEm; // nanoTime em que foi enviada ao pool
+
+        Tarefa(String id, String fonte, Supplier<Relatorio> criador, String[] dependencias) {
+            this.id = id;
+            this.fonte = fonte;
+            this.criador = criador;
+            this.dependencias = dependencias;
+        }
+    }
+
+    private final ExecutorService pool;
+    private final Map<String, Tarefa> tarefas = new LinkedHashMap<>();
+    private final Map<String, Semaphore> limites = new ConcurrentHashMap<>();
+
+    AgendadorRelatorios(int threads) {
+        pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "relatorios");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // No máximo "maxSimultaneos" relatórios preparando ao mesmo tempo com dados dessa fonte
+    AgendadorRelatorios limitarFonte(String fonte, int maxSimultaneos) {
+        limites.put(fonte, new Semaphore(maxSimultaneos, true));
+        return this;
+    }
+
+    // O criador costuma ser um CriadorRelatorio: adicionar("diario", "vendas", criador::criarRelatorio)
+    AgendadorRelatorios adicionar(String id, String fonte, Supplier<Relatorio> criador, String... dependencias) {
+        if (tarefas.putIfAbsent(id, new Tarefa(id, fonte, criador, dependencias)) != null) {
+            throw new IllegalArgumentException("Tarefa repetida: " + id);
+        }
+        return this;
+    }
+
+    // Roda todas as tarefas adicionadas respeitando as dependências e devolve o resultado de cada uma
+    // na ordem em que foram adicionadas (mapa imutável). Uma falha cancela as tarefas que dependem
+    // dela; estourar o prazo interrompe o que ainda está rodando e cancela o que não terminou.
+    Map<String, Execucao> executar(long prazo, TimeUnit unidade) throws InterruptedException {
+        Map<String, Andamento> andamentos = new LinkedHashMap<>();
+        for (Tarefa t : tarefas.values()) {
+            t.dependentes.clear();
+            t.pendentes = t.dependencias.length;
+            andamentos.put(t.id, new Andamento());
+        }
+        for (Tarefa t : tarefas.values()) {
+            for (String d : t.dependencias) {
+                Tarefa dep = tarefas.get(d);
+                if (dep == null) throw new IllegalArgumentException(t.id + " depende de tarefa inexistente: " + d);
+                dep.dependentes.add(t);
+            }
+        }
+        verificarCiclos();
+
+        CompletionService<Tarefa> concluidas = new ExecutorCompletionService<>(pool);
+        Map<Tarefa, Future<Tarefa>> emVoo = new LinkedHashMap<>();
+        Map<String, Execucao> retratos = new LinkedHashMap<>();
+        for (Tarefa t : tarefas.values()) {
+            if (t.pendentes == 0) emVoo.put(t, enviar(concluidas, t, andamentos.get(t.id)));
+        }
+        long limite = System.nanoTime() + unidade.toNanos(prazo);
+        TimeoutException estouro = null;
+        try {
+            while (!emVoo.isEmpty()) {
+                var f = concluidas.poll(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (f == null) throw new TimeoutException();
+                Tarefa t = f.get(); // a tarefa registra a própria falha no Andamento e nunca lança
+                emVoo.remove(t);
+                Andamento a = andamentos.get(t.id);
+                retratos.put(t.id, a.retrato(t.id, a.estado, a.erro));
+                if (a.estado != Estado.OK) {
+                    cancelarDependentes(t, andamentos);
+                    continue;
+                }
+                for (Tarefa d : t.dependentes) {
+                    if (--d.pendentes == 0 && andamentos.get(d.id).estado == null) {
+                        emVoo.put(d, enviar(concluidas, d, andamentos.get(d.id)));
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // Interrompe o que ainda roda; o retrato é tirado agora, então o que essas tarefas
+            // escreverem depois não aparece no resultado
+            for (Future<Tarefa> f : emVoo.values()) f.cancel(true);
+            estouro = new TimeoutException("prazo de " + prazo + " " + unidade + " estourado");
+            for (Tarefa t : emVoo.keySet()) {
+                retratos.put(t.id, andamentos.get(t.id).retrato(t.id, Estado.CANCELADO, estouro));
+            }
+        }
+        Map<String, Execucao> saida = new LinkedHashMap<>();
+        for (Map.Entry<String, Andamento> e : andamentos.entrySet()) {
+            Execucao x = retratos.get(e.getKey());
+            if (x == null) { // não chegou a rodar: dependência falhou ou o prazo estourou antes
+                Andamento a = e.getValue();
+                x = a.estado == Estado.CANCELADO ? a.retrato(e.getKey(), a.estado, a.erro)
+                        : a.retrato(e.getKey(), Estado.CANCELADO, estouro);
+            }
+            saida.put(e.getKey(), x);
+        }
+        return Collections.unmodifiableMap(saida);
+    }
+
+    private Future<Tarefa> enviar(CompletionService<Tarefa> concluidas, Tarefa t, Andamento x) {
+        t.prontaEm = System.nanoTime();
+        return concluidas.submit(() -> {
+            Semaphore limite = t.fonte != null ? limites.get(t.fonte) : null;
+            try {
+                Relatorio r = t.criador.get();
+                long t0;
+                if (limite != null) limite.acquire();
+                try {
+                    t0 = System.nanoTime();
+                    x.esperaNanos = t0 - t.prontaEm;
+                    r.preparar();
+                } finally {
+                    if (limite != null) limite.release();
+                }
+                long t1 = System.nanoTime();
+                x.prepararNanos = t1 - t0;
+                r.gerar();
+                x.gerarNanos = System.nanoTime() - t1;
+                x.estado = Estado.OK;
+            } catch (Exception | Error e) {
+                x.erro = e;
+                x.estado = Estado.FALHOU;
+            }
+            return t;
+        });
+    }
+
+    private static void cancelarDependentes(Tarefa t, Map<String, Andamento> andamentos) {
+        Deque<Tarefa> fila = new ArrayDeque<>(t.dependentes);
+        while (!fila.isEmpty()) {
+            Tarefa d = fila.poll();
+            Andamento x = andamentos.get(d.id);
+            if (x.estado != null) continue;
+            x.estado = Estado.CANCELADO;
+            x.erro = new IllegalStateException("dependência não concluída: " + t.id);
+            fila.addAll(d.dependentes);
+        }
+    }
+
+    // Kahn sobre uma cópia dos contadores: se sobrar tarefa, há ciclo
+    private void verificarCiclos() {
+        Map<Tarefa, Integer> pendentes = new LinkedHashMap<>();
+        Deque<Tarefa> prontas = new ArrayDeque<>();
+        for (Tarefa t : tarefas.values()) {
+            pendentes.put(t, t.pendentes);
+            if (t.pendentes == 0) prontas.add(t);
+        }
+        int visitadas = 0;
+        while (!prontas.isEmpty()) {
+            Tarefa t = prontas.poll();
+            visitadas++;
+            for (Tarefa d : t.dependentes) {
+                if (pendentes.merge(d, -1, Integer::sum) == 0) prontas.add(d);
+            }
+        }
+        if (visitadas < tarefas.size()) {
+            List<String> ciclo = new ArrayList<>();
+            pendentes.forEach((t, n) -> { if (n > 0) ciclo.add(t.id); });
+            throw new IllegalArgumentException("Dependências em ciclo entre: " + ciclo);
+        }
+    }
+
+    // Resumo: contagem por estado, soma dos tempos (o que levaria em série) e as tarefas mais lentas
+    static String resumo(Map<String, Execucao> resultado, long decorridoNanos, int maisLentas) {
+        Map<Estado, Integer> porEstado = new LinkedHashMap<>();
+        long serie = 0;
+        for (Execucao x : resultado.values()) {
+            porEstado.merge(x.estado, 1, Integer::sum);
+            serie += x.execucaoNanos();
+        }
+        StringBuilder sb = new StringBuilder(String.format(
+                "%d tarefas %s em %.1f ms (soma de preparar+gerar: %.1f ms)%n",
+                resultado.size(), porEstado, decorridoNanos / 1e6, serie / 1e6));
+        resultado.values().stream()
+                .sorted(Comparator.comparingLong(Execucao::execucaoNanos).reversed())
+                .limit(maisLentas)
+                .forEach(x -> sb.append("  ").append(x).append(System.lineSeparator()));
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,28 @@
+package Questao1;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Métricas de um período (um dia ou a combinação de vários): total, por unidade e por hora do dia.
+// É o resultado das consultas ao CuboMetricas.
+class Agregado {
+    final LocalDate inicio, fim;
+    final ResumoMetricas total = new ResumoMetricas();
+    final Map<String, ResumoMetricas> porUnidade = new TreeMap<>();
+    final ResumoMetricas[] porHora = new ResumoMetricas[24];
+
+    Agregado(LocalDate inicio, LocalDate fim) {
+        this.inicio = inicio;
+        this.fim = fim;
+        for (int h = 0; h < 24; h++) porHora[h] = new ResumoMetricas();
+    }
+
+    void combinar(Agregado outro) {
+        total.combinar(outro.total);
+        for (Map.Entry<String, ResumoMetricas> e : outro.porUnidade.entrySet()) {
+            porUnidade.computeIfAbsent(e.getKey(), k -> new ResumoMetricas()).combinar(e.getValue());
+        }
+        for (int h = 0; h < 24; h++) porHora[h].combinar(outro.porHora[h]);
+    }
+}
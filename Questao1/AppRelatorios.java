@@ -1,67 +1,9 @@
 package Questao1;
 
-import java.util.*;
-
-interface Relatorio {
-    void preparar();
-    void gerar();
-}
-
-class RelatorioDiario implements Relatorio {
-
-    @Override
-    public void preparar() {
-        System.out.println("[Relatório Diário] Selecionando dados do último dia...");
-        System.out.println("[Relatório Diário] Calculando métricas de desempenho diário...");
-    }
-
-    @Override
-    public void gerar() {
-        System.out.println("[Relatório Diário] Gerando PDF com tabelas e gráficos simples.\n");
-    }
-}
-
-class RelatorioSemanal implements Relatorio {
-
-    @Override
-    public void preparar() {
-        System.out.println("[Relatório Semanal] Coletando dados dos últimos 7 dias...");
-        System.out.println("[Relatório Semanal] Priorizando métricas semanais...");
-    }
-
-    @Override
-    public void gerar() {
-        System.out.println("[Relatório Semanal] Gerando relatório em formato XLS com gráficos comparativos.\n");
-    }
-}
-
-abstract class CriadorRelatorio {
-
-    // O Factory Method
-    public abstract Relatorio criarRelatorio();
-
-    // Processo geral — permanece imutável, respeitando SRP e Open/Closed
-    public void gerarRelatorio() {
-        Relatorio relatorio = criarRelatorio(); // delega para subclasses
-        relatorio.preparar();
-        relatorio.gerar();
-    }
-}
-
-class CriadorRelatorioDiario extends CriadorRelatorio {
-    @Override
-    public Relatorio criarRelatorio() {
-        return new RelatorioDiario();
-    }
-}
-
-class CriadorRelatorioSemanal extends CriadorRelatorio {
-    @Override
-    public Relatorio criarRelatorio() {
-        return new RelatorioSemanal();
-    }
-}
-
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class AppRelatorios {
 
@@ -69,13 +11,49 @@ public class AppRelatorios {
 
         System.out.println("=== Sistema Gerador de Relatórios ===\n");
 
+        // Os tipos vêm do índice gerado na compilação (@TipoRelatorio); cada criador só é
+        // instanciado quando o tipo é pedido pela primeira vez
+        RegistroRelatorios registro = RegistroRelatorios.padrao();
+
         // Criador de relatório diário
-        CriadorRelatorio criadorDiario = new CriadorRelatorioDiario();
-        criadorDiario.gerarRelatorio();
+        registro.gerar("diario");
 
         // Criador de relatório semanal
-        CriadorRelatorio criadorSemanal = new CriadorRelatorioSemanal();
-        criadorSemanal.gerarRelatorio();
+        registro.gerar("semanal");
+
+        // Na segunda vez os sete dias já estão agregados: nenhum dado bruto é relido (e o relatório
+        // anterior é reaproveitado do pool)
+        registro.gerar("semanal");
+        System.out.println(registro + "\n");
+
+        // Vários relatórios em paralelo: um diário por unidade para cada dia da semana anterior e o
+        // semanal de cada unidade depois dos diários dela. Cada dia é coletado uma vez só, mesmo
+        // com várias unidades pedindo ao mesmo tempo
+        System.out.println("=== Agendador: relatórios por unidade em paralelo ===");
+        ContextoRelatorios padrao = ContextoRelatorios.padrao();
+        ContextoRelatorios ctx = new ContextoRelatorios(padrao.fontes, new CuboMetricas(), padrao.saida,
+                padrao.hoje(), padrao.tamanhoLote);
+        ctx.verboso = false;
+        LocalDate fim = ctx.hoje().minusDays(8);
+        try (AgendadorRelatorios agendador = new AgendadorRelatorios(4).limitarFonte(ctx.fontes.nome(), 2)) {
+            for (String unidade : Arrays.copyOf(FonteSintetica.UNIDADES, 4)) {
+                String[] diarios = new String[7];
+                for (int i = 0; i < 7; i++) {
+                    LocalDate dia = fim.minusDays(6 - i);
+                    diarios[i] = "diario " + unidade + " " + dia;
+                    agendador.adicionar(diarios[i], ctx.fontes.nome(),
+                            new CriadorRelatorioDiario(ctx, dia, unidade)::criarRelatorio);
+                }
+                agendador.adicionar("semanal " + unidade, ctx.fontes.nome(),
+                        new CriadorRelatorioSemanal(ctx, fim, unidade)::criarRelatorio, diarios);
+            }
+            long t0 = System.nanoTime();
+            Map<String, AgendadorRelatorios.Execucao> resultado = agendador.executar(5, TimeUnit.MINUTES);
+            System.out.print(AgendadorRelatorios.resumo(resultado, System.nanoTime() - t0, 3));
+            System.out.println("Coletas: " + ctx.coletas + "\n");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
 
         System.out.println("Novos tipos de relatórios podem ser adicionados sem alterar o núcleo!");
     }
@@ -0,0 +1,85 @@
+package Questao1;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+// Consultas de períodos ao CuboMetricas usando os pré-agregados de semana e mês x combinando um
+// agregado por dia (o que o semanal fazia antes) x relendo as linhas brutas. Também mede o custo de
+// carregar os dias e o de reabrir o cubo do disco no lugar de reprocessar tudo.
+// Uso: java Questao1.BenchCubo [dias] [linhasPorDia]
+public class BenchCubo {
+
+    public static void main(String[] args) throws Exception {
+        int nDias = args.length > 0 ? Integer.parseInt(args[0]) : 120;
+        int linhasPorDia = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        FonteDados.Provedor fontes = FonteSintetica.provedor(linhasPorDia);
+        LocalDate primeiro = LocalDate.of(2024, 1, 1), ultimo = primeiro.plusDays(nDias - 1);
+        Path arquivo = Files.createTempDirectory("cubo").resolve("cubo.bin");
+        int consultas = 2_000;
+        LocalDate[][] periodos = {
+            { ultimo, ultimo },
+            { LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 14) }, // semana inteira
+            { ultimo.minusDays(6), ultimo },                         // 7 dias quaisquer
+            { LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29) }, // mês inteiro
+            { primeiro, ultimo },
+        };
+        System.out.printf("=== Cubo de métricas: %d dias, %,d linhas por dia ===%n", nDias, linhasPorDia);
+
+        for (int rodada = 0; rodada < 2; rodada++) { // primeira rodada aquece o JIT
+            boolean imprimir = rodada == 1;
+            Files.deleteIfExists(arquivo);
+
+            long t0 = System.nanoTime();
+            CuboMetricas cubo = new CuboMetricas(arquivo);
+            for (LocalDate d = primeiro; !d.isAfter(ultimo); d = d.plusDays(1)) {
+                try (FonteDados f = fontes.abrir(d)) {
+                    cubo.carregarDia(d, f, 8192);
+                }
+            }
+            long tCarga = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            CuboMetricas reaberto = new CuboMetricas(arquivo);
+            long tReabrir = System.nanoTime() - t0;
+            if (imprimir) {
+                System.out.printf("Carregar do zero : %8.1f ms (%.1f ms/dia)%n", tCarga / 1e6, tCarga / 1e6 / nDias);
+                System.out.printf("Reabrir do disco : %8.1f ms | %s%n", tReabrir / 1e6, reaberto);
+            }
+
+            for (LocalDate[] p : periodos) {
+                long dias = p[1].toEpochDay() - p[0].toEpochDay() + 1;
+                double soma = 0;
+                t0 = System.nanoTime();
+                for (int c = 0; c < consultas; c++) soma += cubo.agregado(p[0], p[1]).total.soma();
+                long tCubo = System.nanoTime() - t0;
+
+                t0 = System.nanoTime();
+                for (int c = 0; c < consultas / 10; c++) {
+                    Agregado a = new Agregado(p[0], p[1]);
+                    for (LocalDate d = p[0]; !d.isAfter(p[1]); d = d.plusDays(1)) a.combinar(cubo.agregado(d, d));
+                    soma += a.total.soma();
+                }
+                long tDias = (System.nanoTime() - t0) * 10;
+
+                t0 = System.nanoTime();
+                LoteDados lote = new LoteDados(8192);
+                ResumoMetricas bruto = new ResumoMetricas();
+                for (LocalDate d = p[0]; !d.isAfter(p[1]); d = d.plusDays(1)) {
+                    try (FonteDados f = fontes.abrir(d)) {
+                        while (f.lerLote(lote)) {
+                            for (int i = 0; i < lote.tamanho; i++) bruto.acumular(lote.valores[i]);
+                        }
+                    }
+                }
+                long tBruto = System.nanoTime() - t0;
+
+                if (imprimir) {
+                    System.out.printf("%s..%s (%3d dias): cubo %7.1f µs | dia a dia %8.1f µs | linhas brutas %8.1f ms"
+                            + " (mesma soma: %b)%n", p[0], p[1], dias, tCubo / 1e3 / consultas, tDias / 1e3 / consultas,
+                            tBruto / 1e6, Math.abs(bruto.soma() - cubo.agregado(p[0], p[1]).total.soma()) < 1e-3 * dias);
+                }
+                if (soma == 42) System.out.println(); // mantém o resultado vivo
+            }
+        }
+    }
+}
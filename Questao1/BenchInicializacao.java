@@ -0,0 +1,32 @@
+package Questao1;
+
+import java.lang.management.ManagementFactory;
+
+// Inicialização de um processo curto que gera um relatório e sai (o caso dos contêineres de lote):
+// criador escrito à mão no código x pedido pelo nome ao RegistroRelatorios. Mede o tempo até o
+// registro estar pronto e até o primeiro relatório terminar, a partir do início do main. O tempo
+// total do processo (com e sem o arquivo AppCDS) é medido de fora pelo cds.sh.
+// Uso: java Questao1.BenchInicializacao [manual|registro] [tipo]
+public class BenchInicializacao {
+
+    public static void main(String[] args) {
+        long t0 = System.nanoTime();
+        String modo = args.length > 0 ? args[0] : "registro";
+        String tipo = args.length > 1 ? args[1] : "diario";
+        long tRegistro = 0;
+        if (modo.equals("manual")) {
+            CriadorRelatorio criador = tipo.equals("semanal") ? new CriadorRelatorioSemanal() : new CriadorRelatorioDiario();
+            criador.gerarRelatorio();
+        } else {
+            RegistroRelatorios registro = RegistroRelatorios.padrao();
+            tRegistro = System.nanoTime() - t0;
+            registro.gerar(tipo);
+        }
+        long tPrimeiro = System.nanoTime() - t0;
+        // depois da medição: o JMX carrega classes próprias
+        int classes = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+        long jvm = ManagementFactory.getRuntimeMXBean().getUptime();
+        System.out.printf("%-8s registro pronto %6.2f ms | primeiro relatório %7.1f ms | %d classes | JVM %d ms%n",
+                modo, tRegistro / 1e6, tPrimeiro / 1e6, classes, jvm);
+    }
+}
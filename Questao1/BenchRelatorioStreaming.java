@@ -0,0 +1,93 @@
+package Questao1;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Semanal "tudo em memória" (carrega as linhas dos 7 dias numa lista e depois calcula) x streaming
+// (lotes reaproveitados, agregadores combináveis, direto para o cubo de métricas) x semanal a
+// partir do que já está no cubo. Mede tempo e o heap ocupado pelos dados durante o cálculo.
+// Uso: java Questao1.BenchRelatorioStreaming [linhasPorDia]
+public class BenchRelatorioStreaming {
+
+    static final class Linha {
+        final long instante;
+        final String unidade;
+        final double valor;
+
+        Linha(long instante, String unidade, double valor) {
+            this.instante = instante;
+            this.unidade = unidade;
+            this.valor = valor;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int linhasPorDia = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        FonteDados.Provedor fontes = FonteSintetica.provedor(linhasPorDia);
+        LocalDate fim = LocalDate.of(2024, 5, 31);
+        MemoryMXBean mem = ManagementFactory.getMemoryMXBean();
+        System.out.printf("=== Relatório semanal: %,d linhas por dia (%,d na semana) ===%n", linhasPorDia, 7L * linhasPorDia);
+
+        for (int rodada = 0; rodada < 2; rodada++) { // primeira rodada aquece o JIT
+            boolean imprimir = rodada == 1;
+
+            // Tudo em memória: uma lista com as linhas da semana, depois as contas
+            System.gc();
+            long heap0 = mem.getHeapMemoryUsage().getUsed();
+            long t0 = System.nanoTime();
+            List<Linha> linhas = new ArrayList<>();
+            LoteDados lote = new LoteDados(8192);
+            for (LocalDate d = fim.minusDays(6); !d.isAfter(fim); d = d.plusDays(1)) {
+                try (FonteDados f = fontes.abrir(d)) {
+                    while (f.lerLote(lote)) {
+                        for (int i = 0; i < lote.tamanho; i++) {
+                            linhas.add(new Linha(lote.instantes[i], lote.unidades[i], lote.valores[i]));
+                        }
+                    }
+                }
+            }
+            long heapLista = mem.getHeapMemoryUsage().getUsed() - heap0;
+            Map<String, double[]> porUnidade = new HashMap<>();
+            double soma = 0;
+            for (Linha l : linhas) {
+                soma += l.valor;
+                porUnidade.computeIfAbsent(l.unidade, k -> new double[2])[0] += l.valor;
+            }
+            long tLista = System.nanoTime() - t0;
+            linhas = null;
+
+            // Streaming: cada dia agregado lote a lote no cubo, semana = consulta ao cubo
+            ContextoRelatorios ctx = new ContextoRelatorios(fontes, new CuboMetricas(), null, fim.plusDays(1), 8192);
+            System.gc();
+            heap0 = mem.getHeapMemoryUsage().getUsed();
+            t0 = System.nanoTime();
+            Agregado semana = semana(ctx, fim);
+            long tStreaming = System.nanoTime() - t0;
+            long heapStreaming = mem.getHeapMemoryUsage().getUsed() - heap0;
+
+            // Dias já no cubo (o que acontece depois dos relatórios diários)
+            t0 = System.nanoTime();
+            semana(ctx, fim);
+            long tReuso = System.nanoTime() - t0;
+
+            if (imprimir) {
+                System.out.printf("Tudo em memória      : %8.1f ms | heap dos dados ~%,6d KB (soma %.0f)%n",
+                        tLista / 1e6, heapLista / 1024, soma);
+                System.out.printf("Streaming em lotes   : %8.1f ms | heap dos dados ~%,6d KB%n",
+                        tStreaming / 1e6, Math.max(0, heapStreaming) / 1024);
+                System.out.printf("%-20s   mesma soma: %.0f%n", "", semana.total.soma());
+                System.out.printf("Consulta ao cubo     : %8.3f ms (nenhuma linha bruta relida)%n", tReuso / 1e6);
+            }
+        }
+    }
+
+    // O mesmo que o RelatorioSemanal.preparar faz para a semana
+    private static Agregado semana(ContextoRelatorios ctx, LocalDate fim) throws java.io.IOException {
+        return ctx.agregadoDoPeriodo(fim.minusDays(6), fim);
+    }
+}
@@ -0,0 +1,96 @@
+package Questao1;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cache por chave com validade (TTL) e uma única carga por chave: se vários relatórios pedem a mesma
+// coleta ao mesmo tempo, só o primeiro executa e os outros esperam o resultado dele. Falhas não
+// ficam no cache. Entradas vencidas são descartadas no acesso e numa varredura a cada VARRER_A_CADA pedidos.
+class CacheResultados<K, V> {
+
+    private static final class Entrada<V> {
+        final CompletableFuture<V> valor = new CompletableFuture<>();
+        volatile long expiraEm; // definido antes de a carga terminar
+
+        boolean vencida(long agora) { return valor.isDone() && agora - expiraEm > 0; }
+    }
+
+    private final ConcurrentHashMap<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder cargas = new LongAdder();
+    private final LongAdder esperas = new LongAdder(); // pedidos que esperaram uma carga em andamento
+    private final LongAdder pedidos = new LongAdder();
+    private static final int VARRER_A_CADA = 256;
+
+    CacheResultados(long ttlMillis) {
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    V obter(K chave, Callable<V> carregar) throws Exception {
+        pedidos.increment();
+        if (pedidos.sum() % VARRER_A_CADA == 0) removerExpirados();
+        while (true) {
+            Entrada<V> e = entradas.get(chave);
+            if (e != null && e.vencida(System.nanoTime())) { // venceu: tira e tenta de novo
+                entradas.remove(chave, e);
+                continue;
+            }
+            if (e == null) {
+                Entrada<V> nova = new Entrada<>();
+                e = entradas.putIfAbsent(chave, nova);
+                if (e == null) return carregar(chave, nova, carregar);
+            }
+            if (e.valor.isDone()) acertos.increment();
+            else esperas.increment();
+            try {
+                return e.valor.get();
+            } catch (ExecutionException ex) {
+                // a carga de outro pedido falhou (e já saiu do cache): tenta carregar de novo
+                continue;
+            }
+        }
+    }
+
+    private V carregar(K chave, Entrada<V> e, Callable<V> carregar) throws Exception {
+        cargas.increment();
+        try {
+            V v = carregar.call();
+            e.expiraEm = System.nanoTime() + ttlNanos;
+            e.valor.complete(v);
+            return v;
+        } catch (Exception | Error ex) {
+            entradas.remove(chave, e);
+            e.valor.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    void removerExpirados() {
+        long agora = System.nanoTime();
+        for (Iterator<Map.Entry<K, Entrada<V>>> it = entradas.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getValue().vencida(agora)) it.remove();
+        }
+    }
+
+    void invalidar(K chave) { entradas.remove(chave); }
+
+    int tamanho() { return entradas.size(); }
+
+    long acertos() { return acertos.sum(); }
+
+    long cargas() { return cargas.sum(); }
+
+    long esperas() { return esperas.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("cache: %d cargas, %d acertos, %d esperaram carga em andamento, %d entradas",
+                cargas(), acertos(), esperas(), tamanho());
+    }
+}
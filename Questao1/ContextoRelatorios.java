@@ -0,0 +1,88 @@
+package Questao1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+// O que os relatórios compartilham: de onde vêm os dados brutos, o cubo com as métricas já
+// agregadas, para onde vão os arquivos e qual é o "hoje" (o diário cobre o dia anterior e o
+// semanal os sete dias anteriores). Sem data fixa, hoje() é a data do relógio a cada consulta:
+// um processo que passa da meia-noite gera os relatórios do novo dia.
+class ContextoRelatorios {
+    final FonteDados.Provedor fontes;
+    final CuboMetricas cubo;
+    final Path saida;
+    private final LocalDate hojeFixo; // null = data do relógio
+    final int tamanhoLote;
+    // Coletas (carga de um dia no cubo) compartilhadas entre relatórios que rodam juntos: uma leitura
+    // da fonte por dia mesmo com vários relatórios pedindo ao mesmo tempo
+    final CacheResultados<String, Agregado> coletas;
+    volatile boolean verboso = true; // mensagens de andamento dos relatórios
+
+    private static ContextoRelatorios padrao;
+
+    ContextoRelatorios(FonteDados.Provedor fontes, CuboMetricas cubo, Path saida, LocalDate hoje,
+            int tamanhoLote) {
+        this(fontes, cubo, saida, hoje, tamanhoLote, 10 * 60_000L);
+    }
+
+    ContextoRelatorios(FonteDados.Provedor fontes, CuboMetricas cubo, Path saida, LocalDate hoje,
+            int tamanhoLote, long ttlColetasMillis) {
+        this.coletas = new CacheResultados<>(ttlColetasMillis);
+        this.fontes = fontes;
+        this.cubo = cubo;
+        this.saida = saida;
+        this.hojeFixo = hoje;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    // Dados sintéticos (200 mil linhas por dia), cubo em memória e arquivos num diretório temporário
+    static synchronized ContextoRelatorios padrao() {
+        if (padrao == null) {
+            try {
+                padrao = new ContextoRelatorios(FonteSintetica.provedor(200_000), new CuboMetricas(),
+                        Files.createTempDirectory("relatorios"), null, 8192);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return padrao;
+    }
+
+    LocalDate hoje() {
+        return hojeFixo != null ? hojeFixo : LocalDate.now();
+    }
+
+    // Agregado do dia: consulta o cubo, lendo a fonte em lotes antes se o dia ainda não está nele
+    Agregado agregadoDoDia(LocalDate dia) throws IOException {
+        try {
+            return coletas.obter(fontes.nome() + "/" + dia, () -> {
+                if (!cubo.contem(dia)) {
+                    try (FonteDados fonte = fontes.abrir(dia)) {
+                        cubo.carregarDia(dia, fonte, tamanhoLote);
+                    }
+                }
+                return cubo.agregado(dia, dia);
+            });
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    // Agregado de um período: garante os dias no cubo e consulta os pré-agregados (semanas e meses
+    // inteiros do intervalo saem prontos)
+    Agregado agregadoDoPeriodo(LocalDate inicio, LocalDate fim) throws IOException {
+        for (LocalDate d = inicio; !d.isAfter(fim); d = d.plusDays(1)) {
+            if (!cubo.contem(d)) agregadoDoDia(d);
+        }
+        return cubo.agregado(inicio, fim);
+    }
+
+    void log(String formato, Object... args) {
+        if (verboso) System.out.printf(formato + "%n", args);
+    }
+}
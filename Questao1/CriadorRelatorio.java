@@ -0,0 +1,15 @@
+package Questao1;
+
+// Criador do Factory Method (em arquivo próprio para o registro também enxergar)
+abstract class CriadorRelatorio {
+
+    // O Factory Method
+    public abstract Relatorio criarRelatorio();
+
+    // Processo geral — permanece imutável, respeitando SRP e Open/Closed
+    public void gerarRelatorio() {
+        Relatorio relatorio = criarRelatorio(); // delega para subclasses
+        relatorio.preparar();
+        relatorio.gerar();
+    }
+}
@@ -0,0 +1,23 @@
+package Questao1;
+
+import java.time.LocalDate;
+
+@TipoRelatorio(value = "diario", reutilizavel = true)
+class CriadorRelatorioDiario extends CriadorRelatorio {
+    private final ContextoRelatorios ctx;
+    private final LocalDate dia; // null = ontem, resolvido por cada relatório ao preparar
+    private final String unidade;
+
+    CriadorRelatorioDiario() { this(ContextoRelatorios.padrao(), null, null); }
+
+    CriadorRelatorioDiario(ContextoRelatorios ctx, LocalDate dia, String unidade) {
+        this.ctx = ctx;
+        this.dia = dia;
+        this.unidade = unidade;
+    }
+
+    @Override
+    public Relatorio criarRelatorio() {
+        return new RelatorioDiario(ctx, dia, unidade);
+    }
+}
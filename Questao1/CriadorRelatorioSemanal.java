@@ -0,0 +1,23 @@
+package Questao1;
+
+import java.time.LocalDate;
+
+@TipoRelatorio(value = "semanal", reutilizavel = true)
+class CriadorRelatorioSemanal extends CriadorRelatorio {
+    private final ContextoRelatorios ctx;
+    private final LocalDate fim; // null = ontem, resolvido por cada relatório ao preparar
+    private final String unidade;
+
+    CriadorRelatorioSemanal() { this(ContextoRelatorios.padrao(), null, null); }
+
+    CriadorRelatorioSemanal(ContextoRelatorios ctx, LocalDate fim, String unidade) {
+        this.ctx = ctx;
+        this.fim = fim;
+        this.unidade = unidade;
+    }
+
+    @Override
+    public Relatorio criarRelatorio() {
+        return new RelatorioSemanal(ctx, fim, unidade);
+    }
+}
@@ -0,0 +1,360 @@
+package Questao1;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Cubo de métricas em colunas: cada linha é uma célula (período, unidade, hora) com contagem, soma,
+// mínimo, máximo, média e m2 em arrays primitivos; a unidade vira um código inteiro (dicionário).
+// Há uma tabela por nível (dia, semana, mês): quando um dia chega, as células dele são somadas às da
+// semana e do mês, então um relatório de qualquer período combina poucas células já agregadas em vez
+// de reler as linhas brutas. Com um arquivo, cada dia carregado é anexado em disco (só as células,
+// alguns KB por dia) e o cubo é remontado a partir dele ao reiniciar.
+class CuboMetricas {
+
+    enum Nivel {
+        DIA, SEMANA, MES;
+
+        int periodo(LocalDate d) {
+            switch (this) {
+                case DIA: return (int) d.toEpochDay();
+                case SEMANA: return (int) d.with(DayOfWeek.MONDAY).toEpochDay();
+                default: return d.getYear() * 12 + d.getMonthValue() - 1;
+            }
+        }
+
+        LocalDate inicio(int periodo) {
+            return this == MES ? LocalDate.of(periodo / 12, periodo % 12 + 1, 1) : LocalDate.ofEpochDay(periodo);
+        }
+
+        LocalDate fim(int periodo) {
+            switch (this) {
+                case DIA: return inicio(periodo);
+                case SEMANA: return inicio(periodo).plusDays(6);
+                default: return inicio(periodo).plusMonths(1).minusDays(1);
+            }
+        }
+    }
+
+    // Colunas de um nível. As 24 horas de um (período, unidade) ficam em linhas seguidas (um bloco)
+    private static final class Tabela {
+        int linhas;
+        int[] periodo = new int[24 * 16];
+        int[] unidade = new int[periodo.length];
+        long[] contagem = new long[periodo.length];
+        double[] soma = new double[periodo.length];
+        double[] minimo = new double[periodo.length];
+        double[] maximo = new double[periodo.length];
+        double[] media = new double[periodo.length];
+        double[] m2 = new double[periodo.length];
+        final Map<Long, Integer> blocos = new HashMap<>(); // (período, unidade) -> primeira linha
+        final Map<Integer, List<Integer>> porPeriodo = new HashMap<>(); // período -> primeiras linhas
+
+        int bloco(int p, int u) {
+            Integer b = blocos.get(((long) p << 32) | u);
+            if (b != null) return b;
+            if (linhas + 24 > periodo.length) crescer();
+            int inicio = linhas;
+            for (int h = 0; h < 24; h++) {
+                periodo[inicio + h] = p;
+                unidade[inicio + h] = u;
+                minimo[inicio + h] = Double.POSITIVE_INFINITY;
+                maximo[inicio + h] = Double.NEGATIVE_INFINITY;
+            }
+            linhas += 24;
+            blocos.put(((long) p << 32) | u, inicio);
+            porPeriodo.computeIfAbsent(p, k -> new ArrayList<>()).add(inicio);
+            return inicio;
+        }
+
+        private void crescer() {
+            int n = periodo.length * 2;
+            periodo = Arrays.copyOf(periodo, n);
+            unidade = Arrays.copyOf(unidade, n);
+            contagem = Arrays.copyOf(contagem, n);
+            soma = Arrays.copyOf(soma, n);
+            minimo = Arrays.copyOf(minimo, n);
+            maximo = Arrays.copyOf(maximo, n);
+            media = Arrays.copyOf(media, n);
+            m2 = Arrays.copyOf(m2, n);
+        }
+
+        // Welford, como em ResumoMetricas.acumular
+        void acumular(int i, double v) {
+            long n = ++contagem[i];
+            soma[i] += v;
+            if (v < minimo[i]) minimo[i] = v;
+            if (v > maximo[i]) maximo[i] = v;
+            double delta = v - media[i];
+            media[i] += delta / n;
+            m2[i] += delta * (v - media[i]);
+        }
+
+        // Chan, como em ResumoMetricas.combinar
+        void combinar(int i, Tabela o, int j) {
+            long n2 = o.contagem[j];
+            if (n2 == 0) return;
+            long n1 = contagem[i], total = n1 + n2;
+            double delta = o.media[j] - media[i];
+            media[i] += delta * n2 / total;
+            m2[i] += o.m2[j] + delta * delta * n1 * n2 / total;
+            contagem[i] = total;
+            soma[i] += o.soma[j];
+            minimo[i] = Math.min(minimo[i], o.minimo[j]);
+            maximo[i] = Math.max(maximo[i], o.maximo[j]);
+        }
+
+        ResumoMetricas resumo(int i) {
+            return ResumoMetricas.de(contagem[i], soma[i], minimo[i], maximo[i], media[i], m2[i]);
+        }
+
+        void definir(int i, ResumoMetricas r) {
+            contagem[i] = r.contagem();
+            soma[i] = r.soma();
+            minimo[i] = r.contagem() == 0 ? Double.POSITIVE_INFINITY : r.minimo();
+            maximo[i] = r.contagem() == 0 ? Double.NEGATIVE_INFINITY : r.maximo();
+            media[i] = r.contagem() == 0 ? 0 : r.media();
+            m2[i] = r.m2();
+        }
+    }
+
+    private static final int MAGICO = 0x4355424F; // "CUBO"
+    private static final short VERSAO = 1;
+
+    private volatile String[] unidades = new String[0]; // código -> nome (cópia a cada unidade nova)
+    private final Map<String, Integer> codigos = new ConcurrentHashMap<>();
+    private final Tabela[] niveis = { new Tabela(), new Tabela(), new Tabela() };
+    private final Set<Integer> dias = new HashSet<>();
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private final Path arquivo; // null = só memória
+
+    CuboMetricas() { this(null); }
+
+    CuboMetricas(Path arquivo) {
+        this.arquivo = arquivo;
+        if (arquivo != null && Files.exists(arquivo)) abrir();
+    }
+
+    boolean contem(LocalDate dia) {
+        trava.readLock().lock();
+        try {
+            return dias.contains((int) dia.toEpochDay());
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Lê o dia em lotes numa tabela própria (sem travar o cubo) e depois soma as células no dia, na
+    // semana e no mês. Retorna false se o dia já estava no cubo.
+    boolean carregarDia(LocalDate dia, FonteDados fonte, int tamanhoLote) throws IOException {
+        int p = (int) dia.toEpochDay();
+        long inicioDia = dia.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        Tabela novo = new Tabela();
+        LoteDados lote = new LoteDados(tamanhoLote);
+        String ultimaUnidade = null;
+        int bloco = 0;
+        int[] blocoDoCodigo = new int[0]; // evita o mapa de blocos (e o Long) por linha
+        while (fonte.lerLote(lote)) {
+            for (int i = 0; i < lote.tamanho; i++) {
+                String u = lote.unidades[i];
+                if (u != ultimaUnidade) { // mesma instância da fonte: evita o hash quando a unidade se repete
+                    int c = codigo(u);
+                    if (c >= blocoDoCodigo.length) {
+                        int n = blocoDoCodigo.length;
+                        blocoDoCodigo = Arrays.copyOf(blocoDoCodigo, c + 8);
+                        Arrays.fill(blocoDoCodigo, n, blocoDoCodigo.length, -1);
+                    }
+                    if (blocoDoCodigo[c] < 0) blocoDoCodigo[c] = novo.bloco(p, c);
+                    bloco = blocoDoCodigo[c];
+                    ultimaUnidade = u;
+                }
+                int hora = (int) Math.floorMod(Math.floorDiv(lote.instantes[i] - inicioDia, 3_600_000L), 24L);
+                novo.acumular(bloco + hora, lote.valores[i]);
+            }
+        }
+        trava.writeLock().lock();
+        try {
+            if (!dias.add(p)) return false;
+            somar(dia, novo);
+            if (arquivo != null) anexar(dia, novo);
+            return true;
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    // Soma as células de um dia nas três tabelas (manutenção incremental dos pré-agregados)
+    private void somar(LocalDate dia, Tabela novo) {
+        for (Nivel nivel : Nivel.values()) {
+            Tabela t = niveis[nivel.ordinal()];
+            int p = nivel.periodo(dia);
+            for (int inicio = 0; inicio < novo.linhas; inicio += 24) {
+                int b = t.bloco(p, novo.unidade[inicio]);
+                for (int h = 0; h < 24; h++) t.combinar(b + h, novo, inicio + h);
+            }
+        }
+    }
+
+    // Agregado de [inicio, fim] cobrindo o intervalo com os maiores períodos inteiros possíveis
+    // (meses, depois semanas, depois dias). Dias que não estão no cubo ficam de fora.
+    Agregado agregado(LocalDate inicio, LocalDate fim) {
+        Agregado a = new Agregado(inicio, fim);
+        trava.readLock().lock();
+        try {
+            // lido sob a trava: todo código de unidade presente nas tabelas já está no dicionário
+            // (códigos novos de uma carga em curso só entram nas tabelas sob a trava de escrita)
+            String[] nomes = unidades;
+            ResumoMetricas[] porUnidade = new ResumoMetricas[nomes.length];
+            LocalDate d = inicio;
+            while (!d.isAfter(fim)) {
+                Nivel nivel = Nivel.DIA;
+                if (d.getDayOfMonth() == 1 && !Nivel.MES.fim(Nivel.MES.periodo(d)).isAfter(fim)) nivel = Nivel.MES;
+                else if (d.getDayOfWeek() == DayOfWeek.MONDAY && !d.plusDays(6).isAfter(fim)) nivel = Nivel.SEMANA;
+                int p = nivel.periodo(d);
+                Tabela t = niveis[nivel.ordinal()];
+                for (int b : t.porPeriodo.getOrDefault(p, List.of())) {
+                    int u = t.unidade[b];
+                    if (porUnidade[u] == null) porUnidade[u] = new ResumoMetricas();
+                    for (int h = 0; h < 24; h++) {
+                        if (t.contagem[b + h] == 0) continue;
+                        ResumoMetricas c = t.resumo(b + h);
+                        a.porHora[h].combinar(c);
+                        porUnidade[u].combinar(c);
+                    }
+                }
+                d = nivel.fim(p).plusDays(1);
+            }
+            for (int u = 0; u < porUnidade.length; u++) {
+                if (porUnidade[u] == null) continue;
+                a.porUnidade.put(nomes[u], porUnidade[u]);
+                a.total.combinar(porUnidade[u]);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        return a;
+    }
+
+    private int codigo(String unidade) {
+        Integer c = codigos.get(unidade);
+        if (c != null) return c;
+        synchronized (codigos) {
+            return codigos.computeIfAbsent(unidade, k -> {
+                String[] nomes = Arrays.copyOf(unidades, unidades.length + 1);
+                nomes[nomes.length - 1] = k;
+                unidades = nomes;
+                return nomes.length - 1;
+            });
+        }
+    }
+
+    // Arquivo: cabeçalho (mágico, versão) e um segmento por dia, anexado quando o dia é carregado:
+    // tamanho, dia, unidades do dia e, para cada uma, a máscara das horas com dados e um resumo por
+    // hora. Um segmento incompleto no fim (queda no meio da gravação) é descartado ao abrir.
+    private void anexar(LocalDate dia, Tabela novo) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // tamanho, preenchido abaixo
+        out.writeLong(dia.toEpochDay());
+        out.writeShort(novo.linhas / 24);
+        for (int inicio = 0; inicio < novo.linhas; inicio += 24) {
+            out.writeUTF(unidades[novo.unidade[inicio]]);
+            int mascara = 0;
+            for (int h = 0; h < 24; h++) if (novo.contagem[inicio + h] > 0) mascara |= 1 << h;
+            out.writeInt(mascara);
+            for (int h = 0; h < 24; h++) if ((mascara & 1 << h) != 0) novo.resumo(inicio + h).gravar(out);
+        }
+        ByteBuffer segmento = ByteBuffer.wrap(bytes.toByteArray());
+        segmento.putInt(0, segmento.capacity() - 4);
+        Files.createDirectories(arquivo.toAbsolutePath().getParent());
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (canal.size() == 0) {
+                ByteBuffer cabecalho = ByteBuffer.allocate(6).putInt(MAGICO).putShort(VERSAO);
+                canal.write(cabecalho.flip());
+            }
+            canal.position(canal.size());
+            while (segmento.hasRemaining()) canal.write(segmento);
+        }
+    }
+
+    private void abrir() {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer conteudo = ByteBuffer.allocate((int) canal.size());
+            while (conteudo.hasRemaining() && canal.read(conteudo) >= 0) { }
+            conteudo.flip();
+            if (conteudo.remaining() < 6 || conteudo.getInt() != MAGICO || conteudo.getShort() != VERSAO) {
+                throw new IOException("Formato de cubo desconhecido: " + arquivo);
+            }
+            int valido = conteudo.position();
+            while (conteudo.remaining() >= 4) {
+                int tamanho = conteudo.getInt();
+                if (tamanho < 0 || tamanho > conteudo.remaining()) break;
+                byte[] segmento = new byte[tamanho];
+                conteudo.get(segmento);
+                lerSegmento(new DataInputStream(new ByteArrayInputStream(segmento)));
+                valido = conteudo.position();
+            }
+            if (valido < canal.size()) canal.truncate(valido); // sobra de uma gravação interrompida
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cubo ilegível: " + arquivo, e);
+        }
+    }
+
+    private void lerSegmento(DataInputStream in) throws IOException {
+        LocalDate dia = LocalDate.ofEpochDay(in.readLong());
+        int p = (int) dia.toEpochDay();
+        Tabela novo = new Tabela();
+        int n = in.readShort();
+        try {
+            for (int k = 0; k < n; k++) {
+                int b = novo.bloco(p, codigo(in.readUTF()));
+                int mascara = in.readInt();
+                for (int h = 0; h < 24; h++) if ((mascara & 1 << h) != 0) novo.definir(b + h, ResumoMetricas.ler(in));
+            }
+        } catch (EOFException e) {
+            throw new IOException("Segmento truncado do dia " + dia, e);
+        }
+        if (dias.add(p)) somar(dia, novo);
+    }
+
+    @Override
+    public String toString() {
+        trava.readLock().lock();
+        try {
+            return String.format("cubo: %d dias, %d unidades, células dia/semana/mês %,d/%,d/%,d%s", dias.size(),
+                    unidades.length, niveis[0].linhas, niveis[1].linhas, niveis[2].linhas,
+                    arquivo != null && Files.exists(arquivo) ? String.format(", %,d bytes em disco", tamanho()) : "");
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    private long tamanho() {
+        try {
+            return Files.size(arquivo);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
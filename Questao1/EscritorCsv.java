@@ -0,0 +1,43 @@
+package Questao1;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// CSV separado por ';'. Título e nome de cada tabela vão em linhas de comentário (#)
+class EscritorCsv implements EscritorRelatorio {
+    private final Writer saida;
+
+    EscritorCsv(Writer saida) {
+        this.saida = saida;
+    }
+
+    @Override
+    public void titulo(String texto) throws IOException {
+        saida.write("# " + texto + "\n");
+    }
+
+    @Override
+    public void tabela(String nome, String... colunas) throws IOException {
+        saida.write("\n# " + nome + "\n");
+        linha((Object[]) colunas);
+    }
+
+    @Override
+    public void linha(Object... valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) saida.write(';');
+            String t = EscritorRelatorio.texto(valores[i]);
+            if (t.indexOf(';') >= 0 || t.indexOf('"') >= 0) t = '"' + t.replace("\"", "\"\"") + '"';
+            saida.write(t);
+        }
+        saida.write('\n');
+    }
+
+    @Override
+    public String extensao() { return "csv"; }
+
+    @Override
+    public void close() throws IOException {
+        saida.close();
+    }
+}
@@ -0,0 +1,133 @@
+package Questao1;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// PDF mínimo (texto, fontes padrão Helvetica-Bold e Courier, acentos via WinAnsi). Só a página
+// corrente fica em memória: quando enche, o conteúdo dela é gravado e a próxima começa. A tabela
+// de páginas e o índice (xref) vão no fim, com os deslocamentos anotados durante a escrita.
+class EscritorPdf implements EscritorRelatorio {
+    private static final int LINHAS_POR_PAGINA = 56;
+    private static final int LARGURA_COLUNA = 16;
+
+    private final Contador saida;
+    private final List<Long> deslocamentos = new ArrayList<>(); // índice = número do objeto - 1
+    private final List<Integer> paginas = new ArrayList<>();
+    private final StringBuilder pagina = new StringBuilder();
+    private int linhasNaPagina;
+
+    // Objetos fixos: 1 catálogo, 2 árvore de páginas (gravada no fim), 3 e 4 fontes
+    EscritorPdf(OutputStream destino) throws IOException {
+        this.saida = new Contador(destino);
+        escrever("%PDF-1.4\n%âãÏÓ\n");
+        objeto(1, "<< /Type /Catalog /Pages 2 0 R >>");
+        deslocamentos.add(null); // 2: reservado
+        objeto(3, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+        objeto(4, "<< /Type /Font /Subtype /Type1 /BaseFont /Courier /Encoding /WinAnsiEncoding >>");
+    }
+
+    @Override
+    public void titulo(String texto) throws IOException {
+        texto("F1", 14, texto);
+    }
+
+    @Override
+    public void tabela(String nome, String... colunas) throws IOException {
+        if (linhasNaPagina > 0) linhaEmBranco();
+        texto("F1", 11, nome);
+        linha((Object[]) colunas);
+    }
+
+    @Override
+    public void linha(Object... valores) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (Object v : valores) {
+            String t = EscritorRelatorio.texto(v);
+            if (t.length() > LARGURA_COLUNA - 1) t = t.substring(0, LARGURA_COLUNA - 1);
+            sb.append(t);
+            for (int i = t.length(); i < LARGURA_COLUNA; i++) sb.append(' ');
+        }
+        texto("F2", 9, sb.toString().stripTrailing());
+    }
+
+    private void linhaEmBranco() throws IOException {
+        texto("F2", 9, "");
+    }
+
+    private void texto(String fonte, int tamanho, String t) throws IOException {
+        if (linhasNaPagina == LINHAS_POR_PAGINA) fecharPagina();
+        int y = 800 - linhasNaPagina * 13;
+        pagina.append("BT /").append(fonte).append(' ').append(tamanho).append(" Tf 40 ").append(y)
+                .append(" Td (").append(t.replace("\\", "\\\\").replace("(", "\\(").replace(")", "\\)"))
+                .append(") Tj ET\n");
+        linhasNaPagina++;
+    }
+
+    private void fecharPagina() throws IOException {
+        byte[] conteudo = pagina.toString().getBytes(StandardCharsets.ISO_8859_1);
+        int numConteudo = deslocamentos.size() + 1;
+        deslocamentos.add(saida.posicao);
+        escrever(numConteudo + " 0 obj\n<< /Length " + conteudo.length + " >>\nstream\n");
+        saida.write(conteudo);
+        escrever("endstream\nendobj\n");
+        int numPagina = numConteudo + 1;
+        objeto(numPagina, "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] "
+                + "/Resources << /Font << /F1 3 0 R /F2 4 0 R >> >> /Contents " + numConteudo + " 0 R >>");
+        paginas.add(numPagina);
+        pagina.setLength(0);
+        linhasNaPagina = 0;
+    }
+
+    private void objeto(int numero, String corpo) throws IOException {
+        if (numero - 1 < deslocamentos.size()) deslocamentos.set(numero - 1, saida.posicao);
+        else deslocamentos.add(saida.posicao);
+        escrever(numero + " 0 obj\n" + corpo + "\nendobj\n");
+    }
+
+    private void escrever(String s) throws IOException {
+        saida.write(s.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Override
+    public String extensao() { return "pdf"; }
+
+    @Override
+    public void close() throws IOException {
+        if (linhasNaPagina > 0 || paginas.isEmpty()) fecharPagina();
+        StringBuilder kids = new StringBuilder();
+        for (int p : paginas) kids.append(p).append(" 0 R ");
+        objeto(2, "<< /Type /Pages /Kids [" + kids + "] /Count " + paginas.size() + " >>");
+        long xref = saida.posicao;
+        StringBuilder sb = new StringBuilder("xref\n0 " + (deslocamentos.size() + 1) + "\n0000000000 65535 f \n");
+        for (long d : deslocamentos) sb.append(String.format("%010d 00000 n \n", d));
+        sb.append("trailer\n<< /Size ").append(deslocamentos.size() + 1).append(" /Root 1 0 R >>\nstartxref\n")
+                .append(xref).append("\n%%EOF\n");
+        escrever(sb.toString());
+        saida.close();
+    }
+
+    // Conta os bytes gravados para montar o xref
+    private static final class Contador extends FilterOutputStream {
+        long posicao;
+
+        Contador(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            posicao++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            posicao += len;
+        }
+    }
+}
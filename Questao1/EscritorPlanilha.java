@@ -0,0 +1,67 @@
+package Questao1;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Planilha no formato XML do Excel 2003 (SpreadsheetML, abre como .xls): cada tabela vira uma aba.
+// É texto sequencial, então cada linha é gravada assim que chega.
+class EscritorPlanilha implements EscritorRelatorio {
+    private final Writer saida;
+    private String titulo = "";
+    private boolean abaAberta;
+
+    EscritorPlanilha(Writer saida) throws IOException {
+        this.saida = saida;
+        saida.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<?mso-application progid=\"Excel.Sheet\"?>\n"
+                + "<Workbook xmlns=\"urn:schemas-microsoft-com:office:spreadsheet\" "
+                + "xmlns:ss=\"urn:schemas-microsoft-com:office:spreadsheet\">\n");
+    }
+
+    @Override
+    public void titulo(String texto) {
+        this.titulo = texto; // vai na primeira linha de cada aba
+    }
+
+    @Override
+    public void tabela(String nome, String... colunas) throws IOException {
+        fecharAba();
+        String aba = nome.length() > 31 ? nome.substring(0, 31) : nome; // limite do Excel
+        saida.write(" <Worksheet ss:Name=\"" + xml(aba) + "\">\n  <Table>\n");
+        abaAberta = true;
+        if (!titulo.isEmpty()) linha(titulo);
+        linha((Object[]) colunas);
+    }
+
+    @Override
+    public void linha(Object... valores) throws IOException {
+        if (!abaAberta) tabela("Dados");
+        saida.write("   <Row>");
+        for (Object v : valores) {
+            boolean numero = v instanceof Number && !Double.isNaN(((Number) v).doubleValue());
+            saida.write("<Cell><Data ss:Type=\"" + (numero ? "Number" : "String") + "\">"
+                    + xml(EscritorRelatorio.texto(v)) + "</Data></Cell>");
+        }
+        saida.write("</Row>\n");
+    }
+
+    private void fecharAba() throws IOException {
+        if (abaAberta) saida.write("  </Table>\n </Worksheet>\n");
+        abaAberta = false;
+    }
+
+    private static String xml(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    @Override
+    public String extensao() { return "xls"; }
+
+    @Override
+    public void close() throws IOException {
+        if (!abaAberta) tabela("Dados"); // o formato exige ao menos uma aba
+        fecharAba();
+        saida.write("</Workbook>\n");
+        saida.close();
+    }
+}
@@ -0,0 +1,28 @@
+package Questao1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Locale;
+
+// Saída de um relatório escrita à medida que as linhas são produzidas (nada é montado inteiro na
+// memória antes de gravar). Um relatório é um título seguido de tabelas.
+interface EscritorRelatorio extends Closeable {
+
+    void titulo(String texto) throws IOException;
+
+    // Começa uma tabela nova; as linhas seguintes pertencem a ela
+    void tabela(String nome, String... colunas) throws IOException;
+
+    void linha(Object... valores) throws IOException;
+
+    String extensao();
+
+    // Formatação comum das células: números com duas casas e ponto decimal
+    static String texto(Object valor) {
+        if (valor instanceof Double || valor instanceof Float) {
+            double d = ((Number) valor).doubleValue();
+            return Double.isNaN(d) ? "" : String.format(Locale.ROOT, "%.2f", d);
+        }
+        return String.valueOf(valor);
+    }
+}
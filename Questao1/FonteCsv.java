@@ -0,0 +1,56 @@
+package Questao1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+// Arquivo CSV "instante;unidade;valor" (instante em ms) lido linha a linha, um lote por vez.
+// Linhas em branco e o cabeçalho (primeira coluna não numérica) são ignorados.
+class FonteCsv implements FonteDados {
+
+    private final BufferedReader leitor;
+    private final Map<String, String> unidades = new HashMap<>(); // uma String por unidade
+
+    FonteCsv(Path arquivo) throws IOException {
+        this.leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8);
+    }
+
+    // Um arquivo por dia em "diretorio": dados-AAAA-MM-DD.csv
+    static FonteDados.Provedor provedor(Path diretorio) {
+        return new FonteDados.Provedor() {
+            @Override
+            public FonteDados abrir(LocalDate dia) throws IOException {
+                return new FonteCsv(diretorio.resolve("dados-" + dia + ".csv"));
+            }
+
+            @Override
+            public String nome() { return "csv:" + diretorio; }
+        };
+    }
+
+    @Override
+    public boolean lerLote(LoteDados lote) throws IOException {
+        lote.tamanho = 0;
+        String linha;
+        while (!lote.cheio() && (linha = leitor.readLine()) != null) {
+            int a = linha.indexOf(';');
+            int b = linha.indexOf(';', a + 1);
+            if (a <= 0 || b < 0 || !Character.isDigit(linha.charAt(0))) continue;
+            String unidade = linha.substring(a + 1, b);
+            String conhecida = unidades.putIfAbsent(unidade, unidade);
+            lote.adicionar(Long.parseLong(linha, 0, a, 10), conhecida != null ? conhecida : unidade,
+                    Double.parseDouble(linha.substring(b + 1)));
+        }
+        return lote.tamanho > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+}
@@ -0,0 +1,23 @@
+package Questao1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+
+// Fonte de dados brutos lida em lotes (nunca carrega o período inteiro na memória)
+interface FonteDados extends Closeable {
+
+    // Limpa e preenche o lote; retorna false quando não há mais linhas
+    boolean lerLote(LoteDados lote) throws IOException;
+
+    @Override
+    default void close() throws IOException { }
+
+    // Abre a fonte com as linhas de um dia
+    interface Provedor {
+        FonteDados abrir(LocalDate dia) throws IOException;
+
+        // Nome usado para agrupar acessos (limites de concorrência, cache)
+        default String nome() { return getClass().getSimpleName(); }
+    }
+}
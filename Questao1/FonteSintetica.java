@@ -0,0 +1,53 @@
+package Questao1;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+// Dados de exemplo: "linhasPorDia" vendas por dia, espalhadas no dia, entre algumas unidades de
+// negócio. Determinística por dia (a semente é a data), então reabrir o mesmo dia dá as mesmas linhas.
+class FonteSintetica implements FonteDados {
+
+    static final String[] UNIDADES = {
+        "Unidade Centro", "Unidade Norte", "Unidade Sul", "Unidade Leste",
+        "Unidade Oeste", "Loja Online", "Atacado", "Franquias"
+    };
+
+    private final long inicioDia;
+    private final int linhas;
+    private final Random rnd;
+    private int geradas;
+
+    FonteSintetica(LocalDate dia, int linhas) {
+        this.inicioDia = dia.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        this.linhas = linhas;
+        this.rnd = new Random(dia.toEpochDay());
+    }
+
+    static FonteDados.Provedor provedor(int linhasPorDia) {
+        return new FonteDados.Provedor() {
+            @Override
+            public FonteDados abrir(LocalDate dia) {
+                return new FonteSintetica(dia, linhasPorDia);
+            }
+
+            @Override
+            public String nome() { return "sintetica"; }
+        };
+    }
+
+    @Override
+    public boolean lerLote(LoteDados lote) {
+        lote.tamanho = 0;
+        while (!lote.cheio() && geradas < linhas) {
+            // instantes crescentes ao longo do dia; mais movimento no horário comercial
+            long instante = inicioDia + (long) geradas * 86_400_000L / linhas;
+            int hora = (int) ((instante - inicioDia) / 3_600_000L);
+            double fator = hora >= 9 && hora < 19 ? 1.5 : 0.6;
+            String unidade = UNIDADES[rnd.nextInt(UNIDADES.length)];
+            lote.adicionar(instante, unidade, Math.round(Math.exp(3 + rnd.nextGaussian() * 0.5) * fator * 100) / 100.0);
+            geradas++;
+        }
+        return lote.tamanho > 0;
+    }
+}
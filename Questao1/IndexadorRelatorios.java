@@ -0,0 +1,117 @@
+package Questao1;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+// Processador de anotações: junta as classes com @TipoRelatorio e gera o IndiceRelatorios, compilado
+// junto com o resto: os nomes dos tipos e um switch que instancia cada criador com "new" (sem
+// reflexão nem leitura de arquivos na inicialização, e as classes entram no arquivo AppCDS). Erros
+// de cadastro (classe abstrata, sem construtor sem argumentos, nome repetido) aparecem na compilação.
+// Compilação: primeiro este arquivo e o TipoRelatorio, depois o resto com
+//   javac -processorpath <classes> -processor Questao1.IndexadorRelatorios ...
+public class IndexadorRelatorios extends AbstractProcessor {
+
+    static final String INDICE = "Questao1.IndiceRelatorios";
+
+    private final Map<String, TypeElement> tipos = new TreeMap<>(); // nome -> criador
+    private final Map<String, Boolean> reutilizaveis = new TreeMap<>();
+    private boolean gerado;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of("Questao1.TipoRelatorio");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> anotacoes, RoundEnvironment rodada) {
+        TypeElement anotacao = processingEnv.getElementUtils().getTypeElement("Questao1.TipoRelatorio");
+        TypeElement criador = processingEnv.getElementUtils().getTypeElement("Questao1.CriadorRelatorio");
+        if (anotacao != null) {
+            for (Element e : rodada.getElementsAnnotatedWith(anotacao)) registrar((TypeElement) e, criador);
+        }
+        // todas as classes do projeto chegam na primeira rodada; gerar nela deixa o índice ser compilado
+        if (!gerado && !rodada.processingOver()) {
+            gerar();
+            gerado = true;
+        } else if (gerado && !rodada.getElementsAnnotatedWith(anotacao).isEmpty()) {
+            erro(rodada.getElementsAnnotatedWith(anotacao).iterator().next(),
+                    "@TipoRelatorio em código gerado não entra no índice");
+        }
+        return true;
+    }
+
+    private void registrar(TypeElement classe, TypeElement criador) {
+        TipoRelatorio tipo = classe.getAnnotation(TipoRelatorio.class);
+        TypeMirror base = criador.asType();
+        if (classe.getKind() != ElementKind.CLASS || classe.getModifiers().contains(Modifier.ABSTRACT)
+                || !processingEnv.getTypeUtils().isSubtype(classe.asType(), base)) {
+            erro(classe, "@TipoRelatorio só vale para subclasses concretas de CriadorRelatorio");
+            return;
+        }
+        boolean construtor = false;
+        for (ExecutableElement c : ElementFilter.constructorsIn(classe.getEnclosedElements())) {
+            construtor |= c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE);
+        }
+        if (!construtor) {
+            erro(classe, "criador de relatório sem construtor sem argumentos");
+            return;
+        }
+        TypeElement anterior = tipos.putIfAbsent(tipo.value(), classe);
+        if (anterior != null && !anterior.equals(classe)) erro(classe, "tipo de relatório repetido: " + tipo.value());
+        reutilizaveis.put(tipo.value(), tipo.reutilizavel());
+    }
+
+    private void gerar() {
+        StringBuilder nomes = new StringBuilder(), reutilizavel = new StringBuilder(), casos = new StringBuilder();
+        int i = 0;
+        for (Map.Entry<String, TypeElement> e : tipos.entrySet()) {
+            String sep = i > 0 ? ", " : "";
+            nomes.append(sep).append('"').append(e.getKey()).append('"');
+            reutilizavel.append(sep).append(reutilizaveis.get(e.getKey()));
+            casos.append("            case ").append(i++).append(": return new ")
+                    .append(e.getValue().getQualifiedName()).append("();\n");
+        }
+        Element[] origens = tipos.values().toArray(new Element[0]);
+        try (Writer out = processingEnv.getFiler().createSourceFile(INDICE, origens).openWriter()) {
+            out.write("package Questao1;\n\n"
+                    + "// Gerado pelo IndexadorRelatorios a partir das classes com @TipoRelatorio: não editar\n"
+                    + "final class IndiceRelatorios {\n"
+                    + "    static final String[] NOMES = { " + nomes + " };\n"
+                    + "    static final boolean[] REUTILIZAVEIS = { " + reutilizavel + " };\n\n"
+                    + "    private IndiceRelatorios() { }\n\n"
+                    + "    static CriadorRelatorio criar(int tipo) {\n"
+                    + "        switch (tipo) {\n"
+                    + casos
+                    + "            default: throw new IllegalArgumentException(\"tipo \" + tipo);\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "}\n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Falha ao gerar " + INDICE + ": " + e);
+        }
+    }
+
+    private void erro(Element e, String mensagem) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, mensagem, e);
+    }
+}
@@ -0,0 +1,28 @@
+package Questao1;
+
+// Um lote de linhas brutas em colunas primitivas, reaproveitado entre leituras: as fontes
+// preenchem até "capacidade" linhas por vez, então a memória não depende do tamanho do período.
+// Linha = (instante em ms, unidade de negócio, valor da métrica).
+class LoteDados {
+    final long[] instantes;
+    final String[] unidades; // as fontes reaproveitam a mesma String para a mesma unidade
+    final double[] valores;
+    int tamanho;
+
+    LoteDados(int capacidade) {
+        instantes = new long[capacidade];
+        unidades = new String[capacidade];
+        valores = new double[capacidade];
+    }
+
+    int capacidade() { return valores.length; }
+
+    boolean cheio() { return tamanho == valores.length; }
+
+    void adicionar(long instante, String unidade, double valor) {
+        instantes[tamanho] = instante;
+        unidades[tamanho] = unidade;
+        valores[tamanho] = valor;
+        tamanho++;
+    }
+}
@@ -0,0 +1,87 @@
+package Questao1;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Tipos de relatório disponíveis, vindos do índice gerado na compilação (IndiceRelatorios, pelo
+// IndexadorRelatorios). Na inicialização só os nomes são lidos; a classe do criador é carregada e
+// instanciada no primeiro pedido daquele tipo. Relatórios de criadores "reutilizavel" voltam para um
+// pool depois de gerados; cada retirada passa por preparar(), que refaz o estado e a data do
+// pedido. Um tipo novo é só uma subclasse de CriadorRelatorio com @TipoRelatorio: nada muda no main.
+class RegistroRelatorios {
+
+    private static final class Tipo {
+        final int indice;
+        final boolean reutilizavel;
+        volatile CriadorRelatorio criador;
+        final Queue<Relatorio> pool = new ConcurrentLinkedQueue<>();
+
+        Tipo(int indice, boolean reutilizavel) {
+            this.indice = indice;
+            this.reutilizavel = reutilizavel;
+        }
+    }
+
+    private static final RegistroRelatorios PADRAO = new RegistroRelatorios();
+
+    private final Map<String, Tipo> tipos = new LinkedHashMap<>();
+
+    private RegistroRelatorios() {
+        for (int i = 0; i < IndiceRelatorios.NOMES.length; i++) {
+            tipos.put(IndiceRelatorios.NOMES[i], new Tipo(i, IndiceRelatorios.REUTILIZAVEIS[i]));
+        }
+    }
+
+    static RegistroRelatorios padrao() {
+        return PADRAO;
+    }
+
+    Set<String> tipos() {
+        return Collections.unmodifiableSet(tipos.keySet());
+    }
+
+    // Criador do tipo, instanciado no primeiro uso
+    CriadorRelatorio criador(String nome) {
+        Tipo t = tipo(nome);
+        CriadorRelatorio c = t.criador;
+        if (c == null) {
+            synchronized (t) {
+                c = t.criador;
+                if (c == null) t.criador = c = IndiceRelatorios.criar(t.indice);
+            }
+        }
+        return c;
+    }
+
+    // Mesmo processo de CriadorRelatorio.gerarRelatorio, reaproveitando a instância quando o tipo permite
+    void gerar(String nome) {
+        Tipo t = tipo(nome);
+        Relatorio r = t.reutilizavel ? t.pool.poll() : null;
+        if (r == null) r = criador(nome).criarRelatorio();
+        r.preparar();
+        r.gerar();
+        if (t.reutilizavel) t.pool.offer(r); // só volta se terminou sem erro
+    }
+
+    // Quantos tipos já tiveram o criador instanciado
+    int carregados() {
+        int n = 0;
+        for (Tipo t : tipos.values()) if (t.criador != null) n++;
+        return n;
+    }
+
+    private Tipo tipo(String nome) {
+        Tipo t = tipos.get(nome);
+        if (t == null) throw new IllegalArgumentException("Tipo de relatório desconhecido: " + nome + " " + tipos.keySet());
+        return t;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("registro: %d tipos %s, %d criadores carregados", tipos.size(), tipos.keySet(), carregados());
+    }
+}
@@ -0,0 +1,7 @@
+package Questao1;
+
+// Produto do Factory Method (em arquivo próprio para o agendador também enxergar)
+interface Relatorio {
+    void preparar();
+    void gerar();
+}
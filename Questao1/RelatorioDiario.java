@@ -0,0 +1,75 @@
+package Questao1;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+
+// Diário: consulta o dia anterior no cubo de métricas (lendo a fonte em lotes se ainda não estiver lá)
+// e grava um PDF com o resumo, as unidades e a distribuição por hora. Com uma unidade, o relatório
+// é só dela (o agregado do dia é o mesmo, então as unidades compartilham a coleta)
+class RelatorioDiario implements Relatorio {
+    private final ContextoRelatorios ctx;
+    private final LocalDate diaPedido; // null = ontem na data de cada execução
+    private final String unidade; // null = todas
+    private LocalDate dia;
+    private Agregado agregado;
+
+    RelatorioDiario() { this(ContextoRelatorios.padrao(), null, null); }
+
+    RelatorioDiario(ContextoRelatorios ctx, LocalDate dia, String unidade) {
+        this.ctx = ctx;
+        this.diaPedido = dia;
+        this.unidade = unidade;
+    }
+
+    // Refaz todo o estado (inclusive o dia): a instância pode vir do pool do registro
+    @Override
+    public void preparar() {
+        dia = diaPedido != null ? diaPedido : ctx.hoje().minusDays(1);
+        agregado = null;
+        ctx.log("[Relatório Diário] Selecionando dados do último dia...");
+        ctx.log("[Relatório Diário] Calculando métricas de desempenho diário...");
+        try {
+            agregado = ctx.agregadoDoDia(dia);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler os dados de " + dia, e);
+        }
+        ctx.log("[Relatório Diário] %s: %,d registros agregados em lotes de %,d",
+                dia, agregado.total.contagem(), ctx.tamanhoLote);
+    }
+
+    @Override
+    public void gerar() {
+        ctx.log("[Relatório Diário] Gerando PDF com tabelas e gráficos simples.");
+        Path arquivo = ctx.saida.resolve("relatorio-diario-" + (unidade != null ? arquivo(unidade) + "-" : "") + dia + ".pdf");
+        try (EscritorRelatorio pdf = new EscritorPdf(new BufferedOutputStream(Files.newOutputStream(arquivo)))) {
+            pdf.titulo("Relatório Diário - " + dia + (unidade != null ? " - " + unidade : ""));
+            ResumoMetricas t = unidade != null ? agregado.porUnidade.getOrDefault(unidade, new ResumoMetricas()) : agregado.total;
+            pdf.tabela("Resumo", "Vendas", "Total", "Média", "Desvio", "Mínimo", "Máximo");
+            pdf.linha(t.contagem(), t.soma(), t.media(), t.desvio(), t.minimo(), t.maximo());
+            pdf.tabela("Por unidade", "Unidade", "Vendas", "Total", "Média", "% do dia");
+            for (Map.Entry<String, ResumoMetricas> e : agregado.porUnidade.entrySet()) {
+                ResumoMetricas u = e.getValue();
+                pdf.linha(e.getKey(), u.contagem(), u.soma(), u.media(), 100 * u.soma() / agregado.total.soma());
+            }
+            if (unidade == null) {
+                pdf.tabela("Por hora", "Hora", "Vendas", "Total", "Média");
+                for (int h = 0; h < 24; h++) {
+                    ResumoMetricas r = agregado.porHora[h];
+                    pdf.linha(String.format("%02d:00", h), r.contagem(), r.soma(), r.media());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar " + arquivo, e);
+        }
+        ctx.log("[Relatório Diário] Arquivo: %s%n", arquivo);
+    }
+
+    static String arquivo(String unidade) {
+        return unidade.toLowerCase().replaceAll("[^a-z0-9]+", "-");
+    }
+}
@@ -0,0 +1,94 @@
+package Questao1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Semanal: consulta os últimos 7 dias no cubo (só lê dados brutos dos dias que ainda não estão nele)
+// e grava uma planilha com os dias e a comparação entre unidades
+class RelatorioSemanal implements Relatorio {
+    private final ContextoRelatorios ctx;
+    private final LocalDate fimPedido; // null = ontem na data de cada execução
+    private final String unidade; // null = todas
+    private final List<Agregado> dias = new ArrayList<>();
+    private LocalDate fim;
+    private Agregado semana;
+
+    RelatorioSemanal() { this(ContextoRelatorios.padrao(), null, null); }
+
+    RelatorioSemanal(ContextoRelatorios ctx, LocalDate fim, String unidade) {
+        this.ctx = ctx;
+        this.fimPedido = fim;
+        this.unidade = unidade;
+    }
+
+    // Refaz todo o estado (inclusive o período): a instância pode vir do pool do registro
+    @Override
+    public void preparar() {
+        fim = fimPedido != null ? fimPedido : ctx.hoje().minusDays(1);
+        semana = null;
+        ctx.log("[Relatório Semanal] Coletando dados dos últimos 7 dias...");
+        ctx.log("[Relatório Semanal] Priorizando métricas semanais...");
+        dias.clear();
+        int reaproveitados = 0;
+        try {
+            for (LocalDate d = fim.minusDays(6); !d.isAfter(fim); d = d.plusDays(1)) {
+                if (ctx.cubo.contem(d)) reaproveitados++;
+                dias.add(ctx.agregadoDoDia(d));
+            }
+            semana = ctx.agregadoDoPeriodo(fim.minusDays(6), fim);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler os dados da semana até " + fim, e);
+        }
+        ctx.log("[Relatório Semanal] %,d registros; %d de 7 dias já estavam no cubo",
+                semana.total.contagem(), reaproveitados);
+    }
+
+    @Override
+    public void gerar() {
+        ctx.log("[Relatório Semanal] Gerando relatório em formato XLS com gráficos comparativos.");
+        Path arquivo = ctx.saida.resolve("relatorio-semanal-"
+                + (unidade != null ? RelatorioDiario.arquivo(unidade) + "-" : "") + fim + ".xls");
+        try (EscritorRelatorio xls = new EscritorPlanilha(Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8))) {
+            xls.titulo("Relatório Semanal - " + semana.inicio + " a " + fim + (unidade != null ? " - " + unidade : ""));
+            xls.tabela("Por dia", "Dia", "Vendas", "Total", "Média", "Desvio", "Mínimo", "Máximo");
+            for (Agregado d : dias) {
+                ResumoMetricas r = doRecorte(d);
+                xls.linha(d.inicio.toString(), r.contagem(), r.soma(), r.media(), r.desvio(), r.minimo(), r.maximo());
+            }
+            ResumoMetricas t = doRecorte(semana);
+            xls.linha("Semana", t.contagem(), t.soma(), t.media(), t.desvio(), t.minimo(), t.maximo());
+
+            // Comparativo: total de cada unidade em cada dia
+            Object[] cabecalho = new Object[dias.size() + 2];
+            cabecalho[0] = "Unidade";
+            for (int i = 0; i < dias.size(); i++) cabecalho[i + 1] = dias.get(i).inicio.toString();
+            cabecalho[cabecalho.length - 1] = "Semana";
+            xls.tabela("Comparativo por unidade", Arrays.copyOf(cabecalho, cabecalho.length, String[].class));
+            for (Map.Entry<String, ResumoMetricas> e : semana.porUnidade.entrySet()) {
+                Object[] linha = new Object[cabecalho.length];
+                linha[0] = e.getKey();
+                for (int i = 0; i < dias.size(); i++) {
+                    ResumoMetricas u = dias.get(i).porUnidade.get(e.getKey());
+                    linha[i + 1] = u != null ? u.soma() : 0.0;
+                }
+                linha[linha.length - 1] = e.getValue().soma();
+                xls.linha(linha);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar " + arquivo, e);
+        }
+        ctx.log("[Relatório Semanal] Arquivo: %s%n", arquivo);
+    }
+
+    private ResumoMetricas doRecorte(Agregado a) {
+        return unidade != null ? a.porUnidade.getOrDefault(unidade, new ResumoMetricas()) : a.total;
+    }
+}
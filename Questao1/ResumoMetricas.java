@@ -0,0 +1,84 @@
+package Questao1;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Agregador combinável: contagem, soma, mínimo, máximo, média e variância (Welford para acumular,
+// fórmula de Chan para combinar). Resumos de partes diferentes combinam no mesmo resultado que
+// acumular tudo junto, então o semanal sai da combinação dos diários.
+class ResumoMetricas {
+    private long n;
+    private double soma;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double media, m2;
+
+    void acumular(double v) {
+        n++;
+        soma += v;
+        if (v < min) min = v;
+        if (v > max) max = v;
+        double delta = v - media;
+        media += delta / n;
+        m2 += delta * (v - media);
+    }
+
+    void combinar(ResumoMetricas outro) {
+        if (outro.n == 0) return;
+        if (n == 0) {
+            copiar(outro);
+            return;
+        }
+        long total = n + outro.n;
+        double delta = outro.media - media;
+        media += delta * outro.n / total;
+        m2 += outro.m2 + delta * delta * n * outro.n / total;
+        n = total;
+        soma += outro.soma;
+        min = Math.min(min, outro.min);
+        max = Math.max(max, outro.max);
+    }
+
+    // Resumo a partir dos campos (as colunas do CuboMetricas guardam os mesmos seis valores)
+    static ResumoMetricas de(long n, double soma, double min, double max, double media, double m2) {
+        ResumoMetricas r = new ResumoMetricas();
+        r.n = n;
+        r.soma = soma;
+        r.min = min;
+        r.max = max;
+        r.media = media;
+        r.m2 = m2;
+        return r;
+    }
+
+    private void copiar(ResumoMetricas o) {
+        n = o.n;
+        soma = o.soma;
+        min = o.min;
+        max = o.max;
+        media = o.media;
+        m2 = o.m2;
+    }
+
+    long contagem() { return n; }
+    double soma() { return soma; }
+    double minimo() { return n == 0 ? Double.NaN : min; }
+    double maximo() { return n == 0 ? Double.NaN : max; }
+    double media() { return n == 0 ? Double.NaN : media; }
+    double m2() { return m2; }
+    double desvio() { return n < 2 ? 0 : Math.sqrt(m2 / (n - 1)); }
+
+    void gravar(DataOutput out) throws IOException {
+        out.writeLong(n);
+        out.writeDouble(soma);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeDouble(media);
+        out.writeDouble(m2);
+    }
+
+    static ResumoMetricas ler(DataInput in) throws IOException {
+        return de(in.readLong(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+    }
+}
@@ -0,0 +1,22 @@
+package Questao1;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marca um CriadorRelatorio como tipo de relatório. Não existe em tempo de execução: o
+// IndexadorRelatorios lê a anotação durante a compilação e gera o índice que o RegistroRelatorios
+// usa (nada de varrer o classpath na inicialização).
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+@interface TipoRelatorio {
+
+    // Nome usado para pedir o relatório ao registro
+    String value();
+
+    // Os relatórios deste criador podem ser reaproveitados entre execuções (preparar() refaz todo o
+    // estado, inclusive a data quando ela não foi fixada), então o registro guarda as instâncias num
+    // pool em vez de criar uma por execução
+    boolean reutilizavel() default false;
+}
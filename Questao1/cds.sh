@@ -0,0 +1,40 @@
+#!/bin/sh
+# Compila o Questao1 (com o índice de relatórios gerado pelo IndexadorRelatorios), empacota num jar,
+# grava um arquivo AppCDS com as classes que um relatório usa e compara o tempo de um processo que
+# gera um relatório e sai: criador à mão x registro, sem e com o arquivo CDS.
+# Uso (na raiz do repositório, JDK 13+): sh Questao1/cds.sh [execuções]
+set -e
+N=${1:-5}
+OUT=${OUT:-target/cds}
+rm -rf "$OUT"
+mkdir -p "$OUT/proc" "$OUT/classes" "$OUT/gerado"
+
+# 1) processador de anotações; 2) o resto, com o processador gerando o IndiceRelatorios
+javac -encoding UTF-8 -proc:none -d "$OUT/proc" Questao1/IndexadorRelatorios.java Questao1/TipoRelatorio.java
+javac -encoding UTF-8 -processorpath "$OUT/proc" -processor Questao1.IndexadorRelatorios \
+    -s "$OUT/gerado" -d "$OUT/classes" Questao1/*.java
+# o CDS só arquiva classes vindas de jar
+jar cf "$OUT/relatorios.jar" -C "$OUT/classes" .
+
+# CDS dinâmico: ao sair, a JVM grava no arquivo as classes carregadas nesta execução
+java -XX:ArchiveClassesAtExit="$OUT/relatorios.jsa" -cp "$OUT/relatorios.jar" Questao1.BenchInicializacao registro > /dev/null
+
+medir() {
+    nome=$1
+    shift
+    total=0
+    i=0
+    while [ "$i" -lt "$N" ]; do
+        inicio=$(date +%s%N)
+        linha=$(java "$@" | tail -n 1)
+        fim=$(date +%s%N)
+        total=$((total + (fim - inicio) / 1000000))
+        i=$((i + 1))
+    done
+    printf '%-22s processo %5d ms (média de %d) | %s\n' "$nome" $((total / N)) "$N" "$linha"
+}
+
+medir "manual" -cp "$OUT/relatorios.jar" Questao1.BenchInicializacao manual
+medir "registro" -cp "$OUT/relatorios.jar" Questao1.BenchInicializacao registro
+medir "registro + AppCDS" -XX:SharedArchiveFile="$OUT/relatorios.jsa" -cp "$OUT/relatorios.jar" \
+    Questao1.BenchInicializacao registro
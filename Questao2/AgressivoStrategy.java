@@ -14,6 +14,20 @@ public class AgressivoStrategy implements RiskStrategy {
         return clamp(score);
     }
 
+    @Override
+    public void calculateRisk(ClientesColunares c, double[] scores, int from, int to) {
+        // Mesma fórmula do cálculo unitário, em laço sobre arrays primitivos
+        int[] horizontes = c.horizonteAnos;
+        double[] rendas = c.rendaAnual;
+        double[] tolerancias = c.toleranciaRisco;
+        for (int i = from; i < to; i++) {
+            double tol = ClientesColunares.tolerancia(tolerancias[i]);
+            double horizonte = Math.min(horizontes[i], 40) / 40.0 * 100;
+            double renda = Math.min(rendas[i] / 200_000.0, 1.0) * 100;
+            scores[i] = clamp(0.60 * tol + 0.25 * horizonte + 0.15 * renda);
+        }
+    }
+
     @Override
     public String getName() {
         return "Agressivo";
@@ -23,5 +23,46 @@ public class AppRiscoInvestimento {
         System.out.println("\nApós troca para Conservador:");
         System.out.println("Cliente1 -> " + analyzer.analyze(cliente1));
         System.out.println("Cliente2 -> " + analyzer.analyze(cliente2));
+
+        // Modo em lote: mesmos clientes em formato colunar, sem objeto por cliente
+        ClientesColunares bloco = new ClientesColunares(
+                new int[] { 28, 55 },
+                new double[] { 120000, 80000 },
+                new int[] { 15, 5 },
+                new double[] { 75, 30 });
+        double[] scores = new double[bloco.size()];
+        byte[] categorias = new byte[bloco.size()];
+        analyzer.analyzeAll(bloco, scores, categorias);
+        System.out.println("\nLote (Conservador):");
+        for (int i = 0; i < bloco.size(); i++) {
+            System.out.printf("Cliente%d -> Score=%.2f | Categoria=%s%n",
+                    i + 1, scores[i], RiskAnalyzer.categoryName(categorias[i]));
+        }
+
+        // Comparação de modelos sobre o bloco inteiro numa única passada paralela
+        System.out.println("\nComparação paralela (Agressivo x Conservador):");
+        System.out.print(new ParallelRiskEngine().compare(bloco, new AgressivoStrategy(), new ConservadorStrategy()));
+    
+        // Cache de scores: a tela do consultor reanalisa os mesmos perfis a cada carregamento
+        analyzer.enableCache(10_000, 1 << 20, 1_000.0);
+        for (int carga = 0; carga < 3; carga++) {
+            analyzer.analyze(cliente1);
+            analyzer.analyze(cliente2);
+        }
+        System.out.println("\n" + analyzer.getCacheStats());
+        analyzer.setStrategy(new ModeradoStrategy()); // troca de modelo invalida o cache
+        System.out.println("Após troca para Moderado: " + analyzer.getCacheStats());
+
+        // Modelo novo definido em texto (sem recompilar o sistema) e compilado para bytecode
+        ModeloRisco previdencia = ModeloRisco.ler(String.join("\n",
+                "nome: Previdência",
+                "idade      0.50 teto 70 inverso",
+                "horizonte  0.30 teto 30",
+                "tolerancia 0.20",
+                "categorias: 25 55"));
+        analyzer.setStrategy(previdencia.compilar());
+        System.out.println("\nApós troca para modelo declarativo (" + previdencia.nome + "):");
+        System.out.println("Cliente1 -> " + analyzer.analyze(cliente1));
+        System.out.println("Cliente2 -> " + analyzer.analyze(cliente2));
     }
 }
\ No newline at end of file
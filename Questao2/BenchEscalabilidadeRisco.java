@@ -0,0 +1,64 @@
+package Questao2;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// Benchmark de escalabilidade do ParallelRiskEngine: mesma carteira sintética
+// pontuada com paralelismo 1, 2, 4, ... até o número de núcleos disponíveis.
+// Uso: java Questao2.BenchEscalabilidadeRisco [clientes] [repeticoes]
+public class BenchEscalabilidadeRisco {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int repeticoes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int nucleos = Runtime.getRuntime().availableProcessors();
+
+        ClientesColunares clientes = gerarCarteira(n, 42);
+        double[] scores = new double[n];
+        byte[] categorias = new byte[n];
+        RiskSegmenter segmenter = RiskSegmenter.byAge(new int[] { 35, 55 },
+                new AgressivoStrategy(), new ModeradoStrategy(), new ConservadorStrategy());
+
+        System.out.printf("=== Escalabilidade ParallelRiskEngine (%,d clientes, %d núcleos) ===%n", n, nucleos);
+        double base = 0;
+        for (int p = 1; p <= nucleos; p = proximo(p, nucleos)) {
+            ForkJoinPool pool = new ForkJoinPool(p);
+            ParallelRiskEngine engine = new ParallelRiskEngine(pool, ParallelRiskEngine.DEFAULT_CHUNK);
+            for (int w = 0; w < 3; w++) engine.analyze(clientes, segmenter, scores, categorias); // aquecimento
+
+            long melhor = Long.MAX_VALUE;
+            for (int r = 0; r < repeticoes; r++) {
+                long t0 = System.nanoTime();
+                engine.analyze(clientes, segmenter, scores, categorias);
+                melhor = Math.min(melhor, System.nanoTime() - t0);
+            }
+            pool.shutdown();
+
+            double ms = melhor / 1e6;
+            if (p == 1) base = ms;
+            System.out.printf("paralelismo=%2d | %8.1f ms | %7.1f M clientes/s | speedup=%.2fx%n",
+                    p, ms, n / (melhor / 1e9) / 1e6, base / ms);
+        }
+    }
+
+    // 1, 2, 4, ... e por fim o total de núcleos, mesmo que não seja potência de 2
+    private static int proximo(int p, int nucleos) {
+        if (p == nucleos) return nucleos + 1;
+        return Math.min(p * 2, nucleos);
+    }
+
+    static ClientesColunares gerarCarteira(int n, long semente) {
+        Random r = new Random(semente);
+        int[] idade = new int[n];
+        double[] renda = new double[n];
+        int[] horizonte = new int[n];
+        double[] tolerancia = new double[n];
+        for (int i = 0; i < n; i++) {
+            idade[i] = 18 + r.nextInt(70);
+            renda[i] = 20_000 + r.nextDouble() * 300_000;
+            horizonte[i] = 1 + r.nextInt(40);
+            tolerancia[i] = r.nextDouble() * 100;
+        }
+        return new ClientesColunares(idade, renda, horizonte, tolerancia);
+    }
+}
@@ -0,0 +1,65 @@
+package Questao2;
+
+import java.util.Arrays;
+
+// Paridade dos modelos declarativos: estratégia escrita à mão x o mesmo modelo lido de
+// Questao2/modelos e compilado (ModeloRisco.compilar) x interpretado. Confere que os scores são
+// idênticos bit a bit e mede o modo em lote (colunas) e o unitário (objetos Cliente).
+// Uso: java Questao2.BenchModeloRisco [clientes] [repeticoes]
+public class BenchModeloRisco {
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int repeticoes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        ClientesColunares clientes = BenchEscalabilidadeRisco.gerarCarteira(n, 42);
+        Cliente[] objetos = new Cliente[Math.min(n, 200_000)];
+        for (int i = 0; i < objetos.length; i++) objetos[i] = clientes.get(i);
+        double[] referencia = new double[n], scores = new double[n];
+
+        RiskStrategy[] escritos = { new AgressivoStrategy(), new ModeradoStrategy(), new ConservadorStrategy() };
+        String[] arquivos = { "agressivo", "moderado", "conservador" };
+        System.out.printf("=== Modelos declarativos x escritos à mão (%,d clientes) ===%n", n);
+        String[] rotulos = { "à mão", "compilado", "interpretado" };
+        RiskStrategy[][] variantes = new RiskStrategy[escritos.length][];
+        for (int m = 0; m < escritos.length; m++) {
+            ModeloRisco modelo = ModeloRisco.recurso(arquivos[m]);
+            variantes[m] = new RiskStrategy[] { escritos[m], modelo.compilar(), modelo.interpretar() };
+        }
+        // aquecimento de todas as variantes antes de medir qualquer uma (mesmo perfil de tipos para todas)
+        for (RiskStrategy[] vs : variantes) {
+            for (RiskStrategy s : vs) {
+                for (int w = 0; w < 3; w++) s.calculateRisk(clientes, scores, 0, n);
+                for (Cliente c : objetos) s.calculateRisk(c);
+            }
+        }
+        for (int m = 0; m < escritos.length; m++) {
+            escritos[m].calculateRisk(clientes, referencia, 0, n);
+            long[] lote = new long[3], unitario = new long[3];
+            Arrays.fill(lote, Long.MAX_VALUE);
+            Arrays.fill(unitario, Long.MAX_VALUE);
+            double soma = 0;
+            int[] diferentes = new int[3];
+            for (int r = 0; r < repeticoes; r++) {
+                for (int v = 0; v < 3; v++) { // variantes alternadas a cada repetição
+                    RiskStrategy s = variantes[m][v];
+                    long t0 = System.nanoTime();
+                    s.calculateRisk(clientes, scores, 0, n);
+                    lote[v] = Math.min(lote[v], System.nanoTime() - t0);
+                    t0 = System.nanoTime();
+                    for (Cliente c : objetos) soma += s.calculateRisk(c);
+                    unitario[v] = Math.min(unitario[v], System.nanoTime() - t0);
+                    diferentes[v] = 0;
+                    for (int i = 0; i < n; i++) {
+                        if (Double.doubleToLongBits(scores[i]) != Double.doubleToLongBits(referencia[i])) diferentes[v]++;
+                    }
+                }
+            }
+            for (int v = 0; v < 3; v++) {
+                System.out.printf("%-11s %-12s | lote %6.2f ns/cliente | unitário %6.2f ns/cliente | "
+                        + "diferenças: %d%n", escritos[m].getName(), rotulos[v], (double) lote[v] / n,
+                        (double) unitario[v] / objetos.length, diferentes[v]);
+            }
+            if (soma == 42) System.out.println(); // mantém o resultado vivo
+        }
+    }
+}
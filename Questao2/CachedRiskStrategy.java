@@ -0,0 +1,74 @@
+package Questao2;
+
+// Decorador que memoriza scores de qualquer RiskStrategy por perfil quantizado de Cliente.
+// A chave long empacota idade (8 bits), horizonte (8 bits), tolerância em centésimos (14 bits)
+// e a faixa de renda (33 bits). O score guardado é o do perfil representativo da chave
+// (renda no meio da faixa), logo o resultado não depende de qual cliente chegou primeiro.
+// Perfis que não cabem na chave são calculados diretamente, sem passar pelo cache.
+// O decorador fica preso à geração do cache em que foi criado: depois de um invalidate() (troca de
+// modelo), uma thread que ainda usa esta instância não lê nem grava scores da geração nova.
+public class CachedRiskStrategy implements RiskStrategy {
+    private static final long MAX_FAIXA = (1L << 33) - 1;
+
+    private final RiskStrategy delegate;
+    private final ScoreCache cache;
+    private final double larguraFaixaRenda;
+    private final int geracao;
+
+    public CachedRiskStrategy(RiskStrategy delegate, ScoreCache cache, double larguraFaixaRenda) {
+        if (!(larguraFaixaRenda > 0)) throw new IllegalArgumentException("Largura da faixa de renda deve ser positiva");
+        this.delegate = delegate;
+        this.cache = cache;
+        this.larguraFaixaRenda = larguraFaixaRenda;
+        this.geracao = cache.geracao();
+    }
+
+    @Override
+    public double calculateRisk(Cliente c) {
+        long key = key(c.getIdade(), c.getRendaAnual(), c.getHorizonteAnos(), c.getToleranciaRisco());
+        if (key < 0) return delegate.calculateRisk(c);
+
+        double score = cache.get(key, geracao);
+        if (Double.isNaN(score)) {
+            score = delegate.calculateRisk(representante(key));
+            cache.put(key, score, geracao);
+        }
+        return score;
+    }
+
+    // O modo em lote já é vetorizado e sem alocação: vai direto ao modelo, sem quantização
+    @Override
+    public void calculateRisk(ClientesColunares clientes, double[] scores, int from, int to) {
+        delegate.calculateRisk(clientes, scores, from, to);
+    }
+
+    @Override
+    public byte categoryCode(double score) {
+        return delegate.categoryCode(score);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    public RiskStrategy getDelegate() { return delegate; }
+
+    // Chave empacotada do perfil, ou -1 se algum campo estiver fora da faixa representável
+    long key(int idade, double renda, int horizonte, double tolerancia) {
+        if (idade < 0 || idade > 0xFF || horizonte < 0 || horizonte > 0xFF) return -1;
+        if (!(renda >= 0) || Double.isNaN(tolerancia)) return -1;
+        long faixa = (long) (renda / larguraFaixaRenda);
+        if (faixa > MAX_FAIXA) return -1;
+        long tol = Math.round(tolerancia * 100); // 0..10000 (Cliente já limita a 0..100)
+        return faixa << 30 | tol << 16 | (long) horizonte << 8 | idade;
+    }
+
+    private Cliente representante(long key) {
+        int idade = (int) (key & 0xFF);
+        int horizonte = (int) (key >>> 8 & 0xFF);
+        double tolerancia = (key >>> 16 & 0x3FFF) / 100.0;
+        double renda = ((key >>> 30) + 0.5) * larguraFaixaRenda;
+        return new Cliente(idade, renda, horizonte, tolerancia);
+    }
+}
@@ -0,0 +1,39 @@
+package Questao2;
+
+// Bloco de clientes em formato colunar (um array primitivo por atributo).
+// Usado pelo modo em lote do RiskAnalyzer para evitar um objeto Cliente por registro.
+public class ClientesColunares {
+    public final int[] idade;             // anos
+    public final double[] rendaAnual;     // em moeda local
+    public final int[] horizonteAnos;     // horizonte de investimento em anos
+    public final double[] toleranciaRisco; // 0..100 (valores fora da faixa são limitados no cálculo, como em Cliente)
+    private final int tamanho;
+
+    public ClientesColunares(int[] idade, double[] rendaAnual, int[] horizonteAnos, double[] toleranciaRisco) {
+        this(idade, rendaAnual, horizonteAnos, toleranciaRisco, idade.length);
+    }
+
+    public ClientesColunares(int[] idade, double[] rendaAnual, int[] horizonteAnos, double[] toleranciaRisco, int tamanho) {
+        if (tamanho < 0 || idade.length < tamanho || rendaAnual.length < tamanho
+                || horizonteAnos.length < tamanho || toleranciaRisco.length < tamanho) {
+            throw new IllegalArgumentException("Colunas menores que o tamanho do bloco: " + tamanho);
+        }
+        this.idade = idade;
+        this.rendaAnual = rendaAnual;
+        this.horizonteAnos = horizonteAnos;
+        this.toleranciaRisco = toleranciaRisco;
+        this.tamanho = tamanho;
+    }
+
+    public int size() { return tamanho; }
+
+    // Materializa um único registro (útil para diagnóstico e para estratégias sem kernel em lote)
+    public Cliente get(int i) {
+        return new Cliente(idade[i], rendaAnual[i], horizonteAnos[i], toleranciaRisco[i]);
+    }
+
+    // Mesma limitação aplicada pelo construtor de Cliente
+    static double tolerancia(double t) {
+        return Math.max(0, Math.min(100, t));
+    }
+}
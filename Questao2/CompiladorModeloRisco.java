@@ -0,0 +1,386 @@
+package Questao2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.Map;
+
+// Gera, para um ModeloRisco, uma classe oculta que implementa RiskStrategy com a fórmula em linha
+// reta: pesos, tetos e limites viram constantes no bytecode, sem laço sobre os termos nem
+// despacho por atributo. O JIT trata a classe gerada como as estratégias escritas à mão (o mesmo
+// laço sobre as colunas no modo em lote). Versão 50 do formato de classe: dispensa StackMapTable.
+final class CompiladorModeloRisco {
+
+    private static final String ESTRATEGIA = "Questao2/RiskStrategy";
+    private static final String CLIENTE = "Questao2/Cliente";
+    private static final String COLUNAS = "Questao2/ClientesColunares";
+    private static final String MODELO = "Questao2/ModeloRisco";
+
+    // Instruções usadas
+    private static final int ALOAD = 0x19, ASTORE = 0x3a, ILOAD = 0x15, ISTORE = 0x36, DLOAD = 0x18;
+    private static final int LDC_W = 0x13, LDC2_W = 0x14, IALOAD = 0x2e, DALOAD = 0x31, DASTORE = 0x52;
+    private static final int DADD = 0x63, DSUB = 0x67, DMUL = 0x6b, DDIV = 0x6f, I2D = 0x87, DCMPL = 0x97;
+    private static final int IFLT = 0x9b, IF_ICMPGE = 0xa2, GOTO = 0xa7, IINC = 0x84;
+    private static final int ICONST_0 = 0x03, IRETURN = 0xac, DRETURN = 0xaf, ARETURN = 0xb0, RETURN = 0xb1;
+    private static final int GETFIELD = 0xb4, INVOKEVIRTUAL = 0xb6, INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8;
+
+    private CompiladorModeloRisco() { }
+
+    static RiskStrategy compilar(ModeloRisco modelo) {
+        byte[] classe = new Classe(modelo).gerar();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classe, true);
+            return (RiskStrategy) lookup.lookupClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Falha ao compilar o modelo " + modelo.nome, e);
+        }
+    }
+
+    // Arquivo de classe de uma estratégia: tabela de constantes e os cinco métodos
+    private static final class Classe {
+        private final ModeloRisco modelo;
+        private final ByteArrayOutputStream constantes = new ByteArrayOutputStream();
+        private final DataOutputStream cp = new DataOutputStream(constantes);
+        private final Map<String, Integer> indices = new HashMap<>();
+        private int proxima = 1;
+
+        Classe(ModeloRisco modelo) {
+            this.modelo = modelo;
+        }
+
+        byte[] gerar() {
+            try {
+                int esta = classe("Questao2/ModeloRiscoCompilado");
+                int superclasse = classe("java/lang/Object");
+                int interfaceEstrategia = classe(ESTRATEGIA);
+                int code = utf8("Code");
+                byte[][] metodos = {
+                    metodoInfo(code, "<init>", "()V", 1, 1, construtor()),
+                    metodoInfo(code, "calculateRisk", "(L" + CLIENTE + ";)D", 16, 2, unitario()),
+                    metodoInfo(code, "calculateRisk", "(L" + COLUNAS + ";[DII)V", 16, 10, lote()),
+                    metodoInfo(code, "categoryCode", "(D)B", 4, 3, categoria()),
+                    metodoInfo(code, "getName", "()Ljava/lang/String;", 1, 1, nome()),
+                };
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(50);
+                out.writeShort(proxima);
+                constantes.writeTo(out);
+                out.writeShort(0x0010 | 0x0020); // final, super
+                out.writeShort(esta);
+                out.writeShort(superclasse);
+                out.writeShort(1);
+                out.writeShort(interfaceEstrategia);
+                out.writeShort(0); // campos
+                out.writeShort(metodos.length);
+                for (byte[] m : metodos) out.write(m);
+                out.writeShort(0); // atributos da classe
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private byte[] construtor() throws IOException {
+            Codigo c = new Codigo();
+            c.local(ALOAD, 0);
+            c.op(INVOKESPECIAL).u2(metodo("java/lang/Object", "<init>", "()V"));
+            c.op(RETURN);
+            return c.bytes();
+        }
+
+        // score de um Cliente: getters do objeto
+        private byte[] unitario() throws IOException {
+            Codigo c = new Codigo();
+            formula(c, -1);
+            c.op(DRETURN);
+            return c.bytes();
+        }
+
+        // for (i = from; i < to; i++) scores[i] = fórmula sobre as colunas em i
+        // locais: 0 this, 1 colunas, 2 scores, 3 from, 4 to, 5 i, 6..9 arrays das colunas usadas
+        private byte[] lote() throws IOException {
+            Codigo c = new Codigo();
+            boolean[] usados = new boolean[ModeloRisco.Atributo.values().length];
+            for (ModeloRisco.Termo t : modelo.termos) usados[t.atributo.ordinal()] = true;
+            for (ModeloRisco.Atributo a : ModeloRisco.Atributo.values()) {
+                if (!usados[a.ordinal()]) continue;
+                c.local(ALOAD, 1);
+                c.op(GETFIELD).u2(campo(COLUNAS, coluna(a), inteiro(a) ? "[I" : "[D"));
+                c.local(ASTORE, 6 + a.ordinal());
+            }
+            c.local(ILOAD, 3);
+            c.local(ISTORE, 5);
+            int teste = c.posicao();
+            c.local(ILOAD, 5);
+            c.local(ILOAD, 4);
+            int saida = c.posicao();
+            c.op(IF_ICMPGE).u2(0);
+            c.local(ALOAD, 2);
+            c.local(ILOAD, 5);
+            formula(c, 5);
+            c.op(DASTORE);
+            c.op(IINC).u1(5).u1(1);
+            c.op(GOTO).u2(teste - c.posicao() + 1);
+            c.desvio(saida, c.posicao());
+            c.op(RETURN);
+            return c.bytes();
+        }
+
+        // Deixa na pilha clamp(fator * (peso0 * termo0 + peso1 * termo1 + ...)), na mesma ordem de
+        // operações de ModeloRisco.Termo.valor. indice < 0: atributos vêm do Cliente em local 1.
+        private void formula(Codigo c, int indice) throws IOException {
+            boolean primeiro = true;
+            for (ModeloRisco.Termo t : modelo.termos) {
+                c.op(LDC2_W).u2(dupla(t.peso));
+                boolean teto = !Double.isNaN(t.teto);
+                if (t.inverso) c.op(LDC2_W).u2(dupla(1.0));
+                // atributo inteiro com teto inteiro: min em int, como nas estratégias escritas à mão
+                // (mais barato que o Math.min de double, que trata NaN e -0.0)
+                boolean minInteiro = teto && inteiro(t.atributo) && t.teto == (int) t.teto;
+                atributo(c, t.atributo, indice, !minInteiro);
+                if (minInteiro) {
+                    c.op(LDC_W).u2(inteiro((int) t.teto));
+                    c.op(INVOKESTATIC).u2(metodo("java/lang/Math", "min", "(II)I"));
+                    c.op(I2D);
+                } else if (teto) {
+                    c.op(LDC2_W).u2(dupla(t.teto));
+                    c.op(INVOKESTATIC).u2(metodo("java/lang/Math", "min", "(DD)D"));
+                }
+                if (teto) {
+                    c.op(LDC2_W).u2(dupla(t.teto));
+                    c.op(DDIV);
+                    if (t.inverso) c.op(DSUB);
+                    c.op(LDC2_W).u2(dupla(100.0));
+                    c.op(DMUL);
+                }
+                c.op(DMUL);
+                if (!primeiro) c.op(DADD);
+                primeiro = false;
+            }
+            if (modelo.fator != 1.0) {
+                c.op(LDC2_W).u2(dupla(modelo.fator));
+                c.op(DMUL);
+            }
+            c.op(INVOKESTATIC).u2(metodo(MODELO, "clamp", "(D)D"));
+        }
+
+        // Valor do atributo na pilha (int de idade e horizonte convertido para double se "comoDouble")
+        private void atributo(Codigo c, ModeloRisco.Atributo a, int indice, boolean comoDouble) throws IOException {
+            if (indice < 0) {
+                c.local(ALOAD, 1);
+                c.op(INVOKEVIRTUAL).u2(metodo(CLIENTE, getter(a), inteiro(a) ? "()I" : "()D"));
+            } else {
+                c.local(ALOAD, 6 + a.ordinal());
+                c.local(ILOAD, indice);
+                c.op(inteiro(a) ? IALOAD : DALOAD);
+                // Cliente já limita a tolerância no construtor; nas colunas o limite é aplicado aqui
+                if (a == ModeloRisco.Atributo.TOLERANCIA) {
+                    c.op(INVOKESTATIC).u2(metodo(COLUNAS, "tolerancia", "(D)D"));
+                }
+            }
+            if (inteiro(a) && comoDouble) c.op(I2D);
+        }
+
+        // if (score >= alto) return ALTO; if (score >= moderado) return MODERADO; return BAIXO
+        private byte[] categoria() throws IOException {
+            Codigo c = new Codigo();
+            double[] limites = { modelo.limiteAlto, modelo.limiteModerado };
+            byte[] codigos = { RiskAnalyzer.ALTO, RiskAnalyzer.MODERADO };
+            for (int k = 0; k < 2; k++) {
+                c.local(DLOAD, 1);
+                c.op(LDC2_W).u2(dupla(limites[k]));
+                c.op(DCMPL);
+                int abaixo = c.posicao();
+                c.op(IFLT).u2(0);
+                c.op(ICONST_0 + codigos[k]);
+                c.op(IRETURN);
+                c.desvio(abaixo, c.posicao());
+            }
+            c.op(ICONST_0 + RiskAnalyzer.BAIXO);
+            c.op(IRETURN);
+            return c.bytes();
+        }
+
+        private byte[] nome() throws IOException {
+            Codigo c = new Codigo();
+            c.op(LDC_W).u2(texto(modelo.nome));
+            c.op(ARETURN);
+            return c.bytes();
+        }
+
+        // method_info com um único atributo Code
+        private byte[] metodoInfo(int code, String nome, String descritor, int pilha, int locais, byte[] codigo)
+                throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeShort(0x0001); // public
+            out.writeShort(utf8(nome));
+            out.writeShort(utf8(descritor));
+            out.writeShort(1);
+            out.writeShort(code);
+            out.writeInt(12 + codigo.length);
+            out.writeShort(pilha);
+            out.writeShort(locais);
+            out.writeInt(codigo.length);
+            out.write(codigo);
+            out.writeShort(0); // exceções
+            out.writeShort(0); // atributos
+            return bytes.toByteArray();
+        }
+
+        private static boolean inteiro(ModeloRisco.Atributo a) {
+            return a == ModeloRisco.Atributo.IDADE || a == ModeloRisco.Atributo.HORIZONTE;
+        }
+
+        private static String getter(ModeloRisco.Atributo a) {
+            switch (a) {
+                case IDADE: return "getIdade";
+                case RENDA: return "getRendaAnual";
+                case HORIZONTE: return "getHorizonteAnos";
+                default: return "getToleranciaRisco";
+            }
+        }
+
+        private static String coluna(ModeloRisco.Atributo a) {
+            switch (a) {
+                case IDADE: return "idade";
+                case RENDA: return "rendaAnual";
+                case HORIZONTE: return "horizonteAnos";
+                default: return "toleranciaRisco";
+            }
+        }
+
+        // Tabela de constantes (cada entrada aparece uma vez)
+
+        private int utf8(String s) throws IOException {
+            Integer i = indices.get("U" + s);
+            if (i != null) return i;
+            cp.writeByte(1);
+            cp.writeUTF(s);
+            return registrar("U" + s, 1);
+        }
+
+        private int classe(String nome) throws IOException {
+            Integer i = indices.get("C" + nome);
+            if (i != null) return i;
+            int n = utf8(nome);
+            cp.writeByte(7);
+            cp.writeShort(n);
+            return registrar("C" + nome, 1);
+        }
+
+        private int texto(String s) throws IOException {
+            Integer i = indices.get("S" + s);
+            if (i != null) return i;
+            int n = utf8(s);
+            cp.writeByte(8);
+            cp.writeShort(n);
+            return registrar("S" + s, 1);
+        }
+
+        private int inteiro(int v) throws IOException {
+            Integer i = indices.get("I" + v);
+            if (i != null) return i;
+            cp.writeByte(3);
+            cp.writeInt(v);
+            return registrar("I" + v, 1);
+        }
+
+        private int dupla(double d) throws IOException {
+            String chave = "D" + Double.doubleToRawLongBits(d);
+            Integer i = indices.get(chave);
+            if (i != null) return i;
+            cp.writeByte(6);
+            cp.writeDouble(d);
+            return registrar(chave, 2); // long e double ocupam duas posições
+        }
+
+        private int nomeETipo(String nome, String descritor) throws IOException {
+            Integer i = indices.get("N" + nome + ":" + descritor);
+            if (i != null) return i;
+            int n = utf8(nome), d = utf8(descritor);
+            cp.writeByte(12);
+            cp.writeShort(n);
+            cp.writeShort(d);
+            return registrar("N" + nome + ":" + descritor, 1);
+        }
+
+        private int metodo(String dono, String nome, String descritor) throws IOException {
+            return referencia(10, "M", dono, nome, descritor);
+        }
+
+        private int campo(String dono, String nome, String descritor) throws IOException {
+            return referencia(9, "F", dono, nome, descritor);
+        }
+
+        private int referencia(int tag, String tipo, String dono, String nome, String descritor) throws IOException {
+            String chave = tipo + dono + "." + nome + ":" + descritor;
+            Integer i = indices.get(chave);
+            if (i != null) return i;
+            int c = classe(dono), nt = nomeETipo(nome, descritor);
+            cp.writeByte(tag);
+            cp.writeShort(c);
+            cp.writeShort(nt);
+            return registrar(chave, 1);
+        }
+
+        private int registrar(String chave, int posicoes) {
+            int i = proxima;
+            proxima += posicoes;
+            indices.put(chave, i);
+            return i;
+        }
+    }
+
+    // Bytes de um método, com desvios de 16 bits relativos à instrução
+    private static final class Codigo {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<Integer, Integer> pendentes = new HashMap<>(); // instrução -> deslocamento
+
+        Codigo op(int opcode) {
+            bytes.write(opcode);
+            return this;
+        }
+
+        Codigo u1(int v) {
+            bytes.write(v);
+            return this;
+        }
+
+        Codigo u2(int v) {
+            bytes.write(v >>> 8);
+            bytes.write(v);
+            return this;
+        }
+
+        // aload/iload/dload/astore/istore com índice de um byte (locais < 256)
+        void local(int opcode, int indice) {
+            op(opcode).u1(indice);
+        }
+
+        int posicao() {
+            return bytes.size();
+        }
+
+        // Corrige o deslocamento do desvio em "instrucao" para saltar até "destino"
+        void desvio(int instrucao, int destino) {
+            pendentes.put(instrucao, destino - instrucao);
+        }
+
+        byte[] bytes() {
+            byte[] b = bytes.toByteArray();
+            for (Map.Entry<Integer, Integer> e : pendentes.entrySet()) {
+                b[e.getKey() + 1] = (byte) (e.getValue() >>> 8);
+                b[e.getKey() + 2] = (byte) (int) e.getValue();
+            }
+            return b;
+        }
+    }
+}
@@ -17,6 +17,24 @@ public class ConservadorStrategy implements RiskStrategy {
         return clamp(score);
     }
 
+    @Override
+    public void calculateRisk(ClientesColunares c, double[] scores, int from, int to) {
+        // Mesma fórmula do cálculo unitário, em laço sobre arrays primitivos
+        int[] idades = c.idade;
+        int[] horizontes = c.horizonteAnos;
+        double[] rendas = c.rendaAnual;
+        double[] tolerancias = c.toleranciaRisco;
+        for (int i = from; i < to; i++) {
+            double tol = ClientesColunares.tolerancia(tolerancias[i]);
+            double idadeFactor = (1.0 - Math.min(idades[i], 100) / 100.0) * 100;
+            double horizonte = Math.min(horizontes[i], 20) / 20.0 * 100;
+            double renda = Math.min(rendas[i] / 100_000.0, 1.0) * 100;
+            double score = 0.30 * tol + 0.40 * idadeFactor + 0.20 * horizonte + 0.10 * renda;
+            score *= 0.85;
+            scores[i] = clamp(score);
+        }
+    }
+
     @Override
     public String getName() {
         return "Conservador";
@@ -0,0 +1,235 @@
+package Questao2;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// Modelo de risco declarativo: soma ponderada de atributos normalizados, fator de escala, limite
+// 0..100 e limites de categoria. Lido de um texto em tempo de execução e compilado (compilar()) numa
+// classe gerada com a fórmula em linha reta, tão rápida quanto as estratégias escritas à mão.
+// Formato (uma declaração por linha, # inicia comentário):
+//   nome: Conservador
+//   idade       0.40  teto 100  inverso    -> 0.40 * (1 - min(idade, 100) / 100) * 100
+//   renda       0.10  teto 100000          -> 0.10 * min(renda, 100000) / 100000 * 100
+//   tolerancia  0.30                       -> 0.30 * tolerância (já em 0..100)
+//   fator: 0.85                            (opcional, padrão 1)
+//   categorias: 33 66                      (opcional, padrão RiskAnalyzer.LIMITE_MODERADO/ALTO)
+public final class ModeloRisco {
+
+    public enum Atributo { IDADE, RENDA, HORIZONTE, TOLERANCIA }
+
+    // Um termo da soma: peso * atributo normalizado (teto NaN = atributo usado como está)
+    public static final class Termo {
+        public final Atributo atributo;
+        public final double peso;
+        public final double teto;
+        public final boolean inverso;
+
+        Termo(Atributo atributo, double peso, double teto, boolean inverso) {
+            this.atributo = atributo;
+            this.peso = peso;
+            this.teto = teto;
+            this.inverso = inverso;
+        }
+
+        // A mesma sequência de operações que o código gerado executa
+        double valor(double x) {
+            if (Double.isNaN(teto)) return peso * x;
+            double n = Math.min(x, teto) / teto;
+            return peso * ((inverso ? 1.0 - n : n) * 100);
+        }
+    }
+
+    public final String nome;
+    public final List<Termo> termos;
+    public final double fator;
+    public final double limiteModerado, limiteAlto;
+
+    private ModeloRisco(String nome, List<Termo> termos, double fator, double limiteModerado, double limiteAlto) {
+        this.nome = nome;
+        this.termos = Collections.unmodifiableList(termos);
+        this.fator = fator;
+        this.limiteModerado = limiteModerado;
+        this.limiteAlto = limiteAlto;
+    }
+
+    public static ModeloRisco ler(String texto) {
+        try {
+            return ler(new StringReader(texto));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static ModeloRisco carregar(Path arquivo) throws IOException {
+        try (Reader in = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            return ler(in);
+        }
+    }
+
+    // Modelos que acompanham o código (Questao2/modelos/<nome>.modelo no classpath)
+    public static ModeloRisco recurso(String nome) throws IOException {
+        try (InputStream in = ModeloRisco.class.getResourceAsStream("modelos/" + nome + ".modelo")) {
+            if (in == null) throw new IOException("Modelo não encontrado: modelos/" + nome + ".modelo");
+            return ler(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    public static ModeloRisco ler(Reader texto) throws IOException {
+        BufferedReader in = new BufferedReader(texto);
+        String nome = null;
+        List<Termo> termos = new ArrayList<>();
+        double fator = 1.0;
+        double limiteModerado = RiskAnalyzer.LIMITE_MODERADO, limiteAlto = RiskAnalyzer.LIMITE_ALTO;
+        int numero = 0;
+        for (String linha; (linha = in.readLine()) != null; ) {
+            numero++;
+            int comentario = linha.indexOf('#');
+            if (comentario >= 0) linha = linha.substring(0, comentario);
+            linha = linha.trim();
+            if (linha.isEmpty()) continue;
+            try {
+                int doisPontos = linha.indexOf(':');
+                if (doisPontos >= 0) {
+                    String chave = linha.substring(0, doisPontos).trim().toLowerCase(Locale.ROOT);
+                    String valor = linha.substring(doisPontos + 1).trim();
+                    switch (chave) {
+                        case "nome": nome = valor; break;
+                        case "fator": fator = Double.parseDouble(valor); break;
+                        case "categorias": {
+                            String[] l = valor.split("\\s+");
+                            if (l.length != 2) throw new IllegalArgumentException("categorias: esperado \"moderado alto\"");
+                            limiteModerado = Double.parseDouble(l[0]);
+                            limiteAlto = Double.parseDouble(l[1]);
+                            break;
+                        }
+                        default: throw new IllegalArgumentException("chave desconhecida: " + chave);
+                    }
+                    continue;
+                }
+                termos.add(termo(linha.split("\\s+")));
+            } catch (IllegalArgumentException e) { // inclui NumberFormatException
+                throw new IllegalArgumentException("Modelo de risco, linha " + numero + ": " + e.getMessage(), e);
+            }
+        }
+        if (nome == null || nome.isEmpty()) throw new IllegalArgumentException("Modelo de risco sem nome");
+        if (termos.isEmpty()) throw new IllegalArgumentException("Modelo de risco sem atributos: " + nome);
+        if (!(limiteModerado <= limiteAlto)) {
+            throw new IllegalArgumentException("Limites de categoria fora de ordem: " + limiteModerado + " " + limiteAlto);
+        }
+        return new ModeloRisco(nome, termos, fator, limiteModerado, limiteAlto);
+    }
+
+    private static Termo termo(String[] p) {
+        Atributo atributo;
+        try {
+            atributo = Atributo.valueOf(p[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("atributo desconhecido: " + p[0]);
+        }
+        if (p.length < 2) throw new IllegalArgumentException("peso ausente para " + p[0]);
+        double peso = Double.parseDouble(p[1]);
+        double teto = Double.NaN;
+        boolean inverso = false;
+        for (int i = 2; i < p.length; i++) {
+            if (p[i].equals("teto") && i + 1 < p.length) {
+                teto = Double.parseDouble(p[++i]);
+                if (!(teto > 0)) throw new IllegalArgumentException("teto deve ser positivo: " + p[i]);
+            } else if (p[i].equals("inverso")) {
+                inverso = true;
+            } else {
+                throw new IllegalArgumentException("opção desconhecida: " + p[i]);
+            }
+        }
+        if (inverso && Double.isNaN(teto)) throw new IllegalArgumentException("inverso exige teto: " + p[0]);
+        return new Termo(atributo, peso, teto, inverso);
+    }
+
+    // Estratégia com a fórmula deste modelo gerada em bytecode (uma classe oculta por chamada)
+    public RiskStrategy compilar() {
+        return CompiladorModeloRisco.compilar(this);
+    }
+
+    // Estratégia que percorre os termos a cada cliente: mesma resposta do compilado, bem mais lenta.
+    // Serve de referência e de alternativa onde não se pode gerar classes.
+    public RiskStrategy interpretar() {
+        return new RiskStrategy() {
+            @Override
+            public double calculateRisk(Cliente c) {
+                return pontuar(c.getIdade(), c.getRendaAnual(), c.getHorizonteAnos(), c.getToleranciaRisco());
+            }
+
+            @Override
+            public void calculateRisk(ClientesColunares c, double[] scores, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    scores[i] = pontuar(c.idade[i], c.rendaAnual[i], c.horizonteAnos[i],
+                            ClientesColunares.tolerancia(c.toleranciaRisco[i]));
+                }
+            }
+
+            @Override
+            public byte categoryCode(double score) {
+                return categoria(score);
+            }
+
+            @Override
+            public String getName() {
+                return nome;
+            }
+        };
+    }
+
+    private double pontuar(int idade, double renda, int horizonte, double tolerancia) {
+        double score = 0;
+        for (int t = 0; t < termos.size(); t++) {
+            Termo termo = termos.get(t);
+            double x;
+            switch (termo.atributo) {
+                case IDADE: x = idade; break;
+                case RENDA: x = renda; break;
+                case HORIZONTE: x = horizonte; break;
+                default: x = tolerancia;
+            }
+            score = t == 0 ? termo.valor(x) : score + termo.valor(x);
+        }
+        if (fator != 1.0) score *= fator;
+        return clamp(score);
+    }
+
+    byte categoria(double score) {
+        if (score >= limiteAlto) return RiskAnalyzer.ALTO;
+        if (score >= limiteModerado) return RiskAnalyzer.MODERADO;
+        return RiskAnalyzer.BAIXO;
+    }
+
+    // Mesmo limite das estratégias escritas à mão (NaN passa adiante)
+    static double clamp(double v) {
+        if (v < 0) return 0;
+        if (v > 100) return 100;
+        return v;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("nome: ").append(nome).append('\n');
+        for (Termo t : termos) {
+            sb.append(t.atributo.name().toLowerCase(Locale.ROOT)).append(' ').append(t.peso);
+            if (!Double.isNaN(t.teto)) sb.append(" teto ").append(t.teto);
+            if (t.inverso) sb.append(" inverso");
+            sb.append('\n');
+        }
+        if (fator != 1.0) sb.append("fator: ").append(fator).append('\n');
+        return sb.append("categorias: ").append(limiteModerado).append(' ').append(limiteAlto).append('\n').toString();
+    }
+}
@@ -14,6 +14,20 @@ public class ModeradoStrategy implements RiskStrategy {
         return clamp(score);
     }
 
+    @Override
+    public void calculateRisk(ClientesColunares c, double[] scores, int from, int to) {
+        // Mesma fórmula do cálculo unitário, em laço sobre arrays primitivos
+        int[] idades = c.idade;
+        int[] horizontes = c.horizonteAnos;
+        double[] tolerancias = c.toleranciaRisco;
+        for (int i = from; i < to; i++) {
+            double tol = ClientesColunares.tolerancia(tolerancias[i]);
+            double idadeFactor = (1.0 - Math.min(idades[i], 100) / 100.0) * 100;
+            double horizonte = Math.min(horizontes[i], 30) / 30.0 * 100;
+            scores[i] = clamp(0.40 * tol + 0.30 * idadeFactor + 0.30 * horizonte);
+        }
+    }
+
     @Override
     public String getName() {
         return "Moderado";
@@ -0,0 +1,203 @@
+package Questao2;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Pontuação paralela de grandes populações de clientes com Fork/Join.
+// O bloco é dividido recursivamente até o limiar de chunk; cada folha usa os kernels em lote
+// das estratégias e devolve suas próprias estatísticas, combinadas na volta do join.
+public class ParallelRiskEngine {
+    static final int DEFAULT_CHUNK = 16 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunk;
+    // Áreas de trabalho das folhas, emprestadas e devolvidas a cada folha. Ficam com o motor (e são
+    // coletadas com ele), no máximo uma por thread do pool; as que sobram na devolução são descartadas
+    private final ArrayBlockingQueue<Rascunho> rascunhos;
+
+    public ParallelRiskEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK);
+    }
+
+    public ParallelRiskEngine(ForkJoinPool pool, int chunk) {
+        if (chunk <= 0) throw new IllegalArgumentException("chunk deve ser positivo");
+        this.pool = pool;
+        this.chunk = chunk;
+        this.rascunhos = new ArrayBlockingQueue<>(Math.max(1, pool.getParallelism()));
+    }
+
+    // Pontua cada cliente com a estratégia do seu segmento, preenchendo scores/categorias.
+    public RiskStatistics analyze(ClientesColunares clientes, RiskSegmenter segmenter,
+                                  double[] scores, byte[] categorias) {
+        int n = clientes.size();
+        if (scores.length < n || categorias.length < n) {
+            throw new IllegalArgumentException("Arrays de saída menores que o bloco: " + n);
+        }
+        return pool.invoke(new SegmentTask(clientes, segmenter, scores, categorias, 0, n));
+    }
+
+    // Aplica todas as estratégias a todo o bloco numa única passada (um segmento por modelo),
+    // útil para comparar, por exemplo, Agressivo e Conservador sobre a carteira inteira.
+    public RiskStatistics compare(ClientesColunares clientes, RiskStrategy... modelos) {
+        String[] nomes = new String[modelos.length];
+        for (int m = 0; m < modelos.length; m++) nomes[m] = modelos[m].getName();
+        // Buffer único para o bloco: cada folha escreve apenas no próprio intervalo e o reutiliza entre modelos
+        double[] scores = new double[clientes.size()];
+        return pool.invoke(new CompareTask(clientes, modelos, nomes, scores, 0, clientes.size()));
+    }
+
+    private final class SegmentTask extends RecursiveTask<RiskStatistics> {
+        private final ClientesColunares clientes;
+        private final RiskSegmenter segmenter;
+        private final double[] scores;
+        private final byte[] categorias;
+        private final int from, to;
+
+        SegmentTask(ClientesColunares clientes, RiskSegmenter segmenter, double[] scores, byte[] categorias, int from, int to) {
+            this.clientes = clientes;
+            this.segmenter = segmenter;
+            this.scores = scores;
+            this.categorias = categorias;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected RiskStatistics compute() {
+            if (to - from > chunk) {
+                int mid = (from + to) >>> 1;
+                SegmentTask left = new SegmentTask(clientes, segmenter, scores, categorias, from, mid);
+                left.fork();
+                RiskStatistics right = new SegmentTask(clientes, segmenter, scores, categorias, mid, to).compute();
+                return left.join().merge(right);
+            }
+            RiskStatistics stats = RiskStatistics.forSegments(segmenter);
+            int n = to - from;
+            int nSegmentos = segmenter.segmentCount();
+            Rascunho r = rascunhos.poll();
+            if (r == null) r = new Rascunho();
+            try {
+                return pontuar(r.preparar(n), stats, n, nSegmentos);
+            } finally {
+                rascunhos.offer(r);
+            }
+        }
+
+        private RiskStatistics pontuar(Rascunho r, RiskStatistics stats, int n, int nSegmentos) {
+            int[] segmentos = r.segmentos;
+            int[] inicio = new int[nSegmentos + 1]; // contagem por segmento, depois início de cada grupo
+            int trechos = 0, presentes = 0;
+            for (int k = 0; k < n; k++) {
+                int s = segmenter.segmentOf(clientes, from + k);
+                segmentos[k] = s;
+                if (inicio[s + 1]++ == 0) presentes++;
+                if (k == 0 || s != segmentos[k - 1]) trechos++;
+            }
+            if (trechos == presentes) {
+                // Cada segmento já é um trecho contíguo: o kernel em lote roda direto sobre o bloco
+                int i = from;
+                while (i < to) {
+                    int segmento = segmentos[i - from];
+                    int fim = i + 1;
+                    while (fim < to && segmentos[fim - from] == segmento) fim++;
+                    RiskAnalyzer.analyzeAll(segmenter.strategyFor(segmento), clientes, scores, categorias, i, fim);
+                    for (int k = i; k < fim; k++) stats.add(segmento, scores[k], categorias[k]);
+                    i = fim;
+                }
+                return stats;
+            }
+            // Segmentos intercalados (trechos de um cliente só): ordena o trecho por segmento (counting
+            // sort estável), copia as colunas nessa ordem e chama o kernel uma vez por segmento;
+            // scores e categorias voltam às posições originais
+            for (int s = 0; s < nSegmentos; s++) inicio[s + 1] += inicio[s];
+            int[] ordem = r.ordem;
+            int[] proximo = Arrays.copyOf(inicio, nSegmentos);
+            for (int k = 0; k < n; k++) ordem[proximo[segmentos[k]]++] = from + k;
+            ClientesColunares agrupados = r.reunir(clientes, n);
+            double[] s2 = r.scores;
+            byte[] c2 = r.categorias;
+            for (int s = 0; s < nSegmentos; s++) {
+                if (inicio[s] == inicio[s + 1]) continue;
+                RiskAnalyzer.analyzeAll(segmenter.strategyFor(s), agrupados, s2, c2, inicio[s], inicio[s + 1]);
+                for (int k = inicio[s]; k < inicio[s + 1]; k++) {
+                    scores[ordem[k]] = s2[k];
+                    categorias[ordem[k]] = c2[k];
+                    stats.add(s, s2[k], c2[k]);
+                }
+            }
+            return stats;
+        }
+    }
+
+    // Arrays reaproveitados entre folhas: segmento de cada cliente, a ordem agrupada, as colunas
+    // copiadas nessa ordem e os resultados antes de voltarem às posições originais
+    private static final class Rascunho {
+        int[] segmentos = new int[0], ordem = new int[0], idade = new int[0], horizonte = new int[0];
+        double[] renda = new double[0], tolerancia = new double[0], scores = new double[0];
+        byte[] categorias = new byte[0];
+
+        Rascunho preparar(int n) {
+            if (segmentos.length < n) {
+                segmentos = new int[n];
+                ordem = new int[n];
+                idade = new int[n];
+                horizonte = new int[n];
+                renda = new double[n];
+                tolerancia = new double[n];
+                scores = new double[n];
+                categorias = new byte[n];
+            }
+            return this;
+        }
+
+        // Cópia colunar dos clientes nas posições de ordem[0..n)
+        ClientesColunares reunir(ClientesColunares clientes, int n) {
+            for (int k = 0; k < n; k++) {
+                int i = ordem[k];
+                idade[k] = clientes.idade[i];
+                renda[k] = clientes.rendaAnual[i];
+                horizonte[k] = clientes.horizonteAnos[i];
+                tolerancia[k] = clientes.toleranciaRisco[i];
+            }
+            return new ClientesColunares(idade, renda, horizonte, tolerancia, n);
+        }
+    }
+
+    private final class CompareTask extends RecursiveTask<RiskStatistics> {
+        private final ClientesColunares clientes;
+        private final RiskStrategy[] modelos;
+        private final String[] nomes;
+        private final double[] scores;
+        private final int from, to;
+
+        CompareTask(ClientesColunares clientes, RiskStrategy[] modelos, String[] nomes, double[] scores, int from, int to) {
+            this.clientes = clientes;
+            this.modelos = modelos;
+            this.nomes = nomes;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected RiskStatistics compute() {
+            if (to - from > chunk) {
+                int mid = (from + to) >>> 1;
+                CompareTask left = new CompareTask(clientes, modelos, nomes, scores, from, mid);
+                left.fork();
+                RiskStatistics right = new CompareTask(clientes, modelos, nomes, scores, mid, to).compute();
+                return left.join().merge(right);
+            }
+            RiskStatistics stats = new RiskStatistics(nomes);
+            for (int m = 0; m < modelos.length; m++) {
+                modelos[m].calculateRisk(clientes, scores, from, to);
+                for (int k = from; k < to; k++) {
+                    stats.add(m, scores[k], modelos[m].categoryCode(scores[k]));
+                }
+            }
+            return stats;
+        }
+    }
+}
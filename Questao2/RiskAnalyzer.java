@@ -1,26 +1,99 @@
 package Questao2;
 
 public class RiskAnalyzer {
-    private RiskStrategy strategy;
+    // Limites padrão de categoria (score >= LIMITE_ALTO é Alto, >= LIMITE_MODERADO é Moderado)
+    public static final double LIMITE_MODERADO = 33;
+    public static final double LIMITE_ALTO = 66;
+
+    // Códigos de categoria usados no modo em lote (evitam uma String por cliente)
+    public static final byte BAIXO = 0;
+    public static final byte MODERADO = 1;
+    public static final byte ALTO = 2;
+
+    private static final String[] NOMES_CATEGORIA = { "Baixo", "Moderado", "Alto" };
+
+    private static final ParallelRiskEngine ENGINE = new ParallelRiskEngine();
+
+    // volatile: a troca de modelo pode ocorrer enquanto outras threads analisam
+    private volatile RiskStrategy strategy;
+
+    // Cache opcional de scores; quando ativo, strategy é um CachedRiskStrategy sobre o modelo escolhido
+    private ScoreCache cache;
+    private double larguraFaixaRenda;
 
     public RiskAnalyzer(RiskStrategy initial) {
         this.strategy = initial;
     }
 
-    public void setStrategy(RiskStrategy strategy) {
+    public synchronized void setStrategy(RiskStrategy strategy) {
+        if (cache != null) {
+            // Scores do modelo anterior deixam de valer; o decorador novo usa a geração aberta aqui e o
+            // antigo (ainda em uso por outras threads) não grava mais no cache
+            cache.invalidate();
+            strategy = new CachedRiskStrategy(strategy, cache, larguraFaixaRenda);
+        }
         this.strategy = strategy;
     }
 
+    // Ativa o cache de scores por perfil (idade, horizonte, tolerância e faixa de renda).
+    // A capacidade é o menor valor entre maxEntries e o que cabe em maxBytes.
+    public synchronized void enableCache(int maxEntries, long maxBytes, double larguraFaixaRenda) {
+        RiskStrategy atual = strategy instanceof CachedRiskStrategy
+                ? ((CachedRiskStrategy) strategy).getDelegate() : strategy;
+        this.cache = new ScoreCache(maxEntries, maxBytes);
+        this.larguraFaixaRenda = larguraFaixaRenda;
+        this.strategy = new CachedRiskStrategy(atual, cache, larguraFaixaRenda);
+    }
+
+    // Contadores do cache, ou null se o cache não estiver ativo
+    public synchronized ScoreCache.Stats getCacheStats() {
+        return cache != null ? cache.stats() : null;
+    }
+
     public Result analyze(Cliente cliente) {
-        double score = strategy.calculateRisk(cliente);
-        String categoria = categorize(score);
-        return new Result(strategy.getName(), score, categoria);
+        RiskStrategy atual = strategy; // lê uma vez para score e nome virem do mesmo modelo
+        double score = atual.calculateRisk(cliente);
+        String categoria = categoryName(atual.categoryCode(score));
+        return new Result(atual.getName(), score, categoria);
+    }
+
+    // Modo em lote: escreve score e código de categoria de cada cliente nos arrays de saída.
+    // Nenhum objeto é alocado por cliente; os resultados são idênticos aos de analyze().
+    public void analyzeAll(ClientesColunares clientes, double[] scores, byte[] categorias) {
+        int n = clientes.size();
+        if (scores.length < n || categorias.length < n) {
+            throw new IllegalArgumentException("Arrays de saída menores que o bloco: " + n);
+        }
+        analyzeAll(strategy, clientes, scores, categorias, 0, n);
+    }
+
+    // Versão paralela (Fork/Join) com o modelo atual para todo o bloco
+    public RiskStatistics analyzeAllParallel(ClientesColunares clientes, double[] scores, byte[] categorias) {
+        return ENGINE.analyze(clientes, RiskSegmenter.single(strategy), scores, categorias);
+    }
+
+    // Versão paralela com uma estratégia por segmento (faixa etária, de renda, ...)
+    public static RiskStatistics analyzeAllParallel(ClientesColunares clientes, RiskSegmenter segmenter,
+                                                    double[] scores, byte[] categorias) {
+        return ENGINE.analyze(clientes, segmenter, scores, categorias);
+    }
+
+    static void analyzeAll(RiskStrategy strategy, ClientesColunares clientes,
+                           double[] scores, byte[] categorias, int from, int to) {
+        strategy.calculateRisk(clientes, scores, from, to);
+        for (int i = from; i < to; i++) {
+            categorias[i] = strategy.categoryCode(scores[i]);
+        }
+    }
+
+    public static byte categoryCode(double score) {
+        if (score >= LIMITE_ALTO) return ALTO;
+        if (score >= LIMITE_MODERADO) return MODERADO;
+        return BAIXO;
     }
 
-    private String categorize(double score) {
-        if (score >= 66) return "Alto";
-        if (score >= 33) return "Moderado";
-        return "Baixo";
+    public static String categoryName(byte codigo) {
+        return NOMES_CATEGORIA[codigo];
     }
 
     public static class Result {
@@ -39,4 +112,4 @@ public class RiskAnalyzer {
             return String.format("Modelo=%s | Score=%.2f | Categoria=%s", modelo, score, categoria);
         }
     }
-}
\ No newline at end of file
+}
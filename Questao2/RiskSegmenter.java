@@ -0,0 +1,70 @@
+package Questao2;
+
+import java.util.Arrays;
+
+// Define qual estratégia pontua cada cliente do bloco (ex.: por faixa etária ou de renda).
+// Implementações devem ser imutáveis: são consultadas simultaneamente por várias tarefas.
+public interface RiskSegmenter {
+
+    // Quantidade de segmentos; segmentOf() retorna valores em 0..segmentCount()-1.
+
+    int segmentCount();
+
+    int segmentOf(ClientesColunares clientes, int i);
+
+    RiskStrategy strategyFor(int segmento);
+
+    // Um único segmento: todo o bloco usa a mesma estratégia.
+
+    static RiskSegmenter single(RiskStrategy strategy) {
+        return new RiskSegmenter() {
+            public int segmentCount() { return 1; }
+            public int segmentOf(ClientesColunares clientes, int i) { return 0; }
+            public RiskStrategy strategyFor(int segmento) { return strategy; }
+        };
+    }
+
+    // Faixas etárias: limites {40, 60} geram idade < 40, 40..59 e >= 60 (uma estratégia por faixa).
+
+    static RiskSegmenter byAge(int[] limites, RiskStrategy... strategies) {
+        checkBands(Arrays.stream(limites).asDoubleStream().toArray(), strategies);
+        int[] l = limites.clone();
+        return new RiskSegmenter() {
+            public int segmentCount() { return strategies.length; }
+            public int segmentOf(ClientesColunares clientes, int i) {
+                int idade = clientes.idade[i];
+                int s = 0;
+                while (s < l.length && idade >= l[s]) s++;
+                return s;
+            }
+            public RiskStrategy strategyFor(int segmento) { return strategies[segmento]; }
+        };
+    }
+
+    // Faixas de renda anual, com a mesma convenção de byAge().
+
+    static RiskSegmenter byIncome(double[] limites, RiskStrategy... strategies) {
+        double[] l = checkBands(limites, strategies);
+        return new RiskSegmenter() {
+            public int segmentCount() { return strategies.length; }
+            public int segmentOf(ClientesColunares clientes, int i) {
+                double renda = clientes.rendaAnual[i];
+                int s = 0;
+                while (s < l.length && renda >= l[s]) s++;
+                return s;
+            }
+            public RiskStrategy strategyFor(int segmento) { return strategies[segmento]; }
+        };
+    }
+
+    private static double[] checkBands(double[] limites, RiskStrategy[] strategies) {
+        if (strategies.length != limites.length + 1) {
+            throw new IllegalArgumentException("São necessárias " + (limites.length + 1) + " estratégias para "
+                    + limites.length + " limites");
+        }
+        for (int i = 1; i < limites.length; i++) {
+            if (limites[i] <= limites[i - 1]) throw new IllegalArgumentException("Limites devem ser crescentes");
+        }
+        return limites.clone();
+    }
+}
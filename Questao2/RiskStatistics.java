@@ -0,0 +1,78 @@
+package Questao2;
+
+import java.util.Arrays;
+
+// Histograma de categorias e estatísticas de score por segmento.
+// Cada tarefa paralela acumula na sua própria instância; as parciais são combinadas com merge(),
+// portanto não há escrita compartilhada durante o processamento.
+public class RiskStatistics {
+    private final String[] nomes;
+    private final long[][] histograma; // [segmento][categoria]
+    private final long[] count;
+    private final double[] sum;
+    private final double[] min;
+    private final double[] max;
+
+    public RiskStatistics(String[] nomes) {
+        int n = nomes.length;
+        this.nomes = nomes;
+        this.histograma = new long[n][3];
+        this.count = new long[n];
+        this.sum = new double[n];
+        this.min = new double[n];
+        this.max = new double[n];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    static RiskStatistics forSegments(RiskSegmenter segmenter) {
+        String[] nomes = new String[segmenter.segmentCount()];
+        for (int s = 0; s < nomes.length; s++) nomes[s] = segmenter.strategyFor(s).getName();
+        return new RiskStatistics(nomes);
+    }
+
+    void add(int segmento, double score, byte categoria) {
+        histograma[segmento][categoria]++;
+        count[segmento]++;
+        sum[segmento] += score;
+        if (score < min[segmento]) min[segmento] = score;
+        if (score > max[segmento]) max[segmento] = score;
+    }
+
+    RiskStatistics merge(RiskStatistics outra) {
+        for (int s = 0; s < count.length; s++) {
+            for (int c = 0; c < 3; c++) histograma[s][c] += outra.histograma[s][c];
+            count[s] += outra.count[s];
+            sum[s] += outra.sum[s];
+            min[s] = Math.min(min[s], outra.min[s]);
+            max[s] = Math.max(max[s], outra.max[s]);
+        }
+        return this;
+    }
+
+    public int segmentCount() { return count.length; }
+    public String segmentName(int segmento) { return nomes[segmento]; }
+    public long count(int segmento) { return count[segmento]; }
+    public long count(int segmento, byte categoria) { return histograma[segmento][categoria]; }
+    public double mean(int segmento) { return count[segmento] == 0 ? Double.NaN : sum[segmento] / count[segmento]; }
+    public double min(int segmento) { return min[segmento]; }
+    public double max(int segmento) { return max[segmento]; }
+
+    // Histograma somando todos os segmentos
+    public long total(byte categoria) {
+        long t = 0;
+        for (long[] h : histograma) t += h[categoria];
+        return t;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int s = 0; s < count.length; s++) {
+            sb.append(String.format("Segmento %d (%s): n=%d | média=%.2f | min=%.2f | max=%.2f | Baixo=%d Moderado=%d Alto=%d%n",
+                    s, nomes[s], count[s], mean(s), min[s], max[s],
+                    histograma[s][RiskAnalyzer.BAIXO], histograma[s][RiskAnalyzer.MODERADO], histograma[s][RiskAnalyzer.ALTO]));
+        }
+        return sb.toString();
+    }
+}
@@ -6,7 +6,24 @@ public interface RiskStrategy {
     
     double calculateRisk(Cliente cliente);
 
+    // Calcula os scores de clientes[from..to) em scores[from..to), sem alocação por cliente.
+    // A implementação padrão recorre ao cálculo unitário; as estratégias concretas
+    // sobrescrevem com um laço primitivo que o JIT consegue vetorizar.
+    
+    default void calculateRisk(ClientesColunares clientes, double[] scores, int from, int to) {
+        for (int i = from; i < to; i++) {
+            scores[i] = calculateRisk(clientes.get(i));
+        }
+    }
+
+    // Categoria (RiskAnalyzer.BAIXO/MODERADO/ALTO) de um score deste modelo. O padrão são os
+    // limites 33/66; modelos declarativos (ModeloRisco) trazem os próprios limites.
+
+    default byte categoryCode(double score) {
+        return RiskAnalyzer.categoryCode(score);
+    }
+
     // Nome do modelo para exibição/diagnóstico.
     
     String getName();
-}
\ No newline at end of file
+}
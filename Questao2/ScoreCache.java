@@ -0,0 +1,193 @@
+package Questao2;
+
+import java.util.Arrays;
+
+// Cache LRU de scores com chave long primitiva e capacidade limitada por entradas e por memória.
+// Tudo fica em arrays paralelos (sem boxing nem nós por entrada): uma tabela hash de endereçamento
+// aberto aponta para os slots, e uma lista duplamente encadeada por índices mantém a ordem de uso.
+// Os métodos são synchronized: o custo de uma consulta é muito menor que o do cálculo evitado.
+// Cada invalidate() abre uma nova geração; quem lê e grava informando a geração em que foi criado
+// (CachedRiskStrategy) não acessa nem repõe scores de outro modelo, mesmo se terminar depois da troca.
+public class ScoreCache {
+    // Custo aproximado de uma entrada: chave + valor + ponteiros LRU + 2 posições na tabela hash
+    static final int BYTES_PER_ENTRY = 8 + 8 + 4 + 4 + 2 * 4;
+
+    private static final int NIL = -1;
+
+    private final int capacidade;
+    private final long[] keys;
+    private final double[] values;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] tabela; // slot + 1; 0 = posição livre
+    private final int mascara;
+
+    private int tamanho;
+    private int head = NIL; // mais recente
+    private int tail = NIL; // menos recente (próximo a sair)
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private int geracao;
+
+    public ScoreCache(int maxEntries, long maxBytes) {
+        long porMemoria = maxBytes / BYTES_PER_ENTRY;
+        int cap = (int) Math.min(maxEntries, porMemoria);
+        if (cap <= 0) throw new IllegalArgumentException("Limites do cache não comportam nenhuma entrada");
+        this.capacidade = cap;
+        this.keys = new long[cap];
+        this.values = new double[cap];
+        this.prev = new int[cap];
+        this.next = new int[cap];
+        int t = Integer.highestOneBit(Math.max(2, cap * 2 - 1)) << 1;
+        this.tabela = new int[t];
+        this.mascara = t - 1;
+    }
+
+    // Retorna o score em cache ou NaN se ausente (NaN nunca é armazenado).
+    public synchronized double get(long key) {
+        return get(key, geracao);
+    }
+
+    // Como get(key), mas só responde se a geração informada ainda for a atual
+    public synchronized double get(long key, int geracao) {
+        int slot = geracao == this.geracao ? find(key) : NIL;
+        if (slot == NIL) {
+            misses++;
+            return Double.NaN;
+        }
+        hits++;
+        moveToHead(slot);
+        return values[slot];
+    }
+
+    public synchronized void put(long key, double value) {
+        put(key, value, geracao);
+    }
+
+    // Ignora scores de uma geração já invalidada (cálculo iniciado antes da troca de modelo)
+    public synchronized void put(long key, double value, int geracao) {
+        if (Double.isNaN(value) || geracao != this.geracao) return;
+        int slot = find(key);
+        if (slot != NIL) {
+            values[slot] = value;
+            moveToHead(slot);
+            return;
+        }
+        if (tamanho == capacidade) {
+            slot = tail;
+            unlink(slot);
+            removeFromTable(keys[slot]);
+            evictions++;
+        } else {
+            slot = tamanho++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        linkHead(slot);
+        int pos = hash(key);
+        while (tabela[pos] != 0) pos = (pos + 1) & mascara;
+        tabela[pos] = slot + 1;
+    }
+
+    // Descarta todas as entradas (ex.: o modelo de risco mudou)
+    public synchronized void invalidate() {
+        Arrays.fill(tabela, 0);
+        tamanho = 0;
+        head = tail = NIL;
+        invalidations++;
+        geracao++;
+    }
+
+    public synchronized int geracao() {
+        return geracao;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, invalidations, tamanho, capacidade);
+    }
+
+    private int find(long key) {
+        int pos = hash(key);
+        int ref;
+        while ((ref = tabela[pos]) != 0) {
+            if (keys[ref - 1] == key) return ref - 1;
+            pos = (pos + 1) & mascara;
+        }
+        return NIL;
+    }
+
+    // Remoção com deslocamento para trás (mantém as sequências de sondagem sem marcadores)
+    private void removeFromTable(long key) {
+        int pos = hash(key);
+        while (keys[tabela[pos] - 1] != key) pos = (pos + 1) & mascara;
+        int vazio = pos;
+        int atual = (pos + 1) & mascara;
+        while (tabela[atual] != 0) {
+            int ideal = hash(keys[tabela[atual] - 1]);
+            // move se a posição ideal não está no intervalo cíclico (vazio, atual]
+            if (((atual - ideal) & mascara) >= ((atual - vazio) & mascara)) {
+                tabela[vazio] = tabela[atual];
+                vazio = atual;
+            }
+            atual = (atual + 1) & mascara;
+        }
+        tabela[vazio] = 0;
+    }
+
+    private int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    private void moveToHead(int slot) {
+        if (slot == head) return;
+        unlink(slot);
+        linkHead(slot);
+    }
+
+    private void linkHead(int slot) {
+        prev[slot] = NIL;
+        next[slot] = head;
+        if (head != NIL) prev[head] = slot;
+        head = slot;
+        if (tail == NIL) tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot], n = next[slot];
+        if (p != NIL) next[p] = n; else head = n;
+        if (n != NIL) prev[n] = p; else tail = p;
+    }
+
+    public static class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long invalidations;
+        public final int size;
+        public final int capacity;
+
+        Stats(long hits, long misses, long evictions, long invalidations, int size, int capacity) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.size = size;
+            this.capacity = capacity;
+        }
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Cache hits=%d | misses=%d | hitRate=%.1f%% | evictions=%d | invalidações=%d | tamanho=%d/%d",
+                    hits, misses, hitRate() * 100, evictions, invalidations, size, capacity);
+        }
+    }
+}
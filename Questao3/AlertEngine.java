@@ -0,0 +1,382 @@
+package Questao3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorObserver;
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// Alertas sobre estatísticas incrementais (O(1) por leitura) de cada sensor e de cada região+tipo:
+// última leitura, EWMA, média/desvio das últimas N leituras (Welford com remoção), janelas
+// deslizantes e fixas de tempo. As regras (AlertRule) têm histerese: o listener só é chamado quando
+// o estado de um alerta muda (disparou / normalizou), então uma rajada de leituras acima do limite
+// gera um único alerta. O caminho sem alerta não aloca nem formata nada.
+// Pode ser inscrito direto num Sensor (update) ou no SensorIngestion (updateBatch).
+public class AlertEngine implements SensorObserver {
+
+    public interface AlertListener {
+        // raised = true quando dispara, false quando normaliza; entity é o sensor ou "região/tipo"
+        void onAlert(AlertRule rule, String entity, double metric, long timestamp, boolean raised);
+    }
+
+    private static final int BALDES_POR_JANELA = 12;
+
+    private final AlertRule[] regras;
+    private final int leiturasRolantes;
+    private final double alpha;
+    private final AlertListener listener;
+    private final ConcurrentHashMap<Sensor, EstadoSensor> porSensor = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Estatisticas[]> porRegiao = new ConcurrentHashMap<>(); // índice = tipo
+    private volatile EstadoSensor[] porIndice = new EstadoSensor[64]; // cache por índice do SensorIngestion
+    private final LongAdder leituras = new LongAdder();
+    private final LongAdder disparados = new LongAdder();
+    private final LongAdder normalizados = new LongAdder();
+
+    public AlertEngine(List<AlertRule> regras, AlertListener listener) {
+        this(regras, 60, 0.1, listener);
+    }
+
+    // leiturasRolantes: N da média/desvio rolante (ROLLING_MEAN, ZSCORE); alpha: peso da leitura nova no EWMA
+    public AlertEngine(List<AlertRule> regras, int leiturasRolantes, double alpha, AlertListener listener) {
+        if (leiturasRolantes < 2) throw new IllegalArgumentException("leiturasRolantes deve ser >= 2");
+        if (!(alpha > 0 && alpha <= 1)) throw new IllegalArgumentException("alpha deve estar em (0, 1]");
+        this.regras = regras.toArray(new AlertRule[0]);
+        for (AlertRule r : this.regras) r.validar();
+        this.leiturasRolantes = leiturasRolantes;
+        this.alpha = alpha;
+        this.listener = listener;
+    }
+
+    // Listener padrão: imprime no mesmo formato do AlertModule
+    public static AlertListener printer(String name) {
+        return (rule, entity, metric, ts, raised) -> {
+            if (raised) {
+                System.out.printf("[ALERTA %s] %s: %s=%.2f -> %s%n", name, entity, rule.metric, metric, rule);
+            } else {
+                System.out.printf("[ALERTA %s] %s normalizado: %s=%.2f (%s)%n", name, entity, rule.metric, metric, rule.name);
+            }
+        };
+    }
+
+    @Override
+    public void update(Sensor sensor, double newValue) {
+        observe(sensor, System.currentTimeMillis(), newValue);
+    }
+
+    @Override
+    public void updateBatch(ReadingBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            processar(estado(batch.sensorIndex(i), batch.sensor(i)), batch.timestamp(i), batch.value(i));
+        }
+    }
+
+    // Leitura com timestamp explícito (ms); leituras de um sensor devem chegar em ordem
+    public void observe(Sensor sensor, long timestamp, double value) {
+        EstadoSensor es = porSensor.get(sensor);
+        processar(es != null ? es : criar(sensor), timestamp, value);
+    }
+
+    private void processar(EstadoSensor es, long ts, double v) {
+        leituras.increment();
+        Estatisticas s = es.sensor;
+        if (s != null) {
+            synchronized (s) {
+                atualizar(s, ts, v);
+            }
+        }
+        Estatisticas r = es.regiao;
+        if (r != null) {
+            synchronized (r) {
+                atualizar(r, ts, v);
+            }
+        }
+    }
+
+    private void atualizar(Estatisticas e, long ts, double v) {
+        double z = e.zscore(v); // contra as leituras anteriores
+        e.adicionar(v, alpha);
+        AlertRule[] rs = e.regras;
+        for (int i = 0; i < rs.length; i++) {
+            AlertRule r = rs[i];
+            double m;
+            long quando = ts;
+            switch (r.metric) {
+                case VALUE: m = v; break;
+                case EWMA: m = e.ewma; break;
+                case ROLLING_MEAN: m = e.media; break;
+                case ZSCORE: m = e.amostrasRolantes >= r.minSamples ? z : Double.NaN; break;
+                case WINDOW_MEAN: m = e.deslizantes[i].adicionar(ts, v); break;
+                case TUMBLING_MEAN: {
+                    JanelaFixa f = e.fixas[i];
+                    m = f.adicionar(ts, v); // NaN enquanto a janela não fecha
+                    quando = f.fimFechada;
+                    break;
+                }
+                default: m = Double.NaN;
+            }
+            if (!Double.isNaN(m)) avaliar(r, i, e, m, quando);
+        }
+    }
+
+    // Histerese: entra acima do limite (mantido por holdMillis), sai só ao cruzar o limite de saída
+    private void avaliar(AlertRule r, int i, Estatisticas e, double m, long ts) {
+        if (!e.ativo[i]) {
+            if (r.above ? m <= r.limit : m >= r.limit) {
+                e.desde[i] = Long.MIN_VALUE;
+                return;
+            }
+            if (e.desde[i] == Long.MIN_VALUE) e.desde[i] = ts;
+            if (ts - e.desde[i] < r.holdMillis) return;
+            e.ativo[i] = true;
+            disparados.increment();
+            notificar(r, e.entidade, m, ts, true);
+        } else if (r.above ? m <= r.clear : m >= r.clear) {
+            e.ativo[i] = false;
+            e.desde[i] = Long.MIN_VALUE;
+            normalizados.increment();
+            notificar(r, e.entidade, m, ts, false);
+        }
+    }
+
+    private void notificar(AlertRule r, String entidade, double m, long ts, boolean disparou) {
+        try {
+            listener.onAlert(r, entidade, m, ts, disparou);
+        } catch (Exception ex) {
+            System.err.println("Erro no listener de alertas: " + ex.getMessage());
+        }
+    }
+
+    private EstadoSensor estado(int indice, Sensor sensor) {
+        EstadoSensor[] cache = porIndice;
+        if (indice < cache.length) {
+            EstadoSensor es = cache[indice];
+            if (es != null && es.alvo == sensor) return es;
+        }
+        return cachear(indice, sensor);
+    }
+
+    private synchronized EstadoSensor cachear(int indice, Sensor sensor) {
+        EstadoSensor es = porSensor.get(sensor);
+        if (es == null) es = criar(sensor);
+        EstadoSensor[] cache = porIndice;
+        if (indice >= cache.length) cache = Arrays.copyOf(cache, Math.max(indice + 1, cache.length * 2));
+        cache[indice] = es;
+        porIndice = cache;
+        return es;
+    }
+
+    // Primeira leitura de um sensor: escolhe as regras que valem para o tipo dele (alocação só aqui)
+    private EstadoSensor criar(Sensor sensor) {
+        return porSensor.computeIfAbsent(sensor, s -> {
+            SensorType tipo = s.getType();
+            AlertRule[] doSensor = filtrar(AlertRule.Scope.SENSOR, tipo);
+            Estatisticas regiao = null;
+            if (filtrar(AlertRule.Scope.REGION, tipo).length > 0) {
+                Estatisticas[] tipos = porRegiao.computeIfAbsent(s.getRegion(), k -> new Estatisticas[SensorType.values().length]);
+                synchronized (tipos) {
+                    regiao = tipos[tipo.ordinal()];
+                    if (regiao == null) {
+                        regiao = new Estatisticas(s.getRegion() + "/" + tipo, filtrar(AlertRule.Scope.REGION, tipo), 0);
+                        tipos[tipo.ordinal()] = regiao;
+                    }
+                }
+            }
+            Estatisticas proprio = doSensor.length > 0 ? new Estatisticas(s.toString(), doSensor, leiturasRolantes) : null;
+            return new EstadoSensor(s, proprio, regiao);
+        });
+    }
+
+    private AlertRule[] filtrar(AlertRule.Scope escopo, SensorType tipo) {
+        List<AlertRule> r = new ArrayList<>();
+        for (AlertRule regra : regras) {
+            if (regra.scope == escopo && (regra.type == null || regra.type == tipo)) r.add(regra);
+        }
+        return r.toArray(new AlertRule[0]);
+    }
+
+    public long getReadings() { return leituras.sum(); }
+
+    public long getRaised() { return disparados.sum(); }
+
+    public long getCleared() { return normalizados.sum(); }
+
+    // Alertas ativos no momento, como "regra @ entidade"
+    public List<String> activeAlerts() {
+        List<String> ativos = new ArrayList<>();
+        for (EstadoSensor es : porSensor.values()) {
+            if (es.sensor != null) es.sensor.ativos(ativos);
+        }
+        for (Estatisticas[] tipos : porRegiao.values()) {
+            synchronized (tipos) {
+                for (Estatisticas e : tipos) {
+                    if (e != null) e.ativos(ativos);
+                }
+            }
+        }
+        return ativos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AlertEngine[%d regras, %,d leituras, %d disparados, %d normalizados]",
+                regras.length, getReadings(), getRaised(), getCleared());
+    }
+
+    private static final class EstadoSensor {
+        final Sensor alvo;
+        final Estatisticas sensor; // null se nenhuma regra por sensor vale para o tipo
+        final Estatisticas regiao; // compartilhada pelos sensores da mesma região e tipo
+
+        EstadoSensor(Sensor alvo, Estatisticas sensor, Estatisticas regiao) {
+            this.alvo = alvo;
+            this.sensor = sensor;
+            this.regiao = regiao;
+        }
+    }
+
+    // Estatísticas de uma entidade; protegidas pelo monitor do próprio objeto
+    private static final class Estatisticas {
+        final String entidade;
+        final AlertRule[] regras;
+        final boolean[] ativo;
+        final long[] desde;
+        final JanelaDeslizante[] deslizantes;
+        final JanelaFixa[] fixas;
+
+        double ewma = Double.NaN;
+        // Welford sobre as últimas N leituras (anel); vazio quando nenhuma regra precisa
+        final double[] anel;
+        int inicio, amostrasRolantes;
+        double media = Double.NaN, m2;
+
+        Estatisticas(String entidade, AlertRule[] regras, int leiturasRolantes) {
+            this.entidade = entidade;
+            this.regras = regras;
+            this.ativo = new boolean[regras.length];
+            this.desde = new long[regras.length];
+            Arrays.fill(desde, Long.MIN_VALUE);
+            this.deslizantes = new JanelaDeslizante[regras.length];
+            this.fixas = new JanelaFixa[regras.length];
+            boolean rolante = false;
+            for (int i = 0; i < regras.length; i++) {
+                AlertRule r = regras[i];
+                if (r.metric == AlertRule.Metric.WINDOW_MEAN) deslizantes[i] = new JanelaDeslizante(r.windowMillis);
+                if (r.metric == AlertRule.Metric.TUMBLING_MEAN) fixas[i] = new JanelaFixa(r.windowMillis);
+                if (r.metric == AlertRule.Metric.ROLLING_MEAN || r.metric == AlertRule.Metric.ZSCORE) rolante = true;
+            }
+            this.anel = new double[rolante ? leiturasRolantes : 0];
+        }
+
+        void adicionar(double v, double alpha) {
+            ewma = Double.isNaN(ewma) ? v : ewma + alpha * (v - ewma);
+            if (anel.length == 0) return;
+            if (amostrasRolantes == anel.length) { // tira a mais antiga
+                double velho = anel[inicio];
+                int n = amostrasRolantes - 1;
+                double delta = velho - media;
+                media -= delta / n;
+                m2 = Math.max(0, m2 - delta * (velho - media));
+                amostrasRolantes = n;
+                anel[inicio] = v;
+                inicio = inicio + 1 == anel.length ? 0 : inicio + 1;
+            } else {
+                anel[(inicio + amostrasRolantes) % anel.length] = v;
+                if (amostrasRolantes == 0) media = 0;
+            }
+            int n = ++amostrasRolantes;
+            double delta = v - media;
+            media += delta / n;
+            m2 += delta * (v - media);
+        }
+
+        double zscore(double v) {
+            if (amostrasRolantes < 2) return Double.NaN;
+            double desvio = Math.sqrt(m2 / (amostrasRolantes - 1));
+            return desvio > 0 ? Math.abs(v - media) / desvio : Double.NaN;
+        }
+
+        synchronized void ativos(List<String> destino) {
+            for (int i = 0; i < regras.length; i++) {
+                if (ativo[i]) destino.add(regras[i].name + " @ " + entidade);
+            }
+        }
+    }
+
+    // Janela deslizante de tempo em BALDES_POR_JANELA baldes: soma e contagem por balde, totais
+    // mantidos ao entrar e expirar baldes (a janela efetiva anda em passos de largura/12)
+    private static final class JanelaDeslizante {
+        final long larguraBalde;
+        final double[] somas = new double[BALDES_POR_JANELA];
+        final long[] contagens = new long[BALDES_POR_JANELA];
+        long baldeAtual = Long.MIN_VALUE;
+        double soma;
+        long contagem;
+
+        JanelaDeslizante(long larguraMillis) {
+            this.larguraBalde = Math.max(1, larguraMillis / BALDES_POR_JANELA);
+        }
+
+        // Retorna a média da janela depois de incluir a leitura
+        double adicionar(long ts, double v) {
+            long balde = Math.floorDiv(ts, larguraBalde);
+            if (baldeAtual == Long.MIN_VALUE || balde - baldeAtual >= BALDES_POR_JANELA) {
+                Arrays.fill(somas, 0);
+                Arrays.fill(contagens, 0);
+                soma = 0;
+                contagem = 0;
+                baldeAtual = balde;
+            } else if (balde > baldeAtual) {
+                while (baldeAtual < balde) { // expira os baldes que saem da janela
+                    int i = (int) Math.floorMod(++baldeAtual, (long) BALDES_POR_JANELA);
+                    soma -= somas[i];
+                    contagem -= contagens[i];
+                    somas[i] = 0;
+                    contagens[i] = 0;
+                }
+            } else if (baldeAtual - balde >= BALDES_POR_JANELA) {
+                return contagem > 0 ? soma / contagem : Double.NaN; // atrasada demais: fora da janela
+            }
+            int i = (int) Math.floorMod(balde, (long) BALDES_POR_JANELA);
+            somas[i] += v;
+            contagens[i]++;
+            soma += v;
+            contagem++;
+            return soma / contagem;
+        }
+    }
+
+    // Janela fixa (tumbling): acumula até a leitura que passa para a próxima janela
+    private static final class JanelaFixa {
+        final long largura;
+        long inicioAtual = Long.MIN_VALUE;
+        long fimFechada;
+        double soma;
+        long contagem;
+
+        JanelaFixa(long largura) {
+            this.largura = largura;
+        }
+
+        // Retorna a média da janela que acabou de fechar, ou NaN
+        double adicionar(long ts, double v) {
+            long inicio = Math.floorDiv(ts, largura) * largura;
+            double fechada = Double.NaN;
+            if (inicio > inicioAtual) {
+                if (contagem > 0) {
+                    fechada = soma / contagem;
+                    fimFechada = inicioAtual + largura;
+                }
+                inicioAtual = inicio;
+                soma = 0;
+                contagem = 0;
+            }
+            soma += v; // leitura atrasada entra na janela corrente
+            contagem++;
+            return fechada;
+        }
+    }
+}
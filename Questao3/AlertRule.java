@@ -0,0 +1,112 @@
+package Questao3;
+
+import java.util.concurrent.TimeUnit;
+
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// Regra do AlertEngine: uma métrica (de um sensor ou da região+tipo) comparada com um limite.
+// Exemplos:
+//   AlertRule.region("poluicao-regional", Metric.WINDOW_MEAN).type(POLLUTION).window(5, MINUTES).above(80).clearAt(75)
+//   AlertRule.sensor("anomalia", Metric.ZSCORE).above(3).clearAt(2)
+// Histerese: dispara ao passar do limite (mantido por holdFor, se houver) e só volta ao normal
+// quando a métrica cruza o limite de saída (clearAt; por padrão o próprio limite).
+// Configure antes de passar ao AlertEngine; depois disso a regra não deve ser alterada.
+public class AlertRule {
+
+    public enum Scope { SENSOR, REGION }
+
+    public enum Metric {
+        VALUE,         // última leitura
+        EWMA,          // média móvel exponencial (alpha do engine)
+        ROLLING_MEAN,  // média das últimas N leituras (Welford com remoção)
+        ZSCORE,        // |leitura - média| / desvio das últimas N leituras (antes de incluir a leitura)
+        WINDOW_MEAN,   // média numa janela deslizante de tempo (window)
+        TUMBLING_MEAN  // média de cada janela fixa de tempo (window), avaliada quando a janela fecha
+    }
+
+    final String name;
+    final Scope scope;
+    final Metric metric;
+    SensorType type;            // null = qualquer tipo
+    boolean above = true;
+    double limit = Double.NaN;
+    double clear = Double.NaN;  // NaN = igual ao limite
+    long windowMillis = 60_000;
+    long holdMillis;
+    int minSamples = 10;        // para ZSCORE
+
+    private AlertRule(String name, Scope scope, Metric metric) {
+        this.name = name;
+        this.scope = scope;
+        this.metric = metric;
+    }
+
+    public static AlertRule sensor(String name, Metric metric) {
+        return new AlertRule(name, Scope.SENSOR, metric);
+    }
+
+    public static AlertRule region(String name, Metric metric) {
+        if (metric == Metric.ZSCORE || metric == Metric.ROLLING_MEAN) {
+            throw new IllegalArgumentException(metric + " só existe por sensor");
+        }
+        return new AlertRule(name, Scope.REGION, metric);
+    }
+
+    public AlertRule type(SensorType type) {
+        this.type = type;
+        return this;
+    }
+
+    public AlertRule above(double limit) {
+        this.above = true;
+        this.limit = limit;
+        return this;
+    }
+
+    public AlertRule below(double limit) {
+        this.above = false;
+        this.limit = limit;
+        return this;
+    }
+
+    public AlertRule clearAt(double clear) {
+        this.clear = clear;
+        return this;
+    }
+
+    public AlertRule window(long duration, TimeUnit unit) {
+        this.windowMillis = unit.toMillis(duration);
+        return this;
+    }
+
+    public AlertRule holdFor(long duration, TimeUnit unit) {
+        this.holdMillis = unit.toMillis(duration);
+        return this;
+    }
+
+    public AlertRule minSamples(int minSamples) {
+        this.minSamples = minSamples;
+        return this;
+    }
+
+    public String getName() { return name; }
+    public Scope getScope() { return scope; }
+    public Metric getMetric() { return metric; }
+
+    boolean usaJanela() { return metric == Metric.WINDOW_MEAN || metric == Metric.TUMBLING_MEAN; }
+
+    void validar() {
+        if (Double.isNaN(limit)) throw new IllegalStateException("Regra " + name + " sem limite (above/below)");
+        if (usaJanela() && windowMillis <= 0) throw new IllegalStateException("Regra " + name + " com janela inválida");
+        if (Double.isNaN(clear)) clear = limit;
+        if (above ? clear > limit : clear < limit) {
+            throw new IllegalStateException("Regra " + name + ": limite de saída deve ficar do lado normal do limite");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s %s%s %s %.2f]", name, scope, metric, type != null ? " " + type : "",
+                above ? ">" : "<", limit);
+    }
+}
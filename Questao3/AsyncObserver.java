@@ -0,0 +1,170 @@
+package Questao3;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorObserver;
+
+// Entrega assíncrona para um observador lento (HistoryLogger, painel que imprime, ...).
+// setValue() só reserva uma posição numa fila circular limitada (CAS) e retorna; o update()
+// do observador roda no executor, uma leitura por vez e na ordem de chegada. Com a fila cheia
+// a leitura é descartada (e contada): um consumidor lento nunca bloqueia quem publica.
+// O mesmo AsyncObserver pode ser inscrito em vários sensores (uma fila por observador).
+public class AsyncObserver implements SensorObserver, AutoCloseable {
+    private final SensorObserver delegate;
+    private final Executor executor;
+    private final ExecutorService proprio; // executor criado aqui (encerrado em close())
+
+    private final Sensor[] sensores;
+    private final double[] valores;
+    private final long[] enfileiradoEm;     // nanoTime da publicação, para medir atraso
+    private final AtomicLongArray publicados; // sequência publicada em cada posição
+    private final int mascara;
+    private final AtomicLong proximo = new AtomicLong();
+    private volatile long consumido;
+
+    private final AtomicBoolean agendado = new AtomicBoolean();
+    private final Runnable drenar = this::drenar;
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder entregues = new LongAdder();
+    private volatile long ultimoAtrasoNanos;
+    private volatile long maiorAtrasoNanos;
+
+    // Thread própria (daemon) para este observador
+    public AsyncObserver(SensorObserver delegate, int capacidade) {
+        this(delegate, capacidade, null);
+    }
+
+    // executor compartilhado (pool, ForkJoinPool, ...); null cria uma thread própria
+    public AsyncObserver(SensorObserver delegate, int capacidade, Executor executor) {
+        if (capacidade <= 0) throw new IllegalArgumentException("Capacidade deve ser positiva");
+        this.delegate = delegate;
+        if (executor == null) {
+            this.proprio = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "observer-" + delegate.getClass().getSimpleName());
+                t.setDaemon(true);
+                return t;
+            });
+            this.executor = proprio;
+        } else {
+            this.proprio = null;
+            this.executor = executor;
+        }
+        int cap = 1;
+        while (cap < capacidade) cap <<= 1;
+        this.sensores = new Sensor[cap];
+        this.valores = new double[cap];
+        this.enfileiradoEm = new long[cap];
+        this.publicados = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) publicados.set(i, -1);
+        this.mascara = cap - 1;
+    }
+
+    public SensorObserver getDelegate() { return delegate; }
+
+    @Override
+    public void update(Sensor sensor, double newValue) {
+        long seq;
+        do {
+            seq = proximo.get();
+            if (seq - consumido >= sensores.length) { // fila cheia: descarta em vez de esperar
+                descartados.increment();
+                return;
+            }
+        } while (!proximo.compareAndSet(seq, seq + 1));
+        int i = (int) seq & mascara;
+        sensores[i] = sensor;
+        valores[i] = newValue;
+        enfileiradoEm[i] = System.nanoTime();
+        publicados.set(i, seq); // escrita volatile: ordenada com a leitura de 'agendado' em agendar()
+        agendar();
+    }
+
+    private void agendar() {
+        if (!agendado.get() && agendado.compareAndSet(false, true)) {
+            try {
+                executor.execute(drenar);
+            } catch (RejectedExecutionException e) {
+                agendado.set(false); // executor encerrado: as leituras ficam na fila
+            }
+        }
+    }
+
+    // Roda no executor: entrega tudo o que estiver publicado e libera o agendamento
+    private void drenar() {
+        while (true) {
+            long seq = consumido;
+            while (publicados.get((int) seq & mascara) == seq) {
+                int i = (int) seq & mascara;
+                Sensor s = sensores[i];
+                double v = valores[i];
+                long atraso = System.nanoTime() - enfileiradoEm[i];
+                sensores[i] = null;
+                consumido = ++seq; // libera a posição antes do update (o delegate pode ser lento)
+                try {
+                    delegate.update(s, v);
+                } catch (Exception e) {
+                    System.err.println("Erro ao notificar observador: " + e.getMessage());
+                }
+                entregues.increment();
+                ultimoAtrasoNanos = atraso;
+                if (atraso > maiorAtrasoNanos) maiorAtrasoNanos = atraso;
+            }
+            agendado.set(false);
+            // Uma publicação pode ter chegado depois do último teste e antes de liberar o agendamento
+            if (publicados.get((int) seq & mascara) != seq || !agendado.compareAndSet(false, true)) return;
+        }
+    }
+
+    // Leituras enfileiradas e ainda não entregues
+    public int getLag() { return (int) (proximo.get() - consumido); }
+
+    public long getDropped() { return descartados.sum(); }
+
+    public long getDelivered() { return entregues.sum(); }
+
+    // Tempo entre setValue() e a entrega da leitura mais recente / da mais atrasada até agora
+    public long getLastDelayNanos() { return ultimoAtrasoNanos; }
+
+    public long getMaxDelayNanos() { return maiorAtrasoNanos; }
+
+    // Espera (até o tempo limite) a entrega de tudo o que já está na fila
+    public boolean drain(long timeout, TimeUnit unit) throws InterruptedException {
+        long fim = System.nanoTime() + unit.toNanos(timeout);
+        while (getLag() > 0 || agendado.get()) {
+            if (System.nanoTime() >= fim) return false;
+            agendar();
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    // Entrega o que estiver pendente e encerra a thread própria, se houver
+    @Override
+    public void close() {
+        try {
+            drain(5, TimeUnit.SECONDS);
+            if (proprio != null) {
+                proprio.shutdown();
+                proprio.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AsyncObserver[%s] fila=%d entregues=%d descartados=%d atraso(ult/max)=%.2f/%.2f ms",
+                delegate.getClass().getSimpleName(), getLag(), getDelivered(), getDropped(),
+                ultimoAtrasoNanos / 1e6, maiorAtrasoNanos / 1e6);
+    }
+}
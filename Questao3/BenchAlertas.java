@@ -0,0 +1,95 @@
+package Questao3;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import Questao3.EnvironmentalMonitoring.AlertModule;
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// AlertModule antigo (limiar por leitura, imprime toda leitura) x AlertEngine (estatísticas
+// incrementais, alerta só em mudança de estado): leituras/s e bytes alocados por leitura.
+// O engine roda com regras por sensor (limiar, z-score, EWMA) e por região (janela deslizante
+// de 5 min e janela fixa de 1 min). A saída do AlertModule vai para um stream descartado.
+// Uso: java Questao3.BenchAlertas [sensores] [leituras]
+public class BenchAlertas {
+
+    public static void main(String[] args) {
+        int nSensores = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int total = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        Sensor[] sensores = new Sensor[nSensores];
+        for (int i = 0; i < nSensores; i++) {
+            sensores[i] = new Sensor("S-" + i, "Região " + (i % 32), SensorType.values()[i % 3]);
+        }
+        // Leituras pré-geradas: valores normais com raros picos; 10 leituras por ms
+        int[] quem = new int[total];
+        double[] valores = new double[total];
+        Random rnd = new Random(42);
+        for (int j = 0; j < total; j++) {
+            quem[j] = rnd.nextInt(nSensores);
+            double base = sensores[quem[j]].getType() == SensorType.HUMIDITY ? 50 : 30;
+            valores[j] = base + rnd.nextGaussian() * 2 + (rnd.nextInt(100_000) == 0 ? 40 : 0);
+        }
+        long base = 1_700_000_000_000L;
+
+        System.out.printf("=== Alertas: %,d sensores, %,d leituras ===%n", nSensores, total);
+
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        AlertModule modulo = new AlertModule("bench");
+        long[] resultadoModulo = medir(() -> {
+            for (int j = 0; j < total; j++) modulo.update(sensores[quem[j]], valores[j]);
+        });
+        System.setOut(original);
+        imprimir("AlertModule (texto por leitura)", total, resultadoModulo);
+
+        int[] alertas = { 0 };
+        AlertEngine engine = new AlertEngine(List.of(
+                AlertRule.sensor("temperatura", AlertRule.Metric.VALUE).type(SensorType.TEMPERATURE).above(35).clearAt(33),
+                AlertRule.sensor("umidade", AlertRule.Metric.VALUE).type(SensorType.HUMIDITY).below(20).clearAt(22),
+                AlertRule.sensor("anomalia", AlertRule.Metric.ZSCORE).above(6).clearAt(3).minSamples(30),
+                AlertRule.sensor("tendencia", AlertRule.Metric.EWMA).type(SensorType.POLLUTION).above(60).clearAt(55),
+                AlertRule.region("poluicao-regional-5min", AlertRule.Metric.WINDOW_MEAN)
+                        .type(SensorType.POLLUTION).window(5, TimeUnit.MINUTES).above(80).clearAt(75),
+                AlertRule.region("temperatura-regional-1min", AlertRule.Metric.TUMBLING_MEAN)
+                        .type(SensorType.TEMPERATURE).window(1, TimeUnit.MINUTES).above(35)),
+                (regra, entidade, m, ts, disparou) -> alertas[0]++);
+        long duracaoRodada = total / 10 + 1;
+        for (int rodada = 0; rodada < 2; rodada++) { // primeira rodada aquece o JIT e cria os estados
+            // a rodada medida continua depois do aquecimento; repetir os timestamps faria as janelas
+            // receberem leituras fora de ordem
+            long inicio = base + rodada * duracaoRodada;
+            long[] r = medir(() -> {
+                for (int j = 0; j < total; j++) engine.observe(sensores[quem[j]], inicio + j / 10, valores[j]);
+            });
+            if (rodada == 1) imprimir("AlertEngine (6 regras)", total, r);
+        }
+        System.out.printf("%-32s %s; listener chamado %,d vezes%n", "", engine, alertas[0]);
+    }
+
+    // Retorna { nanos, bytes alocados pela thread }
+    static long[] medir(Runnable corpo) {
+        long a0 = alocado();
+        long t0 = System.nanoTime();
+        corpo.run();
+        return new long[] { System.nanoTime() - t0, alocado() - a0 };
+    }
+
+    static void imprimir(String nome, int leituras, long[] r) {
+        System.out.printf("%-32s %,12.0f leituras/s | %7.1f ns/leitura | %8.2f bytes/leitura%n",
+                nome, leituras / (r[0] / 1e9), (double) r[0] / leituras, (double) r[1] / leituras);
+    }
+
+    static long alocado() {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) mx).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
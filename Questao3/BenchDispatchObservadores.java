@@ -0,0 +1,60 @@
+package Questao3;
+
+import java.util.Arrays;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorObserver;
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// Latência de setValue() com um observador lento inscrito: entrega síncrona (o custo do
+// observador cai em quem publica) x AsyncObserver (fila limitada + thread própria).
+// Uso: java Questao3.BenchDispatchObservadores [leituras] [custoObservadorMicros]
+public class BenchDispatchObservadores {
+
+    public static void main(String[] args) {
+        int leituras = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        long custoMicros = args.length > 1 ? Long.parseLong(args[1]) : 50;
+
+        SensorObserver lento = new ObservadorLento(custoMicros * 1_000);
+        System.out.printf("=== setValue() com observador de %d µs, %,d leituras ===%n", custoMicros, leituras);
+        for (int rodada = 0; rodada < 2; rodada++) { // primeira rodada aquece o JIT
+            boolean imprimir = rodada == 1;
+            Sensor sinc = new Sensor("B-1", "Bench", SensorType.TEMPERATURE);
+            sinc.addObserver(lento);
+            medir("síncrono", sinc, leituras / 10, imprimir);
+
+            AsyncObserver async = new AsyncObserver(lento, 1024);
+            Sensor assinc = new Sensor("B-2", "Bench", SensorType.TEMPERATURE);
+            assinc.addObserver(async);
+            medir("assíncrono", assinc, leituras, imprimir);
+            if (imprimir) System.out.printf("%-12s %s%n", "", async);
+            async.close();
+        }
+    }
+
+    static void medir(String nome, Sensor sensor, int n, boolean imprimir) {
+        long[] lat = new long[n];
+        for (int i = 0; i < n; i++) {
+            long t0 = System.nanoTime();
+            sensor.setValue(20 + (i & 15));
+            lat[i] = System.nanoTime() - t0;
+        }
+        if (!imprimir) return;
+        Arrays.sort(lat);
+        System.out.printf("%-12s p50=%8d ns | p99=%9d ns | max=%10d ns%n",
+                nome, lat[n / 2], lat[(int) (n * 0.99)], lat[n - 1]);
+    }
+
+    // Espera ativa: simula um observador que grava em disco ou imprime
+    static final class ObservadorLento implements SensorObserver {
+        private final long custoNanos;
+
+        ObservadorLento(long custoNanos) { this.custoNanos = custoNanos; }
+
+        @Override
+        public void update(Sensor sensor, double newValue) {
+            long fim = System.nanoTime() + custoNanos;
+            while (System.nanoTime() < fim) Thread.onSpinWait();
+        }
+    }
+}
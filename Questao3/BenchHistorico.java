@@ -0,0 +1,117 @@
+package Questao3;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// Histórico antigo (ArrayList<String> formatada) x TimeSeriesStore: bytes por ponto e latência
+// de consulta (1 sensor, última hora) e de rollup por hora. As leituras simulam sensores reais:
+// intervalo de ~1 s com pequeno jitter e valores com uma casa decimal variando devagar.
+// Uso: java Questao3.BenchHistorico [sensores] [pontosPorSensor]
+public class BenchHistorico {
+
+    public static void main(String[] args) throws Exception {
+        int nSensores = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int pontos = args.length > 1 ? Integer.parseInt(args[1]) : 25_000;
+        MemoryMXBean mem = ManagementFactory.getMemoryMXBean();
+        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        ZoneId zona = ZoneId.systemDefault();
+
+        Sensor[] sensores = new Sensor[nSensores];
+        for (int i = 0; i < nSensores; i++) {
+            sensores[i] = new Sensor("S-" + i, "Região " + (i % 4), SensorType.values()[i % 3]);
+        }
+        long base = System.currentTimeMillis() - pontos * 1000L;
+        long[] ts = new long[nSensores];
+        double[] val = new double[nSensores];
+        Random rnd = new Random(42);
+        for (int i = 0; i < nSensores; i++) {
+            ts[i] = base;
+            val[i] = 20 + i;
+        }
+
+        System.out.printf("=== Histórico: %d sensores x %,d pontos ===%n", nSensores, pontos);
+
+        // Mesmas leituras para os dois lados
+        long total = (long) nSensores * pontos;
+        int[] ptSensor = new int[(int) total];
+        long[] ptTs = new long[(int) total];
+        double[] ptVal = new double[(int) total];
+        int k = 0;
+        for (int p = 0; p < pontos; p++) {
+            for (int i = 0; i < nSensores; i++, k++) {
+                ts[i] += 1000 + (rnd.nextInt(10) == 0 ? rnd.nextInt(5) - 2 : 0);
+                if (rnd.nextInt(4) == 0) val[i] = Math.round((val[i] + rnd.nextGaussian() * 0.2) * 10) / 10.0;
+                ptSensor[k] = i;
+                ptTs[k] = ts[i];
+                ptVal[k] = val[i];
+            }
+        }
+
+        // Lista antiga: uma String formatada por leitura
+        System.gc();
+        long heapAntes = mem.getHeapMemoryUsage().getUsed();
+        List<String> lista = new ArrayList<>();
+        for (int j = 0; j < total; j++) {
+            Sensor s = sensores[ptSensor[j]];
+            String quando = LocalDateTime.ofInstant(Instant.ofEpochMilli(ptTs[j]), zona).format(dtf);
+            lista.add(String.format("%s | %s | %.2f | %s", quando, s, ptVal[j], s.getRegion()));
+        }
+        System.gc();
+        long heapLista = mem.getHeapMemoryUsage().getUsed() - heapAntes;
+
+        Path dir = Files.createTempDirectory("bench-historico");
+        TimeSeriesStore store = new TimeSeriesStore(dir, 8 << 20, 240, 365L * 24 * 3_600_000);
+        long t0 = System.nanoTime();
+        for (int j = 0; j < total; j++) store.append(sensores[ptSensor[j]], ptTs[j], ptVal[j]);
+        store.flush();
+        long tEscrita = System.nanoTime() - t0;
+        System.out.printf("Bytes por ponto: lista %.1f (heap) | store %.2f (disco) | gravação %.0f ns/ponto%n",
+                (double) heapLista / total, store.bytesPerPoint(), (double) tEscrita / total);
+
+        String alvo = sensores[0].toString();
+        long de = ts[0] - 3_600_000L;
+        for (int rodada = 0; rodada < 2; rodada++) { // primeira rodada aquece o JIT
+            boolean imprimir = rodada == 1;
+            // Lista: varre tudo, filtra pelo sensor e interpreta a data de cada linha
+            t0 = System.nanoTime();
+            int achadosLista = 0;
+            for (String linha : lista) {
+                if (!linha.contains(alvo)) continue;
+                LocalDateTime quando = LocalDateTime.parse(linha.substring(0, 19), dtf);
+                if (quando.atZone(zona).toInstant().toEpochMilli() >= de - 999) achadosLista++;
+            }
+            long tLista = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            int[] achadosStore = { 0 };
+            store.query(sensores[0].getId(), de, Long.MAX_VALUE, (serie, t, v) -> achadosStore[0]++);
+            long tStore = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            int[] buckets = { 0 };
+            store.rollup(null, null, TimeSeriesStore.Resolution.HOUR, Long.MIN_VALUE, Long.MAX_VALUE,
+                    (inicio, min, max, avg, n) -> buckets[0]++);
+            long tRollup = System.nanoTime() - t0;
+
+            if (imprimir) {
+                System.out.printf("Consulta 1 sensor/última hora: lista %.2f ms (%d pontos) | store %.3f ms (%d pontos)%n",
+                        tLista / 1e6, achadosLista, tStore / 1e6, achadosStore[0]);
+                System.out.printf("Rollup por hora de todos os sensores: store %.3f ms (%d buckets); a lista não tem equivalente%n",
+                        tRollup / 1e6, buckets[0]);
+            }
+        }
+        store.close();
+    }
+}
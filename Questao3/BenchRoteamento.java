@@ -0,0 +1,112 @@
+package Questao3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorObserver;
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// Inscrição por região/tipo de muitos painéis: addObserver em cada sensor que casa x
+// SubscriptionRouter. Mede o tempo para inscrever e cancelar todos os painéis e o custo por
+// leitura (setValue em sensores aleatórios), com o número de entregas para conferir que os dois
+// lados entregam o mesmo. Cada painel observa uma região e um tipo; 1 em 10 observa um tipo em todas
+// as regiões.
+// Uso: java Questao3.BenchRoteamento [sensores] [regiões] [painéis] [leituras]
+public class BenchRoteamento {
+
+    static final class Painel implements SensorObserver {
+        long recebidas;
+
+        @Override
+        public void update(Sensor sensor, double newValue) {
+            recebidas++;
+        }
+    }
+
+    public static void main(String[] args) {
+        int nSensores = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int nRegioes = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int nPaineis = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        int leituras = args.length > 3 ? Integer.parseInt(args[3]) : 5_000_000;
+        SensorType[] tipos = SensorType.values();
+        Random rnd = new Random(42);
+        String[] regiaoPainel = new String[nPaineis];
+        SensorType[] tipoPainel = new SensorType[nPaineis];
+        for (int p = 0; p < nPaineis; p++) {
+            regiaoPainel[p] = p % 10 == 0 ? null : "Região " + rnd.nextInt(nRegioes);
+            tipoPainel[p] = tipos[rnd.nextInt(tipos.length)];
+        }
+        int[] alvo = new int[leituras];
+        for (int j = 0; j < leituras; j++) alvo[j] = rnd.nextInt(nSensores);
+
+        System.out.printf("=== Roteamento: %,d sensores, %d regiões, %,d painéis, %,d leituras ===%n",
+                nSensores, nRegioes, nPaineis, leituras);
+        for (int rodada = 0; rodada < 2; rodada++) { // primeira rodada aquece o JIT
+            boolean imprimir = rodada == 1;
+
+            // addObserver em cada sensor que casa com o painel
+            Sensor[] sensores = criar(nSensores, nRegioes);
+            List<Painel> paineis = new ArrayList<>();
+            long t0 = System.nanoTime();
+            for (int p = 0; p < nPaineis; p++) {
+                Painel painel = new Painel();
+                paineis.add(painel);
+                for (Sensor s : sensores) {
+                    if ((regiaoPainel[p] == null || regiaoPainel[p].equals(s.getRegion())) && s.getType() == tipoPainel[p]) {
+                        s.addObserver(painel);
+                    }
+                }
+            }
+            long tInscrever = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for (int j = 0; j < leituras; j++) sensores[alvo[j]].setValue(j);
+            long tLeituras = System.nanoTime() - t0;
+            long entregas = 0;
+            for (Painel p : paineis) entregas += p.recebidas;
+            t0 = System.nanoTime();
+            for (Painel painel : paineis) {
+                for (Sensor s : sensores) s.removeObserver(painel);
+            }
+            long tCancelar = System.nanoTime() - t0;
+            if (imprimir) imprimir("addObserver por sensor", tInscrever, tCancelar, tLeituras, leituras, entregas);
+
+            // Roteador: uma inscrição por painel
+            sensores = criar(nSensores, nRegioes);
+            SubscriptionRouter router = new SubscriptionRouter();
+            for (Sensor s : sensores) router.register(s);
+            paineis.clear();
+            List<SubscriptionRouter.Subscription> inscricoes = new ArrayList<>();
+            t0 = System.nanoTime();
+            for (int p = 0; p < nPaineis; p++) {
+                Painel painel = new Painel();
+                paineis.add(painel);
+                inscricoes.add(router.subscribe(painel, SubscriptionRouter.Filter.of(regiaoPainel[p], tipoPainel[p])));
+            }
+            tInscrever = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for (int j = 0; j < leituras; j++) sensores[alvo[j]].setValue(j);
+            tLeituras = System.nanoTime() - t0;
+            entregas = 0;
+            for (Painel p : paineis) entregas += p.recebidas;
+            t0 = System.nanoTime();
+            for (SubscriptionRouter.Subscription s : inscricoes) s.cancel();
+            tCancelar = System.nanoTime() - t0;
+            if (imprimir) imprimir("SubscriptionRouter", tInscrever, tCancelar, tLeituras, leituras, entregas);
+        }
+    }
+
+    static Sensor[] criar(int n, int regioes) {
+        Sensor[] sensores = new Sensor[n];
+        for (int i = 0; i < n; i++) {
+            sensores[i] = new Sensor("S-" + i, "Região " + (i % regioes), SensorType.values()[(i / regioes) % 3]);
+        }
+        return sensores;
+    }
+
+    static void imprimir(String nome, long tInscrever, long tCancelar, long tLeituras, int leituras, long entregas) {
+        System.out.printf("%-24s inscrever %8.1f ms | cancelar %8.1f ms | %6.1f ns/leitura | %,d entregas%n",
+                nome, tInscrever / 1e6, tCancelar / 1e6, (double) tLeituras / leituras, entregas);
+    }
+}
@@ -0,0 +1,82 @@
+package Questao3;
+
+import java.util.Random;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// Painel que consulta "valor atual de todos os sensores da região X": percorrer os objetos Sensor
+// filtrando pela região x LatestValueTable (snapshot e agregado de uma região sobre slots
+// contíguos, e só as alterações desde a última consulta). Também mede o custo de uma escrita.
+// Uso: java Questao3.BenchUltimosValores [sensores] [regiões]
+public class BenchUltimosValores {
+
+    public static void main(String[] args) {
+        int nSensores = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int nRegioes = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        Sensor[] sensores = new Sensor[nSensores];
+        LatestValueTable tabela = new LatestValueTable(nSensores + nRegioes * 3 * LatestValueTable.BLOCO);
+        int[] slots = new int[nSensores];
+        Random rnd = new Random(42);
+        for (int i = 0; i < nSensores; i++) {
+            sensores[i] = new Sensor("S-" + i, "Região " + rnd.nextInt(nRegioes), SensorType.values()[i % 3]);
+            slots[i] = tabela.register(sensores[i]);
+            double v = 20 + rnd.nextGaussian();
+            sensores[i].setValue(v);
+            tabela.put(slots[i], i, v);
+        }
+        String regiao = "Região 7";
+        int consultas = 2_000;
+
+        System.out.printf("=== Últimos valores: %,d sensores, %d regiões ===%n", nSensores, nRegioes);
+        for (int rodada = 0; rodada < 2; rodada++) { // primeira rodada aquece o JIT
+            boolean imprimir = rodada == 1;
+
+            long t0 = System.nanoTime();
+            double soma = 0;
+            for (int c = 0; c < consultas; c++) {
+                for (Sensor s : sensores) {
+                    if (s.getRegion().equals(regiao)) soma += s.getValue();
+                }
+            }
+            long tSensores = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            int lidos = 0;
+            for (int c = 0; c < consultas; c++) lidos += tabela.snapshot(regiao, null).size();
+            long tSnapshot = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            for (int c = 0; c < consultas; c++) soma += tabela.aggregate(regiao, null).avg;
+            long tAgregado = System.nanoTime() - t0;
+
+            // Consulta por alterações: 1% dos sensores muda entre uma consulta e outra
+            long versao = tabela.changesSince(0, (s, ts, v) -> { });
+            long[] alterados = { 0 };
+            long tEscritas = 0, tDelta = 0;
+            for (int c = 0; c < consultas / 10; c++) {
+                t0 = System.nanoTime();
+                for (int k = 0; k < nSensores / 100; k++) {
+                    int i = rnd.nextInt(nSensores);
+                    tabela.put(slots[i], c, 25);
+                }
+                tEscritas += System.nanoTime() - t0;
+                t0 = System.nanoTime();
+                versao = tabela.changesSince(versao, (s, ts, v) -> alterados[0]++);
+                tDelta += System.nanoTime() - t0;
+            }
+
+            if (imprimir) {
+                System.out.printf("Percorrer Sensor e filtrar região : %8.1f µs/consulta%n", tSensores / 1e3 / consultas);
+                System.out.printf("snapshot(região)                  : %8.1f µs/consulta (%d sensores)%n",
+                        tSnapshot / 1e3 / consultas, lidos / consultas);
+                System.out.printf("aggregate(região)                 : %8.1f µs/consulta%n", tAgregado / 1e3 / consultas);
+                System.out.printf("changesSince (1%% alterado)        : %8.1f µs/consulta (%,d alterações)%n",
+                        tDelta / 1e3 / (consultas / 10), alterados[0] / (consultas / 10));
+                System.out.printf("put                               : %8.1f ns/escrita%n",
+                        (double) tEscritas / ((consultas / 10) * (nSensores / 100)));
+                System.out.println(tabela + " (soma " + (long) soma + ")");
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package Questao3;
 
 import java.util.*;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 public class EnvironmentalMonitoring {
@@ -14,6 +16,11 @@ public class EnvironmentalMonitoring {
     // Interface do observador (baixo acoplamento)
     public interface SensorObserver {
         void update(Sensor sensor, double newValue);
+
+        // Leituras em lote (SensorIngestion); o padrão entrega uma a uma via update()
+        default void updateBatch(ReadingBatch batch) {
+            for (int i = 0; i < batch.size(); i++) update(batch.sensor(i), batch.value(i));
+        }
     }
 
     // Classe Sensor (Sujeito) - notifica observadores quando há mudança
@@ -21,8 +28,9 @@ public class EnvironmentalMonitoring {
         private final String id;
         private final String region;
         private final SensorType type;
-        private double value;
-        private final List<SensorObserver> observers = new ArrayList<>();
+        private volatile double value; // lido por outras threads (painéis, LatestValueTable)
+        // Copy-on-write: inscrever/cancelar copia o array; notificar só lê a referência atual
+        private volatile SensorObserver[] observers = new SensorObserver[0];
 
         public Sensor(String id, String region, SensorType type) {
             this.id = id;
@@ -35,17 +43,31 @@ public class EnvironmentalMonitoring {
         public SensorType getType() { return type; }
         public double getValue() { return value; }
 
-        // Inscrição
+        // Inscrição: update() roda na thread que chamou setValue(). Para entrega assíncrona, inscreva
+        // um AsyncObserver (o mesmo objeto em vários sensores = uma única fila para o observador)
         public void addObserver(SensorObserver o) {
-            synchronized(observers) {
-                if (!observers.contains(o)) observers.add(o);
+            synchronized(this) {
+                for (SensorObserver atual : observers) if (atual.equals(o)) return;
+                SensorObserver[] novo = Arrays.copyOf(observers, observers.length + 1);
+                novo[observers.length] = o;
+                observers = novo;
             }
         }
 
-        // Cancelamento
+        // Cancelamento (aceita o observador original ou o AsyncObserver que o envolve)
         public void removeObserver(SensorObserver o) {
-            synchronized(observers) {
-                observers.remove(o);
+            synchronized(this) {
+                SensorObserver[] atual = observers;
+                for (int i = 0; i < atual.length; i++) {
+                    SensorObserver w = atual[i];
+                    if (w.equals(o) || (w instanceof AsyncObserver && ((AsyncObserver) w).getDelegate().equals(o))) {
+                        SensorObserver[] novo = new SensorObserver[atual.length - 1];
+                        System.arraycopy(atual, 0, novo, 0, i);
+                        System.arraycopy(atual, i + 1, novo, i, atual.length - i - 1);
+                        observers = novo;
+                        return;
+                    }
+                }
             }
         }
 
@@ -55,15 +77,18 @@ public class EnvironmentalMonitoring {
             notifyObservers();
         }
 
+        // Só guarda o valor (o SensorIngestion entrega as leituras aos seus próprios inscritos)
+        void storeValue(double newValue) {
+            this.value = newValue;
+        }
+
         private void notifyObservers() {
-            // Fazemos uma cópia para evitar ConcurrentModification se um observador se desinscrever durante a notificação
-            List<SensorObserver> snapshot;
-            synchronized(observers) {
-                snapshot = new ArrayList<>(observers);
-            }
+            // O array nunca é alterado depois de publicado: inscrições durante a notificação não interferem
+            SensorObserver[] snapshot = observers;
+            double v = value;
             for (SensorObserver o : snapshot) {
                 try {
-                    o.update(this, value);
+                    o.update(this, v);
                 } catch (Exception e) {
                     System.err.println("Erro ao notificar observador: " + e.getMessage());
                 }
@@ -88,70 +113,139 @@ public class EnvironmentalMonitoring {
     }
 
     // Observador: Módulo de Alertas - dispara alertas quando ultrapassa limites
+    // (limiar fixo por leitura; para janelas, médias regionais, z-score e histerese há o AlertEngine)
     public static class AlertModule implements SensorObserver {
         private final String name;
-        private final Map<SensorType, Double> thresholds = new EnumMap<>(SensorType.class);
+        private final double[] thresholds = new double[SensorType.values().length]; // NaN = sem limiar
+        private volatile boolean echo = true; // imprime também as leituras dentro dos limites
 
         // Limiares podem ser passados ou usamos alguns defaults
         public AlertModule(String name) {
             this.name = name;
+            Arrays.fill(thresholds, Double.NaN); // tipos sem default ficam sem limiar
             // valores default razoáveis
-            thresholds.put(SensorType.TEMPERATURE, 35.0); // ºC
-            thresholds.put(SensorType.HUMIDITY, 20.0); // % (exemplo: alerta quando muito seco)
-            thresholds.put(SensorType.POLLUTION, 100.0); // índice de poluição (qualquer unidade)
+            thresholds[SensorType.TEMPERATURE.ordinal()] = 35.0; // ºC
+            thresholds[SensorType.HUMIDITY.ordinal()] = 20.0; // % (exemplo: alerta quando muito seco)
+            thresholds[SensorType.POLLUTION.ordinal()] = 100.0; // índice de poluição (qualquer unidade)
         }
 
         public void setThreshold(SensorType type, double value) {
-            thresholds.put(type, value);
+            thresholds[type.ordinal()] = value;
+        }
+
+        public void setEcho(boolean echo) {
+            this.echo = echo;
         }
 
         @Override
         public void update(Sensor sensor, double newValue) {
-            Double threshold = thresholds.get(sensor.getType());
+            double threshold = thresholds[sensor.getType().ordinal()];
             boolean alert = false;
-            String reason = "";
-            if (threshold != null) {
+            if (!Double.isNaN(threshold)) {
                 switch (sensor.getType()) {
-                    case TEMPERATURE:
-                        if (newValue >= threshold) { alert = true; reason = String.format("Temperatura >= %.1f", threshold); }
-                        break;
                     case HUMIDITY:
-                        if (newValue <= threshold) { alert = true; reason = String.format("Umidade <= %.1f", threshold); }
+                        alert = newValue <= threshold;
                         break;
-                    case POLLUTION:
-                        if (newValue >= threshold) { alert = true; reason = String.format("Poluição >= %.1f", threshold); }
+                    default:
+                        alert = newValue >= threshold;
                         break;
                 }
             }
             if (alert) {
+                // o texto do motivo só é montado quando há alerta
+                String reason;
+                switch (sensor.getType()) {
+                    case TEMPERATURE: reason = String.format("Temperatura >= %.1f", threshold); break;
+                    case HUMIDITY: reason = String.format("Umidade <= %.1f", threshold); break;
+                    default: reason = String.format("Poluição >= %.1f", threshold); break;
+                }
                 System.out.printf("[ALERTA %s] %s: valor=%.2f -> %s\n", name, sensor, newValue, reason);
-            } else {
+            } else if (echo) {
                 // para não poluir a saída, apenas logamos de nível baixo
                 System.out.printf("[AlertModule %s] %s dentro dos limites (%.2f)\n", name, sensor, newValue);
             }
         }
     }
 
-    // Observador: Logger de Histórico - registra as leituras para posterior análise
-    public static class HistoryLogger implements SensorObserver {
+    // Observador: Logger de Histórico - registra as leituras para posterior análise.
+    // As leituras vão para um TimeSeriesStore (colunar, comprimido, em segmentos mapeados em memória)
+    // em vez de uma lista de Strings; printHistory e as consultas leem de lá.
+    // close() fecha o store criado pelo próprio logger (temporário, apagado ao fechar); um store
+    // recebido no construtor continua sendo de quem o passou.
+    public static class HistoryLogger implements SensorObserver, AutoCloseable {
         private final String name;
-        private final List<String> history = new ArrayList<>();
+        private final TimeSeriesStore store;
+        private final boolean storeProprio;
+        private volatile boolean echo = true; // imprime cada leitura gravada
         private final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-        public HistoryLogger(String name) { this.name = name; }
+        public HistoryLogger(String name) { this(name, TimeSeriesStore.temporario(), true); }
+
+        public HistoryLogger(String name, TimeSeriesStore store) { this(name, store, false); }
+
+        private HistoryLogger(String name, TimeSeriesStore store, boolean storeProprio) {
+            this.name = name;
+            this.store = store;
+            this.storeProprio = storeProprio;
+        }
+
+        @Override
+        public void close() {
+            if (storeProprio) store.close();
+        }
+
+        public void setEcho(boolean echo) { this.echo = echo; }
+
+        public TimeSeriesStore getStore() { return store; }
 
         @Override
         public void update(Sensor sensor, double newValue) {
-            String entry = String.format("%s | %s | %.2f | %s", LocalDateTime.now().format(dtf), sensor, newValue, sensor.getRegion());
-            synchronized(history) { history.add(entry); }
-            System.out.printf("[History %s] gravado: %s\n", name, entry);
+            long agora = System.currentTimeMillis();
+            store.append(sensor, agora, newValue);
+            if (echo) System.out.printf("[History %s] gravado: %s\n", name, formatar(agora, sensor.toString(), newValue, sensor.getRegion()));
+        }
+
+        // Lotes do SensorIngestion: grava com o timestamp de cada leitura, sem imprimir
+        @Override
+        public void updateBatch(ReadingBatch batch) {
+            for (int i = 0; i < batch.size(); i++) store.append(batch.sensor(i), batch.timestamp(i), batch.value(i));
+        }
+
+        private String formatar(long timestamp, String sensor, double value, String region) {
+            LocalDateTime quando = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+            return String.format("%s | %s | %.2f | %s", quando.format(dtf), sensor, value, region);
+        }
+
+        // Leituras de um sensor no intervalo [de, ate] (epoch millis)
+        public void query(String sensorId, long de, long ate, TimeSeriesStore.PointVisitor visitor) {
+            store.query(sensorId, de, ate, visitor);
+        }
+
+        // Leituras por região e/ou tipo (null = qualquer) no intervalo
+        public void query(String region, SensorType type, long de, long ate, TimeSeriesStore.PointVisitor visitor) {
+            store.query(region, type, de, ate, visitor);
+        }
+
+        // min/max/média por minuto ou hora de um sensor
+        public void rollup(String sensorId, TimeSeriesStore.Resolution r, long de, long ate, TimeSeriesStore.RollupVisitor visitor) {
+            store.rollup(sensorId, r, de, ate, visitor);
         }
 
         public void printHistory() {
             System.out.println("--- Histórico (" + name + ") ---");
-            synchronized(history) {
-                if (history.isEmpty()) System.out.println("(vazio)");
-                for (String e : history) System.out.println(e);
+            // Junta as séries e ordena pelo timestamp (mesma ordem de chegada da lista antiga)
+            List<TimeSeriesStore.Series> series = new ArrayList<>();
+            List<long[]> pontos = new ArrayList<>(); // {timestamp, bits do valor, série}
+            store.query(null, null, Long.MIN_VALUE, Long.MAX_VALUE, (serie, ts, v) -> {
+                int idx = series.indexOf(serie);
+                if (idx < 0) { idx = series.size(); series.add(serie); }
+                pontos.add(new long[] { ts, Double.doubleToRawLongBits(v), idx });
+            });
+            pontos.sort(Comparator.comparingLong(p -> p[0]));
+            if (pontos.isEmpty()) System.out.println("(vazio)");
+            for (long[] p : pontos) {
+                TimeSeriesStore.Series serie = series.get((int) p[2]);
+                System.out.println(formatar(p[0], serie.toString(), Double.longBitsToDouble(p[1]), serie.getRegion()));
             }
             System.out.println("-------------------------");
         }
@@ -212,9 +306,102 @@ public class EnvironmentalMonitoring {
         s1.removeObserver(panel);
         s1.setValue(40.0); // painel principal já não deve receber
 
+        // Entrega assíncrona: um observador lento tem fila e thread próprias e não atrasa setValue()
+        System.out.println("\n=== Observador lento em modo assíncrono ===");
+        class GravacaoLenta implements SensorObserver { // simula gravação demorada
+            @Override
+            public void update(Sensor sensor, double newValue) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        AsyncObserver asyncLento = new AsyncObserver(new GravacaoLenta(), 8);
+        Sensor s4 = new Sensor("S-400", "Porto", SensorType.TEMPERATURE);
+        s4.addObserver(asyncLento);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < 20; i++) s4.setValue(25.0 + i * 0.1);
+        System.out.printf("20 leituras publicadas em %.2f ms; %s%n", (System.nanoTime() - inicio) / 1e6, asyncLento);
+        asyncLento.close();
+        System.out.println("Após drenar: " + asyncLento);
+
+        // Ingestão em alta taxa: leituras vão para filas primitivas por shard e o painel só recebe
+        // o valor mais recente de cada sensor a cada 100 ms
+        System.out.println("\n=== Ingestão em alta taxa com painel coalescido ===");
+        try (SensorIngestion ingestao = new SensorIngestion(16, 2, 1024, 256)) {
+            int i1 = ingestao.register(s1);
+            int i3 = ingestao.register(s3);
+            ingestao.subscribeLatest(panel, 100);
+            for (int i = 0; i < 100_000; i++) {
+                ingestao.ingest(i1, i, 20 + i % 10);
+                ingestao.ingest(i3, i, 50 + i % 30);
+            }
+            Thread.sleep(150);
+            System.out.printf("%,d leituras processadas, %d atualizações entregues ao painel%n",
+                    ingestao.getProcessed(), ingestao.getCoalescedUpdates());
+        }
+
+        // Alertas por janela e anomalia: média regional de poluição acima de 80 em 5 minutos e
+        // z-score > 4 por sensor de temperatura, com histerese (um alerta por episódio, não um por leitura).
+        // Simula 15 minutos de leituras a cada 1 s com timestamps explícitos
+        System.out.println("\n=== Alertas por janela, z-score e histerese ===");
+        AlertEngine engine = new AlertEngine(List.of(
+                AlertRule.region("poluicao-regional-5min", AlertRule.Metric.WINDOW_MEAN)
+                        .type(SensorType.POLLUTION).window(5, java.util.concurrent.TimeUnit.MINUTES).above(80).clearAt(75),
+                AlertRule.sensor("anomalia", AlertRule.Metric.ZSCORE).type(SensorType.TEMPERATURE).above(4).clearAt(2).minSamples(30)),
+                AlertEngine.printer("Engine"));
+        Sensor[] poluicao = {
+                new Sensor("P-1", "Centro", SensorType.POLLUTION),
+                new Sensor("P-2", "Centro", SensorType.POLLUTION),
+                new Sensor("P-3", "Centro", SensorType.POLLUTION) };
+        Sensor temp = new Sensor("T-1", "Centro", SensorType.TEMPERATURE);
+        Random rnd = new Random(7);
+        long t0 = 1_700_000_000_000L;
+        for (int seg = 0; seg < 15 * 60; seg++) {
+            long ts = t0 + seg * 1000L;
+            double base = seg >= 180 && seg < 540 ? 92 : 60; // episódio entre 3 e 9 minutos
+            for (Sensor p : poluicao) engine.observe(p, ts, base + rnd.nextGaussian() * 3);
+            engine.observe(temp, ts, seg == 600 ? 38 : 24 + rnd.nextGaussian() * 0.5); // pico isolado
+        }
+        System.out.println(engine);
+
+        // Roteamento por região/tipo: o painel se inscreve uma vez com um filtro em vez de chamar
+        // addObserver em cada sensor; sensores novos da região passam a ser entregues sozinhos
+        System.out.println("\n=== Inscrição por região e tipo (SubscriptionRouter) ===");
+        SubscriptionRouter router = new SubscriptionRouter();
+        ControlPanel painelNorte = new ControlPanel("Zona Norte/Poluição");
+        SubscriptionRouter.Subscription inscricao =
+                router.subscribe(painelNorte, SubscriptionRouter.Filter.of("Zona Norte", SensorType.POLLUTION));
+        Sensor n1 = new Sensor("N-1", "Zona Norte", SensorType.POLLUTION);
+        Sensor n2 = new Sensor("N-2", "Zona Norte", SensorType.TEMPERATURE);
+        Sensor n3 = new Sensor("N-3", "Zona Norte", SensorType.POLLUTION);
+        for (Sensor s : new Sensor[] { n1, n2, n3, s3 }) router.register(s);
+        n1.setValue(71.0);
+        n2.setValue(26.0); // temperatura: não casa com o filtro
+        n3.setValue(88.5);
+        System.out.println(router + "; sensores no filtro: "
+                + router.sensors(SubscriptionRouter.Filter.of("Zona Norte", SensorType.POLLUTION)).size());
+        inscricao.cancel();
+        n1.setValue(72.0); // painel já não recebe
+
+        // Tabela de últimos valores: o painel consulta a região e depois só o que mudou
+        System.out.println("\n=== Tabela de últimos valores ===");
+        LatestValueTable ultimos = new LatestValueTable(64);
+        for (Sensor s : new Sensor[] { n1, n2, n3 }) s.addObserver(ultimos);
+        n1.setValue(73.0);
+        n2.setValue(27.5);
+        n3.setValue(90.0);
+        System.out.println("Zona Norte/POLLUTION: " + ultimos.aggregate("Zona Norte", SensorType.POLLUTION));
+        long versao = ultimos.changesSince(0, (s, ts, v) -> { });
+        n3.setValue(84.0);
+        ultimos.changesSince(versao, (s, ts, v) -> System.out.printf("Alterado desde a última consulta: %s = %.2f%n", s, v));
+
         // Mostra histórico registrado
         System.out.println("\n=== Histórico gravado (logger) ===");
         logger.printHistory();
+        logger.close(); // apaga o histórico temporário
 
         System.out.println("\nDemo concluída.");
     }
@@ -0,0 +1,82 @@
+package Questao3;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorObserver;
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// Gerador de carga para o SensorIngestion: vários produtores publicam leituras de dezenas de
+// milhares de sensores o mais rápido possível. Um observador recebe todas as leituras em lote
+// (só soma) e outro, tipo painel, recebe o valor mais recente de cada sensor a cada 100 ms.
+// Uso: java Questao3.GeradorCargaSensores [sensores] [produtores] [leituras] [shards]
+public class GeradorCargaSensores {
+
+    public static void main(String[] args) throws InterruptedException {
+        int nSensores = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int produtores = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long leituras = args.length > 2 ? Long.parseLong(args[2]) : 20_000_000L;
+        int nShards = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        SensorIngestion ingestao = new SensorIngestion(nSensores, nShards, 1 << 16, 4096);
+        SensorType[] tipos = SensorType.values();
+        for (int i = 0; i < nSensores; i++) {
+            ingestao.register(new Sensor("S-" + i, "Região " + (i % 20), tipos[i % tipos.length]));
+        }
+        ContadorLote todas = new ContadorLote();
+        ingestao.subscribeAll(todas);
+        ingestao.subscribeLatest((sensor, valor) -> { }, 100);
+
+        System.out.printf("=== Ingestão: %,d sensores, %d produtores, %d shards, %,d leituras, %d núcleo(s) ===%n",
+                nSensores, produtores, nShards, leituras, Runtime.getRuntime().availableProcessors());
+        CountDownLatch largada = new CountDownLatch(1);
+        Thread[] ts = new Thread[produtores];
+        long porProdutor = leituras / produtores;
+        for (int p = 0; p < produtores; p++) {
+            ts[p] = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < porProdutor; i++) {
+                    ingestao.ingest(rnd.nextInt(nSensores), i, 20 + rnd.nextDouble() * 10);
+                }
+            }, "produtor-" + p);
+            ts[p].start();
+        }
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Thread t : ts) t.join();
+        long publicadas = System.nanoTime() - inicio;
+        ingestao.close();
+        long total = System.nanoTime() - inicio;
+
+        long n = porProdutor * produtores;
+        System.out.printf("Publicação: %,.0f leituras/s | processamento completo: %,.0f leituras/s%n",
+                n / (publicadas / 1e9), n / (total / 1e9));
+        System.out.printf("Lotes entregues: %,d (média %.0f leituras) | leituras vistas: %,d | atualizações coalescidas: %,d%n",
+                todas.lotes, (double) todas.leituras / Math.max(1, todas.lotes), todas.leituras, ingestao.getCoalescedUpdates());
+    }
+
+    // Observador de todas as leituras: só acumula (não imprime)
+    static final class ContadorLote implements SensorObserver {
+        long lotes, leituras;
+        double soma;
+
+        @Override
+        public void update(Sensor sensor, double newValue) {
+            leituras++;
+            soma += newValue;
+        }
+
+        @Override
+        public synchronized void updateBatch(ReadingBatch batch) {
+            lotes++;
+            leituras += batch.size();
+            for (int i = 0; i < batch.size(); i++) soma += batch.value(i);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package Questao3;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Compressão de séries temporais no estilo Gorilla (Facebook, 2015) para blocos de pontos
+// (timestamp em ms, valor double):
+//  - timestamp: primeiro valor inteiro, depois delta-of-delta com prefixos de tamanho variável
+//    (leituras periódicas custam 1 bit);
+//  - valor: XOR com o anterior; repetido custa 1 bit, e os bits significativos reaproveitam a
+//    janela de zeros à esquerda/direita do valor anterior quando possível.
+final class GorillaCodec {
+    private GorillaCodec() { }
+
+    interface PointConsumer {
+        void accept(long timestamp, double value);
+    }
+
+    // Codifica um bloco em memória; os bits vão para um long[] que cresce sob demanda
+    static final class Encoder {
+        private long[] palavras = new long[16];
+        private long bits;       // bits escritos
+        private int pontos;
+        private long primeiroTs, ultimoTs, ultimoDelta;
+        private long ultimoValor; // bits do double
+        private int zerosEsq = Integer.MAX_VALUE, zerosDir;
+        private long minTs = Long.MAX_VALUE, maxTs = Long.MIN_VALUE;
+
+        void append(long ts, double valor) {
+            long v = Double.doubleToRawLongBits(valor);
+            if (pontos == 0) {
+                escrever(ts, 64);
+                escrever(v, 64);
+                primeiroTs = ts;
+            } else {
+                long delta = ts - ultimoTs;
+                long dod = delta - ultimoDelta;
+                if (dod == 0) {
+                    escrever(0, 1);
+                } else if (dod >= -64 && dod <= 63) {
+                    escrever(0b10, 2);
+                    escrever(dod, 7);
+                } else if (dod >= -256 && dod <= 255) {
+                    escrever(0b110, 3);
+                    escrever(dod, 9);
+                } else if (dod >= -2048 && dod <= 2047) {
+                    escrever(0b1110, 4);
+                    escrever(dod, 12);
+                } else {
+                    escrever(0b1111, 4);
+                    escrever(dod, 64);
+                }
+                ultimoDelta = delta;
+
+                long xor = v ^ ultimoValor;
+                if (xor == 0) {
+                    escrever(0, 1);
+                } else {
+                    int esq = Math.min(Long.numberOfLeadingZeros(xor), 31); // cabe em 5 bits
+                    int dir = Long.numberOfTrailingZeros(xor);
+                    if (zerosEsq != Integer.MAX_VALUE && esq >= zerosEsq && dir >= zerosDir) {
+                        escrever(0b10, 2); // reaproveita a janela anterior
+                        escrever(xor >>> zerosDir, 64 - zerosEsq - zerosDir);
+                    } else {
+                        int significativos = 64 - esq - dir;
+                        escrever(0b11, 2);
+                        escrever(esq, 5);
+                        escrever(significativos - 1, 6); // 1..64 em 6 bits
+                        escrever(xor >>> dir, significativos);
+                        zerosEsq = esq;
+                        zerosDir = dir;
+                    }
+                }
+            }
+            ultimoTs = ts;
+            ultimoValor = v;
+            pontos++;
+            if (ts < minTs) minTs = ts;
+            if (ts > maxTs) maxTs = ts;
+        }
+
+        private void escrever(long valor, int n) {
+            if (n == 0) return;
+            if (n < 64) valor &= (1L << n) - 1;
+            int palavra = (int) (bits >>> 6);
+            int livre = 64 - (int) (bits & 63);
+            if (palavra + 1 >= palavras.length) palavras = Arrays.copyOf(palavras, palavras.length * 2);
+            if (n <= livre) {
+                palavras[palavra] |= valor << (livre - n);
+            } else {
+                palavras[palavra] |= valor >>> (n - livre);
+                palavras[palavra + 1] |= valor << (64 - (n - livre));
+            }
+            bits += n;
+        }
+
+        int pontos() { return pontos; }
+
+        long minTs() { return minTs; }
+
+        long maxTs() { return maxTs; }
+
+        long primeiroTs() { return primeiroTs; }
+
+        int bytes() { return (int) ((bits + 7) >>> 3); }
+
+        // Grava os bytes do bloco (big-endian, bits em ordem)
+        void copiarPara(ByteBuffer destino) {
+            int n = bytes();
+            int i = 0;
+            for (; i + 8 <= n; i += 8) destino.putLong(palavras[i >>> 3]);
+            for (; i < n; i++) destino.put((byte) (palavras[i >>> 3] >>> (56 - 8 * (i & 7))));
+        }
+
+        // Decodifica o bloco ainda aberto (consultas sobre dados recentes)
+        void decodificar(PointConsumer destino) {
+            if (pontos == 0) return;
+            ByteBuffer b = ByteBuffer.allocate(bytes());
+            copiarPara(b);
+            b.flip();
+            decode(b, pontos, destino);
+        }
+
+        void reiniciar() {
+            Arrays.fill(palavras, 0, (int) Math.min(palavras.length, (bits >>> 6) + 2), 0L);
+            bits = 0;
+            pontos = 0;
+            ultimoDelta = 0;
+            zerosEsq = Integer.MAX_VALUE;
+            zerosDir = 0;
+            minTs = Long.MAX_VALUE;
+            maxTs = Long.MIN_VALUE;
+        }
+    }
+
+    // Lê "pontos" pontos a partir da posição atual de "origem" (a posição não é alterada)
+    static void decode(ByteBuffer origem, int pontos, PointConsumer destino) {
+        Leitor r = new Leitor(origem);
+        long ts = r.ler(64);
+        long v = r.ler(64);
+        destino.accept(ts, Double.longBitsToDouble(v));
+        long delta = 0;
+        int esq = 0, dir = 0;
+        for (int p = 1; p < pontos; p++) {
+            long dod;
+            if (r.ler(1) == 0) dod = 0;
+            else if (r.ler(1) == 0) dod = r.lerComSinal(7);
+            else if (r.ler(1) == 0) dod = r.lerComSinal(9);
+            else if (r.ler(1) == 0) dod = r.lerComSinal(12);
+            else dod = r.ler(64);
+            delta += dod;
+            ts += delta;
+            if (r.ler(1) != 0) {
+                if (r.ler(1) != 0) {
+                    esq = (int) r.ler(5);
+                    int significativos = (int) r.ler(6) + 1;
+                    dir = 64 - esq - significativos;
+                }
+                v ^= r.ler(64 - esq - dir) << dir;
+            }
+            destino.accept(ts, Double.longBitsToDouble(v));
+        }
+    }
+
+    private static final class Leitor {
+        private final ByteBuffer b;
+        private final int base;
+        private long bit;
+
+        Leitor(ByteBuffer b) {
+            this.b = b;
+            this.base = b.position();
+        }
+
+        long ler(int n) {
+            long r = 0;
+            while (n > 0) {
+                int indice = base + (int) (bit >>> 3);
+                int disponiveis = 8 - (int) (bit & 7);
+                int usar = Math.min(n, disponiveis);
+                int octeto = b.get(indice) & 0xFF;
+                int pedaco = (octeto >>> (disponiveis - usar)) & ((1 << usar) - 1);
+                r = (r << usar) | pedaco;
+                bit += usar;
+                n -= usar;
+            }
+            return r;
+        }
+
+        long lerComSinal(int n) {
+            long v = ler(n);
+            return (v << (64 - n)) >> (64 - n); // estende o sinal
+        }
+    }
+}
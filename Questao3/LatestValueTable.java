@@ -0,0 +1,340 @@
+package Questao3;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorObserver;
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// Tabela central do último valor de cada sensor, para painéis que consultam "valor atual de todos
+// os sensores da região X". Os valores ficam em arrays primitivos indexados por slot; cada par
+// (região, tipo) reserva blocos de BLOCO slots contíguos, então consultas e agregados por região/tipo
+// varrem memória contígua. Cada slot tem um seqlock (VarHandle): o escritor marca o slot como
+// ocupado (ímpar), grava e libera (par, release); o leitor relê se a sequência mudou. Leitores nunca
+// bloqueiam escritores.
+// Alterações: cada escrita carimba o slot com a época atual; changesSince() avança a época e devolve
+// só os slots carimbados desde a versão informada (o painel busca apenas o que mudou).
+// Sensor.value também passou a ser volatile, para quem ainda lê direto do Sensor.
+public class LatestValueTable implements SensorObserver {
+
+    static final int BLOCO = 16;
+    private static final VarHandle SEQ = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VALOR = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle LONGO = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int TIPOS = SensorType.values().length;
+
+    private final double[] valores;
+    private final long[] timestamps;
+    private final long[] carimbos;   // época da última escrita
+    private final long[] sequencias; // seqlock: ímpar = escrita em andamento; 0 = nunca escrito
+    private final Sensor[] sensores;
+    private final AtomicLong epoca = new AtomicLong(1);
+
+    // Alocação de slots (protegida por this); leitores usam só os campos volatile
+    private final ConcurrentHashMap<Sensor, Integer> slots = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Celula[]> porRegiao = new ConcurrentHashMap<>();
+    private final Celula[] porTipo; // todas as células de cada tipo, em ordem de criação
+    private volatile int blocosUsados;
+    private volatile Entrada[] porIndice = new Entrada[64]; // cache por índice do SensorIngestion
+
+    // Slots de uma região+tipo: blocos contíguos de BLOCO slots
+    private static final class Celula {
+        volatile int[] blocos = new int[0];
+        volatile int tamanho; // slots ocupados
+        volatile Celula proxima; // próxima célula do mesmo tipo
+
+        int slot(int k) { return blocos[k / BLOCO] * BLOCO + k % BLOCO; }
+    }
+
+    private static final class Entrada {
+        final Sensor sensor;
+        final int slot;
+
+        Entrada(Sensor sensor, int slot) {
+            this.sensor = sensor;
+            this.slot = slot;
+        }
+    }
+
+    // capacidade em slots; cada região+tipo ocupa múltiplos de BLOCO
+    public LatestValueTable(int capacidade) {
+        int n = (capacidade + BLOCO - 1) / BLOCO * BLOCO;
+        this.valores = new double[n];
+        this.timestamps = new long[n];
+        this.carimbos = new long[n];
+        this.sequencias = new long[n];
+        this.sensores = new Sensor[n];
+        this.porTipo = new Celula[TIPOS];
+    }
+
+    public interface ChangeVisitor {
+        void visit(Sensor sensor, long timestamp, double value);
+    }
+
+    // Cópia dos valores de uma região/tipo. consistent = todos lidos sem nenhuma escrita no meio
+    // (senão cada valor ainda é consistente por si, mas podem ser de instantes diferentes)
+    public static final class Snapshot {
+        public final Sensor[] sensors;
+        public final double[] values;
+        public final long[] timestamps;
+        public final boolean consistent;
+
+        Snapshot(Sensor[] sensors, double[] values, long[] timestamps, boolean consistent) {
+            this.sensors = sensors;
+            this.values = values;
+            this.timestamps = timestamps;
+            this.consistent = consistent;
+        }
+
+        public int size() { return sensors.length; }
+    }
+
+    public static final class Aggregate {
+        public final int count;
+        public final double min, max, avg;
+
+        Aggregate(int count, double min, double max, double avg) {
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.avg = avg;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d min=%.2f max=%.2f média=%.2f", count, min, max, avg);
+        }
+    }
+
+    // Reserva o slot do sensor (junto dos outros da mesma região e tipo)
+    public synchronized int register(Sensor sensor) {
+        Integer existente = slots.get(sensor);
+        if (existente != null) return existente;
+        Celula c = celula(sensor.getRegion(), sensor.getType());
+        int k = c.tamanho;
+        if (k % BLOCO == 0) {
+            if ((blocosUsados + 1) * BLOCO > valores.length) {
+                throw new IllegalStateException("Tabela cheia: " + valores.length + " slots");
+            }
+            int[] blocos = Arrays.copyOf(c.blocos, c.blocos.length + 1);
+            blocos[blocos.length - 1] = blocosUsados;
+            c.blocos = blocos;
+            blocosUsados = blocosUsados + 1;
+        }
+        int slot = c.slot(k);
+        sensores[slot] = sensor;
+        slots.put(sensor, slot);
+        c.tamanho = k + 1; // publica o sensor do slot aos leitores
+        return slot;
+    }
+
+    private Celula celula(String regiao, SensorType tipo) {
+        Celula[] tipos = porRegiao.computeIfAbsent(regiao, r -> new Celula[TIPOS]);
+        Celula c = tipos[tipo.ordinal()];
+        if (c == null) {
+            c = new Celula();
+            tipos[tipo.ordinal()] = c;
+            Celula ultima = porTipo[tipo.ordinal()];
+            if (ultima == null) {
+                porTipo[tipo.ordinal()] = c;
+            } else {
+                while (ultima.proxima != null) ultima = ultima.proxima;
+                ultima.proxima = c;
+            }
+        }
+        return c;
+    }
+
+    public int slotOf(Sensor sensor) {
+        Integer s = slots.get(sensor);
+        return s != null ? s : -1;
+    }
+
+    // Escrita: entra no seqlock com CAS (escritores do mesmo sensor se revezam), grava e libera
+    public void put(int slot, long timestamp, double value) {
+        long s;
+        do {
+            s = (long) SEQ.getVolatile(sequencias, slot);
+        } while ((s & 1) != 0 || !SEQ.compareAndSet(sequencias, slot, s, s + 1));
+        // par do acquireFence dos leitores: as gravações opacas abaixo não sobem para antes da
+        // sequência ímpar (o CAS sozinho não garante isso para acessos opacos posteriores)
+        VarHandle.storeStoreFence();
+        VALOR.setOpaque(valores, slot, value);
+        LONGO.setOpaque(timestamps, slot, timestamp);
+        LONGO.setOpaque(carimbos, slot, epoca.get()); // lida dentro da seção: ver changesSince
+        SEQ.setRelease(sequencias, slot, s + 2);
+    }
+
+    public double value(int slot) {
+        while (true) {
+            long s = (long) SEQ.getAcquire(sequencias, slot);
+            double v = (double) VALOR.getOpaque(valores, slot);
+            VarHandle.acquireFence();
+            if ((s & 1) == 0 && s == (long) SEQ.getOpaque(sequencias, slot)) return s == 0 ? Double.NaN : v;
+            Thread.onSpinWait();
+        }
+    }
+
+    public long timestamp(int slot) {
+        while (true) {
+            long s = (long) SEQ.getAcquire(sequencias, slot);
+            long t = (long) LONGO.getOpaque(timestamps, slot);
+            VarHandle.acquireFence();
+            if ((s & 1) == 0 && s == (long) SEQ.getOpaque(sequencias, slot)) return t;
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public void update(Sensor sensor, double newValue) {
+        Integer s = slots.get(sensor);
+        put(s != null ? s : register(sensor), System.currentTimeMillis(), newValue);
+    }
+
+    // Lotes do SensorIngestion: o slot de cada sensor fica em cache pelo índice dele no lote
+    @Override
+    public void updateBatch(ReadingBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            int indice = batch.sensorIndex(i);
+            Entrada[] cache = porIndice;
+            Entrada e = indice < cache.length ? cache[indice] : null;
+            if (e == null || e.sensor != batch.sensor(i)) e = cachear(indice, batch.sensor(i));
+            put(e.slot, batch.timestamp(i), batch.value(i));
+        }
+    }
+
+    private synchronized Entrada cachear(int indice, Sensor sensor) {
+        Entrada e = new Entrada(sensor, register(sensor));
+        Entrada[] cache = porIndice;
+        if (indice >= cache.length) cache = Arrays.copyOf(cache, Math.max(indice + 1, cache.length * 2));
+        cache[indice] = e;
+        porIndice = cache;
+        return e;
+    }
+
+    // Região e/ou tipo nulos = qualquer um. Tenta algumas vezes obter uma cópia sem escritas no meio
+    public Snapshot snapshot(String region, SensorType type) {
+        List<Celula> cs = celulas(region, type);
+        int n = 0;
+        for (Celula c : cs) n += c.tamanho;
+        int[] slotsLidos = new int[n];
+        int k = 0;
+        for (Celula c : cs) {
+            int tamanho = Math.min(c.tamanho, n - k);
+            for (int j = 0; j < tamanho; j++) slotsLidos[k++] = c.slot(j);
+        }
+        Sensor[] ss = new Sensor[k];
+        double[] vs = new double[k];
+        long[] ts = new long[k];
+        long[] seqs = new long[k];
+        boolean consistente = false;
+        for (int tentativa = 0; tentativa < 8 && !consistente; tentativa++) {
+            for (int j = 0; j < k; j++) {
+                int slot = slotsLidos[j];
+                long s;
+                do {
+                    s = (long) SEQ.getAcquire(sequencias, slot);
+                    vs[j] = (double) VALOR.getOpaque(valores, slot);
+                    ts[j] = (long) LONGO.getOpaque(timestamps, slot);
+                    VarHandle.acquireFence();
+                } while ((s & 1) != 0 || s != (long) SEQ.getOpaque(sequencias, slot));
+                seqs[j] = s;
+                if (s == 0) vs[j] = Double.NaN;
+            }
+            consistente = true;
+            for (int j = 0; j < k && consistente; j++) {
+                consistente = seqs[j] == (long) SEQ.getAcquire(sequencias, slotsLidos[j]);
+            }
+        }
+        for (int j = 0; j < k; j++) ss[j] = sensores[slotsLidos[j]];
+        return new Snapshot(ss, vs, ts, consistente);
+    }
+
+    // min/max/média dos sensores com valor, varrendo os blocos contíguos de cada célula
+    public Aggregate aggregate(String region, SensorType type) {
+        int n = 0;
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, soma = 0;
+        for (Celula c : celulas(region, type)) {
+            int tamanho = c.tamanho;
+            int[] blocos = c.blocos;
+            for (int b = 0; b * BLOCO < tamanho; b++) {
+                int inicio = blocos[b] * BLOCO;
+                int fim = inicio + Math.min(BLOCO, tamanho - b * BLOCO);
+                for (int slot = inicio; slot < fim; slot++) {
+                    if ((long) SEQ.getAcquire(sequencias, slot) == 0) continue; // sem valor ainda
+                    double v = (double) VALOR.getOpaque(valores, slot);
+                    if (v < min) min = v;
+                    if (v > max) max = v;
+                    soma += v;
+                    n++;
+                }
+            }
+        }
+        return n == 0 ? new Aggregate(0, Double.NaN, Double.NaN, Double.NaN) : new Aggregate(n, min, max, soma / n);
+    }
+
+    // Visita os sensores alterados desde "version" (0 = todos com valor) e retorna a versão a passar
+    // na próxima chamada. O escritor lê a época depois de entrar no seqlock e aqui a época avança antes
+    // de ler as sequências: quem leu a época antiga já está na seção (e é esperado) ou já terminou
+    // (e é visto), e quem entrar depois carimba com a nova. Nada se perde e nada se repete
+    public long changesSince(long version, ChangeVisitor visitor) {
+        long atual = epoca.getAndIncrement(); // escritas a partir daqui recebem carimbo > atual
+        int fim = blocosUsados * BLOCO;
+        for (int slot = 0; slot < fim; slot++) {
+            long s = (long) SEQ.getVolatile(sequencias, slot);
+            if (s == 0) continue;
+            // filtro barato: slot parado e carimbo antigo não precisa da leitura completa
+            if ((s & 1) == 0 && (long) LONGO.getAcquire(carimbos, slot) < version) continue;
+            double v;
+            long t, carimbo;
+            do {
+                s = (long) SEQ.getVolatile(sequencias, slot);
+                v = (double) VALOR.getOpaque(valores, slot);
+                t = (long) LONGO.getOpaque(timestamps, slot);
+                carimbo = (long) LONGO.getOpaque(carimbos, slot);
+                VarHandle.acquireFence();
+            } while ((s & 1) != 0 || s != (long) SEQ.getOpaque(sequencias, slot));
+            if (s != 0 && carimbo >= version) visitor.visit(sensores[slot], t, v);
+        }
+        return atual + 1;
+    }
+
+    public long version() { return epoca.get(); }
+
+    public int size() { return slots.size(); }
+
+    private List<Celula> celulas(String region, SensorType type) {
+        List<Celula> r = new ArrayList<>();
+        if (region != null) {
+            Celula[] tipos = porRegiao.get(region);
+            if (tipos == null) return r;
+            synchronized (this) { // o array da região é preenchido sob this
+                for (SensorType t : SensorType.values()) {
+                    if ((type == null || type == t) && tipos[t.ordinal()] != null) r.add(tipos[t.ordinal()]);
+                }
+            }
+            return r;
+        }
+        for (SensorType t : SensorType.values()) {
+            if (type != null && type != t) continue;
+            Celula c;
+            synchronized (this) {
+                c = porTipo[t.ordinal()];
+            }
+            for (; c != null; c = c.proxima) r.add(c);
+        }
+        return r;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatestValueTable[%d sensores, %d/%d slots, versão %d]",
+                size(), blocosUsados * BLOCO, valores.length, version());
+    }
+}
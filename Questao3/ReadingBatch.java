@@ -0,0 +1,31 @@
+package Questao3;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+
+// Lote de leituras entregue a SensorObserver.updateBatch(). É uma vista sobre arrays primitivos
+// reutilizados pelo SensorIngestion: válida só durante a chamada (copie o que precisar guardar).
+public final class ReadingBatch {
+    private final Sensor[] sensores;  // tabela de sensores registrados (índice -> Sensor)
+    final int[] indices;
+    final long[] timestamps;
+    final double[] valores;
+    int tamanho;
+
+    ReadingBatch(Sensor[] sensores, int capacidade) {
+        this.sensores = sensores;
+        this.indices = new int[capacidade];
+        this.timestamps = new long[capacidade];
+        this.valores = new double[capacidade];
+    }
+
+    public int size() { return tamanho; }
+
+    public Sensor sensor(int i) { return sensores[indices[i]]; }
+
+    // Índice do sensor no SensorIngestion (denso, 0..sensores-1)
+    public int sensorIndex(int i) { return indices[i]; }
+
+    public long timestamp(int i) { return timestamps[i]; }
+
+    public double value(int i) { return valores[i]; }
+}
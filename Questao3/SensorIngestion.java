@@ -0,0 +1,320 @@
+package Questao3;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorObserver;
+
+// Entrada de alta taxa para muitos sensores. As leituras (sensor, timestamp, valor) entram em
+// filas circulares de arrays primitivos, uma por shard (shard = índice do sensor & máscara), então
+// todas as leituras de um sensor passam pela mesma thread e na ordem. Cada shard tem uma thread
+// que drena em lotes: atualiza o último valor do sensor e entrega o lote a quem quer todas as
+// leituras (updateBatch). Quem só precisa do valor mais recente (ex.: ControlPanel) recebe
+// update() no máximo uma vez por período por sensor alterado (coalescido).
+public class SensorIngestion implements AutoCloseable {
+
+    private final Sensor[] sensores;
+    private final double[] ultimoValor;
+    private final long[] ultimoTimestamp;
+    private final ConcurrentHashMap<String, Integer> porId = new ConcurrentHashMap<>();
+    private volatile int registrados; // escrito só em register(); lido por ingest() sem lock
+
+    private final Shard[] shards;
+    private final int mascaraShards;
+    private volatile SensorObserver[] todasLeituras = new SensorObserver[0]; // copy-on-write
+    private volatile Coalescido[] coalescidos = new Coalescido[0];          // copy-on-write
+    private final ScheduledExecutorService agendador;
+    private volatile boolean ativo = true;
+
+    // shards é arredondado para potência de 2; capacidadePorShard idem
+    public SensorIngestion(int maxSensores, int shards, int capacidadePorShard, int tamanhoLote) {
+        if (maxSensores <= 0 || shards <= 0 || capacidadePorShard <= 0 || tamanhoLote <= 0) {
+            throw new IllegalArgumentException("Parâmetros devem ser positivos");
+        }
+        if (shards > 1 << 30 || capacidadePorShard > 1 << 30) {
+            throw new IllegalArgumentException("Shards e capacidade por shard devem ser no máximo 2^30");
+        }
+        this.sensores = new Sensor[maxSensores];
+        this.ultimoValor = new double[maxSensores];
+        this.ultimoTimestamp = new long[maxSensores];
+        int n = 1;
+        while (n < shards) n <<= 1;
+        this.shards = new Shard[n];
+        this.mascaraShards = n - 1;
+        for (int i = 0; i < n; i++) this.shards[i] = new Shard(i, capacidadePorShard, tamanhoLote);
+        this.agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ingestion-coalesce");
+            t.setDaemon(true);
+            return t;
+        });
+        for (Shard s : this.shards) s.thread.start();
+    }
+
+    // Registra o sensor e retorna seu índice (use-o em ingest(); evita procurar pelo id a cada leitura)
+    public synchronized int register(Sensor sensor) {
+        Integer existente = porId.get(sensor.getId());
+        if (existente != null) return existente;
+        if (registrados == sensores.length) throw new IllegalStateException("Limite de sensores atingido: " + sensores.length);
+        int indice = registrados;
+        sensores[indice] = sensor;
+        registrados = indice + 1; // escrita volatile: publica o sensor antes de o índice ser aceito
+        porId.put(sensor.getId(), indice);
+        return indice;
+    }
+
+    public int indexOf(String sensorId) {
+        Integer i = porId.get(sensorId);
+        return i != null ? i : -1;
+    }
+
+    // Entrega todas as leituras, em lotes, via updateBatch() (na thread do shard)
+    public synchronized void subscribeAll(SensorObserver o) {
+        SensorObserver[] novo = Arrays.copyOf(todasLeituras, todasLeituras.length + 1);
+        novo[novo.length - 1] = o;
+        todasLeituras = novo;
+    }
+
+    // Entrega só o valor mais recente de cada sensor alterado, a cada periodoMillis (na thread de coalescência)
+    public synchronized void subscribeLatest(SensorObserver o, long periodoMillis) {
+        Coalescido c = new Coalescido(o, sensores.length);
+        Coalescido[] novo = Arrays.copyOf(coalescidos, coalescidos.length + 1);
+        novo[novo.length - 1] = c;
+        coalescidos = novo;
+        agendador.scheduleAtFixedRate(c, periodoMillis, periodoMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Retorna false (sem bloquear) se o shard do sensor estiver cheio ou a ingestão foi encerrada
+    public boolean tryIngest(int sensorIndex, long timestamp, double value) {
+        validarIndice(sensorIndex);
+        return shards[sensorIndex & mascaraShards].oferecer(sensorIndex, timestamp, value, false);
+    }
+
+    // Espera espaço no shard se estiver cheio (contrapressão para o produtor); depois de close()
+    // lança IllegalStateException em vez de aceitar uma leitura que ninguém vai processar
+    public void ingest(int sensorIndex, long timestamp, double value) {
+        validarIndice(sensorIndex);
+        if (!shards[sensorIndex & mascaraShards].oferecer(sensorIndex, timestamp, value, true)) {
+            throw new IllegalStateException("Ingestão encerrada");
+        }
+    }
+
+    // Rejeita na entrada: um índice sem sensor chegaria à thread do shard e a derrubaria
+    private void validarIndice(int sensorIndex) {
+        if (sensorIndex < 0 || sensorIndex >= registrados) {
+            throw new IllegalArgumentException("Sensor não registrado: índice " + sensorIndex);
+        }
+    }
+
+    public double latestValue(int sensorIndex) { return ultimoValor[sensorIndex]; }
+
+    public long latestTimestamp(int sensorIndex) { return ultimoTimestamp[sensorIndex]; }
+
+    public long getIngested() {
+        long total = 0;
+        for (Shard s : shards) total += s.proximo.get() & Long.MAX_VALUE;
+        return total;
+    }
+
+    public long getProcessed() {
+        long total = 0;
+        for (Shard s : shards) total += s.consumido;
+        return total;
+    }
+
+    public long getLag() { return getIngested() - getProcessed(); }
+
+    public long getCoalescedUpdates() {
+        long total = 0;
+        for (Coalescido c : coalescidos) total += c.entregues;
+        return total;
+    }
+
+    // Fila de um shard: vários produtores (CAS na sequência), um consumidor (a thread do shard).
+    // Ao encerrar, a thread do shard sela 'proximo' com o bit de sinal no mesmo CAS que confirma a
+    // fila vazia: daí em diante nenhuma reserva é possível
+    private final class Shard implements Runnable {
+        final int[] indices;
+        final long[] timestamps;
+        final double[] valores;
+        final AtomicLongArray publicados;
+        final int mascara;
+        final AtomicLong proximo = new AtomicLong();
+        volatile long consumido;
+        final ReadingBatch lote;
+        final Thread thread;
+
+        Shard(int numero, int capacidade, int tamanhoLote) {
+            int cap = 1;
+            while (cap < capacidade) cap <<= 1;
+            indices = new int[cap];
+            timestamps = new long[cap];
+            valores = new double[cap];
+            publicados = new AtomicLongArray(cap);
+            for (int i = 0; i < cap; i++) publicados.set(i, -1);
+            mascara = cap - 1;
+            lote = new ReadingBatch(sensores, Math.min(tamanhoLote, cap));
+            thread = new Thread(this, "ingestion-shard-" + numero);
+            thread.setDaemon(true);
+        }
+
+        boolean oferecer(int indice, long ts, double valor, boolean esperar) {
+            long seq;
+            int tentativas = 0;
+            while (true) {
+                seq = proximo.get();
+                if (seq < 0) return false; // selada: a thread do shard já saiu
+                if (seq - consumido < indices.length) {
+                    if (proximo.compareAndSet(seq, seq + 1)) break;
+                    continue;
+                }
+                if (!esperar || !ativo) return false;
+                if (++tentativas < 100) Thread.onSpinWait();
+                else LockSupport.parkNanos(1_000);
+            }
+            int i = (int) seq & mascara;
+            indices[i] = indice;
+            timestamps[i] = ts;
+            valores[i] = valor;
+            publicados.lazySet(i, seq); // publicação com semântica release
+            return true;
+        }
+
+        @Override
+        public void run() {
+            int ocioso = 0;
+            while (true) {
+                int n = drenar();
+                if (n > 0) {
+                    ocioso = 0;
+                    entregar();
+                    continue;
+                }
+                if (!ativo) {
+                    long p = proximo.get();
+                    if (p == consumido && proximo.compareAndSet(p, p | Long.MIN_VALUE)) return;
+                }
+                if (++ocioso < 100) Thread.onSpinWait();
+                else LockSupport.parkNanos(50_000);
+            }
+        }
+
+        // Copia um trecho publicado para o lote, atualiza os últimos valores e libera as posições
+        private int drenar() {
+            long seq = consumido;
+            int[] li = lote.indices;
+            long[] lt = lote.timestamps;
+            double[] lv = lote.valores;
+            int n = 0;
+            while (n < li.length && publicados.get((int) (seq + n) & mascara) == seq + n) {
+                int i = (int) (seq + n) & mascara;
+                int s = indices[i];
+                li[n] = s;
+                lt[n] = timestamps[i];
+                lv[n] = valores[i];
+                ultimoValor[s] = lv[n];
+                ultimoTimestamp[s] = lt[n];
+                try {
+                    sensores[s].storeValue(lv[n]);
+                } catch (RuntimeException e) {
+                    // Uma leitura ruim não pode encerrar o laço do shard (as demais ficariam presas na fila)
+                    System.err.println("Erro ao armazenar leitura do sensor " + s + ": " + e);
+                }
+                n++;
+            }
+            lote.tamanho = n;
+            if (n > 0) consumido = seq + n; // escrita volatile: publica os últimos valores aos coalescidos
+            return n;
+        }
+
+        private void entregar() {
+            Coalescido[] cs = coalescidos;
+            int n = lote.tamanho;
+            for (Coalescido c : cs) {
+                for (int i = 0; i < n; i++) c.marcar(lote.indices[i]);
+            }
+            for (SensorObserver o : todasLeituras) {
+                try {
+                    o.updateBatch(lote);
+                } catch (Exception e) {
+                    System.err.println("Erro ao notificar observador: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Inscrição "só o mais recente": um bit por sensor alterado desde a última entrega
+    private final class Coalescido implements Runnable {
+        final SensorObserver observer;
+        final AtomicLongArray sujos;
+        final long[] copia;
+        volatile long entregues;
+
+        Coalescido(SensorObserver observer, int maxSensores) {
+            this.observer = observer;
+            this.sujos = new AtomicLongArray((maxSensores + 63) >>> 6);
+            this.copia = new long[sujos.length()];
+        }
+
+        // Chamado pela thread do shard depois de publicar o valor (consumido). Se o bit já estava
+        // ligado, a próxima entrega ainda vai ler o valor: basta uma leitura, sem CAS
+        void marcar(int indice) {
+            int palavra = indice >>> 6;
+            long bit = 1L << indice;
+            long atual;
+            do {
+                atual = sujos.get(palavra);
+                if ((atual & bit) != 0) return;
+            } while (!sujos.compareAndSet(palavra, atual, atual | bit));
+        }
+
+        @Override
+        public void run() {
+            // Limpa os bits antes de ler os valores: uma leitura que chegar depois religa o bit
+            for (int w = 0; w < copia.length; w++) copia[w] = sujos.get(w) != 0 ? sujos.getAndSet(w, 0) : 0;
+            long processados = 0;
+            for (Shard s : shards) processados += s.consumido; // leitura volatile: enxerga os valores já publicados
+            long n = 0;
+            for (int w = 0; w < copia.length; w++) {
+                long bits = copia[w];
+                while (bits != 0) {
+                    int indice = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    try {
+                        observer.update(sensores[indice], ultimoValor[indice]);
+                    } catch (Exception e) {
+                        System.err.println("Erro ao notificar observador: " + e.getMessage());
+                    }
+                    n++;
+                }
+            }
+            entregues += n; // só a thread de coalescência escreve
+        }
+    }
+
+    // Processa o que já foi aceito, entrega uma última rodada coalescida e encerra as threads
+    @Override
+    public void close() {
+        ativo = false;
+        for (Shard s : shards) {
+            try {
+                s.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        agendador.shutdown();
+        try {
+            agendador.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Coalescido c : coalescidos) c.run();
+    }
+}
@@ -0,0 +1,329 @@
+package Questao3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorObserver;
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// Roteador de inscrições por região e tipo. Em vez de cada observador chamar addObserver em cada
+// sensor, os sensores são registrados aqui (o roteador é o único observador deles) e os
+// observadores se inscrevem com um filtro ("POLLUTION em Zona Norte"). As regiões viram códigos
+// inteiros (dicionário) e cada par (região, tipo) é uma célula de uma tabela de despacho
+// pré-calculada. Cada sensor registrado recebe a Rota da sua célula (uma por célula, compartilhada),
+// então uma leitura custa um acesso à tabela e a entrega aos inscritos da célula, sem procurar a
+// região por nome.
+// A tabela é copy-on-write: inscrever/cancelar altera só as células cobertas pelo filtro e publica
+// uma nova tabela; a notificação só lê a referência atual, sem trava.
+// Também mantém bitmaps por região e por tipo para listar os sensores que casam com um filtro.
+public class SubscriptionRouter implements SensorObserver {
+
+    private static final int TIPOS = SensorType.values().length;
+    private static final SensorObserver[] VAZIO = new SensorObserver[0];
+
+    private final ConcurrentHashMap<String, Integer> codigos = new ConcurrentHashMap<>();
+    private final List<String> regioes = new ArrayList<>(); // código -> região
+    private volatile SensorObserver[][] tabela = new SensorObserver[0][]; // código * TIPOS + tipo
+    private final List<Subscription> inscricoes = new ArrayList<>();
+
+    // Índice de sensores (protegido por this)
+    private final List<Sensor> sensores = new ArrayList<>();
+    private final ConcurrentHashMap<Sensor, Integer> celulaSensor = new ConcurrentHashMap<>();
+    private Rota[] rotas = new Rota[0]; // por célula
+    private volatile Entrada[] porIndice = new Entrada[64]; // cache por índice do SensorIngestion
+    private final List<long[]> bitmapRegiao = new ArrayList<>();
+    private final long[][] bitmapTipo = new long[TIPOS][];
+
+    public SubscriptionRouter() {
+        for (int t = 0; t < TIPOS; t++) bitmapTipo[t] = new long[1];
+    }
+
+    // Filtro imutável; região ou tipo vazio = qualquer um
+    public static final class Filter {
+        private final Set<String> regions;
+        private final EnumSet<SensorType> types;
+
+        private Filter(Set<String> regions, EnumSet<SensorType> types) {
+            this.regions = regions;
+            this.types = types;
+        }
+
+        public static Filter any() {
+            return new Filter(Collections.emptySet(), EnumSet.noneOf(SensorType.class));
+        }
+
+        public static Filter of(String region, SensorType type) {
+            Filter f = any();
+            if (region != null) f = f.regions(region);
+            if (type != null) f = f.types(type);
+            return f;
+        }
+
+        public Filter regions(String... regions) {
+            Set<String> r = new HashSet<>(this.regions);
+            r.addAll(Arrays.asList(regions));
+            return new Filter(Collections.unmodifiableSet(r), types);
+        }
+
+        public Filter types(SensorType... types) {
+            EnumSet<SensorType> t = EnumSet.copyOf(this.types);
+            t.addAll(Arrays.asList(types));
+            return new Filter(regions, t);
+        }
+
+        boolean aceitaRegiao(String region) { return regions.isEmpty() || regions.contains(region); }
+
+        boolean aceitaTipo(SensorType type) { return types.isEmpty() || types.contains(type); }
+
+        @Override
+        public String toString() {
+            return "Filter[regiões=" + (regions.isEmpty() ? "*" : regions) + ", tipos=" + (types.isEmpty() ? "*" : types) + "]";
+        }
+    }
+
+    public final class Subscription implements AutoCloseable {
+        private final SensorObserver observer;
+        private final Filter filter;
+
+        private Subscription(SensorObserver observer, Filter filter) {
+            this.observer = observer;
+            this.filter = filter;
+        }
+
+        public SensorObserver getObserver() { return observer; }
+
+        public Filter getFilter() { return filter; }
+
+        public void cancel() { unsubscribe(this); }
+
+        @Override
+        public void close() { cancel(); }
+    }
+
+    // Observador que o roteador inscreve nos sensores de uma célula: a célula já vem calculada
+    private final class Rota implements SensorObserver {
+        final int celula;
+
+        Rota(int celula) {
+            this.celula = celula;
+        }
+
+        @Override
+        public void update(Sensor sensor, double newValue) {
+            entregar(tabela[celula], sensor, newValue);
+        }
+    }
+
+    private static final class Entrada {
+        final Sensor sensor;
+        final int celula;
+
+        Entrada(Sensor sensor, int celula) {
+            this.sensor = sensor;
+            this.celula = celula;
+        }
+    }
+
+    // Indexa o sensor e inscreve nele a sua rota
+    public void register(Sensor sensor) {
+        sensor.addObserver(index(sensor));
+    }
+
+    // Só indexa (para quando as leituras chegam por outro caminho, ex.: SensorIngestion.subscribeAll(router))
+    public synchronized SensorObserver index(Sensor sensor) {
+        Integer existente = celulaSensor.get(sensor);
+        if (existente != null) return rotas[existente];
+        int i = sensores.size();
+        sensores.add(sensor);
+        int codigo = codigo(sensor.getRegion());
+        int celula = codigo * TIPOS + sensor.getType().ordinal();
+        if (celula >= rotas.length) rotas = Arrays.copyOf(rotas, tabela.length);
+        if (rotas[celula] == null) rotas[celula] = new Rota(celula);
+        celulaSensor.put(sensor, celula);
+        bitmapRegiao.set(codigo, ligar(bitmapRegiao.get(codigo), i));
+        int t = sensor.getType().ordinal();
+        bitmapTipo[t] = ligar(bitmapTipo[t], i);
+        return rotas[celula];
+    }
+
+    public synchronized Subscription subscribe(SensorObserver observer, Filter filter) {
+        Subscription s = new Subscription(observer, filter);
+        for (String r : filter.regions) codigo(r); // garante as células das regiões do filtro
+        inscricoes.add(s);
+        SensorObserver[][] nova = tabela.clone();
+        for (int c : celulas(filter)) {
+            SensorObserver[] atual = nova[c];
+            if (Arrays.asList(atual).contains(observer)) continue; // filtros sobrepostos: entrega uma vez só
+            SensorObserver[] celula = Arrays.copyOf(atual, atual.length + 1);
+            celula[atual.length] = observer;
+            nova[c] = celula;
+        }
+        tabela = nova;
+        return s;
+    }
+
+    private synchronized void unsubscribe(Subscription s) {
+        if (!inscricoes.remove(s)) return;
+        List<Filter> outras = new ArrayList<>(); // outras inscrições do mesmo observador
+        for (Subscription i : inscricoes) {
+            if (i.observer.equals(s.observer)) outras.add(i.filter);
+        }
+        SensorObserver[][] nova = tabela.clone();
+        for (int c : celulas(s.filter)) {
+            String regiao = regioes.get(c / TIPOS);
+            SensorType tipo = SensorType.values()[c % TIPOS];
+            boolean manter = false;
+            for (Filter f : outras) manter |= f.aceitaRegiao(regiao) && f.aceitaTipo(tipo);
+            if (!manter) nova[c] = sem(nova[c], s.observer);
+        }
+        tabela = nova;
+    }
+
+    // Células (código * TIPOS + tipo) cobertas pelo filtro
+    private int[] celulas(Filter filtro) {
+        int[] r = new int[regioes.size() * TIPOS];
+        int n = 0;
+        for (int c = 0; c < regioes.size(); c++) {
+            if (!filtro.aceitaRegiao(regioes.get(c))) continue;
+            for (SensorType t : SensorType.values()) {
+                if (filtro.aceitaTipo(t)) r[n++] = c * TIPOS + t.ordinal();
+            }
+        }
+        return Arrays.copyOf(r, n);
+    }
+
+    private static SensorObserver[] sem(SensorObserver[] atual, SensorObserver o) {
+        for (int i = 0; i < atual.length; i++) {
+            if (atual[i].equals(o)) {
+                if (atual.length == 1) return VAZIO;
+                SensorObserver[] novo = new SensorObserver[atual.length - 1];
+                System.arraycopy(atual, 0, novo, 0, i);
+                System.arraycopy(atual, i + 1, novo, i, atual.length - i - 1);
+                return novo;
+            }
+        }
+        return atual;
+    }
+
+    private SensorObserver[] celula(String regiao, SensorType tipo) {
+        List<SensorObserver> l = new ArrayList<>();
+        for (Subscription s : inscricoes) {
+            // o mesmo observador com filtros sobrepostos recebe a leitura uma vez só
+            if (s.filter.aceitaRegiao(regiao) && s.filter.aceitaTipo(tipo) && !l.contains(s.observer)) l.add(s.observer);
+        }
+        return l.isEmpty() ? VAZIO : l.toArray(VAZIO);
+    }
+
+    // Código da região; uma região nova ganha células já preenchidas com os filtros que a aceitam
+    private synchronized int codigo(String regiao) {
+        Integer c = codigos.get(regiao);
+        if (c != null) return c;
+        int codigo = regioes.size();
+        regioes.add(regiao);
+        bitmapRegiao.add(new long[1]);
+        SensorObserver[][] nova = Arrays.copyOf(tabela, (codigo + 1) * TIPOS);
+        for (SensorType t : SensorType.values()) nova[codigo * TIPOS + t.ordinal()] = celula(regiao, t);
+        tabela = nova;
+        codigos.put(regiao, codigo); // publicado depois da tabela que contém as células
+        return codigo;
+    }
+
+    // Caminho para quem inscreve o próprio roteador (sem Rota): procura a região no dicionário
+    @Override
+    public void update(Sensor sensor, double newValue) {
+        Integer c = codigos.get(sensor.getRegion());
+        int codigo = c != null ? c : codigo(sensor.getRegion());
+        entregar(tabela[codigo * TIPOS + sensor.getType().ordinal()], sensor, newValue);
+    }
+
+    // Lotes do SensorIngestion: a rota de cada sensor fica em cache pelo índice dele no lote
+    @Override
+    public void updateBatch(ReadingBatch batch) {
+        SensorObserver[][] t = tabela;
+        for (int i = 0; i < batch.size(); i++) {
+            int indice = batch.sensorIndex(i);
+            Entrada[] cache = porIndice;
+            Entrada e = indice < cache.length ? cache[indice] : null;
+            if (e == null || e.sensor != batch.sensor(i)) {
+                e = cachear(indice, batch.sensor(i));
+                t = tabela; // pode ter surgido uma região nova
+            }
+            entregar(t[e.celula], e.sensor, batch.value(i));
+        }
+    }
+
+    private synchronized Entrada cachear(int indice, Sensor sensor) {
+        Entrada e = new Entrada(sensor, ((Rota) index(sensor)).celula);
+        Entrada[] cache = porIndice;
+        if (indice >= cache.length) cache = Arrays.copyOf(cache, Math.max(indice + 1, cache.length * 2));
+        cache[indice] = e;
+        porIndice = cache;
+        return e;
+    }
+
+    private static void entregar(SensorObserver[] celula, Sensor sensor, double valor) {
+        for (SensorObserver o : celula) {
+            try {
+                o.update(sensor, valor);
+            } catch (Exception e) {
+                System.err.println("Erro ao notificar observador: " + e.getMessage());
+            }
+        }
+    }
+
+    // Sensores indexados que casam com o filtro (OR dos bitmaps de região AND OR dos de tipo)
+    public synchronized List<Sensor> sensors(Filter filter) {
+        int palavras = (sensores.size() + 63) >>> 6;
+        long[] porRegiao = new long[palavras];
+        if (filter.regions.isEmpty()) {
+            Arrays.fill(porRegiao, -1L);
+        } else {
+            for (String r : filter.regions) {
+                Integer c = codigos.get(r);
+                if (c != null) ou(porRegiao, bitmapRegiao.get(c));
+            }
+        }
+        long[] porTipo = new long[palavras];
+        for (SensorType t : SensorType.values()) {
+            if (filter.aceitaTipo(t)) ou(porTipo, bitmapTipo[t.ordinal()]);
+        }
+        List<Sensor> r = new ArrayList<>();
+        for (int w = 0; w < palavras; w++) {
+            long bits = porRegiao[w] & porTipo[w];
+            while (bits != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (i < sensores.size()) r.add(sensores.get(i));
+            }
+        }
+        return r;
+    }
+
+    public synchronized int subscriptionCount() { return inscricoes.size(); }
+
+    public synchronized int sensorCount() { return sensores.size(); }
+
+    private static long[] ligar(long[] bitmap, int i) {
+        int w = i >>> 6;
+        if (w >= bitmap.length) bitmap = Arrays.copyOf(bitmap, Math.max(w + 1, bitmap.length * 2));
+        bitmap[w] |= 1L << i;
+        return bitmap;
+    }
+
+    private static void ou(long[] destino, long[] bitmap) {
+        for (int w = 0; w < Math.min(destino.length, bitmap.length); w++) destino[w] |= bitmap[w];
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("SubscriptionRouter[%d sensores, %d regiões, %d inscrições]",
+                sensores.size(), regioes.size(), inscricoes.size());
+    }
+}
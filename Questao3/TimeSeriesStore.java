@@ -0,0 +1,627 @@
+package Questao3;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// Armazenamento de séries temporais (uma série por sensor) para o HistoryLogger.
+// - Cada série acumula pontos num bloco aberto comprimido (GorillaCodec); com pontosPorChunk
+//   pontos o bloco é selado e gravado num segmento de tamanho fixo mapeado em memória.
+// - Registro de bloco: [byte 'C'][int série][int pontos][long minTs][long maxTs][int bytes][int crc32][bits].
+//   Um byte 0 marca o fim do segmento. As séries (id, região, tipo) ficam em series.dat.
+// - Retenção: segmentos cujo maior timestamp é anterior a (maior timestamp visto - retencao)
+//   são apagados; rollups por minuto e por hora (min/max/soma/contagem) são mantidos em memória
+//   a cada ponto e podados pela mesma retenção.
+// - Na abertura, os segmentos existentes são varridos (até o último registro íntegro) para
+//   reconstruir o índice de blocos e os rollups. O bloco aberto só vai ao disco em flush()/close().
+public class TimeSeriesStore implements AutoCloseable {
+
+    public enum Resolution {
+        MINUTE(60_000L), HOUR(3_600_000L);
+
+        final long millis;
+
+        Resolution(long millis) { this.millis = millis; }
+    }
+
+    public interface PointVisitor {
+        void visit(Series series, long timestamp, double value);
+    }
+
+    public interface RollupVisitor {
+        void visit(long bucketStart, double min, double max, double avg, long count);
+    }
+
+    private static final byte BLOCO = 'C';
+    private static final int CABECALHO = 1 + 4 + 4 + 8 + 8 + 4 + 4;
+    private static final SensorType[] TIPOS = SensorType.values();
+
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final int pontosPorChunk;
+    private final long retencaoMillis;
+    private final CRC32 crc = new CRC32();
+
+    private final ConcurrentHashMap<String, Series> porId = new ConcurrentHashMap<>();
+    private volatile Series[] series = new Series[0]; // copy-on-write, por índice
+    private final DataOutputStream dicionario;
+    private boolean apagarAoFechar; // store temporário: o diretório sai junto no close()
+    private boolean fechado;
+
+    private final List<Segmento> segmentos = new ArrayList<>(); // guardado por this
+    private Segmento atual;
+    private final AtomicLong maiorTs = new AtomicLong(Long.MIN_VALUE);
+    private volatile long corteRetencao = Long.MIN_VALUE;
+    private long bytesGravados;   // registros de bloco (cabeçalho + bits)
+    private long pontosGravados;
+
+    public TimeSeriesStore(Path diretorio, int tamanhoSegmento, int pontosPorChunk, long retencaoMillis) {
+        if (tamanhoSegmento < 4096 || pontosPorChunk <= 1 || retencaoMillis <= 0) {
+            throw new IllegalArgumentException("Segmento >= 4096 bytes, chunk > 1 ponto e retenção positiva");
+        }
+        // Pior caso do Gorilla: 128 bits no primeiro ponto e até 145 nos seguintes. Um bloco cheio
+        // que não coubesse no segmento travaria a série (selar falharia a cada append)
+        long piorBloco = CABECALHO + (128 + (pontosPorChunk - 1) * 145L + 7) / 8 + 1;
+        if (piorBloco > tamanhoSegmento) {
+            throw new IllegalArgumentException("Bloco de " + pontosPorChunk + " pontos pode ocupar " + piorBloco
+                    + " bytes, mais que o segmento de " + tamanhoSegmento);
+        }
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.pontosPorChunk = pontosPorChunk;
+        this.retencaoMillis = retencaoMillis;
+        try {
+            Files.createDirectories(diretorio);
+            Path dic = diretorio.resolve("series.dat");
+            if (Files.exists(dic)) lerDicionario(dic);
+            this.dicionario = new DataOutputStream(Channels.newOutputStream(FileChannel.open(dic,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)));
+            int ultimo = 0;
+            for (Path p : arquivosSegmento(diretorio)) {
+                ultimo = numero(p);
+                recuperar(p, ultimo);
+            }
+            abrirSegmento(ultimo + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir séries em " + diretorio, e);
+        }
+    }
+
+    // Diretório temporário com parâmetros padrão (8 MB por segmento, 240 pontos por bloco, 30 dias),
+    // apagado inteiro no close()
+    public static TimeSeriesStore temporario() {
+        try {
+            TimeSeriesStore store = new TimeSeriesStore(Files.createTempDirectory("historico"), 8 << 20, 240,
+                    30L * 24 * 3_600_000);
+            store.apagarAoFechar = true;
+            return store;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Série de um sensor: bloco aberto, índice dos blocos selados e rollups
+    public static final class Series {
+        final int indice;
+        final String sensorId;
+        final String region;
+        final SensorType type;
+        final GorillaCodec.Encoder aberto = new GorillaCodec.Encoder();
+        // índice dos blocos selados (colunas)
+        int blocos;
+        Segmento[] blocoSegmento = new Segmento[8];
+        int[] blocoOffset = new int[8];
+        int[] blocoPontos = new int[8];
+        long[] blocoMin = new long[8];
+        long[] blocoMax = new long[8];
+        final Rollup minuto = new Rollup(Resolution.MINUTE.millis);
+        final Rollup hora = new Rollup(Resolution.HOUR.millis);
+        long podadoAte = Long.MIN_VALUE;
+
+        Series(int indice, String sensorId, String region, SensorType type) {
+            this.indice = indice;
+            this.sensorId = sensorId;
+            this.region = region;
+            this.type = type;
+        }
+
+        public String getSensorId() { return sensorId; }
+        public String getRegion() { return region; }
+        public SensorType getType() { return type; }
+
+        void adicionarBloco(Segmento seg, int offset, int pontos, long min, long max) {
+            if (blocos == blocoOffset.length) {
+                int n = blocos * 2;
+                blocoSegmento = Arrays.copyOf(blocoSegmento, n);
+                blocoOffset = Arrays.copyOf(blocoOffset, n);
+                blocoPontos = Arrays.copyOf(blocoPontos, n);
+                blocoMin = Arrays.copyOf(blocoMin, n);
+                blocoMax = Arrays.copyOf(blocoMax, n);
+            }
+            blocoSegmento[blocos] = seg;
+            blocoOffset[blocos] = offset;
+            blocoPontos[blocos] = pontos;
+            blocoMin[blocos] = min;
+            blocoMax[blocos] = max;
+            blocos++;
+        }
+
+        // Remove blocos de segmentos apagados e buckets anteriores ao corte (chamado com o lock da série).
+        // O índice é copiado, não compactado no lugar: consultas podem estar lendo os arrays antigos
+        void podar(long corte) {
+            if (corte <= podadoAte) return;
+            int cap = blocoOffset.length;
+            Segmento[] seg = new Segmento[cap];
+            int[] off = new int[cap], pts = new int[cap];
+            long[] mn = new long[cap], mx = new long[cap];
+            int j = 0;
+            for (int i = 0; i < blocos; i++) {
+                if (blocoSegmento[i].apagado) continue;
+                seg[j] = blocoSegmento[i];
+                off[j] = blocoOffset[i];
+                pts[j] = blocoPontos[i];
+                mn[j] = blocoMin[i];
+                mx[j] = blocoMax[i];
+                j++;
+            }
+            if (j < blocos) {
+                blocoSegmento = seg;
+                blocoOffset = off;
+                blocoPontos = pts;
+                blocoMin = mn;
+                blocoMax = mx;
+                blocos = j;
+            }
+            minuto.podar(corte);
+            hora.podar(corte);
+            podadoAte = corte;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Sensor[%s] (%s) - %s", sensorId, region, type);
+        }
+    }
+
+    // Buckets de uma resolução em colunas ordenadas pelo início
+    static final class Rollup {
+        final long largura;
+        int n;
+        long[] inicio = new long[16];
+        double[] min = new double[16];
+        double[] max = new double[16];
+        double[] soma = new double[16];
+        long[] contagem = new long[16];
+
+        Rollup(long largura) { this.largura = largura; }
+
+        void add(long ts, double v) {
+            long b = Math.floorDiv(ts, largura) * largura;
+            int i;
+            if (n > 0 && inicio[n - 1] == b) {
+                i = n - 1;
+            } else if (n == 0 || b > inicio[n - 1]) {
+                i = inserir(n, b);
+            } else { // ponto fora de ordem
+                i = Arrays.binarySearch(inicio, 0, n, b);
+                if (i < 0) i = inserir(-i - 1, b);
+            }
+            if (v < min[i]) min[i] = v;
+            if (v > max[i]) max[i] = v;
+            soma[i] += v;
+            contagem[i]++;
+        }
+
+        private int inserir(int pos, long b) {
+            if (n == inicio.length) {
+                int cap = n * 2;
+                inicio = Arrays.copyOf(inicio, cap);
+                min = Arrays.copyOf(min, cap);
+                max = Arrays.copyOf(max, cap);
+                soma = Arrays.copyOf(soma, cap);
+                contagem = Arrays.copyOf(contagem, cap);
+            }
+            int mover = n - pos;
+            System.arraycopy(inicio, pos, inicio, pos + 1, mover);
+            System.arraycopy(min, pos, min, pos + 1, mover);
+            System.arraycopy(max, pos, max, pos + 1, mover);
+            System.arraycopy(soma, pos, soma, pos + 1, mover);
+            System.arraycopy(contagem, pos, contagem, pos + 1, mover);
+            inicio[pos] = b;
+            min[pos] = Double.POSITIVE_INFINITY;
+            max[pos] = Double.NEGATIVE_INFINITY;
+            soma[pos] = 0;
+            contagem[pos] = 0;
+            n++;
+            return pos;
+        }
+
+        void podar(long corte) {
+            int k = 0;
+            while (k < n && inicio[k] + largura <= corte) k++;
+            if (k == 0) return;
+            int resto = n - k;
+            System.arraycopy(inicio, k, inicio, 0, resto);
+            System.arraycopy(min, k, min, 0, resto);
+            System.arraycopy(max, k, max, 0, resto);
+            System.arraycopy(soma, k, soma, 0, resto);
+            System.arraycopy(contagem, k, contagem, 0, resto);
+            n = resto;
+        }
+
+        void visitar(long de, long ate, RollupVisitor v) {
+            // primeiro bucket que contém "de" ou começa depois dele
+            int i = 0;
+            if (de > Long.MIN_VALUE + largura) {
+                i = Arrays.binarySearch(inicio, 0, n, de - largura + 1);
+                if (i < 0) i = -i - 1;
+            }
+            for (; i < n && inicio[i] <= ate; i++) {
+                v.visit(inicio[i], min[i], max[i], soma[i] / contagem[i], contagem[i]);
+            }
+        }
+    }
+
+    static final class Segmento {
+        final int numero;
+        final Path arquivo;
+        final MappedByteBuffer mapa;
+        long maiorTs = Long.MIN_VALUE;
+        volatile boolean apagado;
+
+        Segmento(int numero, Path arquivo, MappedByteBuffer mapa) {
+            this.numero = numero;
+            this.arquivo = arquivo;
+            this.mapa = mapa;
+        }
+    }
+
+    // --- Escrita ---
+
+    public void append(Sensor sensor, long timestamp, double value) {
+        Series s = serie(sensor);
+        synchronized (s) {
+            s.podar(corteRetencao);
+            s.aberto.append(timestamp, value);
+            s.minuto.add(timestamp, value);
+            s.hora.add(timestamp, value);
+            if (s.aberto.pontos() >= pontosPorChunk) selar(s);
+        }
+        long m = maiorTs.get();
+        while (timestamp > m && !maiorTs.compareAndSet(m, timestamp)) m = maiorTs.get();
+    }
+
+    private Series serie(Sensor sensor) {
+        Series s = porId.get(sensor.getId());
+        if (s != null) return s;
+        synchronized (this) {
+            s = porId.get(sensor.getId());
+            if (s != null) return s;
+            Series[] atual = series;
+            s = new Series(atual.length, sensor.getId(), sensor.getRegion(), sensor.getType());
+            try {
+                dicionario.writeInt(s.indice);
+                dicionario.writeUTF(s.sensorId);
+                dicionario.writeUTF(s.region);
+                dicionario.writeByte(s.type.ordinal());
+                dicionario.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            registrar(s);
+            return s;
+        }
+    }
+
+    private void registrar(Series s) {
+        Series[] atual = series;
+        Series[] novo = Arrays.copyOf(atual, Math.max(atual.length, s.indice + 1));
+        novo[s.indice] = s;
+        series = novo;
+        porId.put(s.sensorId, s);
+    }
+
+    // Grava o bloco aberto da série (chamado com o lock da série)
+    private void selar(Series s) {
+        GorillaCodec.Encoder e = s.aberto;
+        if (e.pontos() == 0) return;
+        int bytes = e.bytes();
+        if (CABECALHO + bytes + 1 > tamanhoSegmento) {
+            throw new IllegalStateException("Bloco maior que o segmento: " + bytes + " bytes");
+        }
+        Segmento seg;
+        int inicio;
+        synchronized (this) {
+            if (atual.mapa.position() + CABECALHO + bytes + 1 > tamanhoSegmento) rolar();
+            seg = atual;
+            MappedByteBuffer m = seg.mapa;
+            inicio = m.position();
+            m.position(inicio + 1);
+            m.putInt(s.indice).putInt(e.pontos()).putLong(e.minTs()).putLong(e.maxTs()).putInt(bytes).putInt(0);
+            int dados = m.position();
+            e.copiarPara(m);
+            crc.reset();
+            crc.update(m.duplicate().position(dados).limit(dados + bytes));
+            m.putInt(dados - 4, (int) crc.getValue());
+            m.put(inicio, BLOCO); // tipo por último: o registro só é visível completo
+            if (e.maxTs() > seg.maiorTs) seg.maiorTs = e.maxTs();
+            bytesGravados += CABECALHO + bytes;
+            pontosGravados += e.pontos();
+        }
+        s.adicionarBloco(seg, inicio, e.pontos(), e.minTs(), e.maxTs());
+        e.reiniciar();
+    }
+
+    private void rolar() {
+        atual.mapa.force();
+        abrirSegmento(atual.numero + 1);
+        aplicarRetencao();
+    }
+
+    private void abrirSegmento(int numero) {
+        Path arquivo = diretorio.resolve(String.format("segmento-%08d.tsdb", numero));
+        try (FileChannel ch = FileChannel.open(arquivo, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            atual = new Segmento(numero, arquivo, ch.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento));
+            segmentos.add(atual);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao criar segmento " + arquivo, e);
+        }
+    }
+
+    // Apaga segmentos (exceto o atual) cujos dados são todos anteriores ao corte (chamado com o lock do store)
+    private void aplicarRetencao() {
+        long ts = maiorTs.get();
+        if (ts == Long.MIN_VALUE) return;
+        long corte = ts - retencaoMillis;
+        for (int i = 0; i < segmentos.size(); i++) {
+            Segmento seg = segmentos.get(i);
+            if (seg == atual || seg.maiorTs >= corte) continue;
+            seg.apagado = true; // as séries removem os blocos ao podar
+            segmentos.remove(i--);
+            try {
+                Files.deleteIfExists(seg.arquivo);
+            } catch (IOException e) {
+                System.err.println("Falha ao apagar " + seg.arquivo + ": " + e.getMessage());
+            }
+        }
+        corteRetencao = corte;
+    }
+
+    // Sela os blocos abertos de todas as séries e sincroniza o segmento atual com o disco
+    public void flush() {
+        for (Series s : series) {
+            if (s == null) continue;
+            synchronized (s) {
+                selar(s);
+            }
+        }
+        synchronized (this) {
+            atual.mapa.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (fechado) return;
+            fechado = true;
+        }
+        flush();
+        synchronized (this) {
+            try {
+                dicionario.close();
+                if (apagarAoFechar) apagarDiretorio();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // O mapeamento dos segmentos continua válido até ser coletado; no Linux o arquivo sai do disco já
+    private void apagarDiretorio() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            for (Path p : (Iterable<Path>) arquivos::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(diretorio);
+    }
+
+    // --- Consultas ---
+
+    public Series series(String sensorId) { return porId.get(sensorId); }
+
+    public List<Series> allSeries() {
+        List<Series> r = new ArrayList<>();
+        for (Series s : series) if (s != null) r.add(s);
+        return r;
+    }
+
+    // Pontos de um sensor em [de, ate], em ordem de gravação
+    public void query(String sensorId, long de, long ate, PointVisitor visitor) {
+        Series s = porId.get(sensorId);
+        if (s != null) visitar(s, de, ate, visitor);
+    }
+
+    // Pontos de todos os sensores da região/tipo (null = qualquer) em [de, ate], série por série
+    public void query(String region, SensorType type, long de, long ate, PointVisitor visitor) {
+        for (Series s : series) {
+            if (s != null && (region == null || region.equals(s.region)) && (type == null || type == s.type)) {
+                visitar(s, de, ate, visitor);
+            }
+        }
+    }
+
+    private void visitar(Series s, long de, long ate, PointVisitor visitor) {
+        int n;
+        Segmento[] segs;
+        int[] offs, pts;
+        long[] mins, maxs;
+        GorillaCodec.Encoder abertoCopia = null;
+        long[] abertoTs = null;
+        double[] abertoVal = null;
+        synchronized (s) {
+            s.podar(corteRetencao);
+            n = s.blocos;
+            segs = s.blocoSegmento;
+            offs = s.blocoOffset;
+            pts = s.blocoPontos;
+            mins = s.blocoMin;
+            maxs = s.blocoMax;
+            if (s.aberto.pontos() > 0 && s.aberto.minTs() <= ate && s.aberto.maxTs() >= de) {
+                int k = s.aberto.pontos();
+                long[] ts = new long[k];
+                double[] vs = new double[k];
+                int[] i = { 0 };
+                s.aberto.decodificar((t, v) -> { ts[i[0]] = t; vs[i[0]++] = v; });
+                abertoTs = ts;
+                abertoVal = vs;
+            }
+        }
+        // Os blocos selados são imutáveis: decodifica fora do lock (os arrays só crescem por cópia)
+        for (int b = 0; b < n; b++) {
+            if (maxs[b] < de || mins[b] > ate) continue;
+            ByteBuffer m = segs[b].mapa.duplicate();
+            m.position(offs[b] + CABECALHO);
+            GorillaCodec.decode(m, pts[b], (t, v) -> {
+                if (t >= de && t <= ate) visitor.visit(s, t, v);
+            });
+        }
+        if (abertoTs != null) {
+            for (int i = 0; i < abertoTs.length; i++) {
+                if (abertoTs[i] >= de && abertoTs[i] <= ate) visitor.visit(s, abertoTs[i], abertoVal[i]);
+            }
+        }
+    }
+
+    // Rollups de um sensor (buckets que tocam o intervalo [de, ate])
+    public void rollup(String sensorId, Resolution r, long de, long ate, RollupVisitor visitor) {
+        Series s = porId.get(sensorId);
+        if (s == null) return;
+        synchronized (s) {
+            s.podar(corteRetencao);
+            (r == Resolution.MINUTE ? s.minuto : s.hora).visitar(de, ate, visitor);
+        }
+    }
+
+    // Rollups combinados de todos os sensores da região/tipo (null = qualquer), por bucket
+    public void rollup(String region, SensorType type, Resolution r, long de, long ate, RollupVisitor visitor) {
+        TreeMap<Long, double[]> agregado = new TreeMap<>(); // {min, max, soma, contagem}
+        for (Series s : series) {
+            if (s == null || (region != null && !region.equals(s.region)) || (type != null && type != s.type)) continue;
+            synchronized (s) {
+                s.podar(corteRetencao);
+                Rollup ro = r == Resolution.MINUTE ? s.minuto : s.hora;
+                ro.visitar(de, ate, (inicio, min, max, avg, count) -> {
+                    double[] a = agregado.computeIfAbsent(inicio,
+                            k -> new double[] { Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0, 0 });
+                    a[0] = Math.min(a[0], min);
+                    a[1] = Math.max(a[1], max);
+                    a[2] += avg * count;
+                    a[3] += count;
+                });
+            }
+        }
+        for (Map.Entry<Long, double[]> e : agregado.entrySet()) {
+            double[] a = e.getValue();
+            visitor.visit(e.getKey(), a[0], a[1], a[2] / a[3], (long) a[3]);
+        }
+    }
+
+    // Bytes dos blocos gravados por ponto (não conta o espaço pré-alocado dos segmentos)
+    public synchronized double bytesPerPoint() {
+        return pontosGravados == 0 ? 0 : (double) bytesGravados / pontosGravados;
+    }
+
+    public synchronized long bytesWritten() { return bytesGravados; }
+
+    public synchronized int segmentCount() { return segmentos.size(); }
+
+    // --- Recuperação ---
+
+    private void lerDicionario(Path dic) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dic)))) {
+            while (true) {
+                int indice;
+                try {
+                    indice = in.readInt();
+                } catch (EOFException fim) {
+                    break;
+                }
+                Series s = new Series(indice, in.readUTF(), in.readUTF(), TIPOS[in.readByte()]);
+                registrar(s);
+            }
+        } catch (EOFException truncado) {
+            // última entrada incompleta (queda durante a escrita): ignorada
+        }
+    }
+
+    // Varre um segmento existente, reconstruindo índice de blocos e rollups
+    private void recuperar(Path arquivo, int numero) throws IOException {
+        MappedByteBuffer m;
+        try (FileChannel ch = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            m = ch.map(FileChannel.MapMode.READ_WRITE, 0, ch.size());
+        }
+        Segmento seg = new Segmento(numero, arquivo, m);
+        segmentos.add(seg);
+        int pos = 0;
+        while (pos + CABECALHO <= m.limit() && m.get(pos) == BLOCO) {
+            int indice = m.getInt(pos + 1);
+            int pontos = m.getInt(pos + 5);
+            long min = m.getLong(pos + 9);
+            long max = m.getLong(pos + 17);
+            int bytes = m.getInt(pos + 25);
+            int esperado = m.getInt(pos + 29);
+            Series[] ss = series;
+            if (bytes < 0 || pos + CABECALHO + bytes > m.limit() || indice < 0 || indice >= ss.length || ss[indice] == null) break;
+            crc.reset();
+            crc.update(m.duplicate().position(pos + CABECALHO).limit(pos + CABECALHO + bytes));
+            if ((int) crc.getValue() != esperado) break;
+            Series s = ss[indice];
+            s.adicionarBloco(seg, pos, pontos, min, max);
+            ByteBuffer dados = m.duplicate();
+            dados.position(pos + CABECALHO);
+            GorillaCodec.decode(dados, pontos, (t, v) -> {
+                s.minuto.add(t, v);
+                s.hora.add(t, v);
+            });
+            if (max > seg.maiorTs) seg.maiorTs = max;
+            if (max > maiorTs.get()) maiorTs.set(max);
+            bytesGravados += CABECALHO + bytes;
+            pontosGravados += pontos;
+            pos += CABECALHO + bytes;
+        }
+    }
+
+    private static List<Path> arquivosSegmento(Path dir) throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.getFileName().toString().matches("segmento-\\d{8}\\.tsdb")).sorted().toList();
+        }
+    }
+
+    private static int numero(Path p) {
+        String nome = p.getFileName().toString();
+        return Integer.parseInt(nome.substring("segmento-".length(), nome.length() - ".tsdb".length()));
+    }
+}
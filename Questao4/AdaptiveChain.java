@@ -0,0 +1,289 @@
+package Questao4;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import Questao4.AntiFraude.BaseHandler;
+import Questao4.AntiFraude.ReasonCode;
+import Questao4.AntiFraude.Transaction;
+import Questao4.AntiFraude.ValidationResult;
+
+// Cadeia que se reordena sozinha: mede, por handler, a probabilidade de rejeição e o custo em ns
+// numa janela deslizante e periodicamente coloca primeiro as checagens com menor custo/rejeição
+// (ordem que minimiza o custo esperado com curto-circuito). A nova ordem é publicada numa
+// referência volatile; chamadas em andamento continuam com a ordem que já leram.
+// Restrições declaradas com mustRunBefore() são sempre respeitadas.
+// Handlers com estado (stateful(): velocidade, países recentes) registram a transação ao avaliar;
+// se o curto-circuito os pulasse, o estado e os vereditos seguintes dependeriam da ordem. Por isso
+// eles são avaliados mesmo depois de um bloqueio (o resultado é descartado). Assim o veredito
+// (aprovado/bloqueado) não depende da ordem; o motivo reportado pode mudar quando mais de uma
+// checagem bloquearia a mesma transação.
+public class AdaptiveChain {
+    static final int DEFAULT_INTERVAL = 10_000;
+    static final int DEFAULT_TIMING_SAMPLE = 16; // mede tempo em 1 de cada N transações
+
+    private final BaseHandler[] handlers;
+    private final int[] comEstado; // índices dos handlers stateful()
+    private final boolean[][] antesDe; // antesDe[a][b]: a deve rodar antes de b
+    private final Stats[] stats;
+    private final int intervalo;
+    private final int amostragemTempo;
+
+    private volatile int[] ordem;
+    private final AtomicLong transacoes = new AtomicLong();
+    private final AtomicBoolean reordenando = new AtomicBoolean();
+    private final AtomicLong reordenacoes = new AtomicLong();
+
+    public AdaptiveChain(BaseHandler... handlers) {
+        this(DEFAULT_INTERVAL, DEFAULT_TIMING_SAMPLE, handlers);
+    }
+
+    public AdaptiveChain(int intervalo, int amostragemTempo, BaseHandler... handlers) {
+        if (intervalo <= 0 || amostragemTempo <= 0) throw new IllegalArgumentException("Parâmetros devem ser positivos");
+        this.handlers = handlers.clone();
+        int[] idx = new int[handlers.length];
+        int n = 0;
+        for (int i = 0; i < handlers.length; i++) {
+            if (handlers[i].stateful()) idx[n++] = i;
+        }
+        this.comEstado = Arrays.copyOf(idx, n);
+        this.antesDe = new boolean[handlers.length][handlers.length];
+        this.stats = new Stats[handlers.length];
+        for (int i = 0; i < handlers.length; i++) stats[i] = new Stats();
+        this.intervalo = intervalo;
+        this.amostragemTempo = amostragemTempo;
+        int[] inicial = new int[handlers.length];
+        for (int i = 0; i < inicial.length; i++) inicial[i] = i;
+        this.ordem = inicial;
+    }
+
+    // Monta a partir de uma cadeia configurada com setNext(), mantendo a ordem atual como ponto de partida
+    public static AdaptiveChain of(AntiFraude.ValidationHandler head) {
+        List<BaseHandler> lista = new ArrayList<>();
+        for (AntiFraude.ValidationHandler h = head; h != null; h = ((BaseHandler) h).getNext()) {
+            if (!(h instanceof BaseHandler)) throw new IllegalArgumentException("Handler não suportado: " + h);
+            if (lista.contains(h)) throw new IllegalArgumentException("Cadeia de validação com ciclo");
+            lista.add((BaseHandler) h);
+        }
+        return new AdaptiveChain(lista.toArray(new BaseHandler[0]));
+    }
+
+    // Declara que 'antes' deve sempre ser avaliado antes de 'depois' (ex.: checagem que depende de outra)
+    public synchronized AdaptiveChain mustRunBefore(BaseHandler antes, BaseHandler depois) {
+        int a = indexOf(antes), b = indexOf(depois);
+        if (a == b || alcanca(b, a)) throw new IllegalArgumentException("Restrição de ordem cria ciclo");
+        antesDe[a][b] = true;
+        ordem = calcularOrdem(); // a ordem vigente precisa respeitar a nova restrição desde já
+        return this;
+    }
+
+    public ReasonCode validate(Transaction tx) {
+        int veredito = evaluate(tx);
+        liberar(tx, veredito); // ninguém vai pedir o motivo
+        return CompiledChain.code(veredito);
+    }
+
+    // Mesmo formato de veredito de CompiledChain.evaluate(), com o índice do handler no lugar da etapa
+    // (a posição pode mudar numa reordenação; o índice não)
+    public int evaluate(Transaction tx) {
+        int[] atual = ordem; // snapshot: a ordem não muda no meio desta transação
+        long n = transacoes.incrementAndGet();
+        boolean medirTempo = n % amostragemTempo == 0;
+        int veredito = CompiledChain.APPROVED;
+        int pos = 0;
+        for (; pos < atual.length; pos++) {
+            int idx = atual[pos];
+            Stats s = stats[idx];
+            ReasonCode code;
+            if (medirTempo) {
+                long t0 = System.nanoTime();
+                code = handlers[idx].evaluate(tx);
+                s.nanos.add(System.nanoTime() - t0);
+                s.medicoes.increment();
+            } else {
+                code = handlers[idx].evaluate(tx);
+            }
+            s.avaliacoes.increment();
+            if (code != null) {
+                s.rejeicoes.increment();
+                veredito = idx << 8 | code.ordinal();
+                break;
+            }
+        }
+        if (comEstado.length > 0) {
+            // Bloqueada: os handlers com estado que ficaram para trás ainda registram a transação
+            for (pos++; pos < atual.length; pos++) {
+                if (handlers[atual[pos]].stateful()) handlers[atual[pos]].evaluate(tx);
+            }
+        }
+        if (n % intervalo == 0) reordenar();
+        return veredito;
+    }
+
+    public String reason(Transaction tx, int veredito) {
+        if (veredito == CompiledChain.APPROVED) return ValidationResult.ok().reason;
+        String motivo = handlers[veredito >>> 8].describe(tx, CompiledChain.code(veredito));
+        liberar(tx, veredito);
+        return motivo;
+    }
+
+    public ValidationResult handle(Transaction tx) {
+        int veredito = evaluate(tx);
+        if (veredito == CompiledChain.APPROVED) {
+            liberar(tx, veredito);
+            return ValidationResult.ok();
+        }
+        return ValidationResult.fail(reason(tx, veredito));
+    }
+
+    // Como em CompiledChain: solta a transação guardada pelo handler que bloqueou e pelos stateful()
+    private void liberar(Transaction tx, int veredito) {
+        if (veredito != CompiledChain.APPROVED) handlers[veredito >>> 8].liberar(tx);
+        for (int i : comEstado) handlers[i].liberar(tx);
+    }
+
+    // Recalcula e publica a ordem; só uma thread reordena por vez e as demais seguem sem esperar
+    public void reordenar() {
+        if (!reordenando.compareAndSet(false, true)) return;
+        try {
+            // Publica sob o mesmo lock de mustRunBefore(): uma restrição nova nunca é sobrescrita por
+            // uma ordem calculada antes dela
+            synchronized (this) {
+                for (Stats s : stats) s.rotacionar();
+                ordem = calcularOrdem();
+                reordenacoes.incrementAndGet();
+            }
+        } finally {
+            reordenando.set(false);
+        }
+    }
+
+    // Ordem atual (nomes das classes dos handlers), para operadores
+    public List<String> getOrder() {
+        List<String> nomes = new ArrayList<>();
+        for (int idx : ordem) nomes.add(nome(idx));
+        return nomes;
+    }
+
+    public long getReorderCount() {
+        return reordenacoes.get();
+    }
+
+    // Estatísticas da janela (janela anterior completa + janela em curso), na ordem atual
+    public List<HandlerStats> getStats() {
+        List<HandlerStats> lista = new ArrayList<>();
+        int[] atual = ordem;
+        for (int pos = 0; pos < atual.length; pos++) {
+            int idx = atual[pos];
+            Stats s = stats[idx];
+            lista.add(new HandlerStats(nome(idx), pos, s.avaliacoesJanela(), s.rejeicoesJanela(), s.custoMedio()));
+        }
+        return lista;
+    }
+
+    // Guloso por menor custo/probabilidade de rejeição entre os handlers cujas restrições já foram atendidas
+    private int[] calcularOrdem() {
+        int n = handlers.length;
+        int[] resultado = new int[n];
+        boolean[] colocado = new boolean[n];
+        for (int pos = 0; pos < n; pos++) {
+            int melhor = -1;
+            double melhorRank = Double.POSITIVE_INFINITY;
+            for (int c = 0; c < n; c++) {
+                if (colocado[c] || !liberado(c, colocado)) continue;
+                double rank = stats[c].rank();
+                if (melhor == -1 || rank < melhorRank) {
+                    melhor = c;
+                    melhorRank = rank;
+                }
+            }
+            resultado[pos] = melhor;
+            colocado[melhor] = true;
+        }
+        return resultado;
+    }
+
+    private boolean liberado(int c, boolean[] colocado) {
+        for (int a = 0; a < handlers.length; a++) {
+            if (antesDe[a][c] && !colocado[a]) return false;
+        }
+        return true;
+    }
+
+    private boolean alcanca(int de, int para) {
+        if (de == para) return true;
+        for (int k = 0; k < handlers.length; k++) {
+            if (antesDe[de][k] && alcanca(k, para)) return true;
+        }
+        return false;
+    }
+
+    private int indexOf(BaseHandler h) {
+        for (int i = 0; i < handlers.length; i++) if (handlers[i] == h) return i;
+        throw new IllegalArgumentException("Handler não pertence a esta cadeia: " + h);
+    }
+
+    private String nome(int idx) {
+        return handlers[idx].getClass().getSimpleName();
+    }
+
+    // Contadores da janela em curso (LongAdder: sem disputa entre threads) e da janela anterior
+    private static final class Stats {
+        final LongAdder avaliacoes = new LongAdder();
+        final LongAdder rejeicoes = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder medicoes = new LongAdder();
+        volatile long avaliacoesAnt, rejeicoesAnt, nanosAnt, medicoesAnt;
+
+        void rotacionar() {
+            avaliacoesAnt = avaliacoes.sumThenReset();
+            rejeicoesAnt = rejeicoes.sumThenReset();
+            nanosAnt = nanos.sumThenReset();
+            medicoesAnt = medicoes.sumThenReset();
+        }
+
+        long avaliacoesJanela() { return avaliacoesAnt + avaliacoes.sum(); }
+        long rejeicoesJanela() { return rejeicoesAnt + rejeicoes.sum(); }
+
+        double custoMedio() {
+            long m = medicoesAnt + medicoes.sum();
+            return m == 0 ? 0 : (double) (nanosAnt + nanos.sum()) / m;
+        }
+
+        // custo / P(rejeição); sem amostras o handler mantém posição neutra
+        double rank() {
+            long av = avaliacoesJanela();
+            if (av == 0) return Double.MAX_VALUE / 2;
+            double p = (rejeicoesJanela() + 1.0) / (av + 2.0); // suavização de Laplace
+            return Math.max(custoMedio(), 1.0) / p;
+        }
+    }
+
+    public static class HandlerStats {
+        public final String handler;
+        public final int posicao;
+        public final long avaliacoes;
+        public final long rejeicoes;
+        public final double custoMedioNanos;
+
+        HandlerStats(String handler, int posicao, long avaliacoes, long rejeicoes, double custoMedioNanos) {
+            this.handler = handler;
+            this.posicao = posicao;
+            this.avaliacoes = avaliacoes;
+            this.rejeicoes = rejeicoes;
+            this.custoMedioNanos = custoMedioNanos;
+        }
+
+        public double taxaRejeicao() {
+            return avaliacoes == 0 ? 0 : (double) rejeicoes / avaliacoes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d. %-22s avaliações=%d | rejeição=%.2f%% | custo médio=%.0f ns",
+                    posicao + 1, handler, avaliacoes, taxaRejeicao() * 100, custoMedioNanos);
+        }
+    }
+}
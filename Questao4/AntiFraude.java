@@ -40,6 +40,12 @@ public class AntiFraude {
         public String toString() { return (approved ? "APROVADO: " : "BARRADO: ") + reason; }
     }
 
+    // Código do motivo de bloqueio (sem alocação); o texto só é montado quando pedido
+    public enum ReasonCode {
+        APROVADO, VALOR_SUSPEITO, LOCALIZACAO_INCOMUM, HISTORICO_FRAUDE, DISPOSITIVO_INCOMUM, PAIS_BLACKLIST,
+        VELOCIDADE_QUANTIDADE, VELOCIDADE_VALOR, PAISES_RECENTES, OUTRO
+    }
+
     // Handler da cadeia
     public interface ValidationHandler {
         void setNext(ValidationHandler next);
@@ -49,12 +55,68 @@ public class AntiFraude {
     // Classe base que facilita criação de handlers
     public static abstract class BaseHandler implements ValidationHandler {
         private ValidationHandler next;
+        // Último bloqueio visto por evaluate() nesta thread: describe() reaproveita o resultado em vez
+        // de chamar check() de novo (handlers sem CodedHandler não separam decisão e motivo)
+        private final ThreadLocal<Bloqueio> ultimoBloqueio = ThreadLocal.withInitial(Bloqueio::new);
+
+        private static final class Bloqueio {
+            Transaction tx;
+            ValidationResult res;
+        }
 
         public void setNext(ValidationHandler next) { this.next = next; }
+        public ValidationHandler getNext() { return next; }
 
         // Implementações devem retornar null quando a checagem passar
         protected abstract ValidationResult check(Transaction tx);
 
+        // Versão por código usada pela cadeia compilada: null quando passa.
+        // O padrão recorre a check(); handlers que estendem CodedHandler não alocam aqui.
+        protected ReasonCode evaluate(Transaction tx) {
+            ValidationResult res = check(tx);
+            if (res == null || res.approved) return null;
+            Bloqueio b = ultimoBloqueio.get();
+            b.tx = tx;
+            b.res = res;
+            return ReasonCode.OUTRO;
+        }
+
+        // Texto do motivo, montado apenas quando alguém o solicita
+        protected String describe(Transaction tx) {
+            Bloqueio b = ultimoBloqueio.get();
+            ValidationResult res;
+            if (b.tx == tx) {
+                res = b.res;
+                b.tx = null; // não segura a transação depois de entregar o motivo
+                b.res = null;
+            } else {
+                res = check(tx); // motivo pedido sem evaluate() desta transação nesta thread
+            }
+            return res != null ? res.reason : null;
+        }
+
+        // Descarta o que evaluate() guardou desta transação nesta thread; as cadeias chamam quando
+        // ninguém vai pedir o motivo (validate()) ou depois de montá-lo
+        protected void liberar(Transaction tx) {
+            Bloqueio b = ultimoBloqueio.get();
+            if (b.tx == tx) {
+                b.tx = null;
+                b.res = null;
+            }
+        }
+
+        // true quando evaluate() registra a transação (janelas por usuário): a cadeia adaptativa
+        // avalia esses handlers mesmo depois de um bloqueio, para o estado não depender da ordem
+        protected boolean stateful() {
+            return false;
+        }
+
+        // Texto do motivo de um código já obtido de evaluate(); handlers cujo motivo depende do
+        // código ou de estado que muda entre chamadas sobrescrevem esta versão
+        protected String describe(Transaction tx, ReasonCode code) {
+            return describe(tx);
+        }
+
         public ValidationResult handle(Transaction tx) {
             ValidationResult res = check(tx);
             if (res != null && !res.approved) {
@@ -67,70 +129,221 @@ public class AntiFraude {
         }
     }
 
+    // Handler que decide por código e só formata o motivo sob demanda
+    public static abstract class CodedHandler extends BaseHandler {
+        @Override
+        protected abstract ReasonCode evaluate(Transaction tx);
+
+        @Override
+        protected abstract String describe(Transaction tx);
+
+        @Override
+        protected final ValidationResult check(Transaction tx) {
+            ReasonCode code = evaluate(tx);
+            return code != null ? ValidationResult.fail(describe(tx, code)) : null;
+        }
+
+        // evaluate() daqui não passa por check(): não há bloqueio guardado
+        @Override
+        protected void liberar(Transaction tx) {
+        }
+    }
+
     // 1) Checagem de valor suspeito
-    public static class AmountCheck extends BaseHandler {
+    public static class AmountCheck extends CodedHandler {
         private final double threshold;
 
         public AmountCheck(double threshold) { this.threshold = threshold; }
 
         @Override
-        protected ValidationResult check(Transaction tx) {
-            if (tx.amount > threshold) {
-                return ValidationResult.fail(String.format("Valor suspeito: %.2f > %.2f", tx.amount, threshold));
-            }
-            return null;
+        protected ReasonCode evaluate(Transaction tx) {
+            return tx.amount > threshold ? ReasonCode.VALOR_SUSPEITO : null;
+        }
+
+        @Override
+        protected String describe(Transaction tx) {
+            return String.format("Valor suspeito: %.2f > %.2f", tx.amount, threshold);
         }
     }
 
-    // 2) Checagem de geolocalização
-    public static class GeoLocationCheck extends BaseHandler {
+    // 2) Checagem de geolocalização. A lista é copiada na construção: alterar o Set do chamador
+    // depois não muda a checagem (para trocar a lista, crie outro handler)
+    public static class GeoLocationCheck extends CodedHandler {
         private final Set<String> allowedCountries;
+        // Bitset por código ISO quando todos os países são alfa-2
+        private final CountrySet paises;
 
         public GeoLocationCheck(Set<String> allowedCountries) {
-            this.allowedCountries = allowedCountries != null ? allowedCountries : Collections.emptySet();
+            this.allowedCountries = allowedCountries != null ? Set.copyOf(allowedCountries) : Set.of();
+            this.paises = CountrySet.of(this.allowedCountries);
         }
 
         @Override
-        protected ValidationResult check(Transaction tx) {
-            if (!allowedCountries.isEmpty() && !allowedCountries.contains(tx.country)) {
-                return ValidationResult.fail("Localização incomum: " + tx.country);
-            }
-            return null;
+        protected ReasonCode evaluate(Transaction tx) {
+            if (allowedCountries.isEmpty()) return null;
+            boolean permitido = paises != null ? paises.contains(tx.country) : allowedCountries.contains(tx.country);
+            return permitido ? null : ReasonCode.LOCALIZACAO_INCOMUM;
+        }
+
+        @Override
+        protected String describe(Transaction tx) {
+            return "Localização incomum: " + tx.country;
         }
     }
 
     // 3) Verificação de histórico do usuário
-    public static class UserHistoryCheck extends BaseHandler {
+    public static class UserHistoryCheck extends CodedHandler {
         @Override
-        protected ValidationResult check(Transaction tx) {
-            if (tx.hasPastFraud) {
-                return ValidationResult.fail("Usuário com histórico de fraude");
-            }
-            return null;
+        protected ReasonCode evaluate(Transaction tx) {
+            return tx.hasPastFraud ? ReasonCode.HISTORICO_FRAUDE : null;
+        }
+
+        @Override
+        protected String describe(Transaction tx) {
+            return "Usuário com histórico de fraude";
         }
     }
 
     // 4) Detecção de dispositivo incomum
-    public static class DeviceCheck extends BaseHandler {
+    public static class DeviceCheck extends CodedHandler {
+        @Override
+        protected ReasonCode evaluate(Transaction tx) {
+            return tx.deviceId != null && !tx.knownDevices.contains(tx.deviceId) ? ReasonCode.DISPOSITIVO_INCOMUM : null;
+        }
+
+        @Override
+        protected String describe(Transaction tx) {
+            return "Dispositivo incomum: " + tx.deviceId;
+        }
+    }
+
+    // 4b) Dispositivo incomum consultando o registro compartilhado por usuário (dispensa tx.knownDevices)
+    public static class RegisteredDeviceCheck extends CodedHandler {
+        private final DeviceRegistry registry;
+
+        public RegisteredDeviceCheck(DeviceRegistry registry) { this.registry = registry; }
+
         @Override
-        protected ValidationResult check(Transaction tx) {
-            if (tx.deviceId != null && !tx.knownDevices.contains(tx.deviceId)) {
-                return ValidationResult.fail("Dispositivo incomum: " + tx.deviceId);
+        protected ReasonCode evaluate(Transaction tx) {
+            return tx.deviceId != null && !registry.isKnown(tx.userId, tx.deviceId) ? ReasonCode.DISPOSITIVO_INCOMUM : null;
+        }
+
+        @Override
+        protected String describe(Transaction tx) {
+            return "Dispositivo incomum: " + tx.deviceId;
+        }
+    }
+
+    // 5) Velocidade: quantidade e valor total de transações do usuário na janela do VelocityStore.
+    // evaluate() registra a transação; a cadeia (recursiva, compilada ou adaptativa) avalia cada etapa uma vez.
+    // O motivo usa o código e os totais vistos pelo evaluate() (a janela muda a cada nova transação)
+    public static class VelocityCheck extends CodedHandler {
+        private final VelocityStore store;
+        private final int maxTransacoes;
+        private final double maxValor;
+        private final ThreadLocal<Avaliacao> ultima = ThreadLocal.withInitial(Avaliacao::new);
+
+        // Última avaliação desta thread: a transação e os totais { quantidade, centavos } da janela
+        private static final class Avaliacao {
+            Transaction tx;
+            final long[] janela = new long[2];
+        }
+
+        public VelocityCheck(VelocityStore store, int maxTransacoes, double maxValor) {
+            this.store = store;
+            this.maxTransacoes = maxTransacoes;
+            this.maxValor = maxValor;
+        }
+
+        @Override
+        protected boolean stateful() {
+            return true;
+        }
+
+        @Override
+        protected ReasonCode evaluate(Transaction tx) {
+            Avaliacao a = ultima.get();
+            int r = store.record(tx.userId, tx.amount, maxTransacoes, maxValor, a.janela);
+            a.tx = tx;
+            switch (r) {
+                case VelocityStore.EXCEDEU_QUANTIDADE: return ReasonCode.VELOCIDADE_QUANTIDADE;
+                case VelocityStore.EXCEDEU_VALOR: return ReasonCode.VELOCIDADE_VALOR;
+                default: return null;
+            }
+        }
+
+        @Override
+        protected String describe(Transaction tx) {
+            Avaliacao a = ultima.get();
+            if (a.tx != tx) return String.format("Velocidade acima do limite: %d transações ou %.2f na janela", maxTransacoes, maxValor);
+            return describe(tx, a.janela[0] > maxTransacoes ? ReasonCode.VELOCIDADE_QUANTIDADE : ReasonCode.VELOCIDADE_VALOR);
+        }
+
+        // Totais da avaliação desta transação nesta thread; sem eles (motivo pedido em outra thread ou
+        // depois de outra avaliação) o texto traz só o limite, sem reler a janela
+        @Override
+        protected String describe(Transaction tx, ReasonCode code) {
+            Avaliacao a = ultima.get();
+            boolean capturado = a.tx == tx;
+            if (code == ReasonCode.VELOCIDADE_QUANTIDADE) {
+                return capturado ? String.format("Muitas transações na janela: %d > %d", a.janela[0], maxTransacoes)
+                        : String.format("Muitas transações na janela: limite %d", maxTransacoes);
             }
-            return null;
+            return capturado ? String.format("Valor acumulado na janela: %.2f > %.2f", a.janela[1] / 100.0, maxValor)
+                    : String.format("Valor acumulado na janela: limite %.2f", maxValor);
+        }
+
+        @Override
+        protected void liberar(Transaction tx) {
+            Avaliacao a = ultima.get();
+            if (a.tx == tx) a.tx = null;
         }
     }
 
-    // Exemplo de como adicionar uma nova verificação sem alterar as anteriores
-    public static class BlacklistCountryCheck extends BaseHandler {
+    // 6) Países distintos usados pelo usuário na janela de países do VelocityStore (ex.: última hora)
+    public static class RecentCountriesCheck extends CodedHandler {
+        private final VelocityStore store;
+        private final int maxPaises;
+
+        public RecentCountriesCheck(VelocityStore store, int maxPaises) {
+            this.store = store;
+            this.maxPaises = maxPaises;
+        }
+
+        @Override
+        protected boolean stateful() {
+            return true;
+        }
+
+        @Override
+        protected ReasonCode evaluate(Transaction tx) {
+            return store.recordCountry(tx.userId, tx.country) > maxPaises ? ReasonCode.PAISES_RECENTES : null;
+        }
+
+        @Override
+        protected String describe(Transaction tx) {
+            return "Muitos países recentes para o usuário (limite " + maxPaises + "): " + tx.country;
+        }
+    }
+
+    // Exemplo de como adicionar uma nova verificação sem alterar as anteriores.
+    // Como no GeoLocationCheck, a lista negra é copiada na construção
+    public static class BlacklistCountryCheck extends CodedHandler {
         private final Set<String> blacklisted;
-        public BlacklistCountryCheck(Set<String> blacklisted) { this.blacklisted = blacklisted; }
+        private final CountrySet paises;
+        public BlacklistCountryCheck(Set<String> blacklisted) {
+            this.blacklisted = blacklisted != null ? Set.copyOf(blacklisted) : null;
+            this.paises = this.blacklisted != null ? CountrySet.of(this.blacklisted) : null;
+        }
         @Override
-        protected ValidationResult check(Transaction tx) {
-            if (blacklisted != null && blacklisted.contains(tx.country)) {
-                return ValidationResult.fail("País na lista negra: " + tx.country);
-            }
-            return null;
+        protected ReasonCode evaluate(Transaction tx) {
+            if (blacklisted == null) return null;
+            boolean bloqueado = paises != null ? paises.contains(tx.country) : blacklisted.contains(tx.country);
+            return bloqueado ? ReasonCode.PAIS_BLACKLIST : null;
+        }
+        @Override
+        protected String describe(Transaction tx) {
+            return "País na lista negra: " + tx.country;
         }
     }
 
@@ -166,6 +379,17 @@ public class AntiFraude {
             System.out.println("Transacao " + (i++) + ": " + r);
         }
 
+        // Mesma cadeia em modo compilado: laço sobre array e motivo montado só quando pedido
+        System.out.println("\n-- Cadeia compilada --");
+        CompiledChain compilada = CompiledChain.compile(amount);
+        i = 1;
+        for (Transaction tx : tests) {
+            int veredito = compilada.evaluate(tx);
+            ReasonCode code = CompiledChain.code(veredito);
+            System.out.println("Transacao " + (i++) + ": " + code
+                    + (code != ReasonCode.APROVADO ? " (" + compilada.reason(tx, veredito) + ")" : ""));
+        }
+
         // Exemplo de reorganização: colocar DeviceCheck antes de AmountCheck
         System.out.println("\n-- Reorganizando cadeia: Device -> Amount -> Geo -> History --");
         device.setNext(amount);
@@ -175,5 +399,37 @@ public class AntiFraude {
 
         Transaction tx6 = new Transaction(15000.0, "BR", "user6", "dev-x", false, new HashSet<>(Arrays.asList("dev-x")));
         System.out.println("Transacao reorganizada: " + device.handle(tx6));
+
+        // Em vez de reorganizar à mão, a cadeia adaptativa mede rejeição e custo e se reordena sozinha
+        System.out.println("\n-- Cadeia adaptativa --");
+        AdaptiveChain adaptativa = new AdaptiveChain(50, 1, amount, geo, blacklist, history, device)
+                .mustRunBefore(geo, blacklist); // restrição declarada: geo sempre antes da lista negra
+        for (int rodada = 0; rodada < 100; rodada++) {
+            for (Transaction tx : tests) adaptativa.validate(tx);
+        }
+        System.out.println("Ordem atual: " + adaptativa.getOrder());
+        for (AdaptiveChain.HandlerStats st : adaptativa.getStats()) System.out.println(st);
+
+        // Registro compartilhado de dispositivos: a transação não precisa carregar o próprio Set
+        System.out.println("\n-- Registro de dispositivos --");
+        DeviceRegistry registry = new DeviceRegistry();
+        registry.register("user4", "dev-old");
+        RegisteredDeviceCheck registrado = new RegisteredDeviceCheck(registry);
+        Transaction tx7 = new Transaction(20.0, "US", "user4", "dev-new", false, null);
+        System.out.println("Antes do registro: " + registrado.handle(tx7));
+        registry.register("user4", "dev-new");
+        System.out.println("Após registrar dev-new: " + registrado.handle(tx7));
+
+        // Regras de velocidade: no máximo 4 transações ou 1000.00 por usuário em 60s, e 2 países por hora
+        System.out.println("\n-- Velocidade por usuário --");
+        VelocityStore velocidade = new VelocityStore();
+        VelocityCheck porJanela = new VelocityCheck(velocidade, 4, 1000.0);
+        RecentCountriesCheck paisesRecentes = new RecentCountriesCheck(velocidade, 2);
+        porJanela.setNext(paisesRecentes);
+        String[] sequencia = { "BR", "BR", "US", "PT", "BR" };
+        for (int k = 0; k < sequencia.length; k++) {
+            Transaction tx = new Transaction(100.0, sequencia[k], "user8", "dev-8", false, null);
+            System.out.println("user8 #" + (k + 1) + " (" + sequencia[k] + "): " + porJanela.handle(tx));
+        }
     }
 }
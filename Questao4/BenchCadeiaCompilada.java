@@ -0,0 +1,92 @@
+package Questao4;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import Questao4.AntiFraude.*;
+
+// Compara a cadeia recursiva (handle) com a compilada (validate) no caminho de autorização:
+// latência por transação (p50/p99/p99.9) e bytes alocados por transação.
+// Uso: java Questao4.BenchCadeiaCompilada [transacoes]
+public class BenchCadeiaCompilada {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        AmountCheck amount = new AmountCheck(10000.0);
+        GeoLocationCheck geo = new GeoLocationCheck(new HashSet<>(Arrays.asList("BR", "US", "PT")));
+        BlacklistCountryCheck blacklist = new BlacklistCountryCheck(new HashSet<>(Arrays.asList("NG", "IR")));
+        UserHistoryCheck history = new UserHistoryCheck();
+        DeviceCheck device = new DeviceCheck();
+        amount.setNext(geo);
+        geo.setNext(blacklist);
+        blacklist.setNext(history);
+        history.setNext(device);
+        CompiledChain compilada = CompiledChain.compile(amount);
+
+        Transaction[] txs = gerarTransacoes(4096, 7);
+        for (Transaction tx : txs) {
+            if (amount.handle(tx).approved != (compilada.validate(tx) == ReasonCode.APROVADO)) {
+                throw new IllegalStateException("Vereditos divergentes entre os modos");
+            }
+        }
+
+        System.out.printf("=== Cadeia recursiva x compilada (%,d transações, ~%d%% bloqueadas) ===%n", n, percentualBloqueio(amount, txs));
+        for (int rodada = 0; rodada < 2; rodada++) { // primeira rodada serve de aquecimento
+            boolean imprimir = rodada == 1;
+            medir("recursiva (handle)", n, txs, tx -> amount.handle(tx).approved, imprimir);
+            medir("compilada (validate)", n, txs, tx -> compilada.validate(tx) == ReasonCode.APROVADO, imprimir);
+        }
+    }
+
+    interface Modo {
+        boolean aprovar(Transaction tx);
+    }
+
+    static void medir(String nome, int n, Transaction[] txs, Modo modo, boolean imprimir) {
+        long[] latencias = new long[n];
+        int aprovadas = 0;
+        long bytesAntes = bytesAlocados();
+        for (int i = 0; i < n; i++) {
+            Transaction tx = txs[i & (txs.length - 1)];
+            long t0 = System.nanoTime();
+            if (modo.aprovar(tx)) aprovadas++;
+            latencias[i] = System.nanoTime() - t0;
+        }
+        long bytes = bytesAlocados() - bytesAntes;
+        if (!imprimir) return;
+        Arrays.sort(latencias);
+        System.out.printf("%-22s p50=%4d ns | p99=%5d ns | p99.9=%6d ns | %6.1f B/tx | aprovadas=%d%n",
+                nome, latencias[n / 2], latencias[(int) (n * 0.99)], latencias[(int) (n * 0.999)],
+                (double) bytes / n, aprovadas);
+    }
+
+    static long bytesAlocados() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) mx).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    static int percentualBloqueio(ValidationHandler cadeia, Transaction[] txs) {
+        int bloqueadas = 0;
+        for (Transaction tx : txs) if (!cadeia.handle(tx).approved) bloqueadas++;
+        return bloqueadas * 100 / txs.length;
+    }
+
+    // Mistura sintética com tamanho potência de 2; maioria aprovada, bloqueios em todas as etapas
+    static Transaction[] gerarTransacoes(int n, long semente) {
+        Random r = new Random(semente);
+        String[] paises = { "BR", "BR", "BR", "US", "PT", "AR", "NG" };
+        Transaction[] txs = new Transaction[n];
+        for (int i = 0; i < n; i++) {
+            String dev = "dev-" + i;
+            Set<String> conhecidos = new HashSet<>(Arrays.asList(r.nextInt(20) == 0 ? "dev-outro" : dev));
+            double valor = r.nextInt(20) == 0 ? 15_000 + r.nextDouble() * 5_000 : r.nextDouble() * 2_000;
+            txs[i] = new Transaction(valor, paises[r.nextInt(paises.length)], "user" + i, dev,
+                    r.nextInt(50) == 0, conhecidos);
+        }
+        return txs;
+    }
+}
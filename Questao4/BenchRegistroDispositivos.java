@@ -0,0 +1,86 @@
+package Questao4;
+
+import java.util.*;
+
+// Compara o DeviceRegistry com o modelo atual de um HashSet<String> de dispositivos por usuário:
+// heap ocupado por milhão de usuários e latência de consulta. Também compara a checagem de
+// país por HashSet<String> com o CountrySet (bitset por código ISO).
+// Uso: java -Xmx2g Questao4.BenchRegistroDispositivos [usuarios] [dispositivosPorUsuario]
+public class BenchRegistroDispositivos {
+
+    public static void main(String[] args) {
+        int usuarios = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int porUsuario = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        String[] userIds = new String[usuarios];
+        String[][] devices = new String[usuarios][porUsuario];
+        for (int u = 0; u < usuarios; u++) {
+            userIds[u] = "user-" + u;
+            for (int d = 0; d < porUsuario; d++) devices[u][d] = "dev-" + u + "-" + d;
+        }
+        System.out.printf("=== Dispositivos: %,d usuários x %d dispositivos ===%n", usuarios, porUsuario);
+
+        long base = heapUsado();
+        Map<String, Set<String>> porHashSet = new HashMap<>();
+        for (int u = 0; u < usuarios; u++) porHashSet.put(userIds[u], new HashSet<>(Arrays.asList(devices[u])));
+        long heapHashSet = heapUsado() - base;
+
+        base = heapUsado();
+        DeviceRegistry registry = new DeviceRegistry();
+        for (int u = 0; u < usuarios; u++) for (String d : devices[u]) registry.register(userIds[u], d);
+        long heapRegistry = heapUsado() - base;
+
+        // As Strings de userId/deviceId já existiam antes das duas medições: os números são só da estrutura
+        double milhoes = usuarios / 1e6;
+        System.out.printf("HashSet por usuário : %7.1f MB por milhão de usuários%n", heapHashSet / 1e6 / milhoes);
+        System.out.printf("DeviceRegistry      : %7.1f MB por milhão de usuários%n", heapRegistry / 1e6 / milhoes);
+
+        Random r = new Random(5);
+        int consultas = 5_000_000;
+        int[] us = new int[consultas];
+        String[] ds = new String[consultas];
+        for (int i = 0; i < consultas; i++) {
+            us[i] = r.nextInt(usuarios);
+            ds[i] = r.nextBoolean() ? devices[us[i]][r.nextInt(porUsuario)] : devices[r.nextInt(usuarios)][0];
+        }
+        for (int rodada = 0; rodada < 2; rodada++) {
+            long t0 = System.nanoTime();
+            int achados = 0;
+            for (int i = 0; i < consultas; i++) if (porHashSet.get(userIds[us[i]]).contains(ds[i])) achados++;
+            long t1 = System.nanoTime();
+            int achados2 = 0;
+            for (int i = 0; i < consultas; i++) if (registry.isKnown(userIds[us[i]], ds[i])) achados2++;
+            long t2 = System.nanoTime();
+            if (achados != achados2) throw new IllegalStateException("Resultados divergentes");
+            if (rodada == 1) {
+                System.out.printf("Consulta HashSet    : %6.1f ns%n", (t1 - t0) / (double) consultas);
+                System.out.printf("Consulta Registry   : %6.1f ns%n", (t2 - t1) / (double) consultas);
+            }
+        }
+
+        Set<String> permitidos = new HashSet<>(Arrays.asList("BR", "US", "PT", "AR", "CL", "UY"));
+        CountrySet bitset = CountrySet.of(permitidos);
+        String[] paises = { "BR", "US", "NG", "PT", "IR", "DE", "AR", "CN" };
+        String[] amostra = new String[1 << 16];
+        for (int i = 0; i < amostra.length; i++) amostra[i] = new String(paises[r.nextInt(paises.length)]); // cópias: equals compara o conteúdo, sem atalho por referência
+        for (int rodada = 0; rodada < 2; rodada++) {
+            long t0 = System.nanoTime();
+            int a = 0;
+            for (int i = 0; i < consultas; i++) if (permitidos.contains(amostra[i & (amostra.length - 1)])) a++;
+            long t1 = System.nanoTime();
+            int b = 0;
+            for (int i = 0; i < consultas; i++) if (bitset.contains(amostra[i & (amostra.length - 1)])) b++;
+            long t2 = System.nanoTime();
+            if (a != b) throw new IllegalStateException("Resultados divergentes");
+            if (rodada == 1) {
+                System.out.printf("País HashSet        : %6.1f ns%n", (t1 - t0) / (double) consultas);
+                System.out.printf("País CountrySet     : %6.1f ns%n", (t2 - t1) / (double) consultas);
+            }
+        }
+    }
+
+    static long heapUsado() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
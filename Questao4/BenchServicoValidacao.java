@@ -0,0 +1,74 @@
+package Questao4;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import Questao4.AntiFraude.*;
+
+// Gerador de carga sintética para o ValidationService: várias threads produtoras submetem
+// transações o mais rápido possível; mede vazão sustentada (tx/s) e latência ponta a ponta
+// (submissão -> futuro completado) em percentis.
+// Uso: java Questao4.BenchServicoValidacao [produtores] [workers] [transacoes] [capacidade] [REJEITAR|AGUARDAR]
+public class BenchServicoValidacao {
+
+    public static void main(String[] args) throws Exception {
+        int produtores = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int total = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+        int capacidade = args.length > 3 ? Integer.parseInt(args[3]) : 1 << 14;
+        ValidationService.BackpressurePolicy politica = args.length > 4
+                ? ValidationService.BackpressurePolicy.valueOf(args[4]) : ValidationService.BackpressurePolicy.AGUARDAR;
+
+        AmountCheck amount = new AmountCheck(10000.0);
+        GeoLocationCheck geo = new GeoLocationCheck(new HashSet<>(Arrays.asList("BR", "US", "PT")));
+        UserHistoryCheck history = new UserHistoryCheck();
+        DeviceCheck device = new DeviceCheck();
+        amount.setNext(geo);
+        geo.setNext(history);
+        history.setNext(device);
+        CompiledChain cadeia = CompiledChain.compile(amount);
+        Transaction[] txs = BenchCadeiaCompilada.gerarTransacoes(4096, 11);
+
+        System.out.printf("=== ValidationService: %d produtores, %d workers, %,d transações, fila=%d, política=%s ===%n",
+                produtores, threads, total, capacidade, politica);
+
+        long[] latencias = new long[total];
+        CountDownLatch concluidas = new CountDownLatch(total);
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        ValidationService servico = new ValidationService(cadeia, capacidade, 64, workers,
+                threads * 2, politica, 1, TimeUnit.SECONDS);
+
+        int porProdutor = total / produtores;
+        Thread[] ps = new Thread[produtores];
+        long inicio = System.nanoTime();
+        for (int p = 0; p < produtores; p++) {
+            int base = p * porProdutor;
+            int fim = p == produtores - 1 ? total : base + porProdutor;
+            ps[p] = new Thread(() -> {
+                for (int i = base; i < fim; i++) {
+                    int idx = i;
+                    long t0 = System.nanoTime();
+                    servico.submit(txs[i & (txs.length - 1)]).whenComplete((r, e) -> {
+                        latencias[idx] = e == null ? System.nanoTime() - t0 : -1;
+                        concluidas.countDown();
+                    });
+                }
+            }, "produtor-" + p);
+            ps[p].start();
+        }
+        for (Thread t : ps) t.join();
+        concluidas.await();
+        long duracao = System.nanoTime() - inicio;
+        servico.close();
+        workers.shutdown(); // o executor é nosso: o serviço não o encerra
+
+        long[] ok = Arrays.stream(latencias).filter(l -> l >= 0).sorted().toArray();
+        System.out.printf("vazão=%,.0f tx/s | processadas=%,d | rejeitadas=%,d | lote médio=%.1f%n",
+                ok.length / (duracao / 1e9), servico.processedCount(), servico.rejectedCount(), servico.averageBatchSize());
+        if (ok.length > 0) {
+            System.out.printf("latência ponta a ponta: p50=%.1f µs | p99=%.1f µs | p99.9=%.1f µs | max=%.1f µs%n",
+                    ok[ok.length / 2] / 1e3, ok[(int) (ok.length * 0.99)] / 1e3,
+                    ok[(int) (ok.length * 0.999)] / 1e3, ok[ok.length - 1] / 1e3);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package Questao4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import Questao4.AntiFraude.BaseHandler;
+import Questao4.AntiFraude.ReasonCode;
+import Questao4.AntiFraude.Transaction;
+import Questao4.AntiFraude.ValidationHandler;
+import Questao4.AntiFraude.ValidationResult;
+
+// Cadeia "compilada": a sequência configurada via setNext() é achatada num array e percorrida
+// em laço, sem recursão. validate() devolve apenas o código do motivo; o texto é montado
+// sob demanda por reason(). Os vereditos são os mesmos da cadeia original no momento da compilação.
+public final class CompiledChain {
+    public static final int APPROVED = -1;
+    private static final ReasonCode[] CODES = ReasonCode.values();
+
+    private final BaseHandler[] etapas;
+    // Handler que não estende BaseHandler no fim da cadeia: delega ao handle() dele
+    private final ValidationHandler cauda;
+    // Etapas stateful(): guardam a última avaliação mesmo quando a transação passa
+    private final int[] comEstado;
+
+    private CompiledChain(BaseHandler[] etapas, ValidationHandler cauda) {
+        this.etapas = etapas;
+        this.cauda = cauda;
+        int[] idx = new int[etapas.length];
+        int n = 0;
+        for (int i = 0; i < etapas.length; i++) {
+            if (etapas[i].stateful()) idx[n++] = i;
+        }
+        this.comEstado = Arrays.copyOf(idx, n);
+    }
+
+    // Percorre a cadeia a partir de head; mudanças posteriores em setNext() exigem recompilar
+    public static CompiledChain compile(ValidationHandler head) {
+        List<BaseHandler> lista = new ArrayList<>();
+        Set<ValidationHandler> vistos = Collections.newSetFromMap(new IdentityHashMap<>());
+        ValidationHandler atual = head;
+        while (atual instanceof BaseHandler) {
+            if (!vistos.add(atual)) throw new IllegalArgumentException("Cadeia de validação com ciclo");
+            BaseHandler h = (BaseHandler) atual;
+            lista.add(h);
+            atual = h.getNext();
+        }
+        return new CompiledChain(lista.toArray(new BaseHandler[0]), atual);
+    }
+
+    // Veredito sem alocação (para handlers CodedHandler): APROVADO ou o código do primeiro bloqueio
+    public ReasonCode validate(Transaction tx) {
+        int veredito = evaluate(tx);
+        liberar(tx, veredito); // ninguém vai pedir o motivo
+        return code(veredito);
+    }
+
+    // Veredito empacotado num int: APPROVED, ou (etapa << 8 | código) da etapa que bloqueou.
+    // Permite montar o motivo depois com reason(tx, veredito) sem reavaliar a cadeia.
+    public int evaluate(Transaction tx) {
+        BaseHandler[] e = etapas;
+        for (int i = 0; i < e.length; i++) {
+            ReasonCode code = e[i].evaluate(tx);
+            if (code != null) return i << 8 | code.ordinal();
+        }
+        if (cauda != null && !cauda.handle(tx).approved) return e.length << 8 | ReasonCode.OUTRO.ordinal();
+        return APPROVED;
+    }
+
+    public static ReasonCode code(int veredito) {
+        return veredito == APPROVED ? ReasonCode.APROVADO : CODES[veredito & 0xFF];
+    }
+
+    // Texto do motivo de um veredito já obtido (formatado apenas aqui)
+    public String reason(Transaction tx, int veredito) {
+        if (veredito == APPROVED) return ValidationResult.ok().reason;
+        int etapa = veredito >>> 8;
+        String motivo = etapa < etapas.length ? etapas[etapa].describe(tx, code(veredito)) : cauda.handle(tx).reason;
+        liberar(tx, veredito);
+        return motivo;
+    }
+
+    // Reavalia a cadeia para achar o motivo; com handlers que guardam estado prefira reason(tx, veredito)
+    public String reason(Transaction tx) {
+        return reason(tx, evaluate(tx));
+    }
+
+    // Compatível com ValidationHandler.handle(): mesmo resultado da cadeia recursiva
+    public ValidationResult handle(Transaction tx) {
+        int veredito = evaluate(tx);
+        if (veredito == APPROVED) {
+            liberar(tx, veredito);
+            return ValidationResult.ok();
+        }
+        return ValidationResult.fail(reason(tx, veredito));
+    }
+
+    // Solta a transação guardada por evaluate() nas etapas (bloqueio da etapa que rejeitou e
+    // última avaliação das etapas com estado), para a thread não segurá-la até a próxima chamada
+    private void liberar(Transaction tx, int veredito) {
+        if (veredito != APPROVED && veredito >>> 8 < etapas.length) etapas[veredito >>> 8].liberar(tx);
+        for (int i : comEstado) etapas[i].liberar(tx);
+    }
+
+    public int size() {
+        return etapas.length + (cauda != null ? 1 : 0);
+    }
+}
@@ -0,0 +1,46 @@
+package Questao4;
+
+import java.util.Collection;
+
+// Conjunto de países como bitset sobre um código denso derivado do ISO-3166 alfa-2:
+// "AA".."ZZ" -> 0..675. A consulta é aritmética sobre os dois caracteres, sem hash de String.
+public final class CountrySet {
+    public static final int MAX_CODES = 26 * 26;
+
+    private final long[] bits = new long[(MAX_CODES + 63) / 64];
+
+    // Código denso do país, ou -1 se não for um código alfa-2 em maiúsculas
+    public static int code(String pais) {
+        if (pais == null || pais.length() != 2) return -1;
+        int a = pais.charAt(0) - 'A', b = pais.charAt(1) - 'A';
+        if (a < 0 || a >= 26 || b < 0 || b >= 26) return -1;
+        return a * 26 + b;
+    }
+
+    public static String name(int code) {
+        return new String(new char[] { (char) ('A' + code / 26), (char) ('A' + code % 26) });
+    }
+
+    // Retorna null se algum país não for representável (quem chama mantém o conjunto original)
+    public static CountrySet of(Collection<String> paises) {
+        CountrySet set = new CountrySet();
+        for (String p : paises) {
+            int c = code(p);
+            if (c < 0) return null;
+            set.add(c);
+        }
+        return set;
+    }
+
+    public void add(int code) {
+        bits[code >>> 6] |= 1L << code;
+    }
+
+    public boolean contains(int code) {
+        return code >= 0 && (bits[code >>> 6] & 1L << code) != 0;
+    }
+
+    public boolean contains(String pais) {
+        return contains(code(pais));
+    }
+}
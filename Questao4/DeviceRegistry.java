@@ -0,0 +1,149 @@
+package Questao4;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Registro compartilhado de dispositivos conhecidos por usuário, no lugar de um Set<String>
+// carregado em cada Transaction. Os IDs de dispositivo são codificados num dicionário global
+// (String -> int, em tabelas primitivas particionadas) e cada usuário guarda apenas um int[]
+// ordenado e de tamanho exato. O array do usuário é substituído por cópia no registro e o
+// dicionário é lido por um snapshot volatile, então consultas não usam lock.
+public class DeviceRegistry {
+    private static final int PARTICOES = 64;
+    private static final int BUSCA_LINEAR = 8;
+
+    private final Dicionario[] dicionario = new Dicionario[PARTICOES];
+    private final AtomicInteger proximoId = new AtomicInteger(1); // 0 = ausente
+    private final ConcurrentHashMap<String, int[]> usuarios = new ConcurrentHashMap<>();
+
+    public DeviceRegistry() {
+        for (int i = 0; i < PARTICOES; i++) dicionario[i] = new Dicionario();
+    }
+
+    // Registra o dispositivo para o usuário; retorna false se já era conhecido
+    public boolean register(String userId, String deviceId) {
+        if (userId == null || deviceId == null) throw new IllegalArgumentException("Usuário e dispositivo são obrigatórios");
+        int id = particao(deviceId).intern(deviceId, proximoId);
+        boolean[] novo = new boolean[1];
+        usuarios.compute(userId, (u, atual) -> {
+            if (atual == null) {
+                novo[0] = true;
+                return new int[] { id };
+            }
+            int pos = Arrays.binarySearch(atual, id);
+            if (pos >= 0) return atual;
+            pos = -pos - 1;
+            int[] copia = new int[atual.length + 1];
+            System.arraycopy(atual, 0, copia, 0, pos);
+            copia[pos] = id;
+            System.arraycopy(atual, pos, copia, pos + 1, atual.length - pos);
+            novo[0] = true;
+            return copia;
+        });
+        return novo[0];
+    }
+
+    public boolean isKnown(String userId, String deviceId) {
+        if (userId == null || deviceId == null) return false;
+        int id = particao(deviceId).lookup(deviceId);
+        if (id == 0) return false; // dispositivo nunca visto por ninguém
+        int[] ids = usuarios.get(userId);
+        if (ids == null) return false;
+        if (ids.length <= BUSCA_LINEAR) {
+            for (int v : ids) if (v == id) return true;
+            return false;
+        }
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public int deviceCount(String userId) {
+        int[] ids = usuarios.get(userId);
+        return ids != null ? ids.length : 0;
+    }
+
+    public int userCount() {
+        return usuarios.size();
+    }
+
+    public int dictionarySize() {
+        return proximoId.get() - 1;
+    }
+
+    private Dicionario particao(String deviceId) {
+        int h = deviceId.hashCode();
+        return dicionario[(h ^ (h >>> 16)) & (PARTICOES - 1)];
+    }
+
+    // Tabela String -> int com endereçamento aberto (sem Map.Entry nem Integer por dispositivo).
+    // Só intern() usa lock. lookup() lê o snapshot volatile da tabela: o id é gravado antes da chave
+    // (setRelease), então quem enxerga a chave enxerga o id; o crescimento monta uma tabela nova
+    // completa e só então a publica.
+    private static final class Dicionario {
+        private static final VarHandle CHAVE = MethodHandles.arrayElementVarHandle(String[].class);
+
+        private static final class Tabela {
+            final String[] chaves;
+            final int[] ids;
+
+            Tabela(int capacidade) {
+                chaves = new String[capacidade];
+                ids = new int[capacidade];
+            }
+        }
+
+        private volatile Tabela tabela = new Tabela(16);
+        private int tamanho;
+
+        int lookup(String chave) {
+            Tabela t = tabela;
+            int mascara = t.chaves.length - 1;
+            int h = chave.hashCode() * 0x9E3779B9;
+            int pos = (h ^ (h >>> 16)) & mascara;
+            while (true) {
+                String c = (String) CHAVE.getAcquire(t.chaves, pos);
+                if (c == null) return 0;
+                if (c.equals(chave)) return t.ids[pos];
+                pos = (pos + 1) & mascara;
+            }
+        }
+
+        synchronized int intern(String chave, AtomicInteger proximoId) {
+            Tabela t = tabela;
+            int pos = posicao(t.chaves, chave);
+            if (t.chaves[pos] != null) return t.ids[pos];
+            if ((tamanho + 1) * 4 > t.chaves.length * 3) { // carga máxima de 3/4
+                t = crescer(t);
+                pos = posicao(t.chaves, chave);
+            }
+            int id = proximoId.getAndIncrement();
+            t.ids[pos] = id;
+            CHAVE.setRelease(t.chaves, pos, chave);
+            tamanho++;
+            return id;
+        }
+
+        private Tabela crescer(Tabela velha) {
+            Tabela nova = new Tabela(velha.chaves.length * 2);
+            for (int i = 0; i < velha.chaves.length; i++) {
+                if (velha.chaves[i] == null) continue;
+                int pos = posicao(nova.chaves, velha.chaves[i]);
+                nova.chaves[pos] = velha.chaves[i];
+                nova.ids[pos] = velha.ids[i];
+            }
+            tabela = nova; // escrita volatile: publica a tabela já preenchida
+            return nova;
+        }
+
+        // Posição da chave ou da primeira posição livre na sequência de sondagem
+        private static int posicao(String[] chaves, String chave) {
+            int mascara = chaves.length - 1;
+            int h = chave.hashCode() * 0x9E3779B9;
+            int pos = (h ^ (h >>> 16)) & mascara;
+            while (chaves[pos] != null && !chaves[pos].equals(chave)) pos = (pos + 1) & mascara;
+            return pos;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package Questao4;
+
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import Questao4.AntiFraude.Transaction;
+import Questao4.AntiFraude.ValidationResult;
+
+// Serviço de validação concorrente: várias threads produtoras enfileiram transações num
+// ring buffer limitado (múltiplos produtores, um consumidor). Uma thread despachante drena
+// micro-lotes e os entrega ao executor de workers, que roda a cadeia compilada e completa
+// o CompletableFuture de cada transação. Fila cheia aplica a política de contrapressão.
+public class ValidationService implements AutoCloseable {
+
+    public enum BackpressurePolicy {
+        REJEITAR,  // falha imediata com RejectedExecutionException
+        AGUARDAR   // espera por espaço até o tempo máximo configurado, depois rejeita
+    }
+
+    private static final class Pendente {
+        final Transaction tx;
+        final CompletableFuture<ValidationResult> futuro = new CompletableFuture<>();
+
+        Pendente(Transaction tx) { this.tx = tx; }
+    }
+
+    private final CompiledChain cadeia;
+    private final ExecutorService workers;
+    private final boolean workersProprios; // criado pelo construtor de conveniência: close() o encerra
+    private final int tamanhoLote;
+    private final BackpressurePolicy politica;
+    private final long esperaMaxNanos;
+    private final Semaphore lotesEmVoo;
+
+    // Ring buffer MPSC: produtores reservam posições por CAS em 'cauda'; só o despachante avança 'cabeca'.
+    // close() sela 'cauda' com o bit de sinal: daí em diante nenhuma reserva é possível
+    private final AtomicReferenceArray<Pendente> anel;
+    private final int mascara;
+    private final AtomicLong cauda = new AtomicLong();
+    private final AtomicLong cabeca = new AtomicLong();
+
+    private final Thread despachante;
+    private volatile boolean aberto = true;
+    // Despachante estacionado com a fila vazia: o produtor que reservar uma posição o acorda
+    private volatile boolean dormindo;
+
+    private final LongAdder aceitas = new LongAdder();
+    private final LongAdder rejeitadas = new LongAdder();
+    private final LongAdder processadas = new LongAdder();
+    private final LongAdder lotes = new LongAdder();
+
+    // capacidade é arredondada para a próxima potência de 2.
+    // workers pode ser um pool fixo ou, em JDKs com virtual threads, um executor de virtual threads;
+    // continua sendo de quem o passou (close() não o encerra).
+    public ValidationService(CompiledChain cadeia, int capacidade, int tamanhoLote, ExecutorService workers,
+                             int maxLotesEmVoo, BackpressurePolicy politica, long esperaMax, TimeUnit unidade) {
+        this(cadeia, capacidade, tamanhoLote, workers, false, maxLotesEmVoo, politica, esperaMax, unidade);
+    }
+
+    public ValidationService(CompiledChain cadeia, int capacidade, int threads, BackpressurePolicy politica) {
+        this(cadeia, capacidade, 64, Executors.newFixedThreadPool(threads), true, threads * 2,
+                politica, 100, TimeUnit.MILLISECONDS);
+    }
+
+    private ValidationService(CompiledChain cadeia, int capacidade, int tamanhoLote, ExecutorService workers,
+                              boolean workersProprios, int maxLotesEmVoo, BackpressurePolicy politica,
+                              long esperaMax, TimeUnit unidade) {
+        if (capacidade <= 0 || tamanhoLote <= 0 || maxLotesEmVoo <= 0) {
+            throw new IllegalArgumentException("Capacidade, lote e lotes em voo devem ser positivos");
+        }
+        if (capacidade > 1 << 30) throw new IllegalArgumentException("Capacidade deve ser no máximo 2^30");
+        int cap = 1;
+        while (cap < capacidade) cap <<= 1;
+        this.cadeia = cadeia;
+        this.workers = workers;
+        this.workersProprios = workersProprios;
+        this.tamanhoLote = tamanhoLote;
+        this.politica = politica;
+        this.esperaMaxNanos = unidade.toNanos(esperaMax);
+        this.lotesEmVoo = new Semaphore(maxLotesEmVoo);
+        this.anel = new AtomicReferenceArray<>(cap);
+        this.mascara = cap - 1;
+        this.despachante = new Thread(this::despachar, "validation-dispatcher");
+        this.despachante.setDaemon(true);
+        this.despachante.start();
+    }
+
+    public CompletableFuture<ValidationResult> submit(Transaction tx) {
+        Pendente p = new Pendente(tx);
+        if (!aberto || !oferecer(p)) {
+            rejeitadas.increment();
+            p.futuro.completeExceptionally(new RejectedExecutionException(
+                    aberto ? "Fila de validação cheia" : "Serviço de validação encerrado"));
+            return p.futuro;
+        }
+        aceitas.increment();
+        return p.futuro;
+    }
+
+    private boolean oferecer(Pendente p) {
+        long prazo = 0;
+        while (true) {
+            long t = cauda.get();
+            if (t < 0) return false; // selada pelo close()
+            if (t - cabeca.get() < anel.length()) {
+                if (cauda.compareAndSet(t, t + 1)) {
+                    anel.lazySet((int) t & mascara, p);
+                    // O CAS em 'cauda' vem antes desta leitura e o despachante liga 'dormindo' antes de
+                    // reler 'cauda': um dos dois enxerga o outro, então não há sinal perdido
+                    if (dormindo) LockSupport.unpark(despachante);
+                    return true;
+                }
+                continue; // outro produtor pegou a posição
+            }
+            if (politica == BackpressurePolicy.REJEITAR || !aberto) return false;
+            long agora = System.nanoTime();
+            if (prazo == 0) prazo = agora + esperaMaxNanos;
+            else if (agora - prazo >= 0) return false;
+            LockSupport.parkNanos(10_000);
+        }
+    }
+
+    private void despachar() {
+        Pendente[] lote = new Pendente[tamanhoLote];
+        int ocioso = 0;
+        while (aberto || cabeca.get() != cauda.get()) {
+            int n = drenar(lote);
+            if (n == 0) {
+                if (++ocioso < 100) {
+                    Thread.onSpinWait(); // rajadas costumam chegar logo: espera curta antes de estacionar
+                    continue;
+                }
+                dormindo = true;
+                if (aberto && cabeca.get() == cauda.get()) LockSupport.park(this);
+                dormindo = false;
+                continue;
+            }
+            ocioso = 0;
+            Pendente[] trabalho = Arrays.copyOf(lote, n);
+            lotesEmVoo.acquireUninterruptibly(); // workers saturados seguram o despachante (e enchem a fila)
+            try {
+                workers.execute(() -> processar(trabalho));
+            } catch (RejectedExecutionException e) {
+                lotesEmVoo.release();
+                for (Pendente p : trabalho) p.futuro.completeExceptionally(e);
+            }
+        }
+    }
+
+    private int drenar(Pendente[] lote) {
+        long h = cabeca.get();
+        int n = 0;
+        while (n < lote.length) {
+            int idx = (int) h & mascara;
+            Pendente p = anel.get(idx);
+            if (p == null) break; // vazio, ou produtor reservou mas ainda não publicou
+            anel.lazySet(idx, null);
+            lote[n++] = p;
+            h++;
+        }
+        cabeca.lazySet(h);
+        return n;
+    }
+
+    private void processar(Pendente[] lote) {
+        try {
+            for (Pendente p : lote) {
+                try {
+                    p.futuro.complete(cadeia.handle(p.tx));
+                } catch (RuntimeException e) {
+                    p.futuro.completeExceptionally(e);
+                }
+            }
+            processadas.add(lote.length);
+            lotes.increment();
+        } finally {
+            lotesEmVoo.release();
+        }
+    }
+
+    public int queueDepth() {
+        return (int) ((cauda.get() & Long.MAX_VALUE) - cabeca.get());
+    }
+
+    public long acceptedCount() { return aceitas.sum(); }
+    public long rejectedCount() { return rejeitadas.sum(); }
+    public long processedCount() { return processadas.sum(); }
+
+    public double averageBatchSize() {
+        long l = lotes.sum();
+        return l == 0 ? 0 : (double) processadas.sum() / l;
+    }
+
+    // Para de aceitar novas transações, conclui as já enfileiradas e encerra os workers (só o pool
+    // criado pelo construtor de conveniência; um executor recebido fica com quem o passou)
+    @Override
+    public void close() {
+        aberto = false;
+        LockSupport.unpark(despachante);
+        try {
+            despachante.join();
+            // Produtor que passou pela checagem de 'aberto' enquanto o despachante saía: drena até a
+            // fila ficar vazia e sela a cauda no mesmo CAS, para nenhuma reserva chegar depois da drenagem
+            Pendente[] resto = new Pendente[tamanhoLote];
+            while (true) {
+                long t = cauda.get();
+                if (t < 0) break; // já selada (close repetido)
+                if (cabeca.get() == t) {
+                    if (cauda.compareAndSet(t, t | Long.MIN_VALUE)) break;
+                    continue;
+                }
+                int n = drenar(resto);
+                for (int i = 0; i < n; i++) {
+                    aceitas.decrement(); // contada em submit(), mas nunca chegou a ser validada
+                    rejeitadas.increment();
+                    resto[i].futuro.completeExceptionally(new RejectedExecutionException("Serviço de validação encerrado"));
+                }
+                if (n == 0) Thread.onSpinWait();
+            }
+            if (workersProprios) {
+                workers.shutdown();
+                workers.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
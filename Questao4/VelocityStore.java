@@ -0,0 +1,209 @@
+package Questao4;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Estado por usuário para regras de velocidade (quantidade e valor de transações numa janela
+// deslizante) e de países recentes. Cada usuário tem um anel de baldes de tempo com totais
+// mantidos incrementalmente: registrar e consultar custam O(1) amortizado (cada balde é zerado
+// uma vez por volta do anel). O ConcurrentHashMap distribui os usuários e cada estado tem o
+// próprio lock, então threads só disputam entre si quando tratam do mesmo usuário.
+// Usuários ociosos são removidos por evictIdle() (ou periodicamente via startEviction()).
+public class VelocityStore {
+    private final long baldeMillis;
+    private final int baldes;
+    private final long janelaPaisesMillis;
+    private final long ociosoMillis;
+    private final LongSupplier relogio;
+    private final ConcurrentHashMap<String, UserState> usuarios = new ConcurrentHashMap<>();
+
+    // Janela de 60s em 12 baldes de 5s; países na última hora; remove usuários parados há 2h
+    public VelocityStore() {
+        this(60_000, 12, 3_600_000, 7_200_000, System::currentTimeMillis);
+    }
+
+    public VelocityStore(long janelaMillis, int baldes, long janelaPaisesMillis, long ociosoMillis, LongSupplier relogio) {
+        if (baldes <= 0 || janelaMillis < baldes) throw new IllegalArgumentException("Janela/baldes inválidos");
+        this.baldeMillis = janelaMillis / baldes;
+        this.baldes = baldes;
+        this.janelaPaisesMillis = janelaPaisesMillis;
+        this.ociosoMillis = ociosoMillis;
+        this.relogio = relogio;
+    }
+
+    // Resultados de record()
+    public static final int OK = 0;
+    public static final int EXCEDEU_QUANTIDADE = 1;
+    public static final int EXCEDEU_VALOR = 2;
+
+    // Registra a transação e verifica os totais da janela (incluindo ela) contra os limites
+    public int record(String userId, double valor, int maxTransacoes, double maxValor) {
+        return record(userId, valor, maxTransacoes, maxValor, null);
+    }
+
+    // Idem, copiando para janela[0] e janela[1] a quantidade e o valor (em centavos) vistos no registro
+    public int record(String userId, double valor, int maxTransacoes, double maxValor, long[] janela) {
+        long centavos = Math.round(valor * 100); // soma inteira: sem deriva ao retirar baldes antigos
+        long agora = relogio.getAsLong();
+        while (true) {
+            UserState s = usuarios.computeIfAbsent(userId, u -> new UserState(baldes));
+            synchronized (s) {
+                if (s.removido) continue; // removido entre o get e o lock: pega o novo estado
+                s.avancar(agora / baldeMillis);
+                s.registrar(centavos);
+                s.ultimoAcesso = agora;
+                if (janela != null) {
+                    janela[0] = s.total;
+                    janela[1] = s.totalCentavos;
+                }
+                if (s.total > maxTransacoes) return EXCEDEU_QUANTIDADE;
+                if (s.totalCentavos > Math.round(maxValor * 100)) return EXCEDEU_VALOR;
+                return OK;
+            }
+        }
+    }
+
+    // Registra o uso do país e devolve quantos países distintos o usuário usou na janela de países
+    public int recordCountry(String userId, String pais) {
+        long agora = relogio.getAsLong();
+        while (true) {
+            UserState s = usuarios.computeIfAbsent(userId, u -> new UserState(baldes));
+            synchronized (s) {
+                if (s.removido) continue;
+                s.ultimoAcesso = agora;
+                return s.registrarPais(pais, agora, agora - janelaPaisesMillis);
+            }
+        }
+    }
+
+    public int transactionCount(String userId) {
+        UserState s = usuarios.get(userId);
+        if (s == null) return 0;
+        synchronized (s) {
+            s.avancar(relogio.getAsLong() / baldeMillis);
+            return s.total;
+        }
+    }
+
+    public double totalAmount(String userId) {
+        UserState s = usuarios.get(userId);
+        if (s == null) return 0;
+        synchronized (s) {
+            s.avancar(relogio.getAsLong() / baldeMillis);
+            return s.totalCentavos / 100.0;
+        }
+    }
+
+    public int userCount() {
+        return usuarios.size();
+    }
+
+    // Remove usuários sem atividade há mais que o tempo de ociosidade; retorna quantos saíram
+    public int evictIdle() {
+        long limite = relogio.getAsLong() - ociosoMillis;
+        int removidos = 0;
+        for (Map.Entry<String, UserState> e : usuarios.entrySet()) {
+            UserState s = e.getValue();
+            synchronized (s) {
+                if (s.ultimoAcesso < limite && usuarios.remove(e.getKey(), s)) {
+                    s.removido = true;
+                    removidos++;
+                }
+            }
+        }
+        return removidos;
+    }
+
+    // Agenda evictIdle() numa thread daemon própria; encerre o executor retornado para parar
+    public ScheduledExecutorService startEviction(long periodo, TimeUnit unidade) {
+        ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "velocity-eviction");
+            t.setDaemon(true);
+            return t;
+        });
+        exec.scheduleWithFixedDelay(this::evictIdle, periodo, periodo, unidade);
+        return exec;
+    }
+
+    private static final class UserState {
+        final int[] contagens;
+        final long[] centavos;
+        long baldeAtual = Long.MIN_VALUE;
+        int total;
+        long totalCentavos;
+        long ultimoAcesso;
+        boolean removido;
+
+        // Países recentes: poucos por usuário, busca linear
+        String[] paises = new String[2];
+        long[] vistoEm = new long[2];
+        int nPaises;
+
+        UserState(int baldes) {
+            contagens = new int[baldes];
+            centavos = new long[baldes];
+        }
+
+        // Zera os baldes que saíram da janela desde o último acesso
+        void avancar(long balde) {
+            if (balde <= baldeAtual) return; // relógio parado ou recuando: mantém o balde atual
+            long passos = balde - baldeAtual;
+            if (baldeAtual == Long.MIN_VALUE || passos >= contagens.length) {
+                Arrays.fill(contagens, 0);
+                Arrays.fill(centavos, 0);
+                total = 0;
+                totalCentavos = 0;
+            } else {
+                for (long k = 1; k <= passos; k++) {
+                    int i = (int) Math.floorMod(baldeAtual + k, (long) contagens.length);
+                    total -= contagens[i];
+                    totalCentavos -= centavos[i];
+                    contagens[i] = 0;
+                    centavos[i] = 0;
+                }
+            }
+            baldeAtual = balde;
+        }
+
+        void registrar(long valorCentavos) {
+            int i = (int) Math.floorMod(baldeAtual, (long) contagens.length);
+            contagens[i]++;
+            centavos[i] += valorCentavos;
+            total++;
+            totalCentavos += valorCentavos;
+        }
+
+        int registrarPais(String pais, long agora, long limite) {
+            int distintos = 0;
+            boolean achou = false;
+            // compacta removendo países fora da janela enquanto procura
+            for (int i = 0; i < nPaises; i++) {
+                if (vistoEm[i] < limite) continue;
+                if (paises[i].equals(pais)) {
+                    vistoEm[i] = agora;
+                    achou = true;
+                }
+                paises[distintos] = paises[i];
+                vistoEm[distintos] = vistoEm[i];
+                distintos++;
+            }
+            for (int i = distintos; i < nPaises; i++) paises[i] = null;
+            nPaises = distintos;
+            if (!achou && pais != null) {
+                if (nPaises == paises.length) {
+                    paises = Arrays.copyOf(paises, nPaises * 2);
+                    vistoEm = Arrays.copyOf(vistoEm, nPaises * 2);
+                }
+                paises[nPaises] = pais;
+                vistoEm[nPaises] = agora;
+                nPaises++;
+            }
+            return nPaises;
+        }
+    }
+}
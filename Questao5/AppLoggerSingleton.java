@@ -1,56 +1,11 @@
 package Questao5;
 
-import java.time.LocalDateTime;
-
-class SistemaLogger {
-
-    // Instância única (volatile para evitar problemas de visibilidade entre threads)
-    private static volatile SistemaLogger instancia;
-
-    // Construtor privado — impede criação fora da classe
-    private SistemaLogger() {
-        System.out.println(">> SistemaLogger inicializado (instância única criada)");
-    }
-
-    // Método estático para acesso global (Double-Checked Locking)
-    public static SistemaLogger getInstancia() {
-
-        if (instancia == null) { // primeira verificação (rápida)
-
-            synchronized (SistemaLogger.class) {
-                if (instancia == null) { // segunda verificação (segura)
-                    instancia = new SistemaLogger();
-                }
-            }
-        }
-        return instancia;
-    }
-
-    public void logErro(String mensagem) {
-        registrar("[ERRO] " + mensagem);
-        enviarServidor("[ERRO] " + mensagem);
-    }
-
-    public void logEvento(String mensagem) {
-        registrar("[EVENTO] " + mensagem);
-        enviarServidor("[EVENTO] " + mensagem);
-    }
-
-    public void logAuditoria(String mensagem) {
-        registrar("[AUDITORIA] " + mensagem);
-        enviarServidor("[AUDITORIA] " + mensagem);
-    }
-
-    // Simula gravação em arquivo
-    private void registrar(String mensagem) {
-        System.out.println(LocalDateTime.now() + " -> Gravando em arquivo: " + mensagem);
-    }
-
-    // Simula envio ao servidor externo
-    private void enviarServidor(String mensagem) {
-        System.out.println(LocalDateTime.now() + " -> Enviando ao servidor externo: " + mensagem + "\n");
-    }
-}
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 public class AppLoggerSingleton {
 
@@ -80,5 +35,81 @@ public class AppLoggerSingleton {
         t1.start();
         t2.start();
         t3.start();
+
+        try {
+            t1.join();
+            t2.join();
+            t3.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Modo assíncrono: quem loga só publica no ring buffer; a gravação ocorre em lote noutra thread
+        System.out.println("\n--- Modo assíncrono ---");
+        logger.ativarModoAssincrono(1024, 64, AsyncLogPipeline.PoliticaFilaCheia.DESCARTAR_MENOR_SEVERIDADE, 10);
+        for (int i = 1; i <= 3; i++) logger.logEvento("Evento assíncrono " + i);
+        logger.logAuditoria("Auditoria assíncrona");
+        logger.desativarModoAssincrono(); // grava o que estiver pendente
+
+        // Modo por thread: cada thread loga no próprio buffer; o flusher intercala por timestamp.
+        // EVENTOs passam por amostragem/limite de taxa; ERRO e AUDITORIA nunca são descartados
+        System.out.println("\n--- Modo por thread ---");
+        logger.ativarModoPorThread(256, 64, new LimitadorEventos(1.0, 100, 2, 64));
+        Thread[] workers = new Thread[3];
+        for (int t = 0; t < workers.length; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 1; i <= 5; i++) logger.logEvento("Lote {} da thread {}", i, Thread.currentThread().getName());
+                logger.logAuditoria("Thread {} concluída", Thread.currentThread().getName());
+            }, "W" + (t + 1));
+            workers[t].start();
+        }
+        try {
+            for (Thread w : workers) w.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("EVENTOs acima do limite descartados: " + logger.eventosDescartados());
+        logger.desativarModoAssincrono();
+
+        // Arquivo real: segmentos mapeados em memória; auditoria é sincronizada com o disco a cada lote
+        System.out.println("\n--- Arquivo persistente ---");
+        try {
+            Path dir = Files.createTempDirectory("sistema-logger");
+            ArquivoMapeadoSink arquivo = new ArquivoMapeadoSink(dir, 1 << 20, 60 * 60 * 1000, 1000);
+            logger.configurarSinks(arquivo, ConsoleSinks.servidor(System.out));
+            logger.logEvento("Evento persistido");
+            logger.logAuditoria("Auditoria persistida (fsync imediato)");
+            arquivo.close();
+            int lidos = ArquivoMapeadoSink.ler(dir, e -> System.out.println("Lido do disco: " + e.texto()));
+            System.out.println(lidos + " registro(s) em " + dir);
+        } catch (IOException e) {
+            System.err.println("Falha no demo de arquivo: " + e.getMessage());
+        }
+
+        // Servidor: registros binários parametrizados para um coletor TCP local
+        System.out.println("\n--- Envio binário ao coletor ---");
+        try (ColetorLog coletor = new ColetorLog(0, null, true)) {
+            RedeBinariaSink rede = new RedeBinariaSink("127.0.0.1", coletor.porta(), 64 * 1024, new LogBinario.Modelos());
+            logger.configurarSinks(rede);
+            logger.logEvento("Pedido {} aprovado em {} ms", 42L, 7L);
+            logger.logErro("Falha ao contatar {}", "gateway-pagamentos");
+            rede.close();
+            while (coletor.registros() < 2) Thread.sleep(10);
+        } catch (IOException e) {
+            System.err.println("Falha no demo de rede: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Métricas do próprio logger: snapshot sob demanda e o mesmo conteúdo via JMX
+        System.out.println("\n--- Métricas do logger ---");
+        try {
+            ObjectName nome = logger.metricas().registrarJmx();
+            Object erros = ManagementFactory.getPlatformMBeanServer().getAttribute(nome, "EventosErro");
+            System.out.println("JMX " + nome + " EventosErro=" + erros);
+        } catch (JMException e) {
+            System.err.println("Falha ao registrar MBean: " + e.getMessage());
+        }
+        System.out.println(logger.metricas().snapshot());
     }
 }
\ No newline at end of file
@@ -0,0 +1,267 @@
+package Questao5;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Sink persistente: log append-only em segmentos de tamanho fixo mapeados em memória.
+// Registro: [int tamanho][int crc32][long timestamp nanos][byte severidade][mensagem UTF-8],
+// onde tamanho/crc cobrem o payload. Um tamanho 0 marca o fim do segmento.
+// Commit em grupo: o lote inteiro é copiado para o mapeamento e o fsync (force) ocorre
+// - imediatamente se o lote contém AUDITORIA (durável ao retornar);
+// - para os demais, no máximo a cada intervaloFsyncMillis, inclusive com o logger ocioso (uma
+//   verificação agendada sincroniza o que ficou pendente depois do último lote).
+// flush() não força o disco: o que foi copiado já está visível a outros processos pelo mapeamento.
+// Mensagem que não cabe num segmento é truncada (com a marca " [truncado]"), sem interromper o lote.
+// Na abertura, o último segmento é varrido e o que vier depois do último registro íntegro
+// (escrita interrompida por queda) é zerado.
+final class ArquivoMapeadoSink implements LogSink {
+    private static final int CABECALHO = 4 + 4;
+    private static final int FIXO_PAYLOAD = 8 + 1;
+    private static final Severidade[] SEVERIDADES = Severidade.values();
+    private static final byte[] TRUNCADO = " [truncado]".getBytes(StandardCharsets.UTF_8);
+
+    // Uma thread para as sincronizações periódicas de todos os sinks mapeados
+    private static final ScheduledExecutorService SINCRONIZADOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "log-fsync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final long rolarAposMillis;
+    private final long intervaloFsyncMillis;
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel canal;
+    private MappedByteBuffer mapa;
+    private int numeroSegmento;
+    private long segmentoAbertoEm;
+    private int inicioPendente;   // início do trecho ainda não sincronizado com o disco
+    private long ultimoFsync;
+    private long bytesGravados;
+    private long eventosGravados;
+    private long fsyncs;
+    private boolean fechado;
+    private final ScheduledFuture<?> sincronizacaoPeriodica;
+
+    ArquivoMapeadoSink(Path diretorio, int tamanhoSegmento, long rolarAposMillis, long intervaloFsyncMillis) {
+        if (tamanhoSegmento < CABECALHO + FIXO_PAYLOAD + CABECALHO) {
+            throw new IllegalArgumentException("Segmento menor que um registro vazio mais o marcador de fim: " + tamanhoSegmento);
+        }
+        if (rolarAposMillis <= 0) throw new IllegalArgumentException("rolarAposMillis deve ser positivo");
+        if (intervaloFsyncMillis < 0) throw new IllegalArgumentException("intervaloFsyncMillis não pode ser negativo");
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.rolarAposMillis = rolarAposMillis;
+        this.intervaloFsyncMillis = intervaloFsyncMillis;
+        try {
+            Files.createDirectories(diretorio);
+            List<Path> segmentos = segmentos(diretorio);
+            if (segmentos.isEmpty()) {
+                abrir(1);
+            } else {
+                Path ultimo = segmentos.get(segmentos.size() - 1);
+                abrir(numero(ultimo));
+                recuperar();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir log em " + diretorio, e);
+        }
+        sincronizacaoPeriodica = intervaloFsyncMillis > 0
+                ? SINCRONIZADOR.scheduleWithFixedDelay(this::sincronizarOcioso, intervaloFsyncMillis,
+                        intervaloFsyncMillis, TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+    @Override
+    public synchronized void escrever(LogEvent[] eventos, int quantidade) {
+        boolean auditoria = false;
+        try {
+            for (int i = 0; i < quantidade; i++) {
+                LogEvent e = eventos[i];
+                byte[] texto = caber(e.mensagem().getBytes(StandardCharsets.UTF_8));
+                int payload = FIXO_PAYLOAD + texto.length;
+                // reserva espaço para o marcador de fim (tamanho 0) após o registro
+                if (mapa.position() + CABECALHO + payload + CABECALHO > tamanhoSegmento
+                        || (mapa.position() > 0 && e.timestampMillis() - segmentoAbertoEm >= rolarAposMillis)) {
+                    rolar();
+                }
+                int inicio = mapa.position();
+                mapa.position(inicio + CABECALHO);
+                mapa.putLong(e.timestampNanos).put((byte) e.severidade.ordinal()).put(texto);
+                crc.reset();
+                crc.update(mapa.duplicate().position(inicio + CABECALHO).limit(mapa.position()));
+                mapa.putInt(inicio + 4, (int) crc.getValue());
+                mapa.putInt(inicio, payload); // tamanho por último: registro só é visível completo
+                bytesGravados += CABECALHO + payload;
+                eventosGravados++;
+                auditoria |= e.severidade == Severidade.AUDITORIA;
+            }
+        } finally {
+            // Mesmo com falha no meio do lote, a AUDITORIA já copiada tem de chegar ao disco
+            if (auditoria || System.currentTimeMillis() - ultimoFsync >= intervaloFsyncMillis) forcar();
+        }
+    }
+
+    // Texto que cabe num segmento vazio; o excedente é cortado numa fronteira de caractere UTF-8
+    private byte[] caber(byte[] texto) {
+        int max = tamanhoSegmento - CABECALHO - FIXO_PAYLOAD - CABECALHO;
+        if (texto.length <= max) return texto;
+        int marca = TRUNCADO.length <= max ? TRUNCADO.length : 0;
+        int corte = max - marca;
+        while (corte > 0 && (texto[corte] & 0xC0) == 0x80) corte--; // não parte um caractere ao meio
+        byte[] curto = new byte[corte + marca];
+        System.arraycopy(texto, 0, curto, 0, corte);
+        System.arraycopy(TRUNCADO, 0, curto, corte, marca);
+        return curto;
+    }
+
+    // Chamado pelos pipelines após cada lote: os registros já estão no mapeamento, então só força o
+    // disco se o intervalo venceu (a AUDITORIA já foi forçada em escrever)
+    @Override
+    public synchronized void flush() {
+        if (fechado) return;
+        if (System.currentTimeMillis() - ultimoFsync >= intervaloFsyncMillis) forcar();
+    }
+
+    // Sincroniza com o disco tudo o que ainda está pendente (msync)
+    synchronized void forcar() {
+        if (!fechado) sincronizar(System.currentTimeMillis());
+    }
+
+    // Verificação periódica: dados pendentes há mais de um intervalo sem novos lotes
+    private synchronized void sincronizarOcioso() {
+        if (fechado || mapa.position() == inicioPendente) return;
+        if (System.currentTimeMillis() - ultimoFsync >= intervaloFsyncMillis) forcar();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (fechado) return;
+        if (sincronizacaoPeriodica != null) sincronizacaoPeriodica.cancel(false);
+        forcar();
+        fechado = true;
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized long bytesGravados() { return bytesGravados; }
+    synchronized long eventosGravados() { return eventosGravados; }
+    synchronized long fsyncs() { return fsyncs; }
+    synchronized int segmentoAtual() { return numeroSegmento; }
+
+    // Lê todos os registros íntegros dos segmentos do diretório, em ordem
+    static int ler(Path diretorio, Consumer<LogEvent> destino) throws IOException {
+        int total = 0;
+        for (Path seg : segmentos(diretorio)) {
+            try (FileChannel ch = FileChannel.open(seg, StandardOpenOption.READ)) {
+                ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                LogEvent evento = new LogEvent();
+                CRC32 verificador = new CRC32();
+                while (proximoValido(buf, verificador) > 0) {
+                    int payload = buf.getInt();
+                    buf.getInt(); // crc
+                    long ts = buf.getLong();
+                    Severidade sev = SEVERIDADES[buf.get()];
+                    byte[] texto = new byte[payload - FIXO_PAYLOAD];
+                    buf.get(texto);
+                    evento.set(sev, new String(texto, StandardCharsets.UTF_8), null, ts, 0);
+                    destino.accept(evento);
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
+    // Tamanho do payload do registro na posição atual, ou 0 se não houver registro íntegro ali
+    private static int proximoValido(ByteBuffer buf, CRC32 crc) {
+        int pos = buf.position();
+        if (pos + CABECALHO > buf.limit()) return 0;
+        int payload = buf.getInt(pos);
+        if (payload < FIXO_PAYLOAD || pos + CABECALHO + payload > buf.limit()) return 0;
+        crc.reset();
+        crc.update(buf.duplicate().position(pos + CABECALHO).limit(pos + CABECALHO + payload));
+        return (int) crc.getValue() == buf.getInt(pos + 4) ? payload : 0;
+    }
+
+    private void recuperar() {
+        mapa.position(0);
+        int payload;
+        CRC32 verificador = new CRC32();
+        while ((payload = proximoValido(mapa, verificador)) > 0) {
+            mapa.position(mapa.position() + CABECALHO + payload);
+        }
+        // descarta restos de uma escrita interrompida
+        int fim = mapa.position();
+        for (int i = fim; i < tamanhoSegmento; i++) {
+            if (mapa.get(i) != 0) {
+                for (int j = i; j < tamanhoSegmento; j++) mapa.put(j, (byte) 0);
+                break;
+            }
+        }
+        mapa.force();
+        inicioPendente = fim;
+    }
+
+    private void rolar() {
+        sincronizar(System.currentTimeMillis());
+        try {
+            canal.close();
+            abrir(numeroSegmento + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao rolar segmento de log", e);
+        }
+    }
+
+    private void abrir(int numero) throws IOException {
+        Path arquivo = diretorio.resolve(String.format("segmento-%08d.log", numero));
+        canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+        numeroSegmento = numero;
+        segmentoAbertoEm = System.currentTimeMillis();
+        inicioPendente = 0;
+    }
+
+    private void sincronizar(long agora) {
+        int fim = mapa.position();
+        if (fim > inicioPendente) {
+            mapa.force(inicioPendente, fim - inicioPendente);
+            fsyncs++;
+        }
+        inicioPendente = fim;
+        ultimoFsync = agora;
+    }
+
+    private static List<Path> segmentos(Path diretorio) throws IOException {
+        List<Path> lista = new ArrayList<>();
+        if (!Files.isDirectory(diretorio)) return lista;
+        try (Stream<Path> s = Files.list(diretorio)) {
+            s.filter(p -> p.getFileName().toString().matches("segmento-\\d{8}\\.log")).sorted().forEach(lista::add);
+        }
+        return lista;
+    }
+
+    private static int numero(Path segmento) {
+        String nome = segmento.getFileName().toString();
+        return Integer.parseInt(nome.substring("segmento-".length(), nome.length() - ".log".length()));
+    }
+}
@@ -0,0 +1,173 @@
+package Questao5;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Caminho assíncrono do SistemaLogger. Quem loga só reserva uma posição do ring buffer (CAS),
+// preenche o evento pré-alocado e o publica; um único consumidor drena lotes, formata e grava
+// nos sinks fora da thread chamadora. Sem locks e sem alocação no caminho de quem loga.
+// No close(), depois que o consumidor para, o que ainda foi reservado é drenado e a sequência é
+// selada (bit de sinal): reservas posteriores recebem FECHADO e nada é perdido em silêncio.
+final class AsyncLogPipeline implements LogPipeline {
+
+    enum PoliticaFilaCheia {
+        BLOQUEAR,                   // espera espaço para qualquer severidade
+        DESCARTAR_MENOR_SEVERIDADE, // descarta EVENTO; ERRO e AUDITORIA esperam
+        AMOSTRAR                    // mantém 1 de cada N EVENTOs (os demais são descartados); ERRO e AUDITORIA esperam
+    }
+
+    private final LogEvent[] slots;
+    private final AtomicLongArray publicados; // sequência publicada em cada slot
+    private final int mascara;
+    private final AtomicLong proximo = new AtomicLong(); // próxima sequência a reservar (negativa = selada)
+    private volatile long consumido;                     // sequências < consumido já foram gravadas
+
+    private final LogSink[] sinks;
+    private final int tamanhoLote;
+    private final PoliticaFilaCheia politica;
+    private final int taxaAmostragem;
+    private final AtomicLong eventosNaFilaCheia = new AtomicLong();
+
+    private final LongAdder descartados = new LongAdder();
+    private final LoggerMetrics metricas;
+    private final Thread consumidor;
+    private volatile boolean ativo = true;
+
+    AsyncLogPipeline(LogSink[] sinks, int capacidade, int tamanhoLote, PoliticaFilaCheia politica, int taxaAmostragem,
+                     LoggerMetrics metricas) {
+        if (capacidade <= 0 || tamanhoLote <= 0 || taxaAmostragem <= 0) {
+            throw new IllegalArgumentException("Capacidade, lote e taxa de amostragem devem ser positivos");
+        }
+        int cap = 1;
+        while (cap < capacidade) cap <<= 1;
+        this.slots = new LogEvent[cap];
+        for (int i = 0; i < cap; i++) slots[i] = new LogEvent();
+        this.publicados = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) publicados.set(i, -1);
+        this.mascara = cap - 1;
+        this.sinks = sinks.clone();
+        this.tamanhoLote = tamanhoLote;
+        this.politica = politica;
+        this.taxaAmostragem = taxaAmostragem;
+        this.metricas = metricas;
+        this.consumidor = new Thread(this::consumir, "logger-async");
+        this.consumidor.setDaemon(true);
+        this.consumidor.start();
+    }
+
+    // DESCARTADO se a política de fila cheia descartou o evento
+    @Override
+    public int publicar(Severidade severidade, String template, Object[] args, long timestampNanos, long threadId) {
+        long seq = reservar(severidade);
+        if (seq == SELADO) return FECHADO;
+        if (seq < 0) {
+            descartados.increment();
+            if (seq == AMOSTRADO) metricas.amostrado();
+            else metricas.descartadoFilaCheia();
+            return DESCARTADO;
+        }
+        slots[(int) seq & mascara].set(severidade, template, args, timestampNanos, threadId);
+        publicados.lazySet((int) seq & mascara, seq); // publicação com semântica release
+        return PUBLICADO;
+    }
+
+    private static final long NAO_RESERVADO = -1, AMOSTRADO = -2, SELADO = -3;
+
+    private long reservar(Severidade severidade) {
+        boolean decidiu = false;
+        int tentativas = 0;
+        while (true) {
+            long seq = proximo.get();
+            if (seq < 0) return SELADO;
+            if (seq - consumido < slots.length) {
+                if (proximo.compareAndSet(seq, seq + 1)) return seq;
+                continue;
+            }
+            if (!ativo) return SELADO; // encerrando com a fila cheia: quem chamou grava direto
+            // Fila cheia: decide uma vez por evento se ele espera ou é descartado
+            if (!decidiu && severidade.descartavel()) {
+                if (politica == PoliticaFilaCheia.DESCARTAR_MENOR_SEVERIDADE) return NAO_RESERVADO;
+                if (politica == PoliticaFilaCheia.AMOSTRAR
+                        && eventosNaFilaCheia.getAndIncrement() % taxaAmostragem != 0) return AMOSTRADO;
+            }
+            decidiu = true;
+            if (++tentativas < 100) Thread.onSpinWait();
+            else LockSupport.parkNanos(1_000);
+        }
+    }
+
+    private void consumir() {
+        LogEvent[] lote = new LogEvent[tamanhoLote];
+        int ocioso = 0;
+        while (true) {
+            int n = drenar(lote);
+            if (n > 0) {
+                gravar(lote, n);
+                ocioso = 0;
+                continue;
+            }
+            if (!ativo && proximo.get() == consumido) break;
+            if (++ocioso < 100) Thread.onSpinWait();
+            else LockSupport.parkNanos(100_000);
+        }
+        for (LogSink s : sinks) s.flush();
+    }
+
+    private int drenar(LogEvent[] lote) {
+        long seq = consumido;
+        int n = 0;
+        while (n < lote.length && publicados.get((int) (seq + n) & mascara) == seq + n) {
+            lote[n] = slots[(int) (seq + n) & mascara];
+            n++;
+        }
+        return n;
+    }
+
+    private void gravar(LogEvent[] lote, int n) {
+        long t0 = System.nanoTime();
+        for (LogSink s : sinks) {
+            try {
+                s.escrever(lote, n);
+                s.flush();
+            } catch (RuntimeException e) {
+                metricas.erroSink();
+                System.err.println("Erro no sink de log: " + e.getMessage());
+            }
+        }
+        metricas.lote(n, System.nanoTime() - t0, (int) (proximo.get() - consumido));
+        for (int i = 0; i < n; i++) lote[i].limpar(); // não retém mensagens já gravadas
+        consumido += n; // só o consumidor escreve: libera os slots para os produtores
+    }
+
+    @Override
+    public long descartados() { return descartados.sum(); }
+
+    @Override
+    public int profundidade() { return (int) ((proximo.get() & Long.MAX_VALUE) - consumido); }
+
+    @Override
+    public void close() {
+        ativo = false;
+        try {
+            consumidor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Reservas feitas por quem leu "ativo" antes da troca podem chegar depois que o consumidor saiu:
+        // esta thread drena até alcançar a última reserva e sela a sequência com um CAS
+        LogEvent[] lote = new LogEvent[tamanhoLote];
+        while (true) {
+            long fim = proximo.get();
+            if (fim < 0) return; // já selado por outro close()
+            while (consumido < fim) {
+                int n = drenar(lote);
+                if (n > 0) gravar(lote, n);
+                else Thread.onSpinWait(); // reserva ainda sendo preenchida
+            }
+            if (proximo.compareAndSet(fim, fim | Long.MIN_VALUE)) break;
+        }
+        for (LogSink s : sinks) s.flush();
+    }
+}
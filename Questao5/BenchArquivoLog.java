@@ -0,0 +1,84 @@
+package Questao5;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Vazão do ArquivoMapeadoSink (segmentos mapeados + commit em grupo) contra um BufferedWriter
+// de texto com flush por lote. Mede MB/s e eventos/s com lotes do tamanho que o modo
+// assíncrono entrega, e o custo extra quando parte dos eventos é de auditoria (fsync por lote).
+// Uso: java Questao5.BenchArquivoLog [eventos] [tamanhoLote] [diretorio]
+public class BenchArquivoLog {
+
+    public static void main(String[] args) throws IOException {
+        int eventos = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int lote = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        Path base = args.length > 2 ? Paths.get(args[2]) : Files.createTempDirectory("bench-log");
+
+        LogEvent[] buffer = new LogEvent[lote];
+        for (int i = 0; i < lote; i++) {
+            buffer[i] = new LogEvent(Severidade.EVENTO, "Pedido " + i + " processado para o cliente c-" + (i * 31) + " em 12 ms", 0);
+        }
+        System.out.printf("=== Arquivo de log: %,d eventos, lotes de %d, em %s ===%n", eventos, lote, base);
+
+        for (int rodada = 0; rodada < 2; rodada++) {
+            boolean imprimir = rodada == 1;
+            medirBuffered(base.resolve("buffered-" + rodada + ".log"), buffer, eventos, imprimir);
+            medirMapeado(base.resolve("mapeado-" + rodada), buffer, eventos, 0, imprimir);
+            medirMapeado(base.resolve("mapeado-auditoria-" + rodada), buffer, eventos / 20, 1, imprimir);
+        }
+        apagar(base);
+    }
+
+    static void medirMapeado(Path dir, LogEvent[] lote, int eventos, int auditoriaACada, boolean imprimir) {
+        if (auditoriaACada > 0) lote[0].severidade = Severidade.AUDITORIA; // um evento de auditoria por lote
+        ArquivoMapeadoSink sink = new ArquivoMapeadoSink(dir, 64 << 20, Long.MAX_VALUE, 1_000);
+        long t0 = System.nanoTime();
+        for (int feitos = 0; feitos < eventos; feitos += lote.length) {
+            long agora = LogEvent.agoraNanos();
+            for (LogEvent e : lote) e.timestampNanos = agora;
+            sink.escrever(lote, lote.length);
+        }
+        sink.close();
+        long ns = System.nanoTime() - t0;
+        lote[0].severidade = Severidade.EVENTO;
+        if (imprimir) {
+            imprimir(auditoriaACada > 0 ? "mapeado (auditoria/lote)" : "mapeado (fsync 1s)", sink.bytesGravados(),
+                    sink.eventosGravados(), ns, " | fsyncs=" + sink.fsyncs() + " | segmentos=" + sink.segmentoAtual());
+        }
+    }
+
+    static void medirBuffered(Path arquivo, LogEvent[] lote, int eventos, boolean imprimir) throws IOException {
+        long bytes = 0, n = 0;
+        long t0 = System.nanoTime();
+        try (BufferedWriter w = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            for (int feitos = 0; feitos < eventos; feitos += lote.length) {
+                long agora = System.currentTimeMillis();
+                for (LogEvent e : lote) {
+                    String linha = Instant.ofEpochMilli(agora) + " " + e.texto() + "\n";
+                    w.write(linha);
+                    bytes += linha.length();
+                    n++;
+                }
+                w.flush();
+            }
+        }
+        long ns = System.nanoTime() - t0;
+        if (imprimir) imprimir("BufferedWriter", bytes, n, ns, "");
+    }
+
+    static void imprimir(String nome, long bytes, long eventos, long ns, String extra) {
+        double s = ns / 1e9;
+        System.out.printf("%-26s %8.1f MB/s | %,12.0f eventos/s%s%n", nome, bytes / 1e6 / s, eventos / s, extra);
+    }
+
+    static void apagar(Path base) throws IOException {
+        try (Stream<Path> s = Files.walk(base)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
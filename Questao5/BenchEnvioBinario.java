@@ -0,0 +1,100 @@
+package Questao5;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+// Envio ao servidor: texto formatado, uma escrita por evento (como enviarServidor hoje),
+// contra o RedeBinariaSink (registros binários parametrizados, quadros em lote, escrita gather)
+// para o ColetorLog local. Mede CPU da thread que envia e bytes por evento.
+// Uso: java Questao5.BenchEnvioBinario [eventos] [tamanhoLote]
+public class BenchEnvioBinario {
+
+    public static void main(String[] args) throws Exception {
+        int eventos = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lote = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        System.out.printf("=== Envio ao servidor: %,d eventos, lotes de %d ===%n", eventos, lote);
+        for (int rodada = 0; rodada < 2; rodada++) {
+            boolean imprimir = rodada == 1;
+            medirTexto(eventos, imprimir);
+            medirBinario(eventos, lote, imprimir);
+        }
+    }
+
+    static void medirTexto(int eventos, boolean imprimir) throws IOException {
+        try (ServerSocketChannel servidor = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0))) {
+            Thread descarte = descartar(servidor);
+            long bytes = 0;
+            long cpu0 = cpu(), t0 = System.nanoTime();
+            try (SocketChannel canal = SocketChannel.open(servidor.getLocalAddress())) {
+                for (int i = 0; i < eventos; i++) {
+                    String msg = "Pedido " + i + " processado para o cliente c-" + (i % 1000) + " em " + (i % 50) + " ms";
+                    String linha = LocalDateTime.now() + " -> Enviando ao servidor externo: [EVENTO] " + msg + "\n";
+                    ByteBuffer b = ByteBuffer.wrap(linha.getBytes(StandardCharsets.UTF_8));
+                    bytes += b.remaining();
+                    while (b.hasRemaining()) canal.write(b);
+                }
+            }
+            long ns = System.nanoTime() - t0, cpuNs = cpu() - cpu0;
+            descarte.interrupt();
+            if (imprimir) imprimir("texto (1 escrita/evento)", eventos, bytes, ns, cpuNs);
+        }
+    }
+
+    static void medirBinario(int eventos, int lote, boolean imprimir) throws IOException, InterruptedException {
+        try (ColetorLog coletor = new ColetorLog(0, null, false)) {
+            RedeBinariaSink sink = new RedeBinariaSink("127.0.0.1", coletor.porta(), 256 * 1024, new LogBinario.Modelos());
+            LogEvent[] buffer = new LogEvent[lote];
+            for (int i = 0; i < lote; i++) buffer[i] = new LogEvent();
+            long cpu0 = cpu(), t0 = System.nanoTime();
+            for (int feitos = 0; feitos < eventos; feitos += lote) {
+                int n = Math.min(lote, eventos - feitos);
+                for (int k = 0; k < n; k++) {
+                    int i = feitos + k;
+                    buffer[k].set(Severidade.EVENTO, "Pedido {} processado para o cliente {} em {} ms",
+                            new Object[] { (long) i, "c-" + (i % 1000), (long) (i % 50) }, LogEvent.agoraNanos(), 1);
+                }
+                sink.escrever(buffer, n);
+            }
+            long ns = System.nanoTime() - t0, cpuNs = cpu() - cpu0;
+            sink.close();
+            while (coletor.registros() < sink.registrosEnviados()) Thread.sleep(1);
+            if (imprimir) {
+                imprimir("binário (quadros em lote)", eventos, sink.bytesEnviados(), ns, cpuNs);
+                System.out.printf("%-28s coletor recebeu %,d registros em %,d quadros%n", "",
+                        coletor.registros(), sink.quadrosEnviados());
+            }
+        }
+    }
+
+    static void imprimir(String nome, int eventos, long bytes, long ns, long cpuNs) {
+        System.out.printf("%-28s %6.1f bytes/evento | CPU %6.0f ns/evento | %,10.0f eventos/s%n",
+                nome, (double) bytes / eventos, (double) cpuNs / eventos, eventos / (ns / 1e9));
+    }
+
+    static long cpu() {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        return mx.isCurrentThreadCpuTimeSupported() ? mx.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    // Servidor que só lê e descarta, para o caminho de texto
+    static Thread descartar(ServerSocketChannel servidor) {
+        Thread t = new Thread(() -> {
+            ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024);
+            try (SocketChannel c = servidor.accept()) {
+                while (c.read(buf) >= 0) buf.clear();
+            } catch (IOException e) {
+                // fim do teste
+            }
+        }, "descarte");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+}
@@ -0,0 +1,65 @@
+package Questao5;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+// Latência do lado de quem loga: caminho síncrono atual x modo assíncrono (ring buffer).
+// Os sinks formatam o texto normalmente, mas escrevem num stream descartável que simula
+// o custo de I/O (espera ativa por escrita), para a comparação não depender do terminal.
+// Uso: java Questao5.BenchLoggerAssincrono [chamadas] [custoIoNanos]
+public class BenchLoggerAssincrono {
+
+    public static void main(String[] args) {
+        int chamadas = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        long custoIo = args.length > 1 ? Long.parseLong(args[1]) : 2_000;
+
+        PrintStream io = new PrintStream(new IoSimulado(custoIo), false);
+        SistemaLogger logger = SistemaLogger.getInstancia();
+        logger.configurarSinks(ConsoleSinks.arquivo(io), ConsoleSinks.servidor(io));
+
+        System.out.printf("=== SistemaLogger: %,d chamadas, I/O simulado de %d ns por escrita ===%n", chamadas, custoIo);
+        for (int rodada = 0; rodada < 2; rodada++) { // primeira rodada aquece o JIT
+            boolean imprimir = rodada == 1;
+            medir("síncrono", logger, chamadas / 10, imprimir);
+            logger.ativarModoAssincrono(1 << 16, 256, AsyncLogPipeline.PoliticaFilaCheia.BLOQUEAR, 1);
+            medir("assíncrono (BLOQUEAR)", logger, chamadas, imprimir);
+            logger.desativarModoAssincrono();
+            logger.ativarModoAssincrono(1 << 16, 256, AsyncLogPipeline.PoliticaFilaCheia.DESCARTAR_MENOR_SEVERIDADE, 1);
+            medir("assíncrono (DESCARTAR)", logger, chamadas, imprimir);
+            if (imprimir) System.out.printf("%-24s descartados=%d%n", "", logger.eventosDescartados());
+            logger.desativarModoAssincrono();
+        }
+    }
+
+    static void medir(String nome, SistemaLogger logger, int n, boolean imprimir) {
+        long[] lat = new long[n];
+        long inicio = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            long t0 = System.nanoTime();
+            logger.logEvento("pedido processado");
+            lat[i] = System.nanoTime() - t0;
+        }
+        long total = System.nanoTime() - inicio;
+        if (!imprimir) return;
+        Arrays.sort(lat);
+        System.out.printf("%-24s p50=%6d ns | p99=%7d ns | p99.9=%8d ns | %,.0f chamadas/s%n",
+                nome, lat[n / 2], lat[(int) (n * 0.99)], lat[(int) (n * 0.999)], n / (total / 1e9));
+    }
+
+    // Descarta os bytes, mas cobra um custo fixo por escrita, como um arquivo ou socket lento
+    static final class IoSimulado extends OutputStream {
+        private final long custoNanos;
+
+        IoSimulado(long custoNanos) { this.custoNanos = custoNanos; }
+
+        @Override
+        public void write(int b) { }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            long fim = System.nanoTime() + custoNanos;
+            while (System.nanoTime() < fim) Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package Questao5;
+
+import java.util.concurrent.CountDownLatch;
+
+// Escalabilidade de 1 a 64 threads logando ao mesmo tempo: caminho síncrono (todas as threads
+// passam pelo lock do sink, como acontece com System.out), ring único compartilhado (CAS na
+// mesma sequência) e buffers por thread (sem estado compartilhado no caminho de quem loga).
+// O sink só conta os eventos sob um lock, para o custo medido ser o da disputa, não o do I/O.
+// A vazão conta só os eventos aceitos: EVENTOs descartados por buffer cheio aparecem à parte.
+// Ao final, o modo por thread roda com amostragem e limite de taxa para mostrar os descartes.
+// Uso: java Questao5.BenchLoggerPorThread [eventosPorThread] [maxThreads]
+public class BenchLoggerPorThread {
+
+    public static void main(String[] args) throws InterruptedException {
+        int porThread = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        SistemaLogger logger = SistemaLogger.getInstancia();
+        ContadorSink sink = new ContadorSink();
+        logger.configurarSinks(sink);
+
+        System.out.printf("=== SistemaLogger: %,d eventos por thread, %d núcleo(s) ===%n",
+                porThread, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %16s %16s %16s %12s%n", "threads", "síncrono", "ring único", "por thread",
+                "descartados");
+        for (int rodada = 0; rodada < 2; rodada++) { // primeira rodada aquece o JIT
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                double sinc = medir(logger, threads, porThread);
+                logger.ativarModoAssincrono(1 << 16, 256, AsyncLogPipeline.PoliticaFilaCheia.BLOQUEAR, 1);
+                double ring = medir(logger, threads, porThread);
+                logger.desativarModoAssincrono();
+                logger.ativarModoPorThread(1 << 12, 256, null);
+                long antes = logger.eventosDescartados();
+                double local = medir(logger, threads, porThread);
+                double descartados = 100.0 * (logger.eventosDescartados() - antes) / ((long) threads * porThread);
+                logger.desativarModoAssincrono();
+                if (rodada == 1) {
+                    System.out.printf("%-8d %11.2f M/s %11.2f M/s %11.2f M/s %11.1f%%%n", threads, sinc, ring, local,
+                            descartados);
+                }
+            }
+        }
+
+        // Enxurrada de EVENTOs com 10% de amostragem e 10 mil eventos/s por modelo; ERROs passam todos
+        int threads = Math.min(8, maxThreads);
+        LimitadorEventos limitador = new LimitadorEventos(0.1, 10_000, 1_000, 1024);
+        logger.ativarModoPorThread(1 << 12, 256, limitador);
+        long antes = sink.eventos();
+        medir(logger, threads, porThread);
+        logger.logErro("erro após a enxurrada");
+        long descartados = logger.eventosDescartados();
+        logger.desativarModoAssincrono();
+        System.out.printf("%nCom limitador (%d threads x %,d EVENTOs + 1 ERRO): gravados=%,d | descartados=%,d%n",
+                threads, porThread, sink.eventos() - antes, descartados);
+    }
+
+    // Vazão agregada (milhões de eventos aceitos/s) do ponto de vista de quem loga; os descartados pelo
+    // modo assíncrono ativo durante a medição não entram
+    static double medir(SistemaLogger logger, int threads, int porThread) throws InterruptedException {
+        long descartadosAntes = logger.eventosDescartados();
+        CountDownLatch largada = new CountDownLatch(1);
+        Thread[] ts = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            ts[t] = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < porThread; i++) logger.logEvento("pedido processado");
+            });
+            ts[t].start();
+        }
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Thread t : ts) t.join();
+        long total = System.nanoTime() - inicio;
+        long aceitos = (long) threads * porThread - (logger.eventosDescartados() - descartadosAntes);
+        return aceitos / (total / 1e3);
+    }
+
+    // Conta eventos sob um lock, como o PrintStream faz em cada escrita
+    static final class ContadorSink implements LogSink {
+        private long eventos;
+
+        @Override
+        public synchronized void escrever(LogEvent[] lote, int quantidade) {
+            eventos += quantidade;
+        }
+
+        synchronized long eventos() { return eventos; }
+    }
+}
@@ -0,0 +1,118 @@
+package Questao5;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Coletor TCP local que faz o papel do servidor externo: aceita conexões do RedeBinariaSink,
+// decodifica os quadros e imprime (ou só conta) os registros. Opcionalmente grava os quadros
+// brutos num arquivo, que pode ser lido depois com DecodificadorLog.
+// Uso: java Questao5.ColetorLog [porta] [arquivoQuadros|-] [--silencioso]
+public class ColetorLog implements AutoCloseable {
+    private final ServerSocketChannel servidor;
+    private final FileChannel dump;
+    private final boolean imprimir;
+    private final AtomicLong registros = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Thread aceitador;
+
+    public ColetorLog(int porta, Path arquivoQuadros, boolean imprimir) throws IOException {
+        this.servidor = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", porta));
+        this.dump = arquivoQuadros == null ? null : FileChannel.open(arquivoQuadros,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.imprimir = imprimir;
+        this.aceitador = new Thread(this::aceitar, "coletor-log");
+        this.aceitador.setDaemon(true);
+        this.aceitador.start();
+    }
+
+    public int porta() throws IOException {
+        return ((InetSocketAddress) servidor.getLocalAddress()).getPort();
+    }
+
+    public long registros() { return registros.get(); }
+    public long bytes() { return bytes.get(); }
+
+    private void aceitar() {
+        while (servidor.isOpen()) {
+            try {
+                SocketChannel conexao = servidor.accept();
+                Thread t = new Thread(() -> atender(conexao), "coletor-conexao");
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                return; // servidor fechado
+            }
+        }
+    }
+
+    private void atender(SocketChannel conexao) {
+        LogBinario.Decodificador decodificador = new LogBinario.Decodificador();
+        ByteBuffer cabecalho = ByteBuffer.allocate(LogBinario.CABECALHO_QUADRO);
+        ByteBuffer corpo = ByteBuffer.allocate(64 * 1024);
+        try (SocketChannel c = conexao) {
+            while (true) {
+                cabecalho.clear();
+                lerTudo(c, cabecalho);
+                cabecalho.flip();
+                int tamanho = cabecalho.getInt(), itens = cabecalho.getInt();
+                if (corpo.capacity() < tamanho) corpo = ByteBuffer.allocate(Integer.highestOneBit(tamanho) << 1);
+                corpo.clear().limit(tamanho);
+                lerTudo(c, corpo);
+                corpo.flip();
+                if (dump != null) {
+                    synchronized (dump) {
+                        cabecalho.rewind();
+                        ByteBuffer[] quadro = { cabecalho, corpo.duplicate() };
+                        while (quadro[1].hasRemaining()) dump.write(quadro);
+                    }
+                }
+                bytes.addAndGet(LogBinario.CABECALHO_QUADRO + tamanho);
+                registros.addAndGet(decodificador.decodificar(corpo, itens, imprimir ? ColetorLog::imprimir : e -> { }));
+            }
+        } catch (EOFException fim) {
+            // cliente fechou a conexão
+        } catch (IOException e) {
+            System.err.println("Coletor: conexão encerrada com erro: " + e.getMessage());
+        }
+    }
+
+    static void lerTudo(ReadableByteChannel c, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (c.read(buf) < 0) throw new EOFException();
+        }
+    }
+
+    static void imprimir(LogEvent e) {
+        System.out.println(Instant.ofEpochSecond(0, e.timestampNanos) + " thread=" + e.threadId + " " + e.texto());
+    }
+
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+        if (dump != null) dump.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : 5140;
+        Path arquivo = args.length > 1 && !args[1].equals("-") ? Paths.get(args[1]) : null;
+        boolean silencioso = args.length > 2 && args[2].equals("--silencioso");
+        try (ColetorLog coletor = new ColetorLog(porta, arquivo, !silencioso)) {
+            System.out.println("Coletor de logs ouvindo em 127.0.0.1:" + coletor.porta());
+            while (true) {
+                Thread.sleep(5_000);
+                System.out.printf("[coletor] %,d registros | %,d bytes%n", coletor.registros(), coletor.bytes());
+            }
+        }
+    }
+}
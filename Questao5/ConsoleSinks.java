@@ -0,0 +1,52 @@
+package Questao5;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Sinks simulados que reproduzem as mensagens originais do SistemaLogger.
+// Cada lote é montado num único texto e escrito com uma chamada ao PrintStream.
+final class ConsoleSinks {
+    private ConsoleSinks() { }
+
+    // Simula gravação em arquivo
+    static LogSink arquivo(PrintStream out) {
+        return new Simulado(out, " -> Gravando em arquivo: ", "");
+    }
+
+    // Simula envio ao servidor externo
+    static LogSink servidor(PrintStream out) {
+        return new Simulado(out, " -> Enviando ao servidor externo: ", "\n");
+    }
+
+    private static final class Simulado implements LogSink {
+        private final PrintStream out;
+        private final String acao;
+        private final String sufixo;
+        private final StringBuilder sb = new StringBuilder(256);
+        private final ZoneId zona = ZoneId.systemDefault();
+
+        Simulado(PrintStream out, String acao, String sufixo) {
+            this.out = out;
+            this.acao = acao;
+            this.sufixo = sufixo;
+        }
+
+        @Override
+        public synchronized void escrever(LogEvent[] eventos, int quantidade) {
+            sb.setLength(0);
+            for (int i = 0; i < quantidade; i++) {
+                LogEvent e = eventos[i];
+                sb.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(e.timestampMillis()), zona))
+                  .append(acao).append(e.texto()).append(sufixo).append(System.lineSeparator());
+            }
+            out.print(sb);
+        }
+
+        @Override
+        public void flush() {
+            out.flush();
+        }
+    }
+}
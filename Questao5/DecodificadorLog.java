@@ -0,0 +1,41 @@
+package Questao5;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Ferramenta que lê um arquivo de quadros binários (gravado pelo ColetorLog) e imprime os
+// registros em texto, um por linha.
+// Uso: java Questao5.DecodificadorLog arquivoQuadros
+public class DecodificadorLog {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Uso: java Questao5.DecodificadorLog arquivoQuadros");
+            return;
+        }
+        LogBinario.Decodificador decodificador = new LogBinario.Decodificador();
+        ByteBuffer cabecalho = ByteBuffer.allocate(LogBinario.CABECALHO_QUADRO);
+        long registros = 0, quadros = 0;
+        try (FileChannel arquivo = FileChannel.open(Paths.get(args[0]), StandardOpenOption.READ)) {
+            while (true) {
+                cabecalho.clear();
+                try {
+                    ColetorLog.lerTudo(arquivo, cabecalho);
+                } catch (EOFException fim) {
+                    break;
+                }
+                cabecalho.flip();
+                int tamanho = cabecalho.getInt(), itens = cabecalho.getInt();
+                ByteBuffer corpo = ByteBuffer.allocate(tamanho);
+                ColetorLog.lerTudo(arquivo, corpo);
+                corpo.flip();
+                registros += decodificador.decodificar(corpo, itens, ColetorLog::imprimir);
+                quadros++;
+            }
+        }
+        System.err.printf("%,d registros em %,d quadros%n", registros, quadros);
+    }
+}
@@ -0,0 +1,84 @@
+package Questao5;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Histograma log-linear no estilo HdrHistogram: cada potência de 2 é dividida em 16 faixas,
+// então o erro relativo de um percentil fica abaixo de ~6% em qualquer escala (ns a horas).
+// registrar() é um incremento atômico num array fixo: sem lock e sem alocação.
+final class Histograma {
+    private static final int BITS_SUB = 4;
+    private static final int SUB = 1 << BITS_SUB;
+    private static final int FAIXAS = (64 - BITS_SUB) * SUB;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+    private final LongAdder soma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    void registrar(long valor) {
+        if (valor < 0) valor = 0;
+        contagens.incrementAndGet(faixa(valor));
+        soma.add(valor);
+        long max = maximo.get();
+        while (valor > max && !maximo.compareAndSet(max, valor)) max = maximo.get();
+    }
+
+    static int faixa(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        return (exp - BITS_SUB + 1) * SUB + (int) ((v >>> (exp - BITS_SUB)) & (SUB - 1));
+    }
+
+    // Maior valor que cai na faixa (como o "highest equivalent value" do HdrHistogram)
+    static long limiteSuperior(int faixa) {
+        if (faixa < SUB) return faixa;
+        int exp = faixa / SUB + BITS_SUB - 1;
+        long base = (long) (SUB + faixa % SUB) << (exp - BITS_SUB);
+        return base + (1L << (exp - BITS_SUB)) - 1;
+    }
+
+    Resumo resumo() {
+        long[] c = new long[FAIXAS];
+        long total = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            c[i] = contagens.get(i);
+            total += c[i];
+        }
+        return new Resumo(c, total, soma.sum(), maximo.get());
+    }
+
+    // Cópia consistente o bastante para relatório (as faixas são lidas uma a uma, sem pausar quem registra)
+    static final class Resumo {
+        final long contagem;
+        final double media;
+        final long p50, p90, p99, p999, max;
+
+        private Resumo(long[] c, long total, long soma, long max) {
+            this.contagem = total;
+            this.media = total == 0 ? 0 : (double) soma / total;
+            this.p50 = percentil(c, total, 0.50, max);
+            this.p90 = percentil(c, total, 0.90, max);
+            this.p99 = percentil(c, total, 0.99, max);
+            this.p999 = percentil(c, total, 0.999, max);
+            this.max = max;
+        }
+
+        private static long percentil(long[] c, long total, double q, long max) {
+            if (total == 0) return 0;
+            long alvo = Math.max(1, (long) Math.ceil(total * q));
+            long acumulado = 0;
+            for (int i = 0; i < c.length; i++) {
+                acumulado += c[i];
+                if (acumulado >= alvo) return Math.min(limiteSuperior(i), max);
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d média=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                    contagem, media, p50, p90, p99, p999, max);
+        }
+    }
+}
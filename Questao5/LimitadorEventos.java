@@ -0,0 +1,58 @@
+package Questao5;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Controle de enxurradas de logEvento: amostragem probabilística seguida de um token bucket
+// por categoria (o modelo da mensagem). ERRO e AUDITORIA não passam por aqui.
+// O bucket é guardado como "tempo teórico de chegada" (GCRA) num único AtomicLong: permitir
+// custa um CAS, e rejeitar durante uma enxurrada é só uma leitura, sem disputa entre threads.
+final class LimitadorEventos {
+
+    enum Decisao { PERMITIDO, AMOSTRADO, LIMITADO }
+
+    private final double probabilidade;
+    private final long intervaloNanos;  // custo de um token
+    private final long toleranciaNanos; // rajada * intervalo
+    private final int maxCategorias;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong outras = new AtomicLong(Long.MIN_VALUE); // categorias além do limite dividem um bucket
+
+    // probabilidade: fração de EVENTOs mantida (1.0 = sem amostragem)
+    // eventosPorSegundo/rajada: taxa sustentada e pico por categoria (eventosPorSegundo <= 0 = sem limite)
+    LimitadorEventos(double probabilidade, double eventosPorSegundo, int rajada, int maxCategorias) {
+        if (probabilidade <= 0 || probabilidade > 1) {
+            throw new IllegalArgumentException("Probabilidade de amostragem deve estar em (0, 1]");
+        }
+        if (eventosPorSegundo > 0 && (rajada <= 0 || maxCategorias <= 0)) {
+            throw new IllegalArgumentException("Rajada e número de categorias devem ser positivos");
+        }
+        this.probabilidade = probabilidade;
+        this.intervaloNanos = eventosPorSegundo > 0 ? Math.max(1, (long) (1e9 / eventosPorSegundo)) : 0;
+        this.toleranciaNanos = intervaloNanos * rajada;
+        this.maxCategorias = maxCategorias;
+    }
+
+    Decisao permitir(String categoria, long agoraNanos) {
+        if (probabilidade < 1 && ThreadLocalRandom.current().nextDouble() >= probabilidade) return Decisao.AMOSTRADO;
+        if (intervaloNanos == 0) return Decisao.PERMITIDO;
+        AtomicLong tat = bucket(categoria);
+        while (true) {
+            long atual = tat.get();
+            long novo = Math.max(atual, agoraNanos) + intervaloNanos;
+            if (novo - agoraNanos > toleranciaNanos) return Decisao.LIMITADO; // sem tokens
+            if (tat.compareAndSet(atual, novo)) return Decisao.PERMITIDO;
+        }
+    }
+
+    private AtomicLong bucket(String categoria) {
+        if (categoria == null) return outras;
+        AtomicLong b = buckets.get(categoria);
+        if (b != null) return b;
+        if (buckets.size() >= maxCategorias) return outras;
+        AtomicLong novo = new AtomicLong(Long.MIN_VALUE);
+        b = buckets.putIfAbsent(categoria, novo);
+        return b != null ? b : novo;
+    }
+}
@@ -0,0 +1,173 @@
+package Questao5;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Formato binário compacto dos registros de log enviados ao servidor.
+//
+// Quadro (frame): [int tamanhoCorpo][int quantidadeItens] + corpo com os itens:
+//   'D' varint id, string modelo                      -> definição de modelo (enviada uma vez por conexão)
+//   'R' long timestampNanos, byte severidade, long threadId, int idModelo,
+//       varint quantidadeArgs, argumentos             -> registro
+// Argumento: tag + valor: 0 null | 1 inteiro (varint zigzag) | 2 double (8 bytes)
+//            | 3 string (varint tamanho + UTF-8) | 4 booleano (1 byte)
+// O modelo 0 é "{}": mensagens literais viajam como um único argumento string.
+final class LogBinario {
+    static final int CABECALHO_QUADRO = 8;
+    static final byte DEFINICAO = 'D';
+    static final byte REGISTRO = 'R';
+    static final int MODELO_LITERAL = 0;
+
+    private static final byte NULO = 0, INTEIRO = 1, DOUBLE = 2, TEXTO = 3, BOOLEANO = 4;
+    private static final Severidade[] SEVERIDADES = Severidade.values();
+
+    private LogBinario() { }
+
+    // Ids globais de modelos (estáveis durante a vida do processo)
+    static final class Modelos {
+        private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private final AtomicInteger proximo = new AtomicInteger(MODELO_LITERAL + 1);
+
+        Modelos() {
+            ids.put("{}", MODELO_LITERAL);
+        }
+
+        int id(String modelo) {
+            Integer id = ids.get(modelo);
+            return id != null ? id : ids.computeIfAbsent(modelo, m -> proximo.getAndIncrement());
+        }
+    }
+
+    static void escreverDefinicao(ByteBuffer buf, int id, String modelo) {
+        buf.put(DEFINICAO);
+        putVarint(buf, id);
+        putString(buf, modelo);
+    }
+
+    static void escreverRegistro(ByteBuffer buf, LogEvent e, int idModelo) {
+        buf.put(REGISTRO);
+        buf.putLong(e.timestampNanos).put((byte) e.severidade.ordinal()).putLong(e.threadId).putInt(idModelo);
+        if (e.args == null) {
+            putVarint(buf, 1);
+            buf.put(TEXTO);
+            putString(buf, e.template);
+            return;
+        }
+        putVarint(buf, e.args.length);
+        for (Object a : e.args) putArg(buf, a);
+    }
+
+    private static void putArg(ByteBuffer buf, Object a) {
+        if (a == null) {
+            buf.put(NULO);
+        } else if (a instanceof Long || a instanceof Integer || a instanceof Short || a instanceof Byte) {
+            buf.put(INTEIRO);
+            long v = ((Number) a).longValue();
+            putVarlong(buf, (v << 1) ^ (v >> 63));
+        } else if (a instanceof Double || a instanceof Float) {
+            buf.put(DOUBLE).putDouble(((Number) a).doubleValue());
+        } else if (a instanceof Boolean) {
+            buf.put(BOOLEANO).put((byte) ((Boolean) a ? 1 : 0));
+        } else {
+            buf.put(TEXTO);
+            putString(buf, a.toString());
+        }
+    }
+
+    // ASCII vai direto para o buffer; outros textos passam por getBytes
+    private static void putString(ByteBuffer buf, String s) {
+        int n = s.length();
+        boolean ascii = true;
+        for (int i = 0; i < n && ascii; i++) ascii = s.charAt(i) < 0x80;
+        if (ascii) {
+            putVarint(buf, n);
+            for (int i = 0; i < n; i++) buf.put((byte) s.charAt(i));
+        } else {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            putVarint(buf, b.length);
+            buf.put(b);
+        }
+    }
+
+    static void putVarint(ByteBuffer buf, int v) {
+        putVarlong(buf, v & 0xFFFFFFFFL);
+    }
+
+    static void putVarlong(ByteBuffer buf, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buf.put((byte) v);
+    }
+
+    static long getVarlong(ByteBuffer buf) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int n = (int) getVarlong(buf);
+        byte[] b = new byte[n];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // Decodificador com estado por conexão/arquivo (mantém os modelos já definidos)
+    static final class Decodificador {
+        private final Map<Integer, String> modelos = new HashMap<>();
+
+        Decodificador() {
+            modelos.put(MODELO_LITERAL, "{}");
+        }
+
+        // Decodifica os itens do corpo de um quadro; retorna quantos registros foram entregues
+        int decodificar(ByteBuffer corpo, int itens, Consumer<LogEvent> destino) {
+            int registros = 0;
+            LogEvent evento = new LogEvent();
+            for (int i = 0; i < itens; i++) {
+                byte tipo = corpo.get();
+                if (tipo == DEFINICAO) {
+                    int id = (int) getVarlong(corpo);
+                    modelos.put(id, getString(corpo));
+                } else if (tipo == REGISTRO) {
+                    long ts = corpo.getLong();
+                    Severidade sev = SEVERIDADES[corpo.get()];
+                    long thread = corpo.getLong();
+                    String modelo = modelos.getOrDefault(corpo.getInt(), "<modelo desconhecido>");
+                    Object[] args = new Object[(int) getVarlong(corpo)];
+                    for (int a = 0; a < args.length; a++) args[a] = getArg(corpo);
+                    evento.set(sev, modelo, args, ts, thread);
+                    destino.accept(evento);
+                    registros++;
+                } else {
+                    throw new IllegalStateException("Item de log desconhecido: " + tipo);
+                }
+            }
+            return registros;
+        }
+
+        private static Object getArg(ByteBuffer buf) {
+            switch (buf.get()) {
+                case NULO: return null;
+                case INTEIRO: {
+                    long z = getVarlong(buf);
+                    return (z >>> 1) ^ -(z & 1);
+                }
+                case DOUBLE: return buf.getDouble();
+                case BOOLEANO: return buf.get() != 0;
+                case TEXTO: return getString(buf);
+                default: throw new IllegalStateException("Tipo de argumento desconhecido");
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package Questao5;
+
+// Registro de log. No modo assíncrono as instâncias são pré-alocadas no ring buffer e
+// reutilizadas: um sink só pode usá-las durante a chamada a escrever().
+// A mensagem pode ser literal ou um modelo com "{}" e argumentos; nesse caso o texto só é
+// montado quando algum sink textual pede mensagem() (fora da thread de quem loga, no modo assíncrono).
+final class LogEvent {
+    // Base para timestamps em nanos desde a época com a resolução de System.nanoTime()
+    private static final long BASE_NANOS = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+
+    Severidade severidade;
+    String template;       // mensagem literal ou modelo com "{}"
+    Object[] args;         // null para mensagem literal
+    long timestampNanos;   // nanos desde a época
+    long threadId;
+    private String mensagem; // texto já formatado (cache)
+
+    LogEvent() { }
+
+    LogEvent(Severidade severidade, String mensagem, long timestampNanos) {
+        set(severidade, mensagem, null, timestampNanos, Thread.currentThread().getId());
+    }
+
+    void set(Severidade severidade, String template, Object[] args, long timestampNanos, long threadId) {
+        this.severidade = severidade;
+        this.template = template;
+        this.args = args;
+        this.timestampNanos = timestampNanos;
+        this.threadId = threadId;
+        this.mensagem = null;
+    }
+
+    // Solta as referências depois de gravado (slots reutilizados não retêm mensagens antigas)
+    void limpar() {
+        template = null;
+        args = null;
+        mensagem = null;
+    }
+
+    static long agoraNanos() {
+        return BASE_NANOS + System.nanoTime();
+    }
+
+    long timestampMillis() {
+        return timestampNanos / 1_000_000L;
+    }
+
+    String mensagem() {
+        if (mensagem == null) mensagem = args == null ? template : formatar(template, args);
+        return mensagem;
+    }
+
+    // Texto no formato histórico: "[SEVERIDADE] mensagem"
+    String texto() {
+        return severidade.rotulo() + " " + mensagem();
+    }
+
+    // Substitui cada "{}" pelo próximo argumento; argumentos excedentes são ignorados
+    static String formatar(String template, Object[] args) {
+        StringBuilder sb = new StringBuilder(template.length() + 16 * args.length);
+        int de = 0, arg = 0;
+        int pos;
+        while (arg < args.length && (pos = template.indexOf("{}", de)) >= 0) {
+            sb.append(template, de, pos).append(args[arg++]);
+            de = pos + 2;
+        }
+        return sb.append(template, de, template.length()).toString();
+    }
+}
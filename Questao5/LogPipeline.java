@@ -0,0 +1,24 @@
+package Questao5;
+
+// Caminho assíncrono do SistemaLogger: recebe eventos da thread de quem loga e os grava
+// nos sinks noutra thread. Implementações: AsyncLogPipeline (ring único compartilhado)
+// e ThreadLocalLogPipeline (um buffer por thread, intercalados por timestamp).
+interface LogPipeline extends AutoCloseable {
+
+    // Resultados de publicar()
+    int PUBLICADO = 0;
+    int DESCARTADO = 1; // fila cheia, amostragem ou limite de taxa (contado em descartados())
+    int FECHADO = 2;    // o pipeline já encerrou: quem chamou deve gravar o evento por outro caminho
+
+    // PUBLICADO garante que o evento será gravado, mesmo que close() seja chamado em seguida
+    int publicar(Severidade severidade, String template, Object[] args, long timestampNanos, long threadId);
+
+    long descartados();
+
+    // Eventos publicados e ainda não gravados
+    int profundidade();
+
+    // Para de aceitar eventos, grava o que estiver pendente e faz flush dos sinks
+    @Override
+    void close();
+}
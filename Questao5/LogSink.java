@@ -0,0 +1,13 @@
+package Questao5;
+
+// Destino dos registros (arquivo, servidor, ...). Recebe lotes: no modo síncrono o lote tem
+// um único evento; no assíncrono, tudo o que o consumidor drenou de uma vez.
+interface LogSink {
+
+    // Grava eventos[0..quantidade). Os eventos não devem ser retidos após o retorno.
+    void escrever(LogEvent[] eventos, int quantidade);
+
+    default void flush() { }
+
+    default void close() { flush(); }
+}
@@ -0,0 +1,165 @@
+package Questao5;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+// Métricas do próprio SistemaLogger. Quem registra (threads que logam, consumidor/flusher) só faz
+// incrementos em LongAdder/arrays atômicos: sem lock e sem alocação. A leitura (snapshot, JMX,
+// relatório periódico) é que soma e copia. eventosPendentes = aceitos - gravados - descartados mostra
+// quando o pipeline está ficando para trás.
+final class LoggerMetrics implements LoggerMetricsMBean {
+
+    private static final IntSupplier SEM_FILA = () -> 0;
+
+    private final LongAdder[] eventos = new LongAdder[Severidade.values().length];
+    private final LongAdder gravados = new LongAdder();
+    private final LongAdder descartadosFilaCheia = new LongAdder();
+    private final LongAdder amostrados = new LongAdder();
+    private final LongAdder limitados = new LongAdder();
+    private final LongAdder errosSink = new LongAdder();
+    private final AtomicLong profundidadeMaxima = new AtomicLong();
+    private final Histograma tamanhoLote = new Histograma();
+    private final Histograma latenciaFlush = new Histograma(); // nanos por lote (todos os sinks)
+    private volatile IntSupplier fila = SEM_FILA;
+
+    LoggerMetrics() {
+        for (int i = 0; i < eventos.length; i++) eventos[i] = new LongAdder();
+    }
+
+    // --- Registro (caminho quente) ---
+
+    void evento(Severidade severidade) { eventos[severidade.ordinal()].increment(); }
+
+    void descartadoFilaCheia() { descartadosFilaCheia.increment(); }
+
+    void amostrado() { amostrados.increment(); }
+
+    void limitado() { limitados.increment(); }
+
+    void erroSink() { errosSink.increment(); }
+
+    void lote(int quantidade, long nanos, int profundidade) {
+        gravados.add(quantidade);
+        tamanhoLote.registrar(quantidade);
+        latenciaFlush.registrar(nanos);
+        long max = profundidadeMaxima.get();
+        while (profundidade > max && !profundidadeMaxima.compareAndSet(max, profundidade)) {
+            max = profundidadeMaxima.get();
+        }
+    }
+
+    // Fonte do gauge de profundidade (o pipeline ativo); null volta para o modo síncrono
+    void observarFila(IntSupplier profundidade) {
+        this.fila = profundidade != null ? profundidade : SEM_FILA;
+    }
+
+    // --- Leitura ---
+
+    Snapshot snapshot() { return new Snapshot(this); }
+
+    // Agenda um snapshot periódico numa thread daemon; encerre o executor retornado para parar
+    ScheduledExecutorService iniciarRelatorio(long periodo, TimeUnit unidade, Consumer<Snapshot> destino) {
+        ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "logger-metricas");
+            t.setDaemon(true);
+            return t;
+        });
+        exec.scheduleAtFixedRate(() -> destino.accept(snapshot()), periodo, periodo, unidade);
+        return exec;
+    }
+
+    // Registra este objeto no MBeanServer da plataforma; chamadas repetidas são ignoradas
+    ObjectName registrarJmx() throws JMException {
+        ObjectName nome = new ObjectName("Questao5:type=SistemaLogger");
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            servidor.registerMBean(new StandardMBean(this, LoggerMetricsMBean.class), nome);
+        } catch (InstanceAlreadyExistsException e) {
+            // já registrado
+        }
+        return nome;
+    }
+
+    @Override public long getEventosEvento() { return eventos[Severidade.EVENTO.ordinal()].sum(); }
+
+    @Override public long getEventosErro() { return eventos[Severidade.ERRO.ordinal()].sum(); }
+
+    @Override public long getEventosAuditoria() { return eventos[Severidade.AUDITORIA.ordinal()].sum(); }
+
+    @Override public long getEventosGravados() { return gravados.sum(); }
+
+    @Override
+    public long getEventosPendentes() {
+        long aceitos = getEventosEvento() + getEventosErro() + getEventosAuditoria();
+        return Math.max(0, aceitos - gravados.sum() - getDescartadosFilaCheia() - getAmostrados() - getLimitados());
+    }
+
+    @Override public int getProfundidadeFila() { return fila.getAsInt(); }
+
+    @Override public long getProfundidadeMaxima() { return profundidadeMaxima.get(); }
+
+    @Override public long getDescartadosFilaCheia() { return descartadosFilaCheia.sum(); }
+
+    @Override public long getAmostrados() { return amostrados.sum(); }
+
+    @Override public long getLimitados() { return limitados.sum(); }
+
+    @Override public long getErrosSink() { return errosSink.sum(); }
+
+    @Override public long getLotesGravados() { return tamanhoLote.resumo().contagem; }
+
+    @Override public double getTamanhoLoteMedio() { return tamanhoLote.resumo().media; }
+
+    @Override public long getLatenciaFlushP50Micros() { return latenciaFlush.resumo().p50 / 1_000; }
+
+    @Override public long getLatenciaFlushP99Micros() { return latenciaFlush.resumo().p99 / 1_000; }
+
+    @Override public long getLatenciaFlushP999Micros() { return latenciaFlush.resumo().p999 / 1_000; }
+
+    @Override public long getLatenciaFlushMaxMicros() { return latenciaFlush.resumo().max / 1_000; }
+
+    // Valores lidos num mesmo instante (aproximado: os contadores não são pausados)
+    static final class Snapshot {
+        final long instanteMillis = System.currentTimeMillis();
+        final long evento, erro, auditoria, gravados, pendentes;
+        final int profundidade;
+        final long profundidadeMaxima, descartadosFilaCheia, amostrados, limitados, errosSink;
+        final Histograma.Resumo tamanhoLote;
+        final Histograma.Resumo latenciaFlushNanos;
+
+        private Snapshot(LoggerMetrics m) {
+            evento = m.getEventosEvento();
+            erro = m.getEventosErro();
+            auditoria = m.getEventosAuditoria();
+            gravados = m.getEventosGravados();
+            pendentes = m.getEventosPendentes();
+            profundidade = m.getProfundidadeFila();
+            profundidadeMaxima = m.getProfundidadeMaxima();
+            descartadosFilaCheia = m.getDescartadosFilaCheia();
+            amostrados = m.getAmostrados();
+            limitados = m.getLimitados();
+            errosSink = m.getErrosSink();
+            tamanhoLote = m.tamanhoLote.resumo();
+            latenciaFlushNanos = m.latenciaFlush.resumo();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("eventos[EVENTO=%d ERRO=%d AUDITORIA=%d] gravados=%d pendentes=%d fila=%d (max %d)"
+                            + " descartados=%d amostrados=%d limitados=%d errosSink=%d%n  lote: %s%n  flush(ns): %s",
+                    evento, erro, auditoria, gravados, pendentes, profundidade, profundidadeMaxima,
+                    descartadosFilaCheia, amostrados, limitados, errosSink, tamanhoLote, latenciaFlushNanos);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package Questao5;
+
+// Atributos do SistemaLogger expostos via JMX (jconsole/VisualVM: Questao5:type=SistemaLogger).
+// Latências em microssegundos; contadores acumulados desde a inicialização.
+public interface LoggerMetricsMBean {
+
+    long getEventosEvento();
+
+    long getEventosErro();
+
+    long getEventosAuditoria();
+
+    long getEventosGravados();
+
+    long getEventosPendentes();
+
+    int getProfundidadeFila();
+
+    long getProfundidadeMaxima();
+
+    long getDescartadosFilaCheia();
+
+    long getAmostrados();
+
+    long getLimitados();
+
+    long getErrosSink();
+
+    long getLotesGravados();
+
+    double getTamanhoLoteMedio();
+
+    long getLatenciaFlushP50Micros();
+
+    long getLatenciaFlushP99Micros();
+
+    long getLatenciaFlushP999Micros();
+
+    long getLatenciaFlushMaxMicros();
+}
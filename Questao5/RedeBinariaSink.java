@@ -0,0 +1,145 @@
+package Questao5;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.BitSet;
+
+// Sink de servidor que envia lotes de registros no formato LogBinario por TCP.
+// Os registros são codificados direto num ByteBuffer direto (sem String intermediária para
+// mensagens parametrizadas) e cada quadro sai numa escrita gather [cabeçalho, corpo].
+// Modelos são definidos em banda na primeira vez que aparecem em cada conexão.
+// Falhas de rede descartam o lote em curso e a conexão é refeita no lote seguinte.
+// A estimativa de tamanho só decide quando enviar o quadro antes do item; um item que não cabe ou
+// cuja codificação falha (toString() de um argumento) é desfeito inteiro, e o quadro no buffer
+// continua só com itens completos. Só é perdido o registro que não cabe nem num buffer vazio.
+final class RedeBinariaSink implements LogSink {
+    private final InetSocketAddress destino;
+    private final LogBinario.Modelos modelos;
+    private final ByteBuffer cabecalho = ByteBuffer.allocateDirect(LogBinario.CABECALHO_QUADRO);
+    private final ByteBuffer corpo;
+    private final ByteBuffer[] quadro;
+    private final BitSet definidos = new BitSet();
+
+    private SocketChannel canal;
+    private int itens;
+    private long quadrosEnviados;
+    private long bytesEnviados;
+    private long registrosEnviados;
+    private long errosRede;
+    private long registrosPerdidos;
+
+    RedeBinariaSink(String host, int porta, int tamanhoBuffer, LogBinario.Modelos modelos) {
+        this.destino = new InetSocketAddress(host, porta);
+        this.modelos = modelos;
+        this.corpo = ByteBuffer.allocateDirect(tamanhoBuffer);
+        this.quadro = new ByteBuffer[] { cabecalho, corpo };
+    }
+
+    @Override
+    public synchronized void escrever(LogEvent[] eventos, int quantidade) {
+        int enviados = 0, descartados = 0;
+        try {
+            conectar();
+            int noQuadro = 0;
+            for (int i = 0; i < quantidade; i++) {
+                LogEvent e = eventos[i];
+                int id = e.args == null ? LogBinario.MODELO_LITERAL : modelos.id(e.template);
+                // codifica direto no corpo (cada argumento é formatado uma vez); se não couber,
+                // o item é desfeito, o quadro atual vai para a rede e o item tenta num buffer vazio
+                int r = codificar(e, id);
+                if (r == NAO_COUBE && itens > 0) {
+                    enviarQuadro();
+                    enviados += noQuadro;
+                    noQuadro = 0;
+                    r = codificar(e, id);
+                }
+                if (r != CODIFICADO) {
+                    registrosPerdidos++; // maior que o buffer inteiro, ou a codificação falhou
+                    descartados++;
+                    continue;
+                }
+                noQuadro++;
+            }
+            enviarQuadro();
+            enviados += noQuadro;
+        } catch (IOException ex) {
+            errosRede++;
+            registrosPerdidos += quantidade - enviados - descartados;
+            desconectar();
+        } catch (RuntimeException ex) {
+            // estado do quadro incerto: a próxima conexão recomeça do zero (buffer e modelos)
+            registrosPerdidos += quantidade - enviados - descartados;
+            desconectar();
+            throw ex;
+        }
+        registrosEnviados += enviados;
+    }
+
+    private static final int CODIFICADO = 0, NAO_COUBE = 1, FALHOU = 2;
+
+    // Acrescenta a definição do modelo (se a conexão ainda não o conhece) e o registro ao corpo.
+    // Se algo falhar no meio, volta o buffer e a contagem de itens para antes do item.
+    private int codificar(LogEvent e, int id) {
+        int inicio = corpo.position(), itensAntes = itens;
+        boolean definir = !definidos.get(id);
+        try {
+            if (definir) {
+                LogBinario.escreverDefinicao(corpo, id, id == LogBinario.MODELO_LITERAL ? "{}" : e.template);
+                itens++;
+            }
+            LogBinario.escreverRegistro(corpo, e, id);
+            itens++;
+        } catch (RuntimeException ex) {
+            corpo.position(inicio);
+            itens = itensAntes;
+            return ex instanceof BufferOverflowException ? NAO_COUBE : FALHOU;
+        }
+        if (definir) definidos.set(id);
+        return CODIFICADO;
+    }
+
+    private void conectar() throws IOException {
+        if (canal != null) return;
+        canal = SocketChannel.open(destino);
+        canal.socket().setTcpNoDelay(true);
+        definidos.clear(); // a nova conexão não conhece nenhum modelo
+        corpo.clear();
+        itens = 0;
+    }
+
+    private void enviarQuadro() throws IOException {
+        if (itens == 0) return;
+        cabecalho.clear();
+        cabecalho.putInt(corpo.position()).putInt(itens).flip();
+        corpo.flip();
+        long total = cabecalho.remaining() + corpo.remaining();
+        while (corpo.hasRemaining()) canal.write(quadro); // gather: cabeçalho e corpo sem cópia
+        bytesEnviados += total;
+        quadrosEnviados++;
+        corpo.clear();
+        itens = 0;
+    }
+
+    private void desconectar() {
+        try {
+            if (canal != null) canal.close();
+        } catch (IOException ignorada) {
+            // conexão já estava quebrada
+        }
+        canal = null;
+    }
+
+    @Override
+    public synchronized void close() {
+        desconectar();
+    }
+
+    synchronized long quadrosEnviados() { return quadrosEnviados; }
+    synchronized long bytesEnviados() { return bytesEnviados; }
+    synchronized long registrosEnviados() { return registrosEnviados; }
+    synchronized long errosRede() { return errosRede; }
+    synchronized long registrosPerdidos() { return registrosPerdidos; }
+}
@@ -0,0 +1,17 @@
+package Questao5;
+
+// Severidades do SistemaLogger, da menor para a maior prioridade de entrega.
+// EVENTO pode ser descartado/amostrado sob carga; ERRO e AUDITORIA nunca.
+enum Severidade {
+    EVENTO("[EVENTO]"),
+    ERRO("[ERRO]"),
+    AUDITORIA("[AUDITORIA]");
+
+    private final String rotulo;
+
+    Severidade(String rotulo) { this.rotulo = rotulo; }
+
+    public String rotulo() { return rotulo; }
+
+    public boolean descartavel() { return this == EVENTO; }
+}
@@ -0,0 +1,138 @@
+package Questao5;
+
+class SistemaLogger {
+
+    // Instância única (volatile para evitar problemas de visibilidade entre threads)
+    private static volatile SistemaLogger instancia;
+
+    // Destinos padrão: simulam arquivo e servidor externo na saída padrão
+    private volatile LogSink[] sinks = { ConsoleSinks.arquivo(System.out), ConsoleSinks.servidor(System.out) };
+
+    // Modo assíncrono (null = síncrono, gravando na thread de quem loga)
+    private volatile LogPipeline assincrono;
+    private boolean ganchoEncerramento;
+
+    private final LoggerMetrics metricas = new LoggerMetrics();
+
+    // Construtor privado — impede criação fora da classe
+    private SistemaLogger() {
+        System.out.println(">> SistemaLogger inicializado (instância única criada)");
+    }
+
+    // Método estático para acesso global (Double-Checked Locking)
+    public static SistemaLogger getInstancia() {
+
+        if (instancia == null) { // primeira verificação (rápida)
+
+            synchronized (SistemaLogger.class) {
+                if (instancia == null) { // segunda verificação (segura)
+                    instancia = new SistemaLogger();
+                }
+            }
+        }
+        return instancia;
+    }
+
+    public void logErro(String mensagem) {
+        log(Severidade.ERRO, mensagem);
+    }
+
+    public void logEvento(String mensagem) {
+        log(Severidade.EVENTO, mensagem);
+    }
+
+    public void logAuditoria(String mensagem) {
+        log(Severidade.AUDITORIA, mensagem);
+    }
+
+    // Variantes parametrizadas: o modelo usa "{}" e o texto só é montado pelos sinks que precisam dele
+    public void logErro(String modelo, Object... args) {
+        log(Severidade.ERRO, modelo, args);
+    }
+
+    public void logEvento(String modelo, Object... args) {
+        log(Severidade.EVENTO, modelo, args);
+    }
+
+    public void logAuditoria(String modelo, Object... args) {
+        log(Severidade.AUDITORIA, modelo, args);
+    }
+
+    private void log(Severidade severidade, String mensagem) {
+        log(severidade, mensagem, null);
+    }
+
+    private void log(Severidade severidade, String modelo, Object[] args) {
+        long agora = LogEvent.agoraNanos(); // um único timestamp por evento
+        long thread = Thread.currentThread().getId();
+        metricas.evento(severidade);
+        LogPipeline pipeline = assincrono;
+        // FECHADO: o modo assíncrono foi desativado entre a leitura acima e a publicação; o evento
+        // segue pelo caminho síncrono em vez de se perder
+        if (pipeline != null && pipeline.publicar(severidade, modelo, args, agora, thread) != LogPipeline.FECHADO) {
+            return;
+        }
+        LogEvent evento = new LogEvent();
+        evento.set(severidade, modelo, args, agora, thread);
+        LogEvent[] lote = { evento };
+        long t0 = System.nanoTime();
+        for (LogSink sink : sinks) {
+            try {
+                sink.escrever(lote, 1);
+            } catch (RuntimeException e) {
+                metricas.erroSink();
+                throw e;
+            }
+        }
+        metricas.lote(1, System.nanoTime() - t0, 0);
+    }
+
+    // Ativa o modo assíncrono: a formatação e a escrita passam para uma thread consumidora
+    public synchronized void ativarModoAssincrono(int capacidade, int tamanhoLote,
+                                                  AsyncLogPipeline.PoliticaFilaCheia politica, int taxaAmostragem) {
+        if (assincrono != null) return;
+        ativar(new AsyncLogPipeline(sinks, capacidade, tamanhoLote, politica, taxaAmostragem, metricas));
+    }
+
+    // Modo por thread: cada thread loga no próprio buffer, sem disputar lock com as demais; uma thread
+    // de flush intercala os buffers por timestamp. limitador (opcional) amostra e limita EVENTOs;
+    // ERRO e AUDITORIA nunca são descartados
+    public synchronized void ativarModoPorThread(int capacidadePorThread, int tamanhoLote, LimitadorEventos limitador) {
+        if (assincrono != null) return;
+        ativar(new ThreadLocalLogPipeline(sinks, capacidadePorThread, tamanhoLote, limitador, metricas));
+    }
+
+    private void ativar(LogPipeline pipeline) {
+        assincrono = pipeline;
+        metricas.observarFila(pipeline::profundidade);
+        if (!ganchoEncerramento) {
+            // Na saída da JVM, grava o que ainda estiver na fila
+            Runtime.getRuntime().addShutdownHook(new Thread(this::desativarModoAssincrono, "logger-shutdown"));
+            ganchoEncerramento = true;
+        }
+    }
+
+    // Volta ao modo síncrono (de qualquer modo assíncrono) depois de gravar todos os eventos pendentes
+    public synchronized void desativarModoAssincrono() {
+        LogPipeline pipeline = assincrono;
+        if (pipeline == null) return;
+        assincrono = null; // novas chamadas já seguem o caminho síncrono
+        pipeline.close();
+        metricas.observarFila(null);
+    }
+
+    // Troca os destinos (ex.: arquivo real, servidor); vale para o modo síncrono e para a próxima ativação assíncrona
+    public synchronized void configurarSinks(LogSink... novos) {
+        this.sinks = novos.clone();
+    }
+
+    public long eventosDescartados() {
+        LogPipeline pipeline = assincrono;
+        return pipeline != null ? pipeline.descartados() : 0;
+    }
+
+    // Contadores, histogramas e gauge de fila (snapshot(), iniciarRelatorio(), registrarJmx())
+    public LoggerMetrics metricas() {
+        return metricas;
+    }
+}
@@ -0,0 +1,296 @@
+package Questao5;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Modo por thread do SistemaLogger. Cada thread que loga ganha um buffer próprio (ring de
+// um produtor e um consumidor), então quem loga não disputa lock nem CAS com as outras.
+// Uma única thread de flush intercala os buffers pelo timestamp (merge de k vias) e grava
+// em lote, gerando um fluxo em ordem de tempo. Para não emitir um evento antes de outro mais
+// antigo que ainda está sendo publicado, cada thread anuncia (marca) o instante em que começou
+// a publicar e o flusher não passa da menor marca anunciada.
+// Buffers de threads que terminaram são removidos depois de drenados.
+// No close(), o flusher para e a thread que fecha espera as publicações em curso (flag por buffer,
+// sem estado compartilhado entre quem loga) e drena o que restou; quem chega depois recebe FECHADO.
+// Obs.: no JDK 17 não há threads virtuais; os buffers são por thread de plataforma.
+final class ThreadLocalLogPipeline implements LogPipeline {
+
+    private final int capacidadePorThread;
+    private final LogSink[] sinks;
+    private final int tamanhoLote;
+    private final LimitadorEventos limitador; // null = sem amostragem nem limite de taxa
+    private final LoggerMetrics metricas;
+
+    private final ThreadLocal<BufferThread> local = new ThreadLocal<>();
+    private volatile BufferThread[] buffers = new BufferThread[0]; // copy-on-write; só muda ao registrar/remover
+
+    private final LongAdder descartadosFilaCheia = new LongAdder();
+    private final LongAdder descartadosAmostragem = new LongAdder();
+    private final LongAdder descartadosTaxa = new LongAdder();
+    private final Thread flusher;
+    private volatile boolean ativo = true;
+
+    ThreadLocalLogPipeline(LogSink[] sinks, int capacidadePorThread, int tamanhoLote, LimitadorEventos limitador,
+                           LoggerMetrics metricas) {
+        if (capacidadePorThread <= 0 || tamanhoLote <= 0) {
+            throw new IllegalArgumentException("Capacidade e lote devem ser positivos");
+        }
+        int cap = 1;
+        while (cap < capacidadePorThread) cap <<= 1;
+        this.capacidadePorThread = cap;
+        this.sinks = sinks.clone();
+        this.tamanhoLote = tamanhoLote;
+        this.limitador = limitador;
+        this.metricas = metricas;
+        this.flusher = new Thread(this::consumir, "logger-flush");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // Buffer de uma thread: só o dono escreve "escrito", só o flusher escreve "lido"
+    private static final class BufferThread {
+        final Thread dono;
+        final LogEvent[] slots;
+        final int mascara;
+        final AtomicLong escrito = new AtomicLong(); // próxima posição a publicar
+        volatile long lido;                           // posições < lido já foram gravadas
+        final AtomicLong marca = new AtomicLong(Long.MAX_VALUE); // início da publicação em curso (MAX = nenhuma)
+        volatile boolean publicando; // entre a checagem de "ativo" e o fim da publicação (visto pelo close)
+
+        BufferThread(Thread dono, int capacidade) {
+            this.dono = dono;
+            this.slots = new LogEvent[capacidade];
+            for (int i = 0; i < capacidade; i++) slots[i] = new LogEvent();
+            this.mascara = capacidade - 1;
+        }
+    }
+
+    @Override
+    public int publicar(Severidade severidade, String template, Object[] args, long timestampNanos, long threadId) {
+        BufferThread b = local.get();
+        if (b == null) b = registrar();
+        // escrita volátil antes de ler "ativo" (e o close escreve "ativo" antes de ler a flag): ou esta
+        // thread vê o encerramento, ou o close vê a publicação em curso e a espera
+        b.publicando = true;
+        try {
+            if (!ativo) return FECHADO;
+            return publicar(b, severidade, template, args, timestampNanos, threadId);
+        } finally {
+            b.publicando = false;
+        }
+    }
+
+    private int publicar(BufferThread b, Severidade severidade, String template, Object[] args, long timestampNanos,
+                         long threadId) {
+        if (severidade.descartavel() && limitador != null) {
+            LimitadorEventos.Decisao d = limitador.permitir(template, timestampNanos);
+            if (d == LimitadorEventos.Decisao.AMOSTRADO) {
+                descartadosAmostragem.increment();
+                metricas.amostrado();
+                return DESCARTADO;
+            }
+            if (d == LimitadorEventos.Decisao.LIMITADO) {
+                descartadosTaxa.increment();
+                metricas.limitado();
+                return DESCARTADO;
+            }
+        }
+        long pos = b.escrito.get();
+        int tentativas = 0;
+        while (pos - b.lido >= b.slots.length) {
+            // Buffer cheio: EVENTO é descartado; ERRO e AUDITORIA esperam o flusher
+            if (severidade.descartavel()) {
+                descartadosFilaCheia.increment();
+                metricas.descartadoFilaCheia();
+                return DESCARTADO;
+            }
+            if (!ativo) return FECHADO; // o flusher parou: quem chamou grava direto
+            if (++tentativas < 100) Thread.onSpinWait();
+            else LockSupport.parkNanos(1_000);
+        }
+        // Anuncia a publicação antes de ler o relógio: o evento terá timestamp >= marca, e o flusher
+        // que não vê a marca já leu o relógio antes dela (ou seja, antes do timestamp deste evento)
+        b.marca.set(timestampNanos);
+        long agora = Math.max(timestampNanos, LogEvent.agoraNanos());
+        b.slots[(int) pos & b.mascara].set(severidade, template, args, agora, threadId);
+        b.escrito.lazySet(pos + 1); // publicação com semântica release
+        b.marca.lazySet(Long.MAX_VALUE);
+        return PUBLICADO;
+    }
+
+    private BufferThread registrar() {
+        BufferThread b = new BufferThread(Thread.currentThread(), capacidadePorThread);
+        synchronized (this) {
+            BufferThread[] atual = buffers;
+            BufferThread[] novo = Arrays.copyOf(atual, atual.length + 1);
+            novo[atual.length] = b;
+            buffers = novo;
+        }
+        local.set(b);
+        return b;
+    }
+
+    private void consumir() {
+        LogEvent[] lote = new LogEvent[tamanhoLote];
+        int[] heap = new int[0];
+        long[] pos = new long[0];
+        long[] fim = new long[0];
+        int ocioso = 0;
+        while (true) {
+            boolean encerrando = !ativo;
+            BufferThread[] bs = buffers;
+            if (heap.length < bs.length) {
+                heap = new int[bs.length * 2];
+                pos = new long[bs.length * 2];
+                fim = new long[bs.length * 2];
+            }
+            int n = intercalar(bs, lote, heap, pos, fim, encerrando ? Long.MAX_VALUE : LogEvent.agoraNanos());
+            removerTerminadas(bs);
+            if (n > 0) {
+                ocioso = 0;
+                continue;
+            }
+            if (encerrando && pendentes(buffers) == 0) break;
+            if (++ocioso < 100) Thread.onSpinWait();
+            else LockSupport.parkNanos(100_000);
+        }
+        for (LogSink s : sinks) s.flush();
+    }
+
+    // Merge de k vias pelo timestamp dos eventos publicados até "limite"; retorna quantos gravou
+    private int intercalar(BufferThread[] bs, LogEvent[] lote, int[] heap, long[] pos, long[] fim, long limite) {
+        int k = 0;
+        for (int i = 0; i < bs.length; i++) {
+            limite = Math.min(limite, bs[i].marca.get()); // publicação em curso pode ter timestamp >= marca
+            pos[i] = bs[i].lido;
+            fim[i] = bs[i].escrito.get(); // leitura acquire: os eventos até aqui estão completos
+            if (pos[i] < fim[i]) heap[k++] = i;
+        }
+        for (int i = k / 2 - 1; i >= 0; i--) descer(heap, k, i, bs, pos);
+        int total = 0, n = 0;
+        while (k > 0) {
+            int i = heap[0];
+            LogEvent e = bs[i].slots[(int) pos[i] & bs[i].mascara];
+            if (e.timestampNanos > limite) break; // o resto é mais novo: espera a próxima passada
+            lote[n++] = e;
+            if (++pos[i] == fim[i]) heap[0] = heap[--k];
+            descer(heap, k, 0, bs, pos);
+            if (n == lote.length) {
+                gravar(lote, n, bs, pos);
+                total += n;
+                n = 0;
+            }
+        }
+        if (n > 0) {
+            gravar(lote, n, bs, pos);
+            total += n;
+        }
+        return total;
+    }
+
+    private static void descer(int[] heap, int k, int i, BufferThread[] bs, long[] pos) {
+        while (true) {
+            int menor = i, esq = 2 * i + 1, dir = esq + 1;
+            if (esq < k && ts(heap[esq], bs, pos) < ts(heap[menor], bs, pos)) menor = esq;
+            if (dir < k && ts(heap[dir], bs, pos) < ts(heap[menor], bs, pos)) menor = dir;
+            if (menor == i) return;
+            int t = heap[i];
+            heap[i] = heap[menor];
+            heap[menor] = t;
+            i = menor;
+        }
+    }
+
+    private static long ts(int i, BufferThread[] bs, long[] pos) {
+        return bs[i].slots[(int) pos[i] & bs[i].mascara].timestampNanos;
+    }
+
+    private void gravar(LogEvent[] lote, int n, BufferThread[] bs, long[] pos) {
+        long t0 = System.nanoTime();
+        for (LogSink s : sinks) {
+            try {
+                s.escrever(lote, n);
+                s.flush();
+            } catch (RuntimeException e) {
+                metricas.erroSink();
+                System.err.println("Erro no sink de log: " + e.getMessage());
+            }
+        }
+        long duracao = System.nanoTime() - t0;
+        for (int i = 0; i < n; i++) lote[i].limpar();
+        long restantes = 0;
+        for (int i = 0; i < bs.length; i++) {
+            restantes += bs[i].escrito.get() - pos[i];
+            bs[i].lido = pos[i]; // libera os slots para os donos
+        }
+        metricas.lote(n, duracao, (int) (restantes + n));
+    }
+
+    // Uma thread terminada não publica mais: depois de drenado, o buffer sai da lista
+    private void removerTerminadas(BufferThread[] bs) {
+        boolean algum = false;
+        for (BufferThread b : bs) {
+            if (!b.dono.isAlive() && b.lido == b.escrito.get()) {
+                algum = true;
+                break;
+            }
+        }
+        if (!algum) return;
+        synchronized (this) {
+            BufferThread[] atual = buffers;
+            int vivos = 0;
+            BufferThread[] novo = new BufferThread[atual.length];
+            for (BufferThread b : atual) {
+                if (b.dono.isAlive() || b.lido != b.escrito.get()) novo[vivos++] = b;
+            }
+            buffers = Arrays.copyOf(novo, vivos);
+        }
+    }
+
+    private static long pendentes(BufferThread[] bs) {
+        long total = 0;
+        for (BufferThread b : bs) total += b.escrito.get() - b.lido;
+        return total;
+    }
+
+    int threadsRegistradas() { return buffers.length; }
+
+    long descartadosFilaCheia() { return descartadosFilaCheia.sum(); }
+
+    long descartadosAmostragem() { return descartadosAmostragem.sum(); }
+
+    long descartadosTaxa() { return descartadosTaxa.sum(); }
+
+    @Override
+    public long descartados() {
+        return descartadosFilaCheia.sum() + descartadosAmostragem.sum() + descartadosTaxa.sum();
+    }
+
+    @Override
+    public int profundidade() { return (int) pendentes(buffers); }
+
+    @Override
+    public void close() {
+        ativo = false;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Publicações que passaram pela checagem antes do encerramento terminam aqui; depois disso
+        // ninguém mais escreve nos buffers e o resto é gravado por esta thread
+        // (um buffer registrado por quem ainda viu "ativo" já está nesta lista: o registro vem antes da flag)
+        BufferThread[] bs = buffers;
+        for (BufferThread b : bs) {
+            while (b.publicando) Thread.onSpinWait();
+        }
+        int k = bs.length;
+        LogEvent[] lote = new LogEvent[tamanhoLote];
+        while (intercalar(bs, lote, new int[k], new long[k], new long[k], Long.MAX_VALUE) > 0) {
+            // até esvaziar
+        }
+        for (LogSink s : sinks) s.flush();
+    }
+}
@@ -0,0 +1,52 @@
+package Questao1;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// CriadorRelatorio.gerarRelatorio do diário e do semanal, com dados sintéticos e sem mensagens de
+// andamento. Os dias entram no cubo no setup, então cada chamada mede a consulta aos agregados e a
+// escrita do arquivo (o regime normal de quem gera relatórios ao longo do dia)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkRelatorios {
+
+    @Param({ "diario", "semanal" })
+    String tipo;
+
+    private CriadorRelatorio criador;
+
+    @Setup
+    public void preparar() throws IOException {
+        LocalDate hoje = LocalDate.of(2024, 6, 15);
+        ContextoRelatorios ctx = new ContextoRelatorios(FonteSintetica.provedor(50_000), new CuboMetricas(),
+                Files.createTempDirectory("bench-relatorios"), hoje, 8192);
+        ctx.verboso = false;
+        LocalDate ontem = hoje.minusDays(1);
+        criador = tipo.equals("semanal") ? new CriadorRelatorioSemanal(ctx, ontem, null)
+                : new CriadorRelatorioDiario(ctx, ontem, null);
+        criador.gerarRelatorio(); // carrega os dias no cubo
+    }
+
+    @Benchmark
+    public void gerarRelatorio() {
+        criador.gerarRelatorio();
+    }
+}
@@ -0,0 +1,58 @@
+package Questao2;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// RiskAnalyzer.analyze com cada estratégia, sobre uma carteira de perfis variados (percorrida em
+// ciclo para o JIT não especializar num único cliente)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkRisco {
+
+    @Param({ "Agressivo", "Moderado", "Conservador" })
+    String estrategia;
+
+    private RiskAnalyzer analyzer;
+    private Cliente[] clientes;
+    private int proximo;
+
+    @Setup
+    public void preparar() {
+        RiskStrategy s;
+        switch (estrategia) {
+            case "Agressivo": s = new AgressivoStrategy(); break;
+            case "Moderado": s = new ModeradoStrategy(); break;
+            default: s = new ConservadorStrategy();
+        }
+        analyzer = new RiskAnalyzer(s);
+        SplittableRandom rnd = new SplittableRandom(42);
+        clientes = new Cliente[1024];
+        for (int i = 0; i < clientes.length; i++) {
+            clientes[i] = new Cliente(rnd.nextInt(18, 90), rnd.nextDouble(10_000, 500_000),
+                    rnd.nextInt(1, 40), rnd.nextInt(0, 101));
+        }
+    }
+
+    @Benchmark
+    public RiskAnalyzer.Result analyze() {
+        Cliente c = clientes[proximo];
+        proximo = (proximo + 1) & (clientes.length - 1);
+        return analyzer.analyze(c);
+    }
+}
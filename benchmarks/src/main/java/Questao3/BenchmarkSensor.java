@@ -0,0 +1,63 @@
+package Questao3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import Questao3.EnvironmentalMonitoring.Sensor;
+import Questao3.EnvironmentalMonitoring.SensorObserver;
+import Questao3.EnvironmentalMonitoring.SensorType;
+
+// Sensor.setValue notificando 1, 10 e 100 observadores síncronos. Cada observador só consome o
+// valor, então o que se mede é o custo da entrega (snapshot do array + chamadas de update)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkSensor {
+
+    @Param({ "1", "10", "100" })
+    int observadores;
+
+    private Sensor sensor;
+    private double valor;
+
+    @Setup
+    public void preparar(Blackhole bh) {
+        sensor = new Sensor("S-1", "Centro", SensorType.TEMPERATURE);
+        for (int i = 0; i < observadores; i++) sensor.addObserver(new Consumidor(bh));
+    }
+
+    @Benchmark
+    public void setValue() {
+        valor += 0.5;
+        sensor.setValue(valor);
+    }
+
+    // Observadores distintos (addObserver ignora repetidos) que entregam o valor ao Blackhole
+    static final class Consumidor implements SensorObserver {
+        private final Blackhole bh;
+
+        Consumidor(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void update(Sensor sensor, double newValue) {
+            bh.consume(newValue);
+        }
+    }
+}
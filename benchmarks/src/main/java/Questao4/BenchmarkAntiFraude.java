@@ -0,0 +1,66 @@
+package Questao4;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Questao4.AntiFraude.*;
+
+// handle() da cadeia do AntiFraude.main (valor -> geo -> lista negra -> histórico -> dispositivo):
+// transação aprovada (percorre todos os handlers), barrada no primeiro e barrada no último. As
+// barradas incluem a montagem do texto do motivo, como no uso real de handle()
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkAntiFraude {
+
+    private ValidationHandler cadeia;
+    private Transaction aprovada, valorSuspeito, dispositivoIncomum;
+
+    @Setup
+    public void preparar() {
+        AmountCheck amount = new AmountCheck(10000.0);
+        GeoLocationCheck geo = new GeoLocationCheck(new HashSet<>(Arrays.asList("BR", "US", "PT")));
+        BlacklistCountryCheck blacklist = new BlacklistCountryCheck(new HashSet<>(Arrays.asList("NG", "IR")));
+        UserHistoryCheck history = new UserHistoryCheck();
+        DeviceCheck device = new DeviceCheck();
+        amount.setNext(geo);
+        geo.setNext(blacklist);
+        blacklist.setNext(history);
+        history.setNext(device);
+        cadeia = amount;
+
+        aprovada = new Transaction(50.0, "BR", "user1", "dev-1", false, new HashSet<>(Arrays.asList("dev-1")));
+        valorSuspeito = new Transaction(20000.0, "BR", "user2", "dev-2", false, new HashSet<>(Arrays.asList("dev-2")));
+        dispositivoIncomum = new Transaction(20.0, "US", "user4", "dev-new", false, new HashSet<>(Arrays.asList("dev-old")));
+    }
+
+    @Benchmark
+    public ValidationResult aprovar() {
+        return cadeia.handle(aprovada);
+    }
+
+    @Benchmark
+    public ValidationResult barrarNoPrimeiro() {
+        return cadeia.handle(valorSuspeito);
+    }
+
+    @Benchmark
+    public ValidationResult barrarNoUltimo() {
+        return cadeia.handle(dispositivoIncomum);
+    }
+}
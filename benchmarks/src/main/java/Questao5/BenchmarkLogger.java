@@ -0,0 +1,87 @@
+package Questao5;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// SistemaLogger com 1, 4 e 16 threads logando ao mesmo tempo, nos três modos: síncrono (lock do
+// sink em cada chamada), ring único compartilhado e buffers por thread. O sink só conta os eventos,
+// para medir a disputa e não o I/O (como no BenchLoggerPorThread). Loga ERRO, que nenhum modo
+// descarta (espera espaço no buffer): assim cada operação medida é um evento aceito, e o fim da
+// medição confere que nada foi descartado.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkLogger {
+
+    @Param({ "sincrono", "assincrono", "porThread" })
+    String modo;
+
+    private SistemaLogger logger;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        logger = SistemaLogger.getInstancia();
+        logger.configurarSinks(new ContadorSink());
+        switch (modo) {
+            case "assincrono":
+                logger.ativarModoAssincrono(1 << 16, 256, AsyncLogPipeline.PoliticaFilaCheia.BLOQUEAR, 1);
+                break;
+            case "porThread":
+                logger.ativarModoPorThread(1 << 12, 256, null);
+                break;
+            default:
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        long descartados = logger.eventosDescartados();
+        logger.desativarModoAssincrono(); // grava o que ficou na fila
+        if (descartados > 0) throw new IllegalStateException(descartados + " eventos descartados no modo " + modo);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void log1Thread() {
+        logger.logErro("pedido recusado");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void log4Threads() {
+        logger.logErro("pedido recusado");
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void log16Threads() {
+        logger.logErro("pedido recusado");
+    }
+
+    static final class ContadorSink implements LogSink {
+        private final LongAdder eventos = new LongAdder();
+
+        @Override
+        public void escrever(LogEvent[] lote, int quantidade) {
+            eventos.add(quantidade);
+        }
+    }
+}
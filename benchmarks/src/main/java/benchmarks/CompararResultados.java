@@ -0,0 +1,327 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Compara dois resultados JSON do JMH (baseline x execução atual), benchmark a benchmark (nome +
+// parâmetros). Regressão de tempo/vazão: piora acima da tolerância E fora da margem de erro das duas
+// medições. Regressão de alocação (gc.alloc.rate.norm, B/op): crescimento acima da tolerância e de
+// 8 bytes por operação. Benchmarks sem par são listados, mas não reprovam.
+// A baseline é gravada por salvarBaseline só com o que a comparação usa (sem caminho da JVM, versão
+// da VM e afins da máquina onde foi medida).
+// Uso: java -cp benchmarks.jar benchmarks.CompararResultados baseline.json atual.json [tolerancia%]
+public class CompararResultados {
+
+    static final String ALOCACAO = "gc.alloc.rate.norm";
+    static final double ALOCACAO_MINIMA = 8; // B/op: abaixo disso é ruído de amostragem do profiler
+
+    // Uma linha do JSON do JMH
+    static final class Medida {
+        final String chave;
+        final boolean maiorMelhor; // vazão (thrpt) x tempo
+        final double score, erro;
+        final String unidade;
+        final double alocacao; // NaN = sem profiler de GC
+
+        Medida(String chave, boolean maiorMelhor, double score, double erro, String unidade, double alocacao) {
+            this.chave = chave;
+            this.maiorMelhor = maiorMelhor;
+            this.score = score;
+            this.erro = erro;
+            this.unidade = unidade;
+            this.alocacao = alocacao;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararResultados baseline.json atual.json [tolerancia%]");
+            System.exit(2);
+        }
+        double tolerancia = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        int regressoes = comparar(Paths.get(args[0]), Paths.get(args[1]), tolerancia, System.out);
+        System.exit(regressoes > 0 ? 1 : 0);
+    }
+
+    // Imprime a comparação e devolve o número de regressões
+    static int comparar(Path baseline, Path atual, double tolerancia, PrintStream out) throws IOException {
+        Map<String, Medida> base = ler(baseline), agora = ler(atual);
+        int regressoes = 0;
+        out.printf("%n=== Comparação com %s (tolerância %.1f%%) ===%n", baseline, tolerancia);
+        out.printf("%-62s %14s %14s %8s %12s %12s  %s%n", "benchmark", "baseline", "atual", "piora", "B/op base",
+                "B/op atual", "");
+        for (Medida m : agora.values()) {
+            Medida b = base.get(m.chave);
+            if (b == null) {
+                out.printf("%-62s %14s %14.3f %8s %12s %12s  novo%n", m.chave, "-", m.score, "", "", alocacao(m.alocacao));
+                continue;
+            }
+            List<String> motivos = new ArrayList<>();
+            // piora relativa: positiva quando ficou mais lento (ou com menos vazão)
+            double piora = (m.maiorMelhor ? b.score - m.score : m.score - b.score) / b.score * 100;
+            double margem = zeroSeNaN(b.erro) + zeroSeNaN(m.erro);
+            if (!b.unidade.equals(m.unidade)) {
+                motivos.add("unidade mudou (" + b.unidade + " -> " + m.unidade + ")");
+            } else if (piora > tolerancia && Math.abs(m.score - b.score) > margem) {
+                motivos.add("REGRESSÃO de desempenho");
+            }
+            if (!Double.isNaN(b.alocacao) && !Double.isNaN(m.alocacao)) {
+                double cresceu = m.alocacao - b.alocacao;
+                if (cresceu > ALOCACAO_MINIMA && cresceu > b.alocacao * tolerancia / 100) motivos.add("REGRESSÃO de alocação");
+            }
+            if (!motivos.isEmpty() && !motivos.get(0).startsWith("unidade")) regressoes++;
+            out.printf("%-62s %14.3f %14.3f %7.1f%% %12s %12s  %s%n", m.chave, b.score, m.score, piora,
+                    alocacao(b.alocacao), alocacao(m.alocacao), String.join("; ", motivos));
+        }
+        for (Medida b : base.values()) {
+            if (!agora.containsKey(b.chave)) out.printf("%-62s %14.3f %14s  ausente nesta execução%n", b.chave, b.score, "-");
+        }
+        out.printf("%d regressão(ões) em %d benchmark(s) comparados%n", regressoes, agora.size());
+        return regressoes;
+    }
+
+    // Grava em "baseline" os campos de "resultado" que identificam e medem cada benchmark
+    @SuppressWarnings("unchecked")
+    static void salvarBaseline(Path resultado, Path baseline) throws IOException {
+        Object raiz = new Json(new String(Files.readAllBytes(resultado), StandardCharsets.UTF_8)).valor();
+        List<Object> saida = new ArrayList<>();
+        for (Object item : (List<Object>) raiz) {
+            Map<String, Object> r = (Map<String, Object>) item;
+            Map<String, Object> b = new LinkedHashMap<>();
+            for (String campo : new String[] { "jmhVersion", "benchmark", "mode", "threads", "forks", "warmupIterations",
+                    "warmupTime", "measurementIterations", "measurementTime", "params" }) {
+                if (r.containsKey(campo)) b.put(campo, r.get(campo));
+            }
+            b.put("primaryMetric", metrica((Map<String, Object>) r.get("primaryMetric")));
+            Map<String, Object> secundarias = (Map<String, Object>) r.get("secondaryMetrics");
+            if (secundarias != null && secundarias.get(ALOCACAO) != null) {
+                Map<String, Object> s = new LinkedHashMap<>();
+                s.put(ALOCACAO, metrica((Map<String, Object>) secundarias.get(ALOCACAO)));
+                b.put("secondaryMetrics", s);
+            }
+            saida.add(b);
+        }
+        StringBuilder sb = new StringBuilder();
+        Json.escrever(saida, sb, "");
+        Files.write(baseline, sb.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, Object> metrica(Map<String, Object> m) {
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("score", m.get("score"));
+        r.put("scoreError", m.get("scoreError"));
+        r.put("scoreUnit", m.get("scoreUnit"));
+        return r;
+    }
+
+    private static String alocacao(double v) {
+        return Double.isNaN(v) ? "-" : String.format("%.1f", v);
+    }
+
+    private static double zeroSeNaN(double v) {
+        return Double.isNaN(v) ? 0 : v;
+    }
+
+    // Lê o JSON do JMH e indexa por "benchmark:param=valor,..."
+    @SuppressWarnings("unchecked")
+    static Map<String, Medida> ler(Path arquivo) throws IOException {
+        Object raiz = new Json(new String(Files.readAllBytes(arquivo), StandardCharsets.UTF_8)).valor();
+        Map<String, Medida> medidas = new LinkedHashMap<>();
+        for (Object item : (List<Object>) raiz) {
+            Map<String, Object> r = (Map<String, Object>) item;
+            String nome = (String) r.get("benchmark");
+            StringBuilder chave = new StringBuilder(nome.substring(nome.lastIndexOf('.', nome.lastIndexOf('.') - 1) + 1));
+            Object params = r.get("params");
+            if (params != null) {
+                String sep = ":";
+                for (Map.Entry<String, Object> p : new TreeMap<>((Map<String, Object>) params).entrySet()) {
+                    chave.append(sep).append(p.getKey()).append('=').append(p.getValue());
+                    sep = ",";
+                }
+            }
+            Map<String, Object> primaria = (Map<String, Object>) r.get("primaryMetric");
+            double alocacao = Double.NaN;
+            Map<String, Object> secundarias = (Map<String, Object>) r.get("secondaryMetrics");
+            if (secundarias != null && secundarias.get(ALOCACAO) != null) {
+                alocacao = numero(((Map<String, Object>) secundarias.get(ALOCACAO)).get("score"));
+            }
+            medidas.put(chave.toString(), new Medida(chave.toString(), "thrpt".equals(r.get("mode")),
+                    numero(primaria.get("score")), numero(primaria.get("scoreError")),
+                    (String) primaria.get("scoreUnit"), alocacao));
+        }
+        return medidas;
+    }
+
+    // O JMH grava NaN e infinitos como texto
+    private static double numero(Object v) {
+        if (v instanceof Double) return (Double) v;
+        if (v instanceof String) return Double.parseDouble((String) v);
+        return Double.NaN;
+    }
+
+    // Leitor JSON mínimo: objetos viram LinkedHashMap, arrays ArrayList, números Double
+    static final class Json {
+        private final String s;
+        private int p;
+
+        Json(String s) {
+            this.s = s;
+        }
+
+        Object valor() {
+            espacos();
+            if (p >= s.length()) throw erro("fim inesperado");
+            char c = s.charAt(p);
+            switch (c) {
+                case '{': return objeto();
+                case '[': return lista();
+                case '"': return texto();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default: return numero();
+            }
+        }
+
+        private Map<String, Object> objeto() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            p++;
+            espacos();
+            if (s.charAt(p) == '}') {
+                p++;
+                return m;
+            }
+            while (true) {
+                espacos();
+                String chave = texto();
+                espacos();
+                esperar(':');
+                m.put(chave, valor());
+                espacos();
+                if (s.charAt(p++) == '}') return m;
+                if (s.charAt(p - 1) != ',') throw erro("esperado , ou }");
+            }
+        }
+
+        private List<Object> lista() {
+            List<Object> l = new ArrayList<>();
+            p++;
+            espacos();
+            if (s.charAt(p) == ']') {
+                p++;
+                return l;
+            }
+            while (true) {
+                l.add(valor());
+                espacos();
+                if (s.charAt(p++) == ']') return l;
+                if (s.charAt(p - 1) != ',') throw erro("esperado , ou ]");
+            }
+        }
+
+        private String texto() {
+            esperar('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = s.charAt(p++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = s.charAt(p++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u': sb.append((char) Integer.parseInt(s.substring(p, p + 4), 16)); p += 4; break;
+                    default: sb.append(e); // \" \\ \/
+                }
+            }
+        }
+
+        private Object numero() {
+            int inicio = p;
+            while (p < s.length() && "+-0123456789.eE".indexOf(s.charAt(p)) >= 0) p++;
+            if (inicio == p) throw erro("valor inválido");
+            return Double.parseDouble(s.substring(inicio, p));
+        }
+
+        private Object literal(String palavra, Object valor) {
+            if (!s.startsWith(palavra, p)) throw erro("valor inválido");
+            p += palavra.length();
+            return valor;
+        }
+
+        private void esperar(char c) {
+            if (p >= s.length() || s.charAt(p) != c) throw erro("esperado " + c);
+            p++;
+        }
+
+        private void espacos() {
+            while (p < s.length() && Character.isWhitespace(s.charAt(p))) p++;
+        }
+
+        private IllegalArgumentException erro(String msg) {
+            return new IllegalArgumentException("JSON inválido na posição " + p + ": " + msg);
+        }
+
+        // Escrita indentada dos mesmos tipos que o leitor produz
+        @SuppressWarnings("unchecked")
+        static void escrever(Object v, StringBuilder sb, String recuo) {
+            if (v instanceof Map) {
+                Map<String, Object> m = (Map<String, Object>) v;
+                sb.append('{');
+                String sep = "\n";
+                for (Map.Entry<String, Object> e : m.entrySet()) {
+                    sb.append(sep).append(recuo).append("    ");
+                    texto(e.getKey(), sb);
+                    sb.append(" : ");
+                    escrever(e.getValue(), sb, recuo + "    ");
+                    sep = ",\n";
+                }
+                sb.append(m.isEmpty() ? "" : "\n" + recuo).append('}');
+            } else if (v instanceof List) {
+                List<Object> l = (List<Object>) v;
+                sb.append('[');
+                String sep = "\n";
+                for (Object o : l) {
+                    sb.append(sep).append(recuo).append("    ");
+                    escrever(o, sb, recuo + "    ");
+                    sep = ",\n";
+                }
+                sb.append(l.isEmpty() ? "" : "\n" + recuo).append(']');
+            } else if (v instanceof Double) {
+                double d = (Double) v;
+                if (d == Math.rint(d) && Math.abs(d) < 1e15) sb.append((long) d);
+                else sb.append(d);
+            } else if (v instanceof String) {
+                texto((String) v, sb);
+            } else {
+                sb.append(v); // Boolean ou null
+            }
+        }
+
+        private static void texto(String s, StringBuilder sb) {
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"' || c == '\\') sb.append('\\').append(c);
+                else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                else sb.append(c);
+            }
+            sb.append('"');
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Main do benchmarks.jar: roda o JMH com o profiler de GC (alocação por operação e coletas), grava
+// o resultado em JSON e compara com a baseline guardada, saindo com código 1 se houver regressão.
+// Aceita todas as opções do JMH (filtro de benchmarks, -f, -wi, -i, -p, ...) e mais:
+//   --baseline ARQ       baseline a comparar (padrão benchmarks/baseline.json)
+//   --resultado ARQ      JSON desta execução (padrão benchmarks/target/jmh-resultado.json)
+//   --tolerancia PCT     piora aceita antes de acusar regressão (padrão 10)
+//   --salvar-baseline    grava esta execução como a nova baseline em vez de comparar
+// A baseline depende da máquina: grave-a (--salvar-baseline) na própria máquina que faz a checagem,
+// com o mesmo JDK; ela não fica no repositório.
+// Ex.: java -jar benchmarks/target/benchmarks.jar BenchmarkRisco --tolerancia 5
+public class ExecutarBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        Path baseline = Paths.get("benchmarks", "baseline.json");
+        Path resultado = Paths.get("benchmarks", "target", "jmh-resultado.json");
+        double tolerancia = 10;
+        boolean salvar = false;
+        List<String> jmh = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baseline": baseline = Paths.get(args[++i]); break;
+                case "--resultado": resultado = Paths.get(args[++i]); break;
+                case "--tolerancia": tolerancia = Double.parseDouble(args[++i]); break;
+                case "--salvar-baseline": salvar = true; break;
+                default: jmh.add(args[i]);
+            }
+        }
+
+        CommandLineOptions linha = new CommandLineOptions(jmh.toArray(new String[0]));
+        if (linha.shouldHelp()) {
+            linha.showHelp();
+            System.out.println("\nOpções da comparação: --baseline ARQ, --resultado ARQ, --tolerancia PCT, --salvar-baseline");
+            return;
+        }
+        if (linha.shouldList()) {
+            new Runner(linha).list();
+            return;
+        }
+
+        Path pasta = resultado.toAbsolutePath().getParent();
+        if (pasta != null) Files.createDirectories(pasta);
+        OptionsBuilder opcoes = new OptionsBuilder();
+        opcoes.parent(linha);
+        opcoes.resultFormat(ResultFormatType.JSON).result(resultado.toString());
+        if (linha.getProfilers().isEmpty()) opcoes.addProfiler(GCProfiler.class);
+        new Runner(opcoes.build()).run();
+
+        if (salvar) {
+            CompararResultados.salvarBaseline(resultado, baseline);
+            System.out.println("Baseline atualizada: " + baseline);
+        } else if (Files.exists(baseline)) {
+            int regressoes = CompararResultados.comparar(baseline, resultado, tolerancia, System.out);
+            if (regressoes > 0) System.exit(1);
+        } else {
+            System.out.println("Sem baseline em " + baseline + " (use --salvar-baseline para criar)");
+        }
+    }
+}